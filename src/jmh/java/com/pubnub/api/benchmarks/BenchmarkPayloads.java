@@ -0,0 +1,49 @@
+package com.pubnub.api.benchmarks;
+
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.UserId;
+import com.pubnub.api.vendor.Crypto;
+
+/**
+ * Payloads and configurations shared by the benchmarks, shaped like the production traffic of a chat application.
+ */
+public final class BenchmarkPayloads {
+    public static final String PUB_KEY = "pub-c-3f2a1c9e-4b5d-4e6f-8a7b-9c0d1e2f3a4b";
+    public static final String SUB_KEY = "sub-c-5e6f7a8b-9c0d-4e1f-2a3b-4c5d6e7f8a9b";
+    public static final String SECRET_KEY = "sec-c-7a8b9c0d1e2f3a4b5c6d7e8f9a0b1c2d3e4f5a6b";
+    public static final String CIPHER_KEY = "enigma";
+    public static final String MESSAGE = "{\"text\":\"hello from the benchmark\",\"sender\":\"benchmark-user\","
+            + "\"count\":42,\"tags\":[\"a\",\"b\",\"c\"]}";
+
+    private BenchmarkPayloads() {
+    }
+
+    public static PNConfiguration configuration(String cipherKey) throws PubNubException {
+        final PNConfiguration configuration = new PNConfiguration(new UserId("benchmark-user"));
+        configuration.setPublishKey(PUB_KEY);
+        configuration.setSubscribeKey(SUB_KEY);
+        configuration.setCipherKey(cipherKey);
+        configuration.setStartSubscriberThread(false);
+        return configuration;
+    }
+
+    /**
+     * Subscribe response with {@code messages} messages on as many channels, encrypted when a cipher key is given.
+     */
+    public static String subscribeEnvelope(int messages, String cipherKey) throws PubNubException {
+        final String payload = cipherKey == null
+                ? MESSAGE
+                : "\"" + new Crypto(cipherKey).encrypt(MESSAGE).replace("\n", "") + "\"";
+
+        final StringBuilder envelope = new StringBuilder("{\"t\":{\"t\":\"16843516340580911\",\"r\":12},\"m\":[");
+        for (int i = 0; i < messages; i++) {
+            envelope.append(i == 0 ? "" : ",")
+                    .append("{\"a\":\"2\",\"f\":0,\"i\":\"publisher-").append(i)
+                    .append("\",\"p\":{\"t\":\"").append(16843516340580911L + i).append("\",\"r\":12},")
+                    .append("\"k\":\"").append(SUB_KEY).append("\",\"c\":\"channel-").append(i)
+                    .append("\",\"d\":").append(payload).append('}');
+        }
+        return envelope.append("]}").toString();
+    }
+}
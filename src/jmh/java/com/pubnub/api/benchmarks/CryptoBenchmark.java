@@ -0,0 +1,101 @@
+package com.pubnub.api.benchmarks;
+
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.PubNubUtil;
+import com.pubnub.api.vendor.Base64;
+import com.pubnub.api.vendor.Crypto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message encryption, request signing and the Base64 coding both of them rely on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoBenchmark {
+    private static final int TIMESTAMP = 1684351634;
+
+    private Crypto crypto;
+    private Crypto randomIvCrypto;
+    private String cipherText;
+    private String randomIvCipherText;
+    private PNConfiguration configuration;
+    private Map<String, String> queryParams;
+    private byte[] bytes;
+    private String encoded;
+
+    @Setup
+    public void setUp() throws PubNubException {
+        crypto = new Crypto(BenchmarkPayloads.CIPHER_KEY);
+        randomIvCrypto = new Crypto(BenchmarkPayloads.CIPHER_KEY, true);
+        cipherText = crypto.encrypt(BenchmarkPayloads.MESSAGE);
+        randomIvCipherText = randomIvCrypto.encrypt(BenchmarkPayloads.MESSAGE);
+
+        configuration = BenchmarkPayloads.configuration(null);
+        configuration.setSecretKey(BenchmarkPayloads.SECRET_KEY);
+        queryParams = new HashMap<>();
+        queryParams.put("pnsdk", "PubNub-Java-Unified/6.3.4");
+        queryParams.put("uuid", "benchmark-user");
+        queryParams.put("requestid", "1a2b3c4d-5e6f-7081-92a3-b4c5d6e7f809");
+        queryParams.put("seqn", "42");
+        queryParams.put("timestamp", String.valueOf(TIMESTAMP));
+
+        bytes = BenchmarkPayloads.MESSAGE.getBytes(StandardCharsets.UTF_8);
+        encoded = Base64.encodeToString(bytes, Base64.NO_WRAP);
+    }
+
+    @Benchmark
+    public String encrypt() throws PubNubException {
+        return crypto.encrypt(BenchmarkPayloads.MESSAGE);
+    }
+
+    @Benchmark
+    public String decrypt() throws PubNubException {
+        return crypto.decrypt(cipherText);
+    }
+
+    @Benchmark
+    public String encryptWithRandomIv() throws PubNubException {
+        return randomIvCrypto.encrypt(BenchmarkPayloads.MESSAGE);
+    }
+
+    @Benchmark
+    public String decryptWithRandomIv() throws PubNubException {
+        return randomIvCrypto.decrypt(randomIvCipherText);
+    }
+
+    @Benchmark
+    public String generateSignature() {
+        return PubNubUtil.generateSignature(configuration,
+                "/publish/" + BenchmarkPayloads.PUB_KEY + "/" + BenchmarkPayloads.SUB_KEY + "/0/chat/0/%22hello%22",
+                queryParams, "get", null, TIMESTAMP);
+    }
+
+    @Benchmark
+    public String base64Encode() {
+        return Base64.encodeToString(bytes, Base64.NO_WRAP);
+    }
+
+    @Benchmark
+    public byte[] base64Decode() {
+        return Base64.decode(encoded, Base64.NO_WRAP);
+    }
+}
@@ -0,0 +1,73 @@
+package com.pubnub.api.benchmarks;
+
+import com.google.gson.JsonParser;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.managers.ListenerManager;
+import com.pubnub.api.models.consumer.pubsub.BasePubSubResult;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Announcing a message to every registered listener, the cost the subscribe thread pays once per message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListenerDispatchBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int listeners;
+
+    private PubNub pubnub;
+    private ListenerManager listenerManager;
+    private PNMessageResult message;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) throws PubNubException {
+        pubnub = new PubNub(BenchmarkPayloads.configuration(null));
+        listenerManager = new ListenerManager(pubnub);
+        for (int i = 0; i < listeners; i++) {
+            listenerManager.addListener(new SubscribeCallback.BaseSubscribeCallback() {
+                @Override
+                public void message(@NotNull PubNub pubnub, @NotNull PNMessageResult pnMessageResult) {
+                    blackhole.consume(pnMessageResult);
+                }
+            });
+        }
+        message = new PNMessageResult(BasePubSubResult.builder()
+                .channel("chat")
+                .timetoken(16843516340580911L)
+                .publisher("benchmark-user")
+                .build(), JsonParser.parseString(BenchmarkPayloads.MESSAGE));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pubnub.forceDestroy();
+    }
+
+    @Benchmark
+    public void announce() {
+        listenerManager.announce(message);
+    }
+}
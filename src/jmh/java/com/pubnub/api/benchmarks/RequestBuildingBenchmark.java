@@ -0,0 +1,113 @@
+package com.pubnub.api.benchmarks;
+
+import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.services.PresenceService;
+import com.pubnub.api.services.PublishService;
+import com.pubnub.api.services.SignalService;
+import com.pubnub.api.services.SubscribeService;
+import com.pubnub.api.services.direct.DirectPresenceService;
+import com.pubnub.api.services.direct.DirectPublishService;
+import com.pubnub.api.services.direct.DirectSignalService;
+import com.pubnub.api.services.direct.DirectSubscribeService;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import retrofit2.Retrofit;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building the requests of the hot path endpoints through Retrofit service proxies and directly.
+ * <p>
+ * Run with {@code ./gradlew jmh}, the gc profiler reports the allocation per request ({@code gc.alloc.rate.norm}).
+ * No request is sent, only the {@link Request} of each call is built. Both builders are measured in one run;
+ * {@code ./gradlew jmhBaseline} keeps it in {@code benchmarks/} so the two can be compared with later changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBuildingBenchmark {
+    private static final String PUB_KEY = "pub-c-3f2a1c9e-4b5d-4e6f-8a7b-9c0d1e2f3a4b";
+    private static final String SUB_KEY = "sub-c-5e6f7a8b-9c0d-4e1f-2a3b-4c5d6e7f8a9b";
+    private static final String MESSAGE = "%7B%22text%22%3A%22hello%22%2C%22count%22%3A42%7D";
+
+    @Param({"direct", "retrofit"})
+    private String builder;
+
+    private SubscribeService subscribeService;
+    private PublishService publishService;
+    private SignalService signalService;
+    private PresenceService presenceService;
+    private String channels;
+    private Map<String, String> params;
+
+    @Setup
+    public void setUp() {
+        final Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl("https://ps.pndsn.com")
+                .client(new OkHttpClient())
+                .addConverterFactory(new MapperManager().getConverterFactory())
+                .build();
+
+        publishService = retrofit.create(PublishService.class);
+        presenceService = retrofit.create(PresenceService.class);
+        subscribeService = retrofit.create(SubscribeService.class);
+        signalService = retrofit.create(SignalService.class);
+        if ("direct".equals(builder)) {
+            publishService = new DirectPublishService(retrofit, null, publishService);
+            presenceService = new DirectPresenceService(retrofit, null, presenceService);
+            subscribeService = new DirectSubscribeService(retrofit, null);
+            signalService = new DirectSignalService(retrofit, null);
+        }
+
+        final StringBuilder channelList = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            channelList.append(i == 0 ? "" : ",").append("channel-").append(i);
+        }
+        channels = channelList.toString();
+
+        params = new HashMap<>();
+        params.put("pnsdk", "PubNub-Java-Unified/6.3.4");
+        params.put("uuid", "benchmark-user");
+        params.put("instanceid", "0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0");
+        params.put("requestid", "1a2b3c4d-5e6f-7081-92a3-b4c5d6e7f809");
+        params.put("heartbeat", "300");
+        params.put("tt", "16843516340580911");
+        params.put("tr", "12");
+    }
+
+    @Benchmark
+    public Request subscribe() {
+        return subscribeService.subscribe(SUB_KEY, channels, params).request();
+    }
+
+    @Benchmark
+    public Request publish() {
+        return publishService.publish(PUB_KEY, SUB_KEY, "chat", MESSAGE, params).request();
+    }
+
+    @Benchmark
+    public Request signal() {
+        return signalService.signal(PUB_KEY, SUB_KEY, "chat", MESSAGE, params).request();
+    }
+
+    @Benchmark
+    public Request heartbeat() {
+        return presenceService.heartbeat(SUB_KEY, channels, params).request();
+    }
+}
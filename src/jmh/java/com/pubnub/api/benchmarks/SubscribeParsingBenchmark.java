@@ -0,0 +1,73 @@
+package com.pubnub.api.benchmarks;
+
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.managers.DuplicationManager;
+import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.models.server.SubscribeEnvelope;
+import com.pubnub.api.models.server.SubscribeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of subscribe responses and the duplicate check every received message goes through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubscribeParsingBenchmark {
+
+    @Param({"1", "100"})
+    private int messages;
+
+    private MapperManager mapper;
+    private String envelope;
+    private DuplicationManager duplicationManager;
+    private List<SubscribeMessage> received;
+    private int next;
+
+    @Setup
+    public void setUp() throws PubNubException {
+        mapper = new MapperManager();
+        envelope = BenchmarkPayloads.subscribeEnvelope(messages, null);
+
+        // the history is kept full, as it is on a busy subscription, so every entry added evicts the oldest one
+        final PNConfiguration configuration = BenchmarkPayloads.configuration(null);
+        duplicationManager = new DuplicationManager(configuration);
+        final String history = BenchmarkPayloads.subscribeEnvelope(configuration.getMaximumMessagesCacheSize(), null);
+        for (SubscribeMessage message : mapper.fromJson(history, SubscribeEnvelope.class).getMessages()) {
+            duplicationManager.addEntry(message);
+        }
+        received = mapper.fromJson(BenchmarkPayloads.subscribeEnvelope(messages, null), SubscribeEnvelope.class)
+                .getMessages();
+    }
+
+    @Benchmark
+    public SubscribeEnvelope deserializeEnvelope() throws PubNubException {
+        return mapper.fromJson(envelope, SubscribeEnvelope.class);
+    }
+
+    @Benchmark
+    public boolean deduplicate() {
+        final SubscribeMessage message = received.get(next);
+        next = (next + 1) % received.size();
+        final boolean duplicate = duplicationManager.isDuplicate(message);
+        duplicationManager.addEntry(message);
+        return duplicate;
+    }
+}
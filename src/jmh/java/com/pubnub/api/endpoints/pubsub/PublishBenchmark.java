@@ -0,0 +1,79 @@
+package com.pubnub.api.endpoints.pubsub;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.benchmarks.BenchmarkPayloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import retrofit2.Call;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes, optionally encrypts and encodes a message into the parameters of a publish call. Lives in the package
+ * of {@link Publish} to reach {@code doWork}; the returned call is not executed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublishBenchmark {
+
+    @Param({"none", BenchmarkPayloads.CIPHER_KEY})
+    private String cipherKey;
+
+    private PubNub pubnub;
+    private Publish publish;
+    private Map<String, String> baseParams;
+
+    @Setup
+    public void setUp() throws PubNubException {
+        pubnub = new PubNub(BenchmarkPayloads.configuration("none".equals(cipherKey) ? null : cipherKey));
+
+        final Map<String, Object> message = new LinkedHashMap<>();
+        message.put("text", "hello from the benchmark");
+        message.put("sender", "benchmark-user");
+        message.put("count", 42);
+        message.put("tags", Arrays.asList("a", "b", "c"));
+        final Map<String, Object> meta = new HashMap<>();
+        meta.put("lang", "en");
+
+        publish = pubnub.publish()
+                .channel("chat")
+                .message(message)
+                .meta(meta)
+                .shouldStore(true);
+
+        baseParams = new HashMap<>();
+        baseParams.put("pnsdk", "PubNub-Java-Unified/6.3.4");
+        baseParams.put("uuid", "benchmark-user");
+        baseParams.put("requestid", "1a2b3c4d-5e6f-7081-92a3-b4c5d6e7f809");
+    }
+
+    @TearDown
+    public void tearDown() {
+        pubnub.forceDestroy();
+    }
+
+    @Benchmark
+    public Call<List<Object>> doWork() throws PubNubException {
+        return publish.doWork(new HashMap<>(baseParams));
+    }
+}
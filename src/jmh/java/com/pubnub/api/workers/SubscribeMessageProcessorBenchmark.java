@@ -0,0 +1,63 @@
+package com.pubnub.api.workers;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.benchmarks.BenchmarkPayloads;
+import com.pubnub.api.managers.DuplicationManager;
+import com.pubnub.api.models.consumer.pubsub.PNEvent;
+import com.pubnub.api.models.server.SubscribeEnvelope;
+import com.pubnub.api.models.server.SubscribeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns a received message into the event announced to the listeners, with and without decrypting it. Lives in the
+ * package of {@link SubscribeMessageProcessor} to reach {@code processIncomingPayload}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubscribeMessageProcessorBenchmark {
+
+    @Param({"none", BenchmarkPayloads.CIPHER_KEY})
+    private String cipherKey;
+
+    private PubNub pubnub;
+    private SubscribeMessageProcessor processor;
+    private SubscribeMessage message;
+
+    @Setup
+    public void setUp() throws PubNubException {
+        final String key = "none".equals(cipherKey) ? null : cipherKey;
+        pubnub = new PubNub(BenchmarkPayloads.configuration(key));
+        processor = new SubscribeMessageProcessor(pubnub, new DuplicationManager(pubnub.getConfiguration()));
+        message = pubnub.getMapper().fromJson(BenchmarkPayloads.subscribeEnvelope(1, key), SubscribeEnvelope.class)
+                .getMessages()
+                .get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pubnub.forceDestroy();
+    }
+
+    @Benchmark
+    public PNEvent processIncomingPayload() throws PubNubException {
+        return processor.processIncomingPayload(message);
+    }
+}
@@ -0,0 +1,262 @@
+package com.pubnub.api.loadtest;
+
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.UserId;
+import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs many clients against a {@link StandInServer}: every client subscribes to one of the load channels and
+ * publishes to it at a fixed rate, and every received message is timed from its creation to its delivery.
+ * <p>
+ * Run with {@code ./gradlew loadDriver -Dloadtest.clients=100 -Dloadtest.durationMillis=600000}, the options are
+ * read from the {@code loadtest.*} system properties named after the fields of {@link Options}.
+ */
+public final class LoadDriver {
+    static final String PUBLISH_KEY = "load-test-pub-key";
+    static final String SUBSCRIBE_KEY = "load-test-sub-key";
+    private static final String CHANNEL_PREFIX = "load-";
+    private static final long TICK_MILLIS = 10;
+    private static final long HEAP_SAMPLE_MILLIS = 100;
+    private static final long CONNECT_TIMEOUT_SECONDS = 30;
+
+    private LoadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final Options options = Options.fromSystemProperties();
+        final StandInServer.Config config = new StandInServer.Config()
+                .latency(Long.getLong("loadtest.latencyMillis", 0), Long.getLong("loadtest.latencyJitterMillis", 0))
+                .tooManyRequestsRate(Double.parseDouble(System.getProperty("loadtest.tooManyRequestsRate", "0")))
+                .serverErrorRate(Double.parseDouble(System.getProperty("loadtest.serverErrorRate", "0")))
+                .dropRate(Double.parseDouble(System.getProperty("loadtest.dropRate", "0")));
+        try (StandInServer server = StandInServer.start(config)) {
+            System.out.println(run(server, options));
+        }
+    }
+
+    public static LoadReport run(StandInServer server, Options options) throws PubNubException, InterruptedException {
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        final long gcCountBefore = gcCount();
+        final long gcTimeBefore = gcTimeMillis();
+        final long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        final AtomicLong heapPeak = new AtomicLong(heapBefore);
+
+        final LatencyRecorder latencies = new LatencyRecorder();
+        final AtomicLong received = new AtomicLong();
+        final AtomicLong publishErrors = new AtomicLong();
+        final AtomicLong publishesInFlight = new AtomicLong();
+        final CountDownLatch connected = new CountDownLatch(options.clients);
+        final Map<String, Integer> subscribers = new HashMap<>();
+        final List<PubNub> clients = new ArrayList<>();
+        final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+        try {
+            for (int i = 0; i < options.clients; i++) {
+                final String channel = CHANNEL_PREFIX + (i % options.channels);
+                subscribers.merge(channel, 1, Integer::sum);
+                final PubNub client = createClient(server, i);
+                client.addListener(new SubscribeCallback.BaseSubscribeCallback() {
+                    @Override
+                    public void status(@NotNull PubNub pubnub, @NotNull PNStatus pnStatus) {
+                        if (pnStatus.getCategory() == PNStatusCategory.PNConnectedCategory) {
+                            connected.countDown();
+                        }
+                    }
+
+                    @Override
+                    public void message(@NotNull PubNub pubnub, @NotNull PNMessageResult pnMessageResult) {
+                        received.incrementAndGet();
+                        final long latency = LoadMessages.latencyNanos(pnMessageResult.getMessage());
+                        if (latency >= 0) {
+                            latencies.record(latency);
+                        }
+                    }
+                });
+                client.subscribe().channels(Collections.singletonList(channel)).execute();
+                clients.add(client);
+            }
+            if (!connected.await(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException(connected.getCount() + " clients did not connect");
+            }
+
+            final Map<String, Long> publishedBefore = new HashMap<>();
+            for (String channel : subscribers.keySet()) {
+                publishedBefore.put(channel, server.getPublishedCount(channel));
+            }
+            final long receivedBefore = received.get();
+            final long start = System.nanoTime();
+
+            scheduler.scheduleAtFixedRate(() -> heapPeak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(),
+                    Math::max), 0, HEAP_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+            final double perTick = options.publishesPerSecondPerClient * TICK_MILLIS / 1000.0;
+            scheduler.scheduleAtFixedRate(new Runnable() {
+                private double due;
+
+                @Override
+                public void run() {
+                    due += perTick;
+                    for (; due >= 1; due--) {
+                        for (int i = 0; i < clients.size(); i++) {
+                            publishesInFlight.incrementAndGet();
+                            clients.get(i).publish()
+                                    .channel(CHANNEL_PREFIX + (i % options.channels))
+                                    .message(LoadMessages.create(options.payloadBytes))
+                                    .async((result, status) -> {
+                                        if (status.isError()) {
+                                            publishErrors.incrementAndGet();
+                                        }
+                                        publishesInFlight.decrementAndGet();
+                                    });
+                        }
+                    }
+                }
+            }, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+
+            Thread.sleep(options.durationMillis);
+            scheduler.shutdownNow();
+            final long drainDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(options.drainMillis);
+            while (System.nanoTime() < drainDeadline && (publishesInFlight.get() > 0
+                    || received.get() - receivedBefore < expected(server, subscribers, publishedBefore))) {
+                Thread.sleep(TICK_MILLIS);
+            }
+
+            final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long published = 0;
+            for (Map.Entry<String, Integer> channel : subscribers.entrySet()) {
+                published += server.getPublishedCount(channel.getKey()) - publishedBefore.get(channel.getKey());
+            }
+            final long expected = expected(server, subscribers, publishedBefore);
+
+            return new LoadReport(options.clients, elapsedMillis, published, publishErrors.get(),
+                    received.get() - receivedBefore, expected, latencies,
+                    heapBefore, memory.getHeapMemoryUsage().getUsed(), heapPeak.get(),
+                    gcCount() - gcCountBefore, gcTimeMillis() - gcTimeBefore, server.getStats());
+        } finally {
+            scheduler.shutdownNow();
+            for (PubNub client : clients) {
+                client.unsubscribeAll();
+                client.forceDestroy();
+            }
+        }
+    }
+
+    /**
+     * Deliveries of the messages the server accepted since {@code publishedBefore}, one per subscriber.
+     */
+    private static long expected(StandInServer server,
+                                 Map<String, Integer> subscribers,
+                                 Map<String, Long> publishedBefore) {
+        long expected = 0;
+        for (Map.Entry<String, Integer> channel : subscribers.entrySet()) {
+            final long count = server.getPublishedCount(channel.getKey()) - publishedBefore.get(channel.getKey());
+            expected += count * channel.getValue();
+        }
+        return expected;
+    }
+
+    private static PubNub createClient(StandInServer server, int index) throws PubNubException {
+        final PNConfiguration configuration = new PNConfiguration(new UserId("load-client-" + index));
+        configuration.setOrigin(server.getOrigin());
+        configuration.setSecure(false);
+        configuration.setPublishKey(PUBLISH_KEY);
+        configuration.setSubscribeKey(SUBSCRIBE_KEY);
+        return new PubNub(configuration);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTimeMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+
+    /**
+     * Shape of a load run.
+     */
+    public static final class Options {
+        private int clients = 10;
+        private int channels = 10;
+        private double publishesPerSecondPerClient = 10;
+        private int payloadBytes = 64;
+        private long durationMillis = 30_000;
+        private long drainMillis = 30_000;
+
+        static Options fromSystemProperties() {
+            return new Options()
+                    .clients(Integer.getInteger("loadtest.clients", 10))
+                    .channels(Integer.getInteger("loadtest.channels", 10))
+                    .publishesPerSecondPerClient(Double.parseDouble(
+                            System.getProperty("loadtest.publishesPerSecondPerClient", "10")))
+                    .payloadBytes(Integer.getInteger("loadtest.payloadBytes", 64))
+                    .durationMillis(Long.getLong("loadtest.durationMillis", 30_000))
+                    .drainMillis(Long.getLong("loadtest.drainMillis", 30_000));
+        }
+
+        public Options clients(int clients) {
+            this.clients = clients;
+            return this;
+        }
+
+        /**
+         * Number of channels the clients are spread over, each message is received by every client of its channel.
+         */
+        public Options channels(int channels) {
+            this.channels = channels;
+            return this;
+        }
+
+        public Options publishesPerSecondPerClient(double publishesPerSecondPerClient) {
+            this.publishesPerSecondPerClient = publishesPerSecondPerClient;
+            return this;
+        }
+
+        public Options payloadBytes(int payloadBytes) {
+            this.payloadBytes = payloadBytes;
+            return this;
+        }
+
+        public Options durationMillis(long durationMillis) {
+            this.durationMillis = durationMillis;
+            return this;
+        }
+
+        /**
+         * Longest time left to the subscribers to receive the last messages once publishing stopped. The run ends
+         * as soon as every accepted message has been received.
+         */
+        public Options drainMillis(long drainMillis) {
+            this.drainMillis = drainMillis;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.pubnub.api.loadtest;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Arrays;
+
+/**
+ * Messages carrying the {@link System#nanoTime()} they were created at, so their end-to-end latency can be measured
+ * when clients and server share the JVM.
+ */
+final class LoadMessages {
+    private static final String SENT_AT = "sentAt";
+    private static final String PADDING = "padding";
+
+    private LoadMessages() {
+    }
+
+    static JsonObject create(int payloadBytes) {
+        final char[] padding = new char[payloadBytes];
+        Arrays.fill(padding, 'x');
+        final JsonObject message = new JsonObject();
+        message.addProperty(SENT_AT, System.nanoTime());
+        message.addProperty(PADDING, new String(padding));
+        return message;
+    }
+
+    /**
+     * Nanoseconds since the message was created, or -1 when it was not created by {@link #create(int)}.
+     */
+    static long latencyNanos(JsonElement message) {
+        if (message == null || !message.isJsonObject() || !message.getAsJsonObject().has(SENT_AT)) {
+            return -1;
+        }
+        return System.nanoTime() - message.getAsJsonObject().get(SENT_AT).getAsLong();
+    }
+}
@@ -0,0 +1,123 @@
+package com.pubnub.api.loadtest;
+
+import java.util.Locale;
+
+/**
+ * Outcome of a {@link LoadDriver} run. Latencies are end-to-end, from the creation of a message by its publisher to
+ * its delivery to a subscriber's listener.
+ */
+public final class LoadReport {
+    private static final double BYTES_IN_MEGABYTE = 1024.0 * 1024.0;
+    private static final double P50 = 0.50;
+    private static final double P95 = 0.95;
+    private static final double P99 = 0.99;
+
+    private final int clients;
+    private final long elapsedMillis;
+    private final long published;
+    private final long publishErrors;
+    private final long received;
+    private final long expected;
+    private final double p50Millis;
+    private final double p95Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+    private final long heapUsedBefore;
+    private final long heapUsedAfter;
+    private final long heapUsedPeak;
+    private final long gcCount;
+    private final long gcTimeMillis;
+    private final StandInServer.Stats serverStats;
+
+    LoadReport(int clients, long elapsedMillis, long published, long publishErrors, long received, long expected,
+               LatencyRecorder latencies, long heapUsedBefore, long heapUsedAfter, long heapUsedPeak, long gcCount,
+               long gcTimeMillis, StandInServer.Stats serverStats) {
+        this.clients = clients;
+        this.elapsedMillis = elapsedMillis;
+        this.published = published;
+        this.publishErrors = publishErrors;
+        this.received = received;
+        this.expected = expected;
+        this.p50Millis = latencies.percentileMillis(P50);
+        this.p95Millis = latencies.percentileMillis(P95);
+        this.p99Millis = latencies.percentileMillis(P99);
+        this.maxMillis = latencies.getMaxMillis();
+        this.heapUsedBefore = heapUsedBefore;
+        this.heapUsedAfter = heapUsedAfter;
+        this.heapUsedPeak = heapUsedPeak;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+        this.serverStats = serverStats;
+    }
+
+    public long getPublished() {
+        return published;
+    }
+
+    public long getPublishErrors() {
+        return publishErrors;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    /**
+     * Deliveries of the messages published during the run, one per subscriber of their channel.
+     */
+    public long getExpected() {
+        return expected;
+    }
+
+    public double getMessagesPerSecond() {
+        return elapsedMillis == 0 ? 0 : received * 1000.0 / elapsedMillis;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP95Millis() {
+        return p95Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public long getHeapUsedPeak() {
+        return heapUsedPeak;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public long getGcTimeMillis() {
+        return gcTimeMillis;
+    }
+
+    public StandInServer.Stats getServerStats() {
+        return serverStats;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "clients: %d, elapsed: %d ms%n"
+                        + "published: %d, publish errors: %d%n"
+                        + "received: %d of %d expected, %.1f msg/s%n"
+                        + "latency ms: p50 %.2f, p95 %.2f, p99 %.2f, max %.2f%n"
+                        + "heap MB: before %.1f, peak %.1f, after %.1f%n"
+                        + "gc: %d collections, %d ms%n"
+                        + "server: %s",
+                clients, elapsedMillis, published, publishErrors, received, expected, getMessagesPerSecond(),
+                p50Millis, p95Millis, p99Millis, maxMillis,
+                heapUsedBefore / BYTES_IN_MEGABYTE, heapUsedPeak / BYTES_IN_MEGABYTE,
+                heapUsedAfter / BYTES_IN_MEGABYTE, gcCount, gcTimeMillis, serverStats);
+    }
+}
@@ -0,0 +1,611 @@
+package com.pubnub.api.loadtest;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the PubNub service, serving the subscribe long-poll, publish, signal, heartbeat, leave,
+ * time and history endpoints over plain HTTP so load and soak tests can run offline.
+ * <p>
+ * Messages are kept per channel, up to {@link Config#historySize(int)} each, and handed to the subscribe long-polls
+ * waiting for them. Every request can be delayed and failed with a 429, a 503, a timeout or a connection closed
+ * without a response, at the rates of the {@link Config}. Subscribe requests are only failed when
+ * {@link Config#failSubscribe(boolean)} is set, otherwise the failures would mostly measure the reconnection policy.
+ * <p>
+ * History ignores the {@code start} and {@code end} parameters and returns the latest messages of each channel.
+ */
+public class StandInServer implements Closeable {
+    private static final int BACKLOG = 1024;
+    private static final long TIMETOKENS_IN_MILLISECOND = 10_000L;
+    private static final int MAX_SUBSCRIBE_MESSAGES = 100;
+    private static final int DEFAULT_HISTORY_COUNT = 100;
+    private static final int DEFAULT_MULTI_CHANNEL_HISTORY_COUNT = 25;
+    private static final int GENERATOR_TICK_MILLIS = 10;
+    private static final String GENERATED_PUBLISHER = "stand-in-generator";
+    private static final String PRESENCE_OK = "{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\"}";
+
+    private final Config config;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService generator;
+    private final Gson gson = new Gson();
+
+    private final Object lock = new Object();
+    private final Map<String, Deque<Message>> channels = new HashMap<>();
+    private long lastTimetoken;
+
+    private final Map<String, AtomicLong> published = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong tooManyRequests = new AtomicLong();
+    private final AtomicLong serverErrors = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong droppedConnections = new AtomicLong();
+
+    private StandInServer(Config config) throws IOException {
+        this.config = config;
+        this.executor = Executors.newCachedThreadPool(daemonThreads("stand-in-server"));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), config.port), BACKLOG);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        this.generator = Executors.newSingleThreadScheduledExecutor(daemonThreads("stand-in-generator"));
+    }
+
+    public static StandInServer start(Config config) throws IOException {
+        final StandInServer standInServer = new StandInServer(config);
+        standInServer.server.start();
+        if (config.generatedMessagesPerSecond > 0 && !config.generatedChannels.isEmpty()) {
+            standInServer.startGenerator();
+        }
+        return standInServer;
+    }
+
+    /**
+     * Origin to configure the clients with, together with {@code setSecure(false)}.
+     */
+    public String getOrigin() {
+        return "localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Publishes a message as if a client had, waking up the subscribers of the channel.
+     */
+    public long publish(String channel, JsonElement payload, String publisher) {
+        return store(channel, payload, publisher, null);
+    }
+
+    /**
+     * Number of messages and signals published on a channel since the server started.
+     */
+    public long getPublishedCount(String channel) {
+        final AtomicLong count = published.get(channel);
+        return count == null ? 0 : count.get();
+    }
+
+    public Stats getStats() {
+        return new Stats(requests.get(), tooManyRequests.get(), serverErrors.get(), timeouts.get(),
+                droppedConnections.get());
+    }
+
+    @Override
+    public void close() {
+        generator.shutdownNow();
+        server.stop(0);
+        executor.shutdownNow();
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    private void startGenerator() {
+        final double perTick = config.generatedMessagesPerSecond * GENERATOR_TICK_MILLIS / 1000.0;
+        final AtomicInteger nextChannel = new AtomicInteger();
+        generator.scheduleAtFixedRate(new Runnable() {
+            private double due;
+
+            @Override
+            public void run() {
+                due += perTick;
+                for (; due >= 1; due--) {
+                    final List<String> targets = config.generatedChannels;
+                    final String channel = targets.get(Math.floorMod(nextChannel.getAndIncrement(), targets.size()));
+                    store(channel, LoadMessages.create(config.generatedPayloadBytes), GENERATED_PUBLISHER, null);
+                }
+            }
+        }, GENERATOR_TICK_MILLIS, GENERATOR_TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.incrementAndGet();
+            final String[] segments = exchange.getRequestURI().getRawPath().replaceFirst("^/+", "").split("/");
+            final Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            final boolean subscribe = segments.length > 1 && "v2".equals(segments[0])
+                    && "subscribe".equals(segments[1]);
+
+            sleep(config.latencyMillis + (config.latencyJitterMillis > 0
+                    ? ThreadLocalRandom.current().nextLong(config.latencyJitterMillis + 1)
+                    : 0));
+            if ((!subscribe || config.failSubscribe) && injectFailure(exchange)) {
+                return;
+            }
+            route(exchange, segments, query);
+        } catch (RuntimeException e) {
+            respond(exchange, 500, "{\"status\":500,\"error\":true,\"message\":\"" + e + "\"}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean injectFailure(HttpExchange exchange) throws IOException {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if ((roll -= config.tooManyRequestsRate) < 0) {
+            tooManyRequests.incrementAndGet();
+            respond(exchange, 429, "{\"status\":429,\"error\":true,\"message\":\"Too many requests.\"}");
+            return true;
+        }
+        if ((roll -= config.serverErrorRate) < 0) {
+            serverErrors.incrementAndGet();
+            respond(exchange, 503, "{\"status\":503,\"error\":true,\"message\":\"Service Unavailable\"}");
+            return true;
+        }
+        if ((roll -= config.timeoutRate) < 0) {
+            timeouts.incrementAndGet();
+            sleep(config.timeoutMillis);
+            return true;
+        }
+        if (roll - config.dropRate < 0) {
+            // closing the exchange before any response is sent closes the connection
+            droppedConnections.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void route(HttpExchange exchange, String[] segments, Map<String, String> query) throws IOException {
+        final String root = segments[0];
+        if ("v2".equals(root) && segments.length > 3 && "subscribe".equals(segments[1])) {
+            subscribe(exchange, segments[2], decode(segments[3]), query);
+        } else if (("publish".equals(root) || "signal".equals(root)) && segments.length > 4) {
+            final String message = segments.length > 6 ? decode(segments[6]) : readBody(exchange);
+            final Integer type = "signal".equals(root) ? 1 : null;
+            final long timetoken;
+            try {
+                timetoken = store(decode(segments[4]), JsonParser.parseString(message), query.get("uuid"), type);
+            } catch (JsonParseException e) {
+                respond(exchange, 400, "[0,\"Invalid JSON\",\"0\"]");
+                return;
+            }
+            respond(exchange, 200, "[1,\"Sent\",\"" + timetoken + "\"]");
+        } else if ("v2".equals(root) && segments.length > 6 && "presence".equals(segments[1])) {
+            respond(exchange, 200, PRESENCE_OK);
+        } else if ("v2".equals(root) && segments.length > 5 && "history".equals(segments[1])) {
+            history(exchange, decode(segments[5]), query);
+        } else if ("v3".equals(root) && segments.length > 5 && "history".equals(segments[1])) {
+            fetchMessages(exchange, decode(segments[5]), query);
+        } else if ("time".equals(root)) {
+            respond(exchange, 200, "[" + currentTimetoken() + "]");
+        } else {
+            respond(exchange, 404, "{\"status\":404,\"error\":true,\"message\":\"Not Found\"}");
+        }
+    }
+
+    private void subscribe(HttpExchange exchange, String subscribeKey, String channelList, Map<String, String> query)
+            throws IOException {
+        final long since = query.containsKey("tt") ? Long.parseLong(query.get("tt")) : 0;
+        final List<String> subscribed = new ArrayList<>();
+        for (String channel : channelList.split(",")) {
+            if (!channel.isEmpty()) {
+                subscribed.add(channel);
+            }
+        }
+
+        List<Message> messages = Collections.emptyList();
+        long timetoken;
+        synchronized (lock) {
+            // messages published from now on get a later timetoken than the one handed out
+            lastTimetoken = Math.max(lastTimetoken, System.currentTimeMillis() * TIMETOKENS_IN_MILLISECOND);
+            timetoken = lastTimetoken;
+            if (since > 0) {
+                final long deadline = System.currentTimeMillis() + config.longPollMillis;
+                messages = collect(subscribed, since);
+                long remaining = config.longPollMillis;
+                while (messages.isEmpty() && remaining > 0 && !executor.isShutdown()) {
+                    try {
+                        lock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    messages = collect(subscribed, since);
+                    remaining = deadline - System.currentTimeMillis();
+                }
+                timetoken = messages.isEmpty()
+                        ? Math.max(since, lastTimetoken)
+                        : messages.get(messages.size() - 1).timetoken;
+            }
+        }
+
+        final JsonObject envelope = new JsonObject();
+        final JsonObject cursor = new JsonObject();
+        cursor.addProperty("t", String.valueOf(timetoken));
+        cursor.addProperty("r", 1);
+        envelope.add("t", cursor);
+        final JsonArray items = new JsonArray();
+        for (Message message : messages) {
+            final JsonObject item = new JsonObject();
+            item.addProperty("a", "1");
+            item.addProperty("f", 0);
+            if (message.publisher != null) {
+                item.addProperty("i", message.publisher);
+            }
+            final JsonObject publishMetaData = new JsonObject();
+            publishMetaData.addProperty("t", String.valueOf(message.timetoken));
+            publishMetaData.addProperty("r", 1);
+            item.add("p", publishMetaData);
+            item.addProperty("k", subscribeKey);
+            item.addProperty("c", message.channel);
+            item.add("d", message.payload);
+            if (message.type != null) {
+                item.addProperty("e", message.type);
+            }
+            items.add(item);
+        }
+        envelope.add("m", items);
+        respond(exchange, 200, gson.toJson(envelope));
+    }
+
+    private void history(HttpExchange exchange, String channel, Map<String, String> query) throws IOException {
+        final boolean includeTimetoken = "true".equals(query.get("include_token"));
+        final List<Message> messages = latest(channel, count(query.get("count"), DEFAULT_HISTORY_COUNT));
+
+        final JsonArray items = new JsonArray();
+        for (Message message : messages) {
+            if (includeTimetoken) {
+                final JsonObject item = new JsonObject();
+                item.add("message", message.payload);
+                item.add("timetoken", new JsonPrimitive(message.timetoken));
+                items.add(item);
+            } else {
+                items.add(message.payload);
+            }
+        }
+        final JsonArray response = new JsonArray();
+        response.add(items);
+        response.add(messages.isEmpty() ? 0 : messages.get(0).timetoken);
+        response.add(messages.isEmpty() ? 0 : messages.get(messages.size() - 1).timetoken);
+        respond(exchange, 200, gson.toJson(response));
+    }
+
+    private void fetchMessages(HttpExchange exchange, String channelList, Map<String, String> query)
+            throws IOException {
+        final String[] requested = channelList.split(",");
+        final int max = count(query.get("max"),
+                requested.length > 1 ? DEFAULT_MULTI_CHANNEL_HISTORY_COUNT : DEFAULT_HISTORY_COUNT);
+
+        final JsonObject result = new JsonObject();
+        for (String channel : requested) {
+            final JsonArray items = new JsonArray();
+            for (Message message : latest(channel, max)) {
+                final JsonObject item = new JsonObject();
+                item.add("message", message.payload);
+                item.addProperty("timetoken", String.valueOf(message.timetoken));
+                if (message.publisher != null) {
+                    item.addProperty("uuid", message.publisher);
+                }
+                items.add(item);
+            }
+            result.add(channel, items);
+        }
+        final JsonObject response = new JsonObject();
+        response.addProperty("status", 200);
+        response.addProperty("error", false);
+        response.addProperty("error_message", "");
+        response.add("channels", result);
+        respond(exchange, 200, gson.toJson(response));
+    }
+
+    private long store(String channel, JsonElement payload, String publisher, Integer type) {
+        final long timetoken;
+        synchronized (lock) {
+            timetoken = Math.max(lastTimetoken + 1, System.currentTimeMillis() * TIMETOKENS_IN_MILLISECOND);
+            lastTimetoken = timetoken;
+            final Deque<Message> log = channels.computeIfAbsent(channel, key -> new ArrayDeque<>());
+            if (log.size() >= config.historySize) {
+                log.removeFirst();
+            }
+            log.addLast(new Message(channel, timetoken, payload, publisher, type));
+            lock.notifyAll();
+        }
+        published.computeIfAbsent(channel, key -> new AtomicLong()).incrementAndGet();
+        return timetoken;
+    }
+
+    /**
+     * Messages of the channels published after {@code since}, oldest first. Must be called holding the lock.
+     */
+    private List<Message> collect(List<String> subscribed, long since) {
+        final List<Message> messages = new ArrayList<>();
+        for (String channel : subscribed) {
+            final Deque<Message> log = channels.get(channel);
+            if (log == null || log.isEmpty() || log.peekLast().timetoken <= since) {
+                continue;
+            }
+            final Iterator<Message> newestFirst = log.descendingIterator();
+            final int start = messages.size();
+            while (newestFirst.hasNext()) {
+                final Message message = newestFirst.next();
+                if (message.timetoken <= since) {
+                    break;
+                }
+                messages.add(message);
+            }
+            Collections.reverse(messages.subList(start, messages.size()));
+        }
+        if (subscribed.size() > 1) {
+            messages.sort((first, second) -> Long.compare(first.timetoken, second.timetoken));
+        }
+        return messages.size() > MAX_SUBSCRIBE_MESSAGES ? messages.subList(0, MAX_SUBSCRIBE_MESSAGES) : messages;
+    }
+
+    private List<Message> latest(String channel, int count) {
+        synchronized (lock) {
+            final Deque<Message> log = channels.get(channel);
+            if (log == null) {
+                return Collections.emptyList();
+            }
+            final List<Message> messages = new ArrayList<>(log);
+            return new ArrayList<>(messages.subList(Math.max(0, messages.size() - count), messages.size()));
+        }
+    }
+
+    private long currentTimetoken() {
+        synchronized (lock) {
+            return Math.max(lastTimetoken, System.currentTimeMillis() * TIMETOKENS_IN_MILLISECOND);
+        }
+    }
+
+    private static int count(String value, int defaultCount) {
+        return value == null ? defaultCount : Integer.parseInt(value);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            for (int read; (read = requestBody.read(buffer)) != -1; ) {
+                body.write(buffer, 0, read);
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        final Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            final int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                query.put(decode(parameter.substring(0, separator)), decode(parameter.substring(separator + 1)));
+            }
+        }
+        return query;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value.replace("+", "%2B"), "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Message {
+        private final String channel;
+        private final long timetoken;
+        private final JsonElement payload;
+        private final String publisher;
+        private final Integer type;
+
+        private Message(String channel, long timetoken, JsonElement payload, String publisher, Integer type) {
+            this.channel = channel;
+            this.timetoken = timetoken;
+            this.payload = payload;
+            this.publisher = publisher;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Requests served and failures injected since the server started.
+     */
+    public static final class Stats {
+        private final long requests;
+        private final long tooManyRequests;
+        private final long serverErrors;
+        private final long timeouts;
+        private final long droppedConnections;
+
+        private Stats(long requests, long tooManyRequests, long serverErrors, long timeouts, long droppedConnections) {
+            this.requests = requests;
+            this.tooManyRequests = tooManyRequests;
+            this.serverErrors = serverErrors;
+            this.timeouts = timeouts;
+            this.droppedConnections = droppedConnections;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getInjectedFailures() {
+            return tooManyRequests + serverErrors + timeouts + droppedConnections;
+        }
+
+        @Override
+        public String toString() {
+            return "requests=" + requests + ", 429=" + tooManyRequests + ", 503=" + serverErrors
+                    + ", timeouts=" + timeouts + ", dropped=" + droppedConnections;
+        }
+    }
+
+    /**
+     * Behaviour of a {@link StandInServer}, rates are probabilities between 0 and 1 applied to every request.
+     */
+    public static final class Config {
+        private int port;
+        private long longPollMillis = 280_000;
+        private int historySize = 1000;
+        private long latencyMillis;
+        private long latencyJitterMillis;
+        private double tooManyRequestsRate;
+        private double serverErrorRate;
+        private double timeoutRate;
+        private long timeoutMillis = 15_000;
+        private double dropRate;
+        private boolean failSubscribe;
+        private double generatedMessagesPerSecond;
+        private List<String> generatedChannels = Collections.emptyList();
+        private int generatedPayloadBytes = 64;
+
+        /**
+         * Port to listen on, 0 to pick a free one.
+         */
+        public Config port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * How long a subscribe request waits for messages before returning empty.
+         */
+        public Config longPollMillis(long longPollMillis) {
+            this.longPollMillis = longPollMillis;
+            return this;
+        }
+
+        /**
+         * Messages kept per channel for the subscribers and history.
+         */
+        public Config historySize(int historySize) {
+            this.historySize = historySize;
+            return this;
+        }
+
+        /**
+         * Delay added to every request, plus a random jitter of up to {@code jitterMillis}.
+         */
+        public Config latency(long latencyMillis, long jitterMillis) {
+            this.latencyMillis = latencyMillis;
+            this.latencyJitterMillis = jitterMillis;
+            return this;
+        }
+
+        public Config tooManyRequestsRate(double tooManyRequestsRate) {
+            this.tooManyRequestsRate = tooManyRequestsRate;
+            return this;
+        }
+
+        public Config serverErrorRate(double serverErrorRate) {
+            this.serverErrorRate = serverErrorRate;
+            return this;
+        }
+
+        /**
+         * Share of the requests left unanswered for {@code timeoutMillis}, longer than the client timeouts.
+         */
+        public Config timeouts(double timeoutRate, long timeoutMillis) {
+            this.timeoutRate = timeoutRate;
+            this.timeoutMillis = timeoutMillis;
+            return this;
+        }
+
+        /**
+         * Share of the requests whose connection is closed without a response.
+         */
+        public Config dropRate(double dropRate) {
+            this.dropRate = dropRate;
+            return this;
+        }
+
+        public Config failSubscribe(boolean failSubscribe) {
+            this.failSubscribe = failSubscribe;
+            return this;
+        }
+
+        /**
+         * Publishes {@code messagesPerSecond} messages of {@code payloadBytes} spread over the channels in turn.
+         */
+        public Config generate(double messagesPerSecond, List<String> channels, int payloadBytes) {
+            this.generatedMessagesPerSecond = messagesPerSecond;
+            this.generatedChannels = new ArrayList<>(channels);
+            this.generatedPayloadBytes = payloadBytes;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.pubnub.api.loadtest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Short soak runs for CI, stretch them with {@code -Dloadtest.durationMillis}.
+ */
+public class StandInServerSoakTest {
+    private static final long DURATION_MILLIS = Long.getLong("loadtest.durationMillis", 5_000);
+
+    @Test
+    public void testEveryMessageIsDelivered() throws Exception {
+        try (StandInServer server = StandInServer.start(new StandInServer.Config().longPollMillis(5_000))) {
+            final LoadReport report = LoadDriver.run(server, new LoadDriver.Options()
+                    .clients(20)
+                    .channels(5)
+                    .publishesPerSecondPerClient(20)
+                    .durationMillis(DURATION_MILLIS));
+
+            assertEquals(0, report.getPublishErrors());
+            assertTrue(report.getPublished() > 0);
+            assertEquals(report.getExpected(), report.getReceived());
+        }
+    }
+
+    @Test
+    public void testDeliveryCarriesOnThroughInjectedFailures() throws Exception {
+        final StandInServer.Config config = new StandInServer.Config()
+                .longPollMillis(5_000)
+                .latency(2, 5)
+                .tooManyRequestsRate(0.02)
+                .serverErrorRate(0.02)
+                .dropRate(0.01);
+        try (StandInServer server = StandInServer.start(config)) {
+            final LoadReport report = LoadDriver.run(server, new LoadDriver.Options()
+                    .clients(10)
+                    .channels(2)
+                    .publishesPerSecondPerClient(20)
+                    .durationMillis(DURATION_MILLIS));
+
+            assertTrue(report.getServerStats().getInjectedFailures() > 0);
+            assertTrue(report.getPublishErrors() > 0);
+            // only the publishes the server accepted are expected, subscribe requests are not failed
+            assertEquals(report.getExpected(), report.getReceived());
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.pubnub.api;
 
 
+import com.pubnub.api.capture.SubscribeCapture;
+import com.pubnub.api.capture.SubscribeReplay;
 import com.pubnub.api.enums.PNHeartbeatNotificationOptions;
 import com.pubnub.api.enums.PNLogVerbosity;
 import com.pubnub.api.enums.PNReconnectionPolicy;
+import com.pubnub.api.managers.subscription_cursor.SubscriptionCursorStore;
+import com.pubnub.api.metrics.PNMetrics;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -21,6 +25,7 @@ import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.X509ExtendedTrustManager;
 import java.net.Proxy;
 import java.net.ProxySelector;
+import java.nio.file.Path;
 
 import static com.pubnub.api.builder.PubNubErrorBuilder.PNERROBJ_UUID_NULL_OR_EMPTY;
 
@@ -37,6 +42,9 @@ public class PNConfiguration {
     private static final int SUBSCRIBE_TIMEOUT = 310;
     private static final int CONNECT_TIMEOUT = 5;
     private static final int FILE_MESSAGE_PUBLISH_RETRY_LIMIT = 5;
+    private static final int SUBSCRIPTION_CURSOR_CHECKPOINT_MESSAGES = 100;
+    private static final int SUBSCRIPTION_CURSOR_CHECKPOINT_INTERVAL = 5000;
+    private static final long FILE_CACHE_MAX_BYTES = 256L * 1024 * 1024;
 
     @Getter
     private SSLSocketFactory sslSocketFactory;
@@ -193,6 +201,19 @@ public class PNConfiguration {
     @Setter
     private HttpLoggingInterceptor httpLoggingInterceptor;
 
+    /**
+     * Records the subscribe responses into a capture for a later {@link #subscribeReplay}.
+     */
+    @Setter
+    private SubscribeCapture subscribeCapture;
+
+    /**
+     * Answers the subscribe requests from a capture instead of the network, to reproduce the processing of real
+     * traffic offline.
+     */
+    @Setter
+    private SubscribeReplay subscribeReplay;
+
     /**
      * if set, the SDK will alert once the number of messages arrived in one call equal to the threshold
      */
@@ -216,6 +237,100 @@ public class PNConfiguration {
     @Setter
     private int fileMessagePublishRetryLimit;
 
+    /**
+     * Maximum number of messages, across all channels, kept by the history cache of {@link PubNub#fetchMessages()}.
+     * The cache is disabled when set to 0, which is the default.
+     */
+    @Setter
+    private int historyCacheSize;
+
+    /**
+     * Directory of the on-disk cache of the files downloaded with {@link PubNub#downloadFile()}, which can be shared
+     * by several instances and processes. Files are always downloaded when not set, which is the default.
+     */
+    @Setter
+    @Nullable
+    private Path fileCacheDirectory;
+
+    /**
+     * Maximum total size in bytes of the files kept in {@link #fileCacheDirectory}, the least recently used files are
+     * evicted first.
+     */
+    @Setter
+    private long fileCacheMaxBytes;
+
+    /**
+     * Number of seconds a file URL, of a file event or returned by {@link PubNub#getFileUrl()}, is reused for the same
+     * file instead of being built and signed again. URLs are always built when set to 0, which is the default.
+     * <p>
+     * A reused URL keeps the {@code requestid} it was built with, so requests made with it cannot be told apart by
+     * that parameter, and, with a secret key, the signature timestamp of when it was built, so it is rejected sooner
+     * once the server no longer accepts that timestamp. Keep the validity well below the accepted signature age.
+     */
+    @Setter
+    private int fileUrlCacheValidity;
+
+    /**
+     * When set, messages the subscribe loop may have missed, after an unexpected disconnect or a response reaching
+     * {@link #requestMessageCountThreshold}, are fetched from history and delivered in timetoken order before live
+     * messages are dispatched again. Only channels are caught up; channel groups, wildcard subscriptions and
+     * subscriptions using a {@link #filterExpression} are not.
+     */
+    @Setter
+    private boolean catchUpMissedMessages;
+
+    /**
+     * When set, the position of the subscribe loop and the subscriptions are checkpointed to this store once the
+     * received messages have been dispatched to the listeners, and {@link PubNub#resumeSubscription()} continues
+     * from the last checkpoint. Requires {@link #startSubscriberThread}.
+     */
+    @Setter
+    @Nullable
+    private SubscriptionCursorStore subscriptionCursorStore;
+
+    /**
+     * Time in milliseconds during which subscribe and unsubscribe calls are collected after the first one, then
+     * applied with a single restart of the subscribe loop and a single leave request. Calls are applied right away
+     * when set to 0, which is the default.
+     */
+    @Setter
+    private int subscriptionChangeCoalescingWindow;
+
+    /**
+     * When set, the occupancy and the occupants of the channels subscribed with presence are tracked locally from
+     * the presence events, see {@link PubNub#getPresenceOccupancy(String)}.
+     */
+    @Setter
+    private boolean trackPresenceOccupancy;
+
+    /**
+     * When set, subscribe, heartbeat, signal and publish with GET requests are built directly on the HTTP client
+     * instead of through Retrofit service proxies. Callbacks of these requests then run on the HTTP client threads.
+     */
+    @Setter
+    private boolean directRequests;
+
+    /**
+     * Receives the metrics of the subscribe loop, the listeners, the requests and the network, see
+     * {@link com.pubnub.api.metrics.PNMetricNames}. Nothing is measured with the default {@link PNMetrics#NONE}.
+     */
+    @Setter
+    @NotNull
+    private PNMetrics metrics;
+
+    /**
+     * Number of dispatched messages after which the subscription cursor is checkpointed.
+     */
+    @Setter
+    private int subscriptionCursorCheckpointMessages;
+
+    /**
+     * Interval in milliseconds at which the subscription cursor is checkpointed when it has moved; 0 disables
+     * the periodic checkpoints.
+     */
+    @Setter
+    private int subscriptionCursorCheckpointInterval;
+
     /**
      * Enables explicit presence control.
      * When set to true heartbeat calls will contain only channels and groups added explicitly
@@ -262,6 +377,16 @@ public class PNConfiguration {
         maximumMessagesCacheSize = DEFAULT_DEDUPE_SIZE;
         useRandomInitializationVector = true;
         fileMessagePublishRetryLimit = FILE_MESSAGE_PUBLISH_RETRY_LIMIT;
+        historyCacheSize = 0;
+        fileCacheMaxBytes = FILE_CACHE_MAX_BYTES;
+        fileUrlCacheValidity = 0;
+        catchUpMissedMessages = false;
+        subscriptionCursorCheckpointMessages = SUBSCRIPTION_CURSOR_CHECKPOINT_MESSAGES;
+        subscriptionCursorCheckpointInterval = SUBSCRIPTION_CURSOR_CHECKPOINT_INTERVAL;
+        trackPresenceOccupancy = false;
+        directRequests = false;
+        metrics = PNMetrics.NONE;
+        subscriptionChangeCoalescingWindow = 0;
         managePresenceListManually = false;
     }
 
@@ -8,6 +8,7 @@ import com.pubnub.api.callbacks.SubscribeCallback;
 import com.pubnub.api.endpoints.DeleteMessages;
 import com.pubnub.api.endpoints.FetchMessages;
 import com.pubnub.api.endpoints.History;
+import com.pubnub.api.endpoints.HistoryReader;
 import com.pubnub.api.endpoints.MessageCounts;
 import com.pubnub.api.endpoints.Time;
 import com.pubnub.api.endpoints.access.Grant;
@@ -25,6 +26,7 @@ import com.pubnub.api.endpoints.files.GetFileUrl;
 import com.pubnub.api.endpoints.files.ListFiles;
 import com.pubnub.api.endpoints.files.PublishFileMessage;
 import com.pubnub.api.endpoints.files.SendFile;
+import com.pubnub.api.endpoints.files.SendFileBatch;
 import com.pubnub.api.endpoints.message_actions.AddMessageAction;
 import com.pubnub.api.endpoints.message_actions.GetMessageActions;
 import com.pubnub.api.endpoints.message_actions.RemoveMessageAction;
@@ -34,10 +36,12 @@ import com.pubnub.api.endpoints.objects_api.channel.RemoveChannelMetadata;
 import com.pubnub.api.endpoints.objects_api.channel.SetChannelMetadata;
 import com.pubnub.api.endpoints.objects_api.members.GetChannelMembers;
 import com.pubnub.api.endpoints.objects_api.members.ManageChannelMembers;
+import com.pubnub.api.endpoints.objects_api.members.ReconcileChannelMembers;
 import com.pubnub.api.endpoints.objects_api.members.RemoveChannelMembers;
 import com.pubnub.api.endpoints.objects_api.members.SetChannelMembers;
 import com.pubnub.api.endpoints.objects_api.memberships.GetMemberships;
 import com.pubnub.api.endpoints.objects_api.memberships.ManageMemberships;
+import com.pubnub.api.endpoints.objects_api.memberships.ReconcileMemberships;
 import com.pubnub.api.endpoints.objects_api.memberships.RemoveMemberships;
 import com.pubnub.api.endpoints.objects_api.memberships.SetMemberships;
 import com.pubnub.api.endpoints.objects_api.uuid.GetAllUUIDMetadata;
@@ -47,6 +51,7 @@ import com.pubnub.api.endpoints.objects_api.uuid.SetUUIDMetadata;
 import com.pubnub.api.endpoints.presence.GetState;
 import com.pubnub.api.endpoints.presence.HereNow;
 import com.pubnub.api.endpoints.presence.SetState;
+import com.pubnub.api.endpoints.presence.StreamingHereNow;
 import com.pubnub.api.endpoints.presence.WhereNow;
 import com.pubnub.api.endpoints.pubsub.Publish;
 import com.pubnub.api.endpoints.pubsub.Signal;
@@ -54,11 +59,19 @@ import com.pubnub.api.endpoints.push.AddChannelsToPush;
 import com.pubnub.api.endpoints.push.ListPushProvisions;
 import com.pubnub.api.endpoints.push.RemoveAllPushChannelsForDevice;
 import com.pubnub.api.endpoints.push.RemoveChannelsFromPush;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.managers.BaseParamsManager;
 import com.pubnub.api.managers.BasePathManager;
 import com.pubnub.api.managers.DelayedReconnectionManager;
 import com.pubnub.api.managers.DuplicationManager;
+import com.pubnub.api.managers.FileCacheManager;
+import com.pubnub.api.managers.FileUrlManager;
+import com.pubnub.api.managers.HistoryCacheManager;
 import com.pubnub.api.managers.ListenerManager;
 import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.managers.MetricsManager;
+import com.pubnub.api.managers.MultiUserHeartbeatManager;
+import com.pubnub.api.managers.PresenceOccupancyManager;
 import com.pubnub.api.managers.PublishSequenceManager;
 import com.pubnub.api.managers.ReconnectionManager;
 import com.pubnub.api.managers.RetrofitManager;
@@ -67,7 +80,9 @@ import com.pubnub.api.managers.SubscriptionManager;
 import com.pubnub.api.managers.TelemetryManager;
 import com.pubnub.api.managers.token_manager.TokenManager;
 import com.pubnub.api.managers.token_manager.TokenParser;
+import com.pubnub.api.models.consumer.PNOperationLatency;
 import com.pubnub.api.models.consumer.access_manager.v3.PNToken;
+import com.pubnub.api.models.consumer.pubsub.PNSubscriptionCursor;
 import com.pubnub.api.vendor.Crypto;
 import com.pubnub.api.vendor.FileEncryptionUtil;
 import lombok.Getter;
@@ -75,8 +90,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 
@@ -111,15 +128,43 @@ public class PubNub {
 
     private final TokenManager tokenManager;
 
+    private final HistoryCacheManager historyCacheManager;
+
+    private final PresenceOccupancyManager presenceOccupancyManager;
+
+    private final FileCacheManager fileCacheManager;
+
+    private MultiUserHeartbeatManager multiUserHeartbeatManager;
+
+    /**
+     * Recently built file URLs, see {@link PNConfiguration#getFileUrlCacheValidity()}.
+     */
+    @Getter
+    private final FileUrlManager fileUrlManager;
+
+    /**
+     * Query parameters shared by all requests, see {@link com.pubnub.api.endpoints.Endpoint}.
+     */
+    @Getter
+    private final BaseParamsManager baseParamsManager;
+
+    /**
+     * Instruments reporting to {@link PNConfiguration#getMetrics()}.
+     */
+    @Getter
+    private final MetricsManager metricsManager;
+
     public PubNub(@NotNull PNConfiguration initialConfig) {
         this.configuration = initialConfig;
         this.mapper = new MapperManager();
+        this.metricsManager = new MetricsManager(initialConfig.getMetrics());
         this.telemetryManager = new TelemetryManager();
         this.basePathManager = new BasePathManager(initialConfig);
         this.listenerManager = new ListenerManager(this);
         this.retrofitManager = new RetrofitManager(this);
         this.stateManager = new StateManager(this.configuration);
         this.tokenManager = new TokenManager();
+        this.fileUrlManager = new FileUrlManager(this);
         final ReconnectionManager reconnectionManager = new ReconnectionManager(this);
         final DelayedReconnectionManager delayedReconnectionManager = new DelayedReconnectionManager(this);
         final DuplicationManager duplicationManager = new DuplicationManager(this.configuration);
@@ -134,7 +179,26 @@ public class PubNub {
                 tokenManager);
         this.publishSequenceManager = new PublishSequenceManager(MAX_SEQUENCE);
         this.tokenParser = new TokenParser();
+        if (this.configuration.getHistoryCacheSize() > 0) {
+            this.historyCacheManager = new HistoryCacheManager(this, this.configuration.getHistoryCacheSize());
+            this.listenerManager.addListener(this.historyCacheManager);
+        } else {
+            this.historyCacheManager = null;
+        }
+        if (this.configuration.isTrackPresenceOccupancy()) {
+            this.presenceOccupancyManager = new PresenceOccupancyManager(this);
+            this.listenerManager.addListener(this.presenceOccupancyManager);
+        } else {
+            this.presenceOccupancyManager = null;
+        }
+        if (this.configuration.getFileCacheDirectory() != null) {
+            this.fileCacheManager = new FileCacheManager(this.configuration.getFileCacheDirectory(),
+                    this.configuration.getFileCacheMaxBytes());
+        } else {
+            this.fileCacheManager = null;
+        }
         instanceId = UUID.randomUUID().toString();
+        this.baseParamsManager = new BaseParamsManager(this);
     }
 
     /**
@@ -208,6 +272,11 @@ public class PubNub {
         return new HereNow(this, this.telemetryManager, this.retrofitManager, this.tokenManager);
     }
 
+    @NotNull
+    public StreamingHereNow streamingHereNow() {
+        return new StreamingHereNow(this, this.telemetryManager, this.retrofitManager, this.tokenManager);
+    }
+
     @NotNull
     public Time time() {
         return new Time(this, this.telemetryManager, this.retrofitManager, this.tokenManager);
@@ -220,12 +289,22 @@ public class PubNub {
 
     @NotNull
     public FetchMessages fetchMessages() {
-        return new FetchMessages(this, this.telemetryManager, this.retrofitManager, this.tokenManager);
+        return new FetchMessages(this, this.telemetryManager, this.retrofitManager, this.tokenManager,
+                this.historyCacheManager);
+    }
+
+    /**
+     * Reads the history of many channels within a timetoken range, following pages automatically.
+     */
+    @NotNull
+    public HistoryReader historyReader() {
+        return new HistoryReader(this, this.telemetryManager, this.retrofitManager, this.tokenManager);
     }
 
     @NotNull
     public DeleteMessages deleteMessages() {
-        return new DeleteMessages(this, this.telemetryManager, this.retrofitManager, this.tokenManager);
+        return new DeleteMessages(this, this.telemetryManager, this.retrofitManager, this.tokenManager,
+                this.historyCacheManager);
     }
 
     @NotNull
@@ -269,7 +348,8 @@ public class PubNub {
 
     @NotNull
     public Publish publish() {
-        return new Publish(this, publishSequenceManager, this.telemetryManager, this.retrofitManager, this.tokenManager);
+        return new Publish(this, publishSequenceManager, this.telemetryManager, this.retrofitManager, this.tokenManager,
+                this.historyCacheManager);
     }
 
     @NotNull
@@ -361,6 +441,11 @@ public class PubNub {
         return ManageMemberships.builder(this, this.telemetryManager, this.retrofitManager, this.tokenManager);
     }
 
+    @NotNull
+    public ReconcileMemberships.Builder reconcileMemberships() {
+        return ReconcileMemberships.builder(this, this.telemetryManager, this.retrofitManager, this.tokenManager);
+    }
+
     @NotNull
     public GetChannelMembers.Builder getChannelMembers() {
         return GetChannelMembers.builder(this, this.telemetryManager, this.retrofitManager, this.tokenManager);
@@ -381,6 +466,11 @@ public class PubNub {
         return ManageChannelMembers.builder(this, this.telemetryManager, this.retrofitManager, this.tokenManager);
     }
 
+    @NotNull
+    public ReconcileChannelMembers.Builder reconcileChannelMembers() {
+        return ReconcileChannelMembers.builder(this, this.telemetryManager, this.retrofitManager, this.tokenManager);
+    }
+
     // End Objects API
 
     // Start Message Actions API
@@ -407,6 +497,13 @@ public class PubNub {
         return SendFile.builder(this, telemetryManager, retrofitManager, tokenManager);
     }
 
+    /**
+     * Uploads many files with bounded concurrency and publishes their file messages, see {@link SendFileBatch}.
+     */
+    public SendFileBatch sendFileBatch() {
+        return SendFileBatch.create(this, telemetryManager, retrofitManager, tokenManager);
+    }
+
     public ListFiles.Builder listFiles() {
         return new ListFiles.Builder(this, telemetryManager, retrofitManager, tokenManager);
     }
@@ -424,7 +521,8 @@ public class PubNub {
                 this,
                 telemetryManager,
                 retrofitManager,
-                tokenManager);
+                tokenManager,
+                fileCacheManager);
     }
 
     public DeleteFile.Builder deleteFile() {
@@ -432,7 +530,8 @@ public class PubNub {
                 this,
                 telemetryManager,
                 retrofitManager,
-                tokenManager);
+                tokenManager,
+                fileCacheManager);
     }
 
     public PublishFileMessage.Builder publishFileMessage() {
@@ -567,6 +666,7 @@ public class PubNub {
      */
     public void destroy() {
         try {
+            destroyMultiUserHeartbeatManager();
             subscriptionManager.destroy(false);
             retrofitManager.destroy(false);
         } catch (Exception error) {
@@ -579,6 +679,7 @@ public class PubNub {
      */
     public void forceDestroy() {
         try {
+            destroyMultiUserHeartbeatManager();
             subscriptionManager.destroy(true);
             retrofitManager.destroy(true);
             telemetryManager.stopCleanUpTimer();
@@ -587,6 +688,45 @@ public class PubNub {
         }
     }
 
+    /**
+     * Returns the manager keeping other users than the configured one present on channels, through the transport
+     * of this instance.
+     */
+    @NotNull
+    public synchronized MultiUserHeartbeatManager getMultiUserHeartbeatManager() {
+        if (multiUserHeartbeatManager == null) {
+            multiUserHeartbeatManager = new MultiUserHeartbeatManager(this, telemetryManager, retrofitManager,
+                    tokenManager, listenerManager);
+        }
+        return multiUserHeartbeatManager;
+    }
+
+    /**
+     * Returns the latency percentiles and the error rate of the requests of an operation type over the last minute.
+     */
+    @NotNull
+    public PNOperationLatency getOperationLatency(@NotNull PNOperationType operationType) {
+        return telemetryManager.getOperationLatency(operationType);
+    }
+
+    private synchronized void destroyMultiUserHeartbeatManager() {
+        if (multiUserHeartbeatManager != null) {
+            multiUserHeartbeatManager.destroy();
+            multiUserHeartbeatManager = null;
+        }
+    }
+
+    /**
+     * Subscribes to the subscriptions of the cursor last checkpointed to
+     * {@link PNConfiguration#getSubscriptionCursorStore()}, receiving the messages published after it.
+     *
+     * @return the resumed cursor, or {@code null} when no cursor has been checkpointed yet
+     */
+    @Nullable
+    public PNSubscriptionCursor resumeSubscription() throws PubNubException {
+        return subscriptionManager.resumeSubscription();
+    }
+
     /**
      * Perform a Reconnect to the network
      */
@@ -620,6 +760,28 @@ public class PubNub {
         subscriptionManager.unsubscribeAll();
     }
 
+    /**
+     * Returns the number of occupants of a channel subscribed with presence, tracked locally when
+     * {@link PNConfiguration#isTrackPresenceOccupancy()} is set.
+     *
+     * @return the occupancy, or {@code null} when the channel is not tracked
+     */
+    @Nullable
+    public Integer getPresenceOccupancy(@NotNull String channel) {
+        return presenceOccupancyManager != null ? presenceOccupancyManager.getOccupancy(channel) : null;
+    }
+
+    /**
+     * Returns the occupants of a channel subscribed with presence, tracked locally when
+     * {@link PNConfiguration#isTrackPresenceOccupancy()} is set.
+     */
+    @NotNull
+    public Set<String> getPresenceOccupants(@NotNull String channel) {
+        return presenceOccupancyManager != null
+                ? presenceOccupancyManager.getOccupants(channel)
+                : Collections.<String>emptySet();
+    }
+
     public PNToken parseToken(String token) throws PubNubException {
         return tokenParser.unwrapToken(token);
     }
@@ -15,6 +15,11 @@ public class PubNubException extends Exception {
     private JsonElement jso;
     private String response;
     private int statusCode;
+    /**
+     * Seconds the server asked to wait before the request is retried, from the Retry-After header of the response,
+     * or {@code null} when it did not ask.
+     */
+    private Integer retryAfter;
 
     @Builder
     public PubNubException(final String errormsg,
@@ -22,6 +27,7 @@ public class PubNubException extends Exception {
                            final JsonElement jso,
                            final String response,
                            final int statusCode,
+                           final Integer retryAfter,
                            final Call affectedCall,
                            final Throwable cause) {
         super(cause);
@@ -30,6 +36,7 @@ public class PubNubException extends Exception {
         this.jso = jso;
         this.response = response;
         this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
         this.affectedCall = affectedCall;
     }
 
@@ -1,28 +1,25 @@
 package com.pubnub.api;
 
 import com.pubnub.api.builder.PubNubErrorBuilder;
-import com.pubnub.api.vendor.Base64;
+import com.pubnub.api.enums.PNStatusCategory;
 import lombok.extern.java.Log;
 import okhttp3.HttpUrl;
 import okhttp3.Request;
-import okio.Buffer;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static com.pubnub.api.vendor.FileEncryptionUtil.BUFFER_SIZE_BYTES;
 
@@ -33,6 +30,11 @@ public class PubNubUtil {
     public static final String SIGNATURE_QUERY_PARAM_NAME = "signature";
     public static final String TIMESTAMP_QUERY_PARAM_NAME = "timestamp";
     public static final String AUTH_QUERY_PARAM_NAME = "auth";
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final long RETRY_BASE_DELAY_MILLIS = 500;
+    private static final long RETRY_MAX_DELAY_MILLIS = 30_000;
+    private static final int MAX_RETRY_DELAY_SHIFT = 16;
+    private static final int MILLIS_PER_SECOND = 1000;
 
     private PubNubUtil() {
     }
@@ -67,20 +69,9 @@ public class PubNubUtil {
      */
     public static String pamEncode(String stringToEncode) {
         /* !'()*~ */
-
-        String encoded = urlEncode(stringToEncode);
-        if (encoded != null) {
-            encoded = encoded
-                    .replace("*", "%2A")
-                    .replace("!", "%21")
-                    .replace("'", "%27")
-                    .replace("(", "%28")
-                    .replace(")", "%29")
-                    .replace("[", "%5B")
-                    .replace("]", "%5D")
-                    .replace("~", "%7E");
-        }
-        return encoded;
+        final StringBuilder encoded = new StringBuilder(stringToEncode.length());
+        RequestSigner.appendPamEncoded(encoded, stringToEncode);
+        return encoded.toString();
     }
 
     /**
@@ -112,55 +103,25 @@ public class PubNubUtil {
     }
 
     public static String preparePamArguments(Map<String, String> pamArgs) {
-        Set<String> pamKeys = new TreeSet<>(pamArgs.keySet());
-        String stringifiedArguments = "";
-        int i = 0;
+        final Set<String> pamKeys = new TreeSet<>(pamArgs.keySet());
+        final StringBuilder stringifiedArguments = new StringBuilder();
 
         for (String pamKey : pamKeys) {
-            if (i != 0) {
-                stringifiedArguments = stringifiedArguments.concat("&");
+            if (stringifiedArguments.length() > 0) {
+                stringifiedArguments.append('&');
             }
-
-            stringifiedArguments =
-                    stringifiedArguments.concat(pamKey).concat("=").concat(pamEncode(pamArgs.get(pamKey)));
-
-            i += 1;
+            stringifiedArguments.append(pamKey).append('=');
+            RequestSigner.appendPamEncoded(stringifiedArguments, pamArgs.get(pamKey));
         }
 
-        return stringifiedArguments;
+        return stringifiedArguments.toString();
     }
 
+    /**
+     * Returns the HMAC-SHA256 of {@code data}, encoded in URL safe base 64.
+     */
     public static String signSHA256(String key, String data) throws PubNubException, UnsupportedEncodingException {
-        Mac sha256HMAC;
-        byte[] hmacData;
-        SecretKeySpec secretKey = new SecretKeySpec(key.getBytes(CHARSET), "HmacSHA256");
-
-        try {
-            sha256HMAC = Mac.getInstance("HmacSHA256");
-        } catch (NoSuchAlgorithmException e) {
-            throw PubNubException.builder()
-                    .pubnubError(PubNubErrorBuilder.PNERROBJ_CRYPTO_ERROR)
-                    .errormsg(e.getMessage())
-                    .cause(e)
-                    .build();
-        }
-
-        try {
-            sha256HMAC.init(secretKey);
-        } catch (InvalidKeyException e) {
-            throw PubNubException.builder()
-                    .pubnubError(PubNubErrorBuilder.PNERROBJ_CRYPTO_ERROR)
-                    .errormsg(e.getMessage())
-                    .cause(e)
-                    .build();
-        }
-
-        hmacData = sha256HMAC.doFinal(data.getBytes(CHARSET));
-
-        return new String(Base64.encode(hmacData, 0), CHARSET)
-                .replace('+', '-')
-                .replace('/', '_')
-                .replace("\n", "");
+        return RequestSigner.hmac(key, data);
     }
 
     public static String replaceLast(String string, String toReplace, String replacement) {
@@ -174,8 +135,8 @@ public class PubNubUtil {
     }
 
     public static Request signRequest(Request originalRequest, PNConfiguration pnConfiguration, int timestamp) {
-        // only sign if we have a secret key in place.
-        if (!shouldSignRequest(pnConfiguration)) {
+        // only sign if we have a secret key in place, and only once.
+        if (!shouldSignRequest(pnConfiguration) || originalRequest.tag(SignedRequest.class) != null) {
             return originalRequest;
         }
 
@@ -189,6 +150,27 @@ public class PubNubUtil {
         return originalRequest.newBuilder().url(rebuiltUrl).build();
     }
 
+    /**
+     * Adds the timestamp and the signature of a request without a body to its URL when a secret key is set. The
+     * request built from the URL should be tagged with {@link SignedRequest#INSTANCE}, so it is not signed again on
+     * its way out.
+     */
+    public static void signUrl(HttpUrl.Builder url, String method, PNConfiguration pnConfiguration, int timestamp) {
+        if (!shouldSignRequest(pnConfiguration)) {
+            return;
+        }
+
+        String signature;
+        try {
+            signature = RequestSigner.sign(pnConfiguration, url.build(), method, null, timestamp);
+        } catch (PubNubException e) {
+            log.warning("signature failed on SignatureInterceptor: " + e.toString());
+            signature = "";
+        }
+        url.addQueryParameter(TIMESTAMP_QUERY_PARAM_NAME, String.valueOf(timestamp))
+                .addQueryParameter(SIGNATURE_QUERY_PARAM_NAME, signature);
+    }
+
     public static boolean shouldSignRequest(PNConfiguration pnConfiguration) {
         return pnConfiguration.getSecretKey() != null;
     }
@@ -199,54 +181,21 @@ public class PubNubUtil {
                                            String method,
                                            String requestBody,
                                            int timestamp) {
-        boolean isV2Signature;
-
-        StringBuilder signatureBuilder = new StringBuilder();
-
-        queryParams.put(TIMESTAMP_QUERY_PARAM_NAME, String.valueOf(timestamp));
-        String encodedQueryString = PubNubUtil.preparePamArguments(queryParams);
-
-        isV2Signature = !(requestURL.startsWith("/publish") && method.equalsIgnoreCase("post"));
-
-        if (!isV2Signature) {
-            signatureBuilder.append(configuration.getSubscribeKey()).append("\n");
-            signatureBuilder.append(configuration.getPublishKey()).append("\n");
-            signatureBuilder.append(requestURL).append("\n");
-            signatureBuilder.append(encodedQueryString);
-        } else {
-            signatureBuilder.append(method.toUpperCase()).append("\n");
-            signatureBuilder.append(configuration.getPublishKey()).append("\n");
-            signatureBuilder.append(requestURL).append("\n");
-            signatureBuilder.append(encodedQueryString).append("\n");
-            signatureBuilder.append(requestBody);
-        }
-
-        String signature = "";
         try {
-            signature = PubNubUtil.signSHA256(configuration.getSecretKey(), signatureBuilder.toString());
-            if (isV2Signature) {
-                signature = removeTrailingEqualSigns(signature);
-                signature = "v2.".concat(signature);
-            }
-        } catch (PubNubException | UnsupportedEncodingException e) {
+            return RequestSigner.sign(configuration, requestURL, queryParams, method, requestBody, timestamp);
+        } catch (PubNubException e) {
             log.warning("signature failed on SignatureInterceptor: " + e.toString());
+            return "";
         }
-
-        return signature;
     }
 
     private static String generateSignature(PNConfiguration configuration, Request request, int timestamp) {
-        Map<String, String> queryParams = new HashMap<>();
-        for (String queryKey : request.url().queryParameterNames()) {
-            queryParams.put(queryKey, request.url().queryParameter(queryKey));
+        try {
+            return RequestSigner.sign(configuration, request, timestamp);
+        } catch (PubNubException e) {
+            log.warning("signature failed on SignatureInterceptor: " + e.toString());
+            return "";
         }
-        return generateSignature(configuration,
-                request.url().encodedPath(),
-                queryParams,
-                request.method(),
-                requestBodyToString(request),
-                timestamp);
-
     }
 
     public static String removeTrailingEqualSigns(String signature) {
@@ -258,20 +207,6 @@ public class PubNubUtil {
         return cleanSignature;
     }
 
-    private static String requestBodyToString(final Request request) {
-        if (request.body() == null) {
-            return "";
-        }
-        try {
-            Buffer buffer = new Buffer();
-            request.body().writeTo(buffer);
-            return buffer.readUtf8();
-        } catch (final IOException e) {
-            e.printStackTrace();
-        }
-        return "";
-    }
-
     public static byte[] readBytes(final InputStream inputStream) throws IOException {
         try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream()) {
             int read;
@@ -290,9 +225,70 @@ public class PubNubUtil {
         return collection == null || collection.isEmpty();
     }
 
+    /**
+     * Returns the status category of a failed request the same way asynchronous endpoint calls report it, for
+     * callers which run a synchronous call in the background.
+     */
+    public static PNStatusCategory errorCategory(final PubNubException exception) {
+        if (exception.getStatusCode() == HttpURLConnection.HTTP_FORBIDDEN) {
+            return PNStatusCategory.PNAccessDeniedCategory;
+        } else if (exception.getStatusCode() == HttpURLConnection.HTTP_BAD_REQUEST) {
+            return PNStatusCategory.PNBadRequestCategory;
+        } else if (exception.getStatusCode() != 0) {
+            return PNStatusCategory.PNUnknownCategory;
+        }
+
+        if (exception.getCause() instanceof SocketTimeoutException) {
+            return PNStatusCategory.PNTimeoutCategory;
+        } else if (exception.getCause() instanceof IOException) {
+            return PNStatusCategory.PNUnexpectedDisconnectCategory;
+        } else if (exception.getPubnubError() != null
+                && exception.getPubnubError().getErrorCode() == PubNubErrorBuilder.PNERR_PARSING_ERROR) {
+            return PNStatusCategory.PNMalformedResponseCategory;
+        }
+        return PNStatusCategory.PNBadRequestCategory;
+    }
+
+    /**
+     * Tells whether a failed request may succeed when sent again: on server errors, rate limiting and network
+     * errors.
+     */
+    public static boolean isRetryable(final PubNubException exception) {
+        return exception.getStatusCode() >= HttpURLConnection.HTTP_INTERNAL_ERROR
+                || exception.getStatusCode() == TOO_MANY_REQUESTS
+                || exception.getCause() instanceof IOException;
+    }
+
+    /**
+     * Returns how long to wait before sending a failed request again. A delay asked for by a rate limiting
+     * response is honored, otherwise the delay grows exponentially with the number of failed attempts and half of
+     * it is random, so clients failing together do not retry together.
+     *
+     * @param failedAttempts number of attempts made so far, starting at 1
+     */
+    public static long retryDelayMillis(final int failedAttempts, final PubNubException exception) {
+        if (exception.getStatusCode() == TOO_MANY_REQUESTS && exception.getRetryAfter() != null) {
+            return exception.getRetryAfter() * (long) MILLIS_PER_SECOND;
+        }
+        final int shift = Math.max(0, Math.min(failedAttempts - 1, MAX_RETRY_DELAY_SHIFT));
+        final long delay = Math.min(RETRY_MAX_DELAY_MILLIS, RETRY_BASE_DELAY_MILLIS << shift);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
     public static void require(boolean value, PubNubError error) {
         if (!value) {
             throw PubNubRuntimeException.builder().pubnubError(error).build();
         }
     }
+
+    /**
+     * Tag of requests whose signing has already been taken care of when they were built, which
+     * {@link #signRequest(Request, PNConfiguration, int)} leaves as they are.
+     */
+    public static final class SignedRequest {
+        public static final SignedRequest INSTANCE = new SignedRequest();
+
+        private SignedRequest() {
+        }
+    }
 }
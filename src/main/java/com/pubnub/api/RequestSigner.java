@@ -0,0 +1,406 @@
+package com.pubnub.api;
+
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.vendor.Base64;
+import lombok.extern.java.Log;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Sink;
+import okio.Timeout;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+
+import static com.pubnub.api.PubNubUtil.TIMESTAMP_QUERY_PARAM_NAME;
+
+/**
+ * Computes the HMAC-SHA256 signatures of requests sent with a secret key.
+ * <p>
+ * Every thread keeps an initialized {@link Mac} and the buffers the signed content is written to. Query parameters
+ * are sorted and encoded straight into the content, and request bodies are hashed without being decoded, so only the
+ * resulting signature is allocated.
+ */
+@Log
+final class RequestSigner {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String V2_PREFIX = "v2.";
+    private static final int INITIAL_CONTENT_CAPACITY = 512;
+    private static final int INITIAL_PARAMETERS = 16;
+    private static final int CHUNK_SIZE = 8192;
+    private static final int MAX_UTF8_BYTES_PER_CHAR = 3;
+
+    private static final int ONE_BYTE_LIMIT = 0x80;
+    private static final int TWO_BYTES_LIMIT = 0x800;
+    private static final int THREE_BYTES_LIMIT = 0x10000;
+    private static final int SIX_BITS = 6;
+    private static final int TWELVE_BITS = 12;
+    private static final int EIGHTEEN_BITS = 18;
+    private static final int CONTINUATION = 0x80;
+    private static final int CONTINUATION_MASK = 0x3f;
+    private static final int TWO_BYTES_PREFIX = 0xc0;
+    private static final int THREE_BYTES_PREFIX = 0xe0;
+    private static final int FOUR_BYTES_PREFIX = 0xf0;
+    private static final int BYTE_MASK = 0xff;
+    private static final int NIBBLE_BITS = 4;
+    private static final int NIBBLE_MASK = 0xf;
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final ThreadLocal<SignerState> STATE = new ThreadLocal<SignerState>() {
+        @Override
+        protected SignerState initialValue() {
+            return new SignerState();
+        }
+    };
+
+    private RequestSigner() {
+    }
+
+    /**
+     * Signs a request as it is about to be sent, with all its query parameters and its body.
+     */
+    static String sign(PNConfiguration configuration, Request request, int timestamp) throws PubNubException {
+        return sign(configuration, request.url(), request.method(), request.body(), timestamp);
+    }
+
+    /**
+     * Signs a request with the query parameters of {@code url} and with {@code body}, if any.
+     */
+    static String sign(PNConfiguration configuration,
+                       HttpUrl url,
+                       String method,
+                       @Nullable RequestBody body,
+                       int timestamp) throws PubNubException {
+        final SignerState state = STATE.get();
+
+        state.clearParameters();
+        for (int i = 0; i < url.querySize(); i++) {
+            state.addParameter(url.queryParameterName(i), url.queryParameterValue(i));
+        }
+
+        final boolean v2 = isV2Signature(url.encodedPath(), method);
+        final StringBuilder content = state.startContent(configuration, url.encodedPath(), method, v2, timestamp);
+        final Mac mac = state.mac(configuration.getSecretKey());
+        state.update(content);
+
+        if (v2 && body != null) {
+            try {
+                state.update(body);
+            } catch (IOException e) {
+                log.warning("request body could not be signed: " + e);
+                mac.reset();
+                state.update(content);
+            }
+        }
+        return encode(mac.doFinal(), v2);
+    }
+
+    /**
+     * Signs a request described by its parts. The timestamp is added to {@code queryParams}.
+     */
+    static String sign(PNConfiguration configuration,
+                       String requestURL,
+                       Map<String, String> queryParams,
+                       String method,
+                       @Nullable String requestBody,
+                       int timestamp) throws PubNubException {
+        final SignerState state = STATE.get();
+
+        queryParams.put(TIMESTAMP_QUERY_PARAM_NAME, String.valueOf(timestamp));
+        state.clearParameters();
+        for (Map.Entry<String, String> parameter : queryParams.entrySet()) {
+            state.addParameter(parameter.getKey(), parameter.getValue());
+        }
+
+        final boolean v2 = isV2Signature(requestURL, method);
+        final StringBuilder content = state.startContent(configuration, requestURL, method, v2, timestamp);
+        if (v2) {
+            content.append(requestBody);
+        }
+        state.mac(configuration.getSecretKey());
+        state.update(content);
+        return encode(state.mac.doFinal(), v2);
+    }
+
+    /**
+     * Computes the HMAC of {@code data}, encoded in URL safe base 64 with padding.
+     */
+    static String hmac(String key, String data) throws PubNubException {
+        final SignerState state = STATE.get();
+        state.mac(key);
+        state.update(data);
+        return encode(state.mac.doFinal(), false);
+    }
+
+    /**
+     * Appends {@code value} percent encoded like {@link PubNubUtil#pamEncode(String)}, keeping only letters, digits
+     * and {@code .-_} as they are.
+     */
+    static void appendPamEncoded(StringBuilder target, String value) {
+        int i = 0;
+        while (i < value.length()) {
+            final char c = value.charAt(i);
+            if (isUnreserved(c)) {
+                target.append(c);
+                i++;
+                continue;
+            }
+            int codePoint = value.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isSurrogate((char) codePoint)) {
+                // unpaired surrogates are replaced, as by the UTF-8 encoder
+                codePoint = '?';
+            }
+            appendPercentEncoded(target, codePoint);
+        }
+    }
+
+    private static boolean isV2Signature(String requestURL, String method) {
+        return !(requestURL.startsWith("/publish") && method.equalsIgnoreCase("post"));
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '.' || c == '-' || c == '_';
+    }
+
+    private static void appendPercentEncoded(StringBuilder target, int codePoint) {
+        if (codePoint < ONE_BYTE_LIMIT) {
+            appendPercentEncodedByte(target, codePoint);
+        } else if (codePoint < TWO_BYTES_LIMIT) {
+            appendPercentEncodedByte(target, TWO_BYTES_PREFIX | (codePoint >> SIX_BITS));
+            appendPercentEncodedByte(target, CONTINUATION | (codePoint & CONTINUATION_MASK));
+        } else if (codePoint < THREE_BYTES_LIMIT) {
+            appendPercentEncodedByte(target, THREE_BYTES_PREFIX | (codePoint >> TWELVE_BITS));
+            appendPercentEncodedByte(target, CONTINUATION | ((codePoint >> SIX_BITS) & CONTINUATION_MASK));
+            appendPercentEncodedByte(target, CONTINUATION | (codePoint & CONTINUATION_MASK));
+        } else {
+            appendPercentEncodedByte(target, FOUR_BYTES_PREFIX | (codePoint >> EIGHTEEN_BITS));
+            appendPercentEncodedByte(target, CONTINUATION | ((codePoint >> TWELVE_BITS) & CONTINUATION_MASK));
+            appendPercentEncodedByte(target, CONTINUATION | ((codePoint >> SIX_BITS) & CONTINUATION_MASK));
+            appendPercentEncodedByte(target, CONTINUATION | (codePoint & CONTINUATION_MASK));
+        }
+    }
+
+    private static void appendPercentEncodedByte(StringBuilder target, int b) {
+        target.append('%')
+                .append(HEX_DIGITS[(b >> NIBBLE_BITS) & NIBBLE_MASK])
+                .append(HEX_DIGITS[b & NIBBLE_MASK]);
+    }
+
+    private static String encode(byte[] hmac, boolean v2) {
+        if (v2) {
+            return V2_PREFIX.concat(Base64.encodeToString(hmac, Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING));
+        }
+        return Base64.encodeToString(hmac, Base64.URL_SAFE | Base64.NO_WRAP);
+    }
+
+    /**
+     * Buffers reused by all signatures computed on a thread.
+     */
+    private static final class SignerState {
+        private final StringBuilder content = new StringBuilder(INITIAL_CONTENT_CAPACITY);
+        private byte[] bytes = new byte[INITIAL_CONTENT_CAPACITY * MAX_UTF8_BYTES_PER_CHAR];
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+
+        private String[] names = new String[INITIAL_PARAMETERS];
+        private String[] values = new String[INITIAL_PARAMETERS];
+        private int parameterCount;
+
+        private Mac mac;
+        private String key;
+        private BufferedSink bodySink;
+
+        /**
+         * The MAC of {@code secretKey}, reset so nothing added by an earlier signature that failed is kept.
+         */
+        private Mac mac(String secretKey) throws PubNubException {
+            if (mac == null || !secretKey.equals(key)) {
+                try {
+                    final Mac newMac = Mac.getInstance(ALGORITHM);
+                    newMac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+                    mac = newMac;
+                    key = secretKey;
+                } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+                    throw PubNubException.builder()
+                            .pubnubError(PubNubErrorBuilder.PNERROBJ_CRYPTO_ERROR)
+                            .errormsg(e.getMessage())
+                            .cause(e)
+                            .build();
+                }
+            }
+            mac.reset();
+            return mac;
+        }
+
+        private void clearParameters() {
+            Arrays.fill(names, 0, parameterCount, null);
+            Arrays.fill(values, 0, parameterCount, null);
+            parameterCount = 0;
+        }
+
+        /**
+         * Adds a parameter in order of its name. The first value of a repeated name is kept, and the timestamp is
+         * left out as it is always written last by {@link #appendParameters(int)}.
+         */
+        private void addParameter(String name, @Nullable String value) {
+            if (TIMESTAMP_QUERY_PARAM_NAME.equals(name)) {
+                return;
+            }
+            int position = parameterCount;
+            while (position > 0) {
+                final int comparison = names[position - 1].compareTo(name);
+                if (comparison == 0) {
+                    return;
+                }
+                if (comparison < 0) {
+                    break;
+                }
+                position--;
+            }
+            if (parameterCount == names.length) {
+                names = Arrays.copyOf(names, parameterCount * 2);
+                values = Arrays.copyOf(values, parameterCount * 2);
+            }
+            System.arraycopy(names, position, names, position + 1, parameterCount - position);
+            System.arraycopy(values, position, values, position + 1, parameterCount - position);
+            names[position] = name;
+            values[position] = value != null ? value : "";
+            parameterCount++;
+        }
+
+        private StringBuilder startContent(PNConfiguration configuration,
+                                           String path,
+                                           String method,
+                                           boolean v2,
+                                           int timestamp) {
+            content.setLength(0);
+            if (v2) {
+                content.append(method.toUpperCase()).append('\n');
+            } else {
+                content.append(configuration.getSubscribeKey()).append('\n');
+            }
+            content.append(configuration.getPublishKey()).append('\n');
+            content.append(path).append('\n');
+            appendParameters(timestamp);
+            if (v2) {
+                content.append('\n');
+            }
+            return content;
+        }
+
+        private void appendParameters(int timestamp) {
+            boolean timestampWritten = false;
+            for (int i = 0; i < parameterCount; i++) {
+                if (!timestampWritten && names[i].compareTo(TIMESTAMP_QUERY_PARAM_NAME) > 0) {
+                    content.append(TIMESTAMP_QUERY_PARAM_NAME).append('=').append(timestamp).append('&');
+                    timestampWritten = true;
+                }
+                content.append(names[i]).append('=');
+                appendPamEncoded(content, values[i]);
+                if (i < parameterCount - 1 || !timestampWritten) {
+                    content.append('&');
+                }
+            }
+            if (!timestampWritten) {
+                content.append(TIMESTAMP_QUERY_PARAM_NAME).append('=').append(timestamp);
+            }
+        }
+
+        /**
+         * Adds the UTF-8 encoding of {@code text} to the MAC.
+         */
+        private void update(CharSequence text) {
+            final int maxLength = text.length() * MAX_UTF8_BYTES_PER_CHAR;
+            if (bytes.length < maxLength) {
+                bytes = new byte[maxLength];
+            }
+
+            int length = 0;
+            int i = 0;
+            while (i < text.length()) {
+                final char c = text.charAt(i++);
+                if (c < ONE_BYTE_LIMIT) {
+                    bytes[length++] = (byte) c;
+                } else if (c < TWO_BYTES_LIMIT) {
+                    bytes[length++] = (byte) (TWO_BYTES_PREFIX | (c >> SIX_BITS));
+                    bytes[length++] = (byte) (CONTINUATION | (c & CONTINUATION_MASK));
+                } else if (Character.isHighSurrogate(c) && i < text.length()
+                        && Character.isLowSurrogate(text.charAt(i))) {
+                    final int codePoint = Character.toCodePoint(c, text.charAt(i++));
+                    bytes[length++] = (byte) (FOUR_BYTES_PREFIX | (codePoint >> EIGHTEEN_BITS));
+                    bytes[length++] = (byte) (CONTINUATION | ((codePoint >> TWELVE_BITS) & CONTINUATION_MASK));
+                    bytes[length++] = (byte) (CONTINUATION | ((codePoint >> SIX_BITS) & CONTINUATION_MASK));
+                    bytes[length++] = (byte) (CONTINUATION | (codePoint & CONTINUATION_MASK));
+                } else if (Character.isSurrogate(c)) {
+                    bytes[length++] = (byte) '?';
+                } else {
+                    bytes[length++] = (byte) (THREE_BYTES_PREFIX | (c >> TWELVE_BITS));
+                    bytes[length++] = (byte) (CONTINUATION | ((c >> SIX_BITS) & CONTINUATION_MASK));
+                    bytes[length++] = (byte) (CONTINUATION | (c & CONTINUATION_MASK));
+                }
+            }
+            mac.update(bytes, 0, length);
+        }
+
+        /**
+         * Adds the bytes of a request body to the MAC as they are written.
+         */
+        private void update(RequestBody body) throws IOException {
+            if (bodySink == null) {
+                bodySink = Okio.buffer(new MacSink());
+            }
+            try {
+                body.writeTo(bodySink);
+                bodySink.flush();
+            } catch (IOException | RuntimeException e) {
+                // the sink may still hold a part of the body
+                bodySink = null;
+                throw e;
+            }
+        }
+
+        /**
+         * Passes everything written to it to the MAC of the thread.
+         */
+        private final class MacSink implements Sink {
+            @Override
+            public void write(@NotNull Buffer source, long byteCount) throws IOException {
+                long remaining = byteCount;
+                while (remaining > 0) {
+                    final int read = source.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+                    if (read == -1) {
+                        throw new IOException("unexpected end of the request body");
+                    }
+                    mac.update(chunk, 0, read);
+                    remaining -= read;
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @NotNull
+            @Override
+            public Timeout timeout() {
+                return Timeout.NONE;
+            }
+
+            @Override
+            public void close() {
+            }
+        }
+    }
+}
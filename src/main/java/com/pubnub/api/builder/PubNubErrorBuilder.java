@@ -366,6 +366,21 @@ public final class PubNubErrorBuilder {
      */
     public static final int PNERR_SPACEID_NULL_OR_EMPTY = 171;
 
+    /**
+     * Subscription cursor store is not configured
+     */
+    public static final int PNERR_SUBSCRIPTION_CURSOR_STORE_MISSING = 172;
+
+    /**
+     * Subscription cursor could not be stored or loaded
+     */
+    public static final int PNERR_SUBSCRIPTION_CURSOR_STORE_ERROR = 173;
+
+    /**
+     * Downloaded file could not be written or does not have the expected size
+     */
+    public static final int PNERR_FILE_DOWNLOAD_ERROR = 174;
+
     // Error Objects
     public static final PubNubError PNERROBJ_TIMEOUT = PubNubError.builder()
             .errorCode(PNERR_TIMEOUT)
@@ -730,6 +745,21 @@ public final class PubNubErrorBuilder {
             .message("SpaceId can't be null nor empty.")
             .build();
 
+    public static final PubNubError PNERROBJ_SUBSCRIPTION_CURSOR_STORE_MISSING = PubNubError.builder()
+            .errorCode(PNERR_SUBSCRIPTION_CURSOR_STORE_MISSING)
+            .message("Subscription cursor store is not configured.")
+            .build();
+
+    public static final PubNubError PNERROBJ_SUBSCRIPTION_CURSOR_STORE_ERROR = PubNubError.builder()
+            .errorCode(PNERR_SUBSCRIPTION_CURSOR_STORE_ERROR)
+            .message("Subscription cursor could not be stored or loaded.")
+            .build();
+
+    public static final PubNubError PNERROBJ_FILE_DOWNLOAD_ERROR = PubNubError.builder()
+            .errorCode(PNERR_FILE_DOWNLOAD_ERROR)
+            .message("Downloaded file could not be written or does not have the expected size.")
+            .build();
+
     private PubNubErrorBuilder() {
 
     }
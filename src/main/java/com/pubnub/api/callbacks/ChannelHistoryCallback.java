@@ -0,0 +1,26 @@
+package com.pubnub.api.callbacks;
+
+import com.pubnub.api.models.consumer.history.PNFetchMessageItem;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+public interface ChannelHistoryCallback {
+    /**
+     * Called for every page of a channel as soon as it has been read, so a channel is usually passed in several
+     * calls. Pages are passed in the order of their messages. Calls are never made concurrently.
+     *
+     * @param channel  channel the messages were published to
+     * @param messages messages of the page, in ascending timetoken order when reading in ascending order and in
+     *                 descending order otherwise
+     */
+    void onChannelHistory(@NotNull String channel, @NotNull List<PNFetchMessageItem> messages);
+
+    /**
+     * Called once the whole requested range of a channel has been read, after its last page.
+     *
+     * @param channel channel that has been read
+     */
+    default void onChannelRead(@NotNull String channel) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.pubnub.api.callbacks;
+
+import com.pubnub.api.models.consumer.files.PNFileBatchItemResult;
+import org.jetbrains.annotations.NotNull;
+
+public interface FileBatchProgressCallback {
+    /**
+     * Called from the upload threads while the content of a file is written.
+     *
+     * @param index      position of the file in the batch
+     * @param bytesSent  bytes of the content read so far by the current attempt
+     * @param totalBytes length of the content, or {@code -1} when unknown
+     */
+    default void uploadProgress(int index, @NotNull String fileName, long bytesSent, long totalBytes) {
+    }
+
+    /**
+     * Called once per file, when it has been published or failed for good.
+     */
+    default void fileCompleted(@NotNull PNFileBatchItemResult result) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.pubnub.api.callbacks;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public interface HereNowVisitor {
+    /**
+     * Called for every occupant, before {@link #channel(String, int)} is called for its channel.
+     *
+     * @param state raw JSON of the state of the occupant, {@code null} unless state was requested and set
+     */
+    void occupant(@NotNull String channel, @NotNull String uuid, @Nullable String state);
+
+    /**
+     * Called once per channel, after all of its occupants.
+     */
+    void channel(@NotNull String channel, int occupancy);
+}
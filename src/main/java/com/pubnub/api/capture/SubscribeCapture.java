@@ -0,0 +1,74 @@
+package com.pubnub.api.capture;
+
+import okhttp3.Request;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records the subscribe responses of a client, with the time between them, for a {@link SubscribeReplay}.
+ * <p>
+ * Set it with {@link com.pubnub.api.PNConfiguration#setSubscribeCapture(SubscribeCapture)} and close it once done.
+ * The capture is a gzip stream of a header followed by one record per response: the nanoseconds since the previous
+ * response, the HTTP status code and the body. Records are flushed as they are written, so a capture cut short by a
+ * crash is readable up to its last response.
+ */
+public final class SubscribeCapture implements Closeable {
+    static final int MAGIC = 0x504E5343;
+    static final int VERSION = 1;
+    private static final String SUBSCRIBE_PATH = "/v2/subscribe/";
+
+    private final DataOutputStream output;
+    private long lastRecordNanos;
+    private boolean closed;
+
+    private SubscribeCapture(OutputStream outputStream) throws IOException {
+        this.output = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(outputStream), true));
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.flush();
+    }
+
+    public static SubscribeCapture create(@NotNull Path path) throws IOException {
+        return new SubscribeCapture(Files.newOutputStream(path));
+    }
+
+    public static SubscribeCapture create(@NotNull OutputStream outputStream) throws IOException {
+        return new SubscribeCapture(outputStream);
+    }
+
+    /**
+     * Appends a response, ignored once the capture is closed.
+     */
+    public synchronized void record(int code, @NotNull byte[] body) throws IOException {
+        if (closed) {
+            return;
+        }
+        final long now = System.nanoTime();
+        output.writeLong(lastRecordNanos == 0 ? 0 : now - lastRecordNanos);
+        output.writeShort(code);
+        output.writeInt(body.length);
+        output.write(body);
+        output.flush();
+        lastRecordNanos = now;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            output.close();
+        }
+    }
+
+    public static boolean isSubscribe(Request request) {
+        return request.url().encodedPath().startsWith(SUBSCRIBE_PATH);
+    }
+}
@@ -0,0 +1,180 @@
+package com.pubnub.api.capture;
+
+import com.pubnub.api.enums.PNReplaySpeed;
+import lombok.Getter;
+import okhttp3.Call;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Answers the subscribe requests of a client with the responses of a {@link SubscribeCapture}, in order and without
+ * touching the network. Set it with {@link com.pubnub.api.PNConfiguration#setSubscribeReplay(SubscribeReplay)}.
+ * <p>
+ * The whole capture is read when opened so decoding it does not weigh on the replay. Once every response has been
+ * replayed, subscribe requests wait until they are cancelled, like a long-poll on an idle channel.
+ */
+public final class SubscribeReplay {
+    private static final long CANCEL_CHECK_MILLIS = 50;
+
+    private final List<Record> records;
+    private final PNReplaySpeed speed;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    /**
+     * Indexes claimed by calls cancelled before their response was handed over, replayed before {@link #next}.
+     */
+    private final PriorityQueue<Integer> released = new PriorityQueue<>();
+    private int next;
+    private int replayed;
+    private long lastReplayedNanos;
+
+    private SubscribeReplay(List<Record> records, PNReplaySpeed speed) {
+        this.records = records;
+        this.speed = speed;
+        if (records.isEmpty()) {
+            finished.countDown();
+        }
+    }
+
+    public static SubscribeReplay open(@NotNull Path path, @NotNull PNReplaySpeed speed) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            return open(inputStream, speed);
+        }
+    }
+
+    public static SubscribeReplay open(@NotNull InputStream inputStream, @NotNull PNReplaySpeed speed)
+            throws IOException {
+        final DataInputStream input = new DataInputStream(new GZIPInputStream(new BufferedInputStream(inputStream)));
+        if (input.readInt() != SubscribeCapture.MAGIC) {
+            throw new IOException("Not a subscribe capture");
+        }
+        final int version = input.readUnsignedByte();
+        if (version != SubscribeCapture.VERSION) {
+            throw new IOException("Unsupported subscribe capture version " + version);
+        }
+
+        final List<Record> records = new ArrayList<>();
+        while (true) {
+            final long delayNanos;
+            try {
+                delayNanos = input.readLong();
+            } catch (EOFException e) {
+                break;
+            }
+            final int code = input.readUnsignedShort();
+            final byte[] body = new byte[input.readInt()];
+            input.readFully(body);
+            records.add(new Record(delayNanos, code, body));
+        }
+        return new SubscribeReplay(Collections.unmodifiableList(records), speed);
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    public synchronized int getReplayed() {
+        return replayed;
+    }
+
+    /**
+     * Waits until every response of the capture has been handed to the client.
+     *
+     * @return {@code false} if the timeout elapsed first
+     */
+    public boolean awaitFinished(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    /**
+     * Next response for a subscribe call, waiting for its turn when replaying in real time.
+     *
+     * @throws IOException when the call is cancelled while waiting
+     */
+    public Record next(@NotNull Call call) throws IOException {
+        // claimed before waiting, so concurrent calls never hand over the same response
+        final int index;
+        final long previousNanos;
+        synchronized (this) {
+            if (!released.isEmpty()) {
+                index = released.poll();
+            } else if (next < records.size()) {
+                index = next++;
+            } else {
+                index = -1;
+            }
+            previousNanos = lastReplayedNanos;
+        }
+        if (index == -1) {
+            while (!call.isCanceled()) {
+                pause(CANCEL_CHECK_MILLIS);
+            }
+            throw new IOException("Canceled");
+        }
+
+        final Record record = records.get(index);
+        if (speed == PNReplaySpeed.REAL_TIME && previousNanos != 0) {
+            final long due = previousNanos + record.delayNanos;
+            try {
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                    if (call.isCanceled()) {
+                        throw new IOException("Canceled");
+                    }
+                    pause(Math.min(CANCEL_CHECK_MILLIS, TimeUnit.NANOSECONDS.toMillis(wait) + 1));
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    released.add(index);
+                }
+                throw e;
+            }
+        }
+
+        synchronized (this) {
+            lastReplayedNanos = System.nanoTime();
+            replayed++;
+            if (replayed == records.size()) {
+                finished.countDown();
+            }
+        }
+        return record;
+    }
+
+    private static void pause(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+
+    /**
+     * A captured response.
+     */
+    @Getter
+    public static final class Record {
+        private final long delayNanos;
+        private final int code;
+        private final byte[] body;
+
+        private Record(long delayNanos, int code, byte[] body) {
+            this.delayNanos = delayNanos;
+            this.code = code;
+            this.body = body;
+        }
+    }
+}
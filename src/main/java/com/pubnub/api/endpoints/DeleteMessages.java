@@ -5,6 +5,7 @@ import com.pubnub.api.PubNubException;
 import com.pubnub.api.PubNubUtil;
 import com.pubnub.api.builder.PubNubErrorBuilder;
 import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.managers.HistoryCacheManager;
 import com.pubnub.api.managers.RetrofitManager;
 import com.pubnub.api.managers.TelemetryManager;
 import com.pubnub.api.managers.token_manager.TokenManager;
@@ -32,12 +33,23 @@ public class DeleteMessages extends Endpoint<DeleteMessagesEnvelope, PNDeleteMes
     @Setter
     private Long end;
 
+    private final HistoryCacheManager historyCache;
+
     public DeleteMessages(PubNub pubnubInstance,
                           TelemetryManager telemetryManager,
                           RetrofitManager retrofitInstance,
                           TokenManager tokenManager) {
+        this(pubnubInstance, telemetryManager, retrofitInstance, tokenManager, null);
+    }
+
+    public DeleteMessages(PubNub pubnubInstance,
+                          TelemetryManager telemetryManager,
+                          RetrofitManager retrofitInstance,
+                          TokenManager tokenManager,
+                          HistoryCacheManager historyCache) {
         super(pubnubInstance, telemetryManager, retrofitInstance, tokenManager);
         channels = new ArrayList<>();
+        this.historyCache = historyCache;
     }
 
     @Override
@@ -87,6 +99,11 @@ public class DeleteMessages extends Endpoint<DeleteMessagesEnvelope, PNDeleteMes
                     .build();
         }
 
+        if (historyCache != null) {
+            for (String channel : channels) {
+                historyCache.invalidate(channel);
+            }
+        }
         return PNDeleteMessagesResult.builder().build();
     }
 
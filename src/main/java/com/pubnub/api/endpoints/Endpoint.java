@@ -10,11 +10,16 @@ import com.pubnub.api.callbacks.PNCallback;
 import com.pubnub.api.endpoints.remoteaction.RemoteAction;
 import com.pubnub.api.enums.PNOperationType;
 import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.jfr.FlightRecorderEvents;
+import com.pubnub.api.managers.BaseParamsManager;
 import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.managers.MetricsManager;
+import com.pubnub.api.managers.NetworkTimingManager;
 import com.pubnub.api.managers.RetrofitManager;
 import com.pubnub.api.managers.TelemetryManager;
 import com.pubnub.api.managers.token_manager.TokenManager;
 import com.pubnub.api.models.consumer.PNErrorData;
+import com.pubnub.api.models.consumer.PNNetworkTimings;
 import com.pubnub.api.models.consumer.PNStatus;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -71,6 +76,18 @@ public abstract class Endpoint<Input, Output> implements RemoteAction<Output> {
 
     private final TokenManager tokenManager;
 
+    /**
+     * Template of the last base parameters, whose encoded auth is reused by {@link #encodeParams(Map)}.
+     */
+    @Getter(AccessLevel.NONE)
+    private BaseParamsManager.Template baseParamsTemplate;
+
+    /**
+     * Phase timings of the last completed call, passed on with its {@link PNStatus}.
+     */
+    @Getter(AccessLevel.NONE)
+    private PNNetworkTimings networkTimings;
+
     public Endpoint(PubNub pubnubInstance,
                     TelemetryManager telemetry,
                     RetrofitManager retrofitInstance,
@@ -92,9 +109,15 @@ public abstract class Endpoint<Input, Output> implements RemoteAction<Output> {
         Response<Input> serverResponse;
         Output response;
 
+        final long startNanos = System.nanoTime();
+        final Object flightRecorderEvent = FlightRecorderEvents.INSTANCE.requestStarted();
         try {
             serverResponse = call.execute();
         } catch (IOException e) {
+            storeRequestError(getOperationType());
+            recordRequest(startNanos, flightRecorderEvent, false, 0, e instanceof SocketTimeoutException
+                    ? PNStatusCategory.PNTimeoutCategory
+                    : PNStatusCategory.PNUnexpectedDisconnectCategory);
             throw PubNubException.builder()
                     .pubnubError(PubNubErrorBuilder.PNERROBJ_PARSING_ERROR)
                     .errormsg(e.toString())
@@ -104,6 +127,9 @@ public abstract class Endpoint<Input, Output> implements RemoteAction<Output> {
         }
 
         if (isError(serverResponse)) {
+            storeRequestError(getOperationType());
+            recordRequest(startNanos, flightRecorderEvent, false, serverResponse.code(),
+                    errorCategory(serverResponse));
             String responseBodyText;
             JsonElement responseBody;
 
@@ -123,7 +149,14 @@ public abstract class Endpoint<Input, Output> implements RemoteAction<Output> {
         }
 
         storeRequestLatency(serverResponse, getOperationType());
-        response = createResponse(serverResponse);
+        try {
+            response = createResponse(serverResponse);
+        } catch (PubNubException e) {
+            recordRequest(startNanos, flightRecorderEvent, false, serverResponse.code(),
+                    PNStatusCategory.PNMalformedResponseCategory);
+            throw e;
+        }
+        recordRequest(startNanos, flightRecorderEvent, false, serverResponse.code(), null);
 
         return response;
     }
@@ -142,6 +175,8 @@ public abstract class Endpoint<Input, Output> implements RemoteAction<Output> {
             return;
         }
 
+        final long startNanos = System.nanoTime();
+        final Object flightRecorderEvent = FlightRecorderEvents.INSTANCE.requestStarted();
         call.enqueue(new retrofit2.Callback<Input>() {
 
             @Override
@@ -149,6 +184,7 @@ public abstract class Endpoint<Input, Output> implements RemoteAction<Output> {
                 Output callbackResponse;
 
                 if (isError(response)) {
+                    storeRequestError(getOperationType());
 
                     String responseBodyText;
                     JsonElement responseBody;
@@ -209,6 +245,7 @@ public abstract class Endpoint<Input, Output> implements RemoteAction<Output> {
                         pnStatusCategory = PNStatusCategory.PNBadRequestCategory;
                     }
 
+                    recordRequest(startNanos, flightRecorderEvent, true, response.code(), pnStatusCategory);
                     callback.onResponse(null,
                             createStatusResponse(pnStatusCategory, response, ex, affectedChannels,
                                     affectedChannelGroups));
@@ -219,12 +256,15 @@ public abstract class Endpoint<Input, Output> implements RemoteAction<Output> {
                 try {
                     callbackResponse = createResponse(response);
                 } catch (PubNubException pubnubException) {
+                    recordRequest(startNanos, flightRecorderEvent, true, response.code(),
+                            PNStatusCategory.PNMalformedResponseCategory);
                     callback.onResponse(null,
                             createStatusResponse(PNStatusCategory.PNMalformedResponseCategory, response,
                                     pubnubException, null, null));
                     return;
                 }
 
+                recordRequest(startNanos, flightRecorderEvent, true, response.code(), null);
                 callback.onResponse(callbackResponse,
                         createStatusResponse(PNStatusCategory.PNAcknowledgmentCategory, response,
                                 null, null, null));
@@ -262,6 +302,11 @@ public abstract class Endpoint<Input, Output> implements RemoteAction<Output> {
                     }
                 }
 
+                if (pnStatusCategory != PNStatusCategory.PNCancelledCategory) {
+                    storeRequestError(getOperationType());
+                }
+                recordRequest(startNanos, flightRecorderEvent, true, 0, pnStatusCategory);
+
                 callback.onResponse(null,
                         createStatusResponse(pnStatusCategory, null, pubnubException.build(),
                                 null, null));
@@ -289,10 +334,25 @@ public abstract class Endpoint<Input, Output> implements RemoteAction<Output> {
                 .errormsg(responseBodyText)
                 .jso(responseBody)
                 .statusCode(response.code())
+                .retryAfter(retryAfter(response))
                 .affectedCall(call)
                 .build();
     }
 
+    @Nullable
+    private static Integer retryAfter(Response<?> response) {
+        final String retryAfter = response.headers().get("Retry-After");
+        if (retryAfter == null) {
+            return null;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            // an HTTP date is not sent by the servers, fall back to the caller's own delay
+            return null;
+        }
+    }
+
     @Override
     public void retry() {
         silenceFailures = false;
@@ -339,6 +399,7 @@ public abstract class Endpoint<Input, Output> implements RemoteAction<Output> {
 
         pnStatus.operation(getOperationType());
         pnStatus.category(category);
+        pnStatus.networkTimings(networkTimings);
 
         if (errorChannels != null && !errorChannels.isEmpty()) {
             pnStatus.affectedChannels(errorChannels);
@@ -362,35 +423,64 @@ public abstract class Endpoint<Input, Output> implements RemoteAction<Output> {
         }
     }
 
-    protected Map<String, String> createBaseParams() {
-        Map<String, String> params = new HashMap<>();
-
-        if (queryParam != null) {
-            params.putAll(queryParam);
+    private void recordRequest(long startNanos,
+                               @Nullable Object flightRecorderEvent,
+                               boolean async,
+                               int statusCode,
+                               @Nullable PNStatusCategory errorCategory) {
+        FlightRecorderEvents.INSTANCE.requestFinished(flightRecorderEvent, getOperationType(), async, statusCode,
+                errorCategory);
+        final NetworkTimingManager networkTimingManager = this.retrofit != null
+                ? this.retrofit.getNetworkTimingManager()
+                : null;
+        networkTimings = networkTimingManager != null && call != null
+                ? networkTimingManager.take(call.request())
+                : null;
+        if (networkTimings != null && this.telemetryManager != null) {
+            this.telemetryManager.storeNetworkTimings(networkTimings, getOperationType());
         }
+        final MetricsManager metricsManager = this.pubnub.getMetricsManager();
+        if (metricsManager != null) {
+            metricsManager.requestCompleted(getOperationType(), startNanos, errorCategory);
+        }
+    }
 
-        params.put("pnsdk", "PubNub-Java-Unified/".concat(this.pubnub.getVersion()));
-        params.put("uuid", this.pubnub.getConfiguration().getUserId().getValue());
+    private static PNStatusCategory errorCategory(Response<?> response) {
+        if (response.code() == HttpURLConnection.HTTP_FORBIDDEN) {
+            return PNStatusCategory.PNAccessDeniedCategory;
+        } else if (response.code() == HttpURLConnection.HTTP_BAD_REQUEST) {
+            return PNStatusCategory.PNBadRequestCategory;
+        }
+        return PNStatusCategory.PNUnknownCategory;
+    }
 
-        if (this.pubnub.getConfiguration().isIncludeInstanceIdentifier()) {
-            params.put("instanceid", pubnub.getInstanceId());
+    private void storeRequestError(PNOperationType type) {
+        if (this.telemetryManager != null) {
+            this.telemetryManager.storeError(type);
         }
+    }
 
-        if (this.pubnub.getConfiguration().isIncludeRequestIdentifier()) {
-            params.put("requestid", pubnub.getRequestId());
+    protected Map<String, String> createBaseParams() {
+        BaseParamsManager baseParamsManager = this.pubnub.getBaseParamsManager();
+        if (baseParamsManager == null) {
+            baseParamsManager = new BaseParamsManager(this.pubnub);
         }
+        final BaseParamsManager.Template template = baseParamsManager.template(tokenManager, telemetryManager,
+                isAuthRequired());
+        baseParamsTemplate = template;
 
-        if (isAuthRequired()) {
-            final String token = tokenManager.getToken();
-            if (token != null) {
-                params.put(PubNubUtil.AUTH_QUERY_PARAM_NAME, token);
-            } else if (this.pubnub.getConfiguration().getAuthKey() != null) {
-                params.put(PubNubUtil.AUTH_QUERY_PARAM_NAME, pubnub.getConfiguration().getAuthKey());
+        // the template parameters are read through instead of copied, and take precedence over custom ones
+        final Map<String, String> params = template.newRequestParams();
+        if (queryParam != null) {
+            for (Map.Entry<String, String> parameter : queryParam.entrySet()) {
+                if (!params.containsKey(parameter.getKey())) {
+                    params.put(parameter.getKey(), parameter.getValue());
+                }
             }
         }
 
-        if (this.telemetryManager != null) {
-            params.putAll(this.telemetryManager.operationsLatency());
+        if (this.pubnub.getConfiguration().isIncludeRequestIdentifier()) {
+            params.put("requestid", pubnub.getRequestId());
         }
 
         return params;
@@ -398,12 +488,25 @@ public abstract class Endpoint<Input, Output> implements RemoteAction<Output> {
 
     protected Map<String, String> encodeParams(Map<String, String> params) {
         Map<String, String> encodedParams = new HashMap<>(params);
-        if (encodedParams.containsKey(PubNubUtil.AUTH_QUERY_PARAM_NAME)) {
-            encodedParams.put(PubNubUtil.AUTH_QUERY_PARAM_NAME, PubNubUtil.urlEncode(encodedParams.get(PubNubUtil.AUTH_QUERY_PARAM_NAME)));
-        }
+        encodeAuth(encodedParams);
         return encodedParams;
     }
 
+    /**
+     * Encodes the auth of {@code params} in place, without copying the other parameters like
+     * {@link #encodeParams(Map)}.
+     */
+    protected void encodeAuth(Map<String, String> params) {
+        if (params.containsKey(PubNubUtil.AUTH_QUERY_PARAM_NAME)) {
+            final String auth = params.get(PubNubUtil.AUTH_QUERY_PARAM_NAME);
+            final BaseParamsManager.Template template = baseParamsTemplate;
+            // the auth of the template is compared by identity, an auth set otherwise is encoded again
+            params.put(PubNubUtil.AUTH_QUERY_PARAM_NAME, template != null && auth == template.getAuth()
+                    ? template.getEncodedAuth()
+                    : PubNubUtil.urlEncode(auth));
+        }
+    }
+
     protected abstract List<String> getAffectedChannels();
 
     protected abstract List<String> getAffectedChannelGroups();
@@ -6,12 +6,17 @@ import com.pubnub.api.PubNub;
 import com.pubnub.api.PubNubException;
 import com.pubnub.api.PubNubUtil;
 import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.callbacks.PNCallback;
 import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.managers.HistoryCacheManager;
 import com.pubnub.api.managers.MapperManager;
 import com.pubnub.api.managers.RetrofitManager;
 import com.pubnub.api.managers.TelemetryManager;
 import com.pubnub.api.managers.token_manager.TokenManager;
 import com.pubnub.api.models.consumer.PNBoundedPage;
+import com.pubnub.api.models.consumer.PNErrorData;
+import com.pubnub.api.models.consumer.PNStatus;
 import com.pubnub.api.models.consumer.history.PNFetchMessageItem;
 import com.pubnub.api.models.consumer.history.PNFetchMessagesResult;
 import com.pubnub.api.models.server.FetchMessagesEnvelope;
@@ -19,10 +24,14 @@ import com.pubnub.api.vendor.Crypto;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
 import retrofit2.Call;
 import retrofit2.Response;
 
+import java.net.HttpURLConnection;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -57,14 +66,67 @@ public class FetchMessages extends Endpoint<FetchMessagesEnvelope, PNFetchMessag
     @Setter
     private boolean includeUUID = true;
 
+    private final TelemetryManager telemetryManager;
+    private final TokenManager tokenManager;
+    private final HistoryCacheManager historyCache;
+
     public FetchMessages(PubNub pubnub,
                          TelemetryManager telemetryManager,
                          RetrofitManager retrofit,
                          TokenManager tokenManager) {
+        this(pubnub, telemetryManager, retrofit, tokenManager, null);
+    }
+
+    public FetchMessages(PubNub pubnub,
+                         TelemetryManager telemetryManager,
+                         RetrofitManager retrofit,
+                         TokenManager tokenManager,
+                         HistoryCacheManager historyCache) {
         super(pubnub, telemetryManager, retrofit, tokenManager);
+        this.telemetryManager = telemetryManager;
+        this.tokenManager = tokenManager;
+        this.historyCache = historyCache;
         channels = new ArrayList<>();
     }
 
+    @Override
+    public PNFetchMessagesResult sync() throws PubNubException {
+        if (!isCacheable()) {
+            return super.sync();
+        }
+        return readThroughCache();
+    }
+
+    @Override
+    public void async(@NotNull final PNCallback<PNFetchMessagesResult> callback) {
+        if (!isCacheable()) {
+            super.async(callback);
+            return;
+        }
+        this.getRetrofit().getTransactionClientExecutorService().execute(() -> {
+            try {
+                final PNFetchMessagesResult result = readThroughCache();
+                callback.onResponse(result, PNStatus.builder()
+                        .executedEndpoint(this)
+                        .operation(getOperationType())
+                        .category(PNStatusCategory.PNAcknowledgmentCategory)
+                        .statusCode(HttpURLConnection.HTTP_OK)
+                        .affectedChannels(channels)
+                        .build());
+            } catch (PubNubException ex) {
+                callback.onResponse(null, PNStatus.builder()
+                        .executedEndpoint(this)
+                        .operation(getOperationType())
+                        .category(PubNubUtil.errorCategory(ex))
+                        .statusCode(ex.getStatusCode())
+                        .error(true)
+                        .errorData(new PNErrorData(ex.getErrormsg(), ex))
+                        .affectedChannels(channels)
+                        .build());
+            }
+        });
+    }
+
     @Override
     protected List<String> getAffectedChannels() {
         return channels;
@@ -203,6 +265,93 @@ public class FetchMessages extends Endpoint<FetchMessagesEnvelope, PNFetchMessag
         return true;
     }
 
+    /**
+     * The history cache serves only the most recent messages of a single channel without message actions.
+     */
+    private boolean isCacheable() {
+        return historyCache != null
+                && start == null
+                && channels != null
+                && channels.size() == 1
+                && !Boolean.TRUE.equals(includeMessageActions);
+    }
+
+    private PNFetchMessagesResult readThroughCache() throws PubNubException {
+        validateParams();
+        final String channel = channels.get(0);
+        final int ticket = historyCache.begin(channel);
+
+        List<PNFetchMessageItem> items = historyCache.read(channel, end, maximumPerChannel, false);
+        if (items == null) {
+            final Long head = historyCache.getHead(channel);
+            if (head != null) {
+                final List<PNFetchMessageItem> newer = fetchForCache(channel, head + 1, SINGLE_CHANNEL_MAX_MESSAGES);
+                if (newer.size() < SINGLE_CHANNEL_MAX_MESSAGES) {
+                    historyCache.storeNewer(channel, newer, ticket);
+                    items = historyCache.read(channel, end, maximumPerChannel, true);
+                } else {
+                    // too much was published since the last read to tell whether anything is missing
+                    historyCache.invalidate(channel);
+                }
+            }
+        }
+        if (items == null) {
+            items = fetchForCache(channel, end, maximumPerChannel);
+            historyCache.storeLatest(channel, items, end, maximumPerChannel, ticket);
+        }
+
+        final List<PNFetchMessageItem> projectedItems = new ArrayList<>(items.size());
+        for (PNFetchMessageItem item : items) {
+            PNFetchMessageItem.PNFetchMessageItemBuilder messageItemBuilder = item.toBuilder().actions(null);
+            if (!includeMeta) {
+                messageItemBuilder.meta(null);
+            }
+            if (!includeUUID) {
+                messageItemBuilder.uuid(null);
+            }
+            if (!includeMessageType) {
+                messageItemBuilder.messageType(null);
+            }
+            projectedItems.add(messageItemBuilder.build());
+        }
+
+        HashMap<String, List<PNFetchMessageItem>> channelsMap = new HashMap<>();
+        channelsMap.put(channel, projectedItems);
+
+        PNBoundedPage page = null;
+        if (!projectedItems.isEmpty() && projectedItems.size() >= maximumPerChannel) {
+            page = new PNBoundedPage(projectedItems.get(0).getTimetoken(), end, maximumPerChannel);
+        }
+
+        return PNFetchMessagesResult.builder()
+                .channels(channelsMap)
+                .page(page)
+                .build();
+    }
+
+    /**
+     * Fetches the newest messages of the channel with every optional field included, so the cached items can
+     * answer any later request.
+     */
+    private List<PNFetchMessageItem> fetchForCache(String channel, Long fetchEnd, int max) throws PubNubException {
+        final PNFetchMessagesResult result = new FetchMessages(this.getPubnub(), telemetryManager, this.getRetrofit(),
+                tokenManager)
+                .channels(Collections.singletonList(channel))
+                .maximumPerChannel(max)
+                .end(fetchEnd)
+                .includeMeta(true)
+                .includeUUID(true)
+                .includeMessageType(true)
+                .sync();
+
+        final List<PNFetchMessageItem> items = new ArrayList<>();
+        if (result != null && result.getChannels() != null && result.getChannels().get(channel) != null) {
+            items.addAll(result.getChannels().get(channel));
+        }
+        items.sort(Comparator.comparing(PNFetchMessageItem::getTimetoken));
+        return items;
+    }
+
     private JsonElement processMessage(JsonElement message) throws PubNubException {
         // if we do not have a crypto key, there is no way to process the node; let's return.
         if (this.getPubnub().getConfiguration().getCipherKey() == null) {
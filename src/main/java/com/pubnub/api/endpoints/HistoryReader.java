@@ -0,0 +1,409 @@
+package com.pubnub.api.endpoints;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.callbacks.ChannelHistoryCallback;
+import com.pubnub.api.callbacks.PNCallback;
+import com.pubnub.api.endpoints.remoteaction.RemoteAction;
+import com.pubnub.api.endpoints.remoteaction.RetryingRemoteAction;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.managers.RetrofitManager;
+import com.pubnub.api.managers.TelemetryManager;
+import com.pubnub.api.managers.token_manager.TokenManager;
+import com.pubnub.api.models.consumer.PNErrorData;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.history.PNFetchMessageItem;
+import com.pubnub.api.models.consumer.history.PNFetchMessagesResult;
+import com.pubnub.api.models.consumer.history.PNHistoryReaderResult;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reads the history of many channels within a timetoken range.
+ * <p>
+ * Channels are fetched in groups of {@code channelsPerRequest}, with at most {@code maxConcurrency} requests in
+ * flight. Every channel whose page came back full is continued on its own with the larger single channel page
+ * size until the range is exhausted. Every page is passed to the {@link ChannelHistoryCallback} as soon as it
+ * arrives, so at most one page per channel is held in memory however long the range is.
+ * <p>
+ * Channels are read from the newest message back to {@code end} unless {@code ascending} is set, in which case
+ * they are read forward from {@code end} to {@code start}.
+ */
+@Accessors(chain = true, fluent = true)
+public class HistoryReader implements RemoteAction<PNHistoryReaderResult> {
+    private static final int DEFAULT_CHANNELS_PER_REQUEST = 100;
+    private static final int MAX_CHANNELS_PER_REQUEST = 500;
+    private static final int DEFAULT_MAX_CONCURRENCY = 4;
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final int SINGLE_CHANNEL_MAX_MESSAGES = 100;
+    private static final int MULTIPLE_CHANNEL_MAX_MESSAGES = 25;
+
+    private final PubNub pubnub;
+    private final TelemetryManager telemetryManager;
+    private final RetrofitManager retrofit;
+    private final TokenManager tokenManager;
+    private final ExecutorService executorService;
+    private final Set<RemoteAction<?>> inFlightActions = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    @Setter
+    private List<String> channels;
+    /**
+     * Newest timetoken of the range, exclusive. Reading starts from the most recent message when not set.
+     */
+    @Setter
+    private Long start;
+    /**
+     * Oldest timetoken of the range, inclusive. Reading continues to the oldest stored message when not set.
+     */
+    @Setter
+    private Long end;
+    /**
+     * Reads every channel forward from {@code end}, which must then be set, so pages and the messages within them
+     * are passed in ascending timetoken order. Otherwise they are passed in descending order.
+     */
+    @Setter
+    private boolean ascending;
+    @Setter
+    private boolean includeMeta;
+    @Setter
+    private boolean includeMessageType = true;
+    @Setter
+    private boolean includeUUID = true;
+    @Setter
+    private int channelsPerRequest = DEFAULT_CHANNELS_PER_REQUEST;
+    @Setter
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    /**
+     * Number of attempts made for each fetch request before the read fails.
+     */
+    @Setter
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    @Setter
+    private ChannelHistoryCallback channelHistoryCallback;
+
+    private volatile boolean cancelled;
+    private PNCallback<PNHistoryReaderResult> cachedCallback;
+
+    public HistoryReader(PubNub pubnub,
+                         TelemetryManager telemetryManager,
+                         RetrofitManager retrofit,
+                         TokenManager tokenManager) {
+        this.pubnub = pubnub;
+        this.telemetryManager = telemetryManager;
+        this.retrofit = retrofit;
+        this.tokenManager = tokenManager;
+        this.executorService = retrofit.getTransactionClientExecutorService();
+        this.channels = new ArrayList<>();
+    }
+
+    @Override
+    public PNHistoryReaderResult sync() throws PubNubException {
+        validate();
+        cancelled = false;
+
+        final List<String> distinctChannels = new ArrayList<>(new LinkedHashSet<>(channels));
+        final Set<String> unfinished = new HashSet<>(distinctChannels);
+        final Deque<ReadRequest> pending = new ArrayDeque<>();
+        for (int i = 0; i < distinctChannels.size(); i += channelsPerRequest) {
+            final List<String> group = new ArrayList<>(
+                    distinctChannels.subList(i, Math.min(i + channelsPerRequest, distinctChannels.size())));
+            pending.add(new ReadRequest(group, ascending ? end : start));
+        }
+
+        final BlockingQueue<ReadResponse> responses = new LinkedBlockingQueue<>();
+        PubNubException failure = null;
+        int inFlight = 0;
+        int requests = 0;
+        long messages = 0;
+
+        try {
+            while (inFlight > 0 || (!pending.isEmpty() && failure == null && !cancelled)) {
+                while (inFlight < maxConcurrency && !pending.isEmpty() && failure == null && !cancelled) {
+                    final ReadRequest request = pending.poll();
+                    inFlight++;
+                    requests++;
+                    submit(request, responses);
+                }
+
+                final ReadResponse response = responses.take();
+                inFlight--;
+                if (response.failure != null) {
+                    if (failure == null) {
+                        failure = response.failure;
+                        cancelInFlight();
+                    }
+                    continue;
+                }
+                if (failure != null || cancelled) {
+                    continue;
+                }
+
+                for (final String channel : response.request.channels) {
+                    final List<PNFetchMessageItem> page = response.result.getChannels() != null
+                            && response.result.getChannels().get(channel) != null
+                            ? new ArrayList<>(response.result.getChannels().get(channel))
+                            : null;
+                    final Long nextCursor = ascending
+                            ? nextEnd(response.request, page)
+                            : nextStart(response.request, response.result, page);
+                    if (page != null) {
+                        messages += emit(channel, page);
+                    }
+                    if (nextCursor != null) {
+                        pending.add(new ReadRequest(Collections.singletonList(channel), nextCursor));
+                    } else {
+                        unfinished.remove(channel);
+                        channelHistoryCallback.onChannelRead(channel);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            silentCancel();
+            Thread.currentThread().interrupt();
+            throw PubNubException.builder()
+                    .pubnubError(PubNubErrorBuilder.PNERROBJ_HTTP_ERROR)
+                    .errormsg(e.getMessage())
+                    .cause(e)
+                    .build();
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+        if (!unfinished.isEmpty()) {
+            throw PubNubException.builder()
+                    .pubnubError(PubNubErrorBuilder.PNERROBJ_HTTP_ERROR)
+                    .errormsg("History read was cancelled with " + unfinished.size() + " channels not read")
+                    .build();
+        }
+
+        return new PNHistoryReaderResult(distinctChannels.size(), messages, requests);
+    }
+
+    @Override
+    public void async(@NotNull final PNCallback<PNHistoryReaderResult> callback) {
+        cachedCallback = callback;
+        executorService.execute(() -> {
+            try {
+                final PNHistoryReaderResult result = sync();
+                callback.onResponse(result, PNStatus.builder()
+                        .executedEndpoint(this)
+                        .operation(PNOperationType.PNFetchMessagesOperation)
+                        .category(PNStatusCategory.PNAcknowledgmentCategory)
+                        .statusCode(HttpURLConnection.HTTP_OK)
+                        .build());
+            } catch (PubNubException ex) {
+                callback.onResponse(null, PNStatus.builder()
+                        .executedEndpoint(this)
+                        .operation(PNOperationType.PNFetchMessagesOperation)
+                        .error(true)
+                        .errorData(new PNErrorData(ex.getErrormsg(), ex))
+                        .build());
+            }
+        });
+    }
+
+    @Override
+    public void retry() {
+        async(cachedCallback);
+    }
+
+    @Override
+    public void silentCancel() {
+        cancelled = true;
+        cancelInFlight();
+    }
+
+    private void validate() throws PubNubException {
+        if (pubnub.getConfiguration().getSubscribeKey() == null
+                || pubnub.getConfiguration().getSubscribeKey().isEmpty()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_SUBSCRIBE_KEY_MISSING).build();
+        }
+        if (channels == null || channels.isEmpty()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CHANNEL_MISSING).build();
+        }
+        if (channelHistoryCallback == null) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("channelHistoryCallback cannot be null").build();
+        }
+        if (channelsPerRequest < 1 || channelsPerRequest > MAX_CHANNELS_PER_REQUEST) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("channelsPerRequest must be between 1 and " + MAX_CHANNELS_PER_REQUEST).build();
+        }
+        if (ascending && end == null) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("end must be set to read in ascending order").build();
+        }
+        if (maxConcurrency < 1 || maxRetries < 1) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("maxConcurrency and maxRetries must be greater than 0").build();
+        }
+    }
+
+    /**
+     * Runs a fetch in the background. Every submitted request gets exactly one response, a failure when the fetch
+     * could not run or threw, so the reading loop never waits for a response which will not come.
+     */
+    private void submit(final ReadRequest request, final BlockingQueue<ReadResponse> responses) {
+        try {
+            executorService.execute(() -> {
+                try {
+                    responses.add(fetch(request));
+                } catch (RuntimeException e) {
+                    responses.add(new ReadResponse(request, null, unexpectedFailure(e)));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            responses.add(new ReadResponse(request, null, unexpectedFailure(e)));
+        }
+    }
+
+    private static PubNubException unexpectedFailure(final RuntimeException e) {
+        return PubNubException.builder()
+                .pubnubError(PubNubErrorBuilder.PNERROBJ_HTTP_ERROR)
+                .errormsg(e.toString())
+                .cause(e)
+                .build();
+    }
+
+    private ReadResponse fetch(final ReadRequest request) {
+        final FetchMessages fetchMessages = new FetchMessages(pubnub, telemetryManager, retrofit, tokenManager)
+                .channels(request.channels)
+                .maximumPerChannel(request.maximumPerChannel())
+                // reading forward, only the oldest timetoken is sent so the oldest messages come back
+                .start(ascending ? null : request.cursor)
+                .end(ascending ? request.cursor : end)
+                .includeMeta(includeMeta)
+                .includeMessageType(includeMessageType)
+                .includeUUID(includeUUID);
+        final RemoteAction<PNFetchMessagesResult> action = RetryingRemoteAction.autoRetry(fetchMessages, maxRetries,
+                PNOperationType.PNFetchMessagesOperation, executorService, pubnub.getMetricsManager());
+        inFlightActions.add(action);
+        try {
+            return new ReadResponse(request, action.sync(), null);
+        } catch (PubNubException ex) {
+            return new ReadResponse(request, null, ex);
+        } finally {
+            inFlightActions.remove(action);
+        }
+    }
+
+    /**
+     * Returns the start of the next page of a channel read backward, or {@code null} when the channel has been read
+     * completely.
+     */
+    @Nullable
+    private Long nextStart(final ReadRequest request,
+                           final PNFetchMessagesResult result,
+                           @Nullable final List<PNFetchMessageItem> page) {
+        if (page == null || page.isEmpty()) {
+            return null;
+        }
+
+        Long nextStart = null;
+        if (request.channels.size() == 1 && result.getPage() != null && result.getPage().getStart() != null) {
+            nextStart = result.getPage().getStart();
+        } else if (page.size() >= request.maximumPerChannel()) {
+            for (final PNFetchMessageItem item : page) {
+                if (nextStart == null || item.getTimetoken() < nextStart) {
+                    nextStart = item.getTimetoken();
+                }
+            }
+        }
+
+        if (nextStart == null
+                || (end != null && nextStart <= end)
+                || (request.cursor != null && nextStart >= request.cursor)) {
+            return null;
+        }
+        return nextStart;
+    }
+
+    /**
+     * Returns the end of the next page of a channel read forward, or {@code null} when the channel has been read
+     * completely. Messages at or after {@code start} are removed from the page.
+     */
+    @Nullable
+    private Long nextEnd(final ReadRequest request, @Nullable final List<PNFetchMessageItem> page) {
+        if (page == null || page.isEmpty()) {
+            return null;
+        }
+
+        final boolean full = page.size() >= request.maximumPerChannel();
+        long newest = Long.MIN_VALUE;
+        for (final PNFetchMessageItem item : page) {
+            newest = Math.max(newest, item.getTimetoken());
+        }
+        if (start != null && page.removeIf(item -> item.getTimetoken() >= start)) {
+            return null;
+        }
+        return full ? newest + 1 : null;
+    }
+
+    private int emit(final String channel, final List<PNFetchMessageItem> page) {
+        if (page.isEmpty()) {
+            return 0;
+        }
+        final Comparator<PNFetchMessageItem> byTimetoken = Comparator.comparing(PNFetchMessageItem::getTimetoken);
+        page.sort(ascending ? byTimetoken : byTimetoken.reversed());
+        channelHistoryCallback.onChannelHistory(channel, page);
+        return page.size();
+    }
+
+    private void cancelInFlight() {
+        for (final RemoteAction<?> action : inFlightActions) {
+            action.silentCancel();
+        }
+    }
+
+    private static final class ReadRequest {
+        private final List<String> channels;
+        /**
+         * Start of the page when reading backward, its end when reading forward.
+         */
+        private final Long cursor;
+
+        private ReadRequest(final List<String> channels, final Long cursor) {
+            this.channels = channels;
+            this.cursor = cursor;
+        }
+
+        private int maximumPerChannel() {
+            return channels.size() == 1 ? SINGLE_CHANNEL_MAX_MESSAGES : MULTIPLE_CHANNEL_MAX_MESSAGES;
+        }
+    }
+
+    private static final class ReadResponse {
+        private final ReadRequest request;
+        private final PNFetchMessagesResult result;
+        private final PubNubException failure;
+
+        private ReadResponse(final ReadRequest request,
+                             final PNFetchMessagesResult result,
+                             final PubNubException failure) {
+            this.request = request;
+            this.result = result;
+            this.failure = failure;
+        }
+    }
+}
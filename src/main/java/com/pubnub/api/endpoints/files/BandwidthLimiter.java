@@ -0,0 +1,35 @@
+package com.pubnub.api.endpoints.files;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the rate of bytes shared by concurrent uploads. Every reservation moves the earliest time the next bytes may
+ * be sent, so uploads running in parallel split the budget instead of each getting its own.
+ */
+class BandwidthLimiter {
+    private static final long NANOS_IN_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long bytesPerSecond;
+    private long nextFreeNanos;
+
+    BandwidthLimiter(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Blocks until {@code bytes} may be sent without going over the rate.
+     */
+    void acquire(int bytes) throws InterruptedException {
+        final long sendAt;
+        synchronized (this) {
+            final long now = System.nanoTime();
+            sendAt = Math.max(now, nextFreeNanos);
+            nextFreeNanos = sendAt + bytes * NANOS_IN_SECOND / bytesPerSecond;
+        }
+        final long waitNanos = sendAt - System.nanoTime();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -9,10 +9,12 @@ import com.pubnub.api.endpoints.files.requiredparambuilder.ChannelFileNameFileId
 import com.pubnub.api.endpoints.files.requiredparambuilder.FilesBuilderSteps.FileIdStep;
 import com.pubnub.api.endpoints.files.requiredparambuilder.FilesBuilderSteps.FileNameStep;
 import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.managers.FileCacheManager;
 import com.pubnub.api.managers.RetrofitManager;
 import com.pubnub.api.managers.TelemetryManager;
 import com.pubnub.api.managers.token_manager.TokenManager;
 import com.pubnub.api.models.consumer.files.PNDeleteFileResult;
+import org.jetbrains.annotations.Nullable;
 import retrofit2.Call;
 import retrofit2.Response;
 
@@ -24,6 +26,8 @@ public class DeleteFile extends Endpoint<Void, PNDeleteFileResult> {
     private final String channel;
     private final String fileName;
     private final String fileId;
+    @Nullable
+    private final FileCacheManager fileCacheManager;
 
     public DeleteFile(String channel,
                       String fileName,
@@ -31,10 +35,22 @@ public class DeleteFile extends Endpoint<Void, PNDeleteFileResult> {
                       PubNub pubnubInstance,
                       TelemetryManager telemetry,
                       RetrofitManager retrofitInstance, TokenManager tokenManager) {
+        this(channel, fileName, fileId, pubnubInstance, telemetry, retrofitInstance, tokenManager, null);
+    }
+
+    public DeleteFile(String channel,
+                      String fileName,
+                      String fileId,
+                      PubNub pubnubInstance,
+                      TelemetryManager telemetry,
+                      RetrofitManager retrofitInstance,
+                      TokenManager tokenManager,
+                      @Nullable FileCacheManager fileCacheManager) {
         super(pubnubInstance, telemetry, retrofitInstance, tokenManager);
         this.channel = channel;
         this.fileName = fileName;
         this.fileId = fileId;
+        this.fileCacheManager = fileCacheManager;
     }
 
     @Override
@@ -71,6 +87,10 @@ public class DeleteFile extends Endpoint<Void, PNDeleteFileResult> {
     @Override
     protected PNDeleteFileResult createResponse(Response<Void> input) throws PubNubException {
         if (input.isSuccessful()) {
+            if (fileCacheManager != null) {
+                fileCacheManager.remove(FileCacheManager.key(getPubnub().getConfiguration().getSubscribeKey(),
+                        channel, fileId, fileName));
+            }
             return new PNDeleteFileResult(input.code());
         } else {
             throw PubNubException.builder()
@@ -101,7 +121,16 @@ public class DeleteFile extends Endpoint<Void, PNDeleteFileResult> {
                                   TelemetryManager telemetryManager,
                                   RetrofitManager retrofitManager,
                                   TokenManager tokenManager) {
+        return builder(pubNub, telemetryManager, retrofitManager, tokenManager, null);
+    }
+
+    public static Builder builder(PubNub pubNub,
+                                  TelemetryManager telemetryManager,
+                                  RetrofitManager retrofitManager,
+                                  TokenManager tokenManager,
+                                  @Nullable FileCacheManager fileCacheManager) {
         return new Builder(ChannelFileNameFileIdBuilder.create((channel, fileName, fileId) ->
-                new DeleteFile(channel, fileName, fileId, pubNub, telemetryManager, retrofitManager, tokenManager)));
+                new DeleteFile(channel, fileName, fileId, pubNub, telemetryManager, retrofitManager, tokenManager,
+                        fileCacheManager)));
     }
 }
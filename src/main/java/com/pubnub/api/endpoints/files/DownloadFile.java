@@ -8,19 +8,38 @@ import com.pubnub.api.endpoints.files.requiredparambuilder.ChannelFileNameFileId
 import com.pubnub.api.endpoints.BuilderSteps.ChannelStep;
 import com.pubnub.api.endpoints.files.requiredparambuilder.FilesBuilderSteps.FileIdStep;
 import com.pubnub.api.endpoints.files.requiredparambuilder.FilesBuilderSteps.FileNameStep;
+import com.pubnub.api.callbacks.PNCallback;
 import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.managers.FileCacheManager;
 import com.pubnub.api.managers.RetrofitManager;
 import com.pubnub.api.managers.TelemetryManager;
 import com.pubnub.api.managers.token_manager.TokenManager;
+import com.pubnub.api.models.consumer.PNErrorData;
+import com.pubnub.api.models.consumer.PNStatus;
 import com.pubnub.api.models.consumer.files.PNDownloadFileResult;
 import com.pubnub.api.vendor.FileEncryptionUtil;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import retrofit2.Call;
 import retrofit2.Response;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +48,9 @@ import static com.pubnub.api.vendor.FileEncryptionUtil.effectiveCipherKey;
 
 @Accessors(chain = true, fluent = true)
 public class DownloadFile extends Endpoint<ResponseBody, PNDownloadFileResult> {
+    private static final int DEFAULT_MAX_RESUME_ATTEMPTS = 3;
+    private static final long TRANSFER_CHUNK_BYTES = 1024 * 1024;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
     private final String channel;
     private final String fileName;
     private final String fileId;
@@ -36,6 +58,38 @@ public class DownloadFile extends Endpoint<ResponseBody, PNDownloadFileResult> {
     @Setter
     private String cipherKey;
 
+    /**
+     * Writes the content to this file instead of returning a stream of it. Unencrypted content is transferred
+     * straight to the file channel and a dropped connection is resumed with a ranged request, encrypted content is
+     * decrypted while it is streamed to the file.
+     */
+    @Setter
+    private Path toPath;
+
+    /**
+     * Continues the download of an unencrypted file from the bytes already in {@link #toPath(Path)}, e.g. after a
+     * previous download failed. The file is overwritten otherwise.
+     */
+    @Setter
+    private boolean resume;
+
+    /**
+     * Size the downloaded file must have, checked once it has been written.
+     */
+    @Setter
+    private Long expectedSize;
+
+    /**
+     * Ranged requests sent to continue a download after its connection dropped.
+     */
+    @Setter
+    private int maxResumeAttempts = DEFAULT_MAX_RESUME_ATTEMPTS;
+
+    @Nullable
+    private final FileCacheManager fileCacheManager;
+    private Map<String, String> params;
+    private long resumeFrom;
+
     public DownloadFile(String channel,
                         String fileName,
                         String fileId,
@@ -43,10 +97,80 @@ public class DownloadFile extends Endpoint<ResponseBody, PNDownloadFileResult> {
                         TelemetryManager telemetry,
                         RetrofitManager retrofitInstance,
                         TokenManager tokenManager) {
+        this(channel, fileName, fileId, pubnubInstance, telemetry, retrofitInstance, tokenManager, null);
+    }
+
+    public DownloadFile(String channel,
+                        String fileName,
+                        String fileId,
+                        PubNub pubnubInstance,
+                        TelemetryManager telemetry,
+                        RetrofitManager retrofitInstance,
+                        TokenManager tokenManager,
+                        @Nullable FileCacheManager fileCacheManager) {
         super(pubnubInstance, telemetry, retrofitInstance, tokenManager);
         this.channel = channel;
         this.fileName = fileName;
         this.fileId = fileId;
+        this.fileCacheManager = fileCacheManager;
+    }
+
+    /**
+     * Serves the file from {@link com.pubnub.api.PNConfiguration#getFileCacheDirectory()} when it is cached.
+     */
+    @Override
+    public PNDownloadFileResult sync() throws PubNubException {
+        final PNDownloadFileResult cached = fromCache();
+        return cached != null ? cached : super.sync();
+    }
+
+    /**
+     * Serves the file from {@link com.pubnub.api.PNConfiguration#getFileCacheDirectory()} when it is cached. The
+     * cache is read on the executor of the transactional client, which also calls the callback of a cached file.
+     */
+    @Override
+    public void async(@NotNull PNCallback<PNDownloadFileResult> callback) {
+        if (fileCacheManager == null) {
+            super.async(callback);
+            return;
+        }
+        getRetrofit().getTransactionClientExecutorService().execute(() -> {
+            // categories as reported by Endpoint.async: invalid parameters, then a file that could not be read
+            try {
+                validateParams();
+            } catch (PubNubException e) {
+                callback.onResponse(null, errorStatus(PNStatusCategory.PNBadRequestCategory, e));
+                return;
+            }
+            final PNDownloadFileResult cached;
+            try {
+                cached = fromCache();
+            } catch (PubNubException e) {
+                callback.onResponse(null, errorStatus(PNStatusCategory.PNMalformedResponseCategory, e));
+                return;
+            }
+            if (cached == null) {
+                super.async(callback);
+                return;
+            }
+            callback.onResponse(cached, PNStatus.builder()
+                    .error(false)
+                    .category(PNStatusCategory.PNAcknowledgmentCategory)
+                    .operation(getOperationType())
+                    .statusCode(HttpURLConnection.HTTP_OK)
+                    .affectedChannels(getAffectedChannels())
+                    .build());
+        });
+    }
+
+    private PNStatus errorStatus(PNStatusCategory category, PubNubException e) {
+        return PNStatus.builder()
+                .error(true)
+                .category(category)
+                .operation(getOperationType())
+                .errorData(new PNErrorData(e.getErrormsg(), e))
+                .affectedChannels(getAffectedChannels())
+                .build();
     }
 
     @Override
@@ -73,29 +197,283 @@ public class DownloadFile extends Endpoint<ResponseBody, PNDownloadFileResult> {
 
     @Override
     protected Call<ResponseBody> doWork(Map<String, String> baseParams) throws PubNubException {
-        return getRetrofit().getFilesService().downloadFile(getPubnub().getConfiguration().getSubscribeKey(),
-                channel,
-                fileId,
-                fileName,
-                baseParams);
+        if (toPath == null) {
+            return getRetrofit().getFilesService().downloadFile(getPubnub().getConfiguration().getSubscribeKey(),
+                    channel,
+                    fileId,
+                    fileName,
+                    baseParams);
+        }
+        params = baseParams;
+        resumeFrom = resumableFrom();
+        return downloadFrom(resumeFrom);
+    }
+
+    @Override
+    protected boolean isError(Response<ResponseBody> response) {
+        if (toPath == null) {
+            return super.isError(response);
+        }
+        return response.code() != HttpURLConnection.HTTP_OK
+                && response.code() != HttpURLConnection.HTTP_PARTIAL
+                && !(response.code() == HTTP_RANGE_NOT_SATISFIABLE && resumeFrom > 0);
     }
 
     @Override
     protected PNDownloadFileResult createResponse(Response<ResponseBody> input) throws PubNubException {
+        if (toPath != null) {
+            return writeToPath(input);
+        }
         if (input.body() == null) {
             throw PubNubException.builder()
                     .pubnubError(PubNubErrorBuilder.PNERROBJ_INTERNAL_ERROR)
                     .build();
         }
+        if (fileCacheManager == null) {
+            return streamResult(input.body().byteStream());
+        }
+        // the body is buffered by Retrofit already
+        try {
+            final byte[] bytes = input.body().bytes();
+            fileCacheManager.put(cacheKey(), bytes);
+            return streamResult(new ByteArrayInputStream(bytes));
+        } catch (IOException e) {
+            throw downloadError(e);
+        }
+    }
+
+    private PNDownloadFileResult streamResult(InputStream byteStream) throws PubNubException {
         String effectiveCipherKey = effectiveCipherKey(getPubnub(), cipherKey);
         if (effectiveCipherKey == null) {
-            return new PNDownloadFileResult(fileName, input.body().byteStream());
+            return new PNDownloadFileResult(fileName, byteStream);
         } else {
-            InputStream decryptedByteStream = FileEncryptionUtil.decrypt(effectiveCipherKey, input.body().byteStream());
+            InputStream decryptedByteStream = FileEncryptionUtil.decrypt(effectiveCipherKey, byteStream);
             return new PNDownloadFileResult(fileName, decryptedByteStream);
         }
     }
 
+    @Nullable
+    private PNDownloadFileResult fromCache() throws PubNubException {
+        if (fileCacheManager == null) {
+            return null;
+        }
+        validateParams();
+        final FileInputStream cached = fileCacheManager.open(cacheKey());
+        if (cached == null) {
+            return null;
+        }
+        if (toPath == null) {
+            if (effectiveCipherKey(getPubnub(), cipherKey) == null) {
+                return new PNDownloadFileResult(fileName, cached);
+            }
+            try (InputStream encrypted = cached) {
+                return streamResult(encrypted);
+            } catch (IOException e) {
+                throw downloadError(e);
+            }
+        }
+
+        final String effectiveCipherKey = effectiveCipherKey(getPubnub(), cipherKey);
+        try (FileInputStream inputStream = cached) {
+            if (effectiveCipherKey != null) {
+                try (OutputStream outputStream = Files.newOutputStream(toPath)) {
+                    FileEncryptionUtil.decrypt(effectiveCipherKey, inputStream, outputStream);
+                }
+            } else {
+                try (FileChannel source = inputStream.getChannel();
+                     FileChannel target = FileChannel.open(toPath, StandardOpenOption.CREATE,
+                             StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    for (long position = 0; position < source.size(); ) {
+                        position += source.transferTo(position, source.size() - position, target);
+                    }
+                }
+            }
+            verifySize();
+        } catch (IOException e) {
+            throw downloadError(e);
+        }
+        return new PNDownloadFileResult(fileName, toPath);
+    }
+
+    private String cacheKey() {
+        return FileCacheManager.key(getPubnub().getConfiguration().getSubscribeKey(), channel, fileId, fileName);
+    }
+
+    private long resumableFrom() throws PubNubException {
+        if (!resume || effectiveCipherKey(getPubnub(), cipherKey) != null || !Files.isRegularFile(toPath)) {
+            return 0;
+        }
+        try {
+            return Files.size(toPath);
+        } catch (IOException e) {
+            throw downloadError(e);
+        }
+    }
+
+    private Call<ResponseBody> downloadFrom(long position) {
+        return getRetrofit().getFilesService().downloadFileStreaming(getPubnub().getConfiguration().getSubscribeKey(),
+                channel,
+                fileId,
+                fileName,
+                position > 0 ? "bytes=" + position + "-" : null,
+                params);
+    }
+
+    private PNDownloadFileResult writeToPath(Response<ResponseBody> input) throws PubNubException {
+        final String effectiveCipherKey = effectiveCipherKey(getPubnub(), cipherKey);
+        try {
+            if (input.code() == HTTP_RANGE_NOT_SATISFIABLE) {
+                // the file is complete already when the server has no bytes past its end
+                closeErrorBody(input);
+                if (totalLength(input.headers().get("Content-Range")) != resumeFrom) {
+                    throw downloadError(new IOException("Cannot resume from byte " + resumeFrom));
+                }
+            } else if (effectiveCipherKey != null) {
+                decryptToPath(input, effectiveCipherKey);
+            } else {
+                transferToPath(input);
+            }
+            verifySize();
+            if (fileCacheManager != null && effectiveCipherKey == null) {
+                fileCacheManager.put(cacheKey(), toPath);
+            }
+        } catch (IOException e) {
+            throw downloadError(e);
+        }
+        return new PNDownloadFileResult(fileName, toPath);
+    }
+
+    /**
+     * Decrypts the body to the file, keeping the encrypted content in the cache on the way.
+     */
+    private void decryptToPath(Response<ResponseBody> input, String effectiveCipherKey)
+            throws IOException, PubNubException {
+        final FileCacheManager.Writer cacheWriter = fileCacheManager != null
+                ? fileCacheManager.writer(cacheKey())
+                : null;
+        try (ResponseBody body = input.body();
+             InputStream inputStream = cacheWriter != null
+                     ? new CachingInputStream(body.byteStream(), cacheWriter)
+                     : body.byteStream();
+             OutputStream outputStream = Files.newOutputStream(toPath)) {
+            FileEncryptionUtil.decrypt(effectiveCipherKey, inputStream, outputStream);
+        } catch (IOException | PubNubException | RuntimeException e) {
+            if (cacheWriter != null) {
+                cacheWriter.abort();
+            }
+            throw e;
+        }
+        if (cacheWriter != null) {
+            cacheWriter.commit();
+        }
+    }
+
+    /**
+     * Transfers the body to the file channel, resuming with a ranged request from the last written byte when the
+     * connection drops.
+     */
+    private void transferToPath(Response<ResponseBody> input) throws IOException {
+        Response<ResponseBody> response = input;
+        int resumeAttempts = 0;
+        try (FileChannel fileChannel = FileChannel.open(toPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            while (true) {
+                long position = response.code() == HttpURLConnection.HTTP_PARTIAL
+                        ? rangeStart(response.headers().get("Content-Range"))
+                        : 0;
+                fileChannel.truncate(position);
+                try (ResponseBody body = response.body();
+                     ReadableByteChannel source = Channels.newChannel(body.byteStream())) {
+                    for (long transferred; (transferred = fileChannel.transferFrom(source, position,
+                            TRANSFER_CHUNK_BYTES)) > 0; ) {
+                        position += transferred;
+                    }
+                    return;
+                } catch (IOException e) {
+                    if (resumeAttempts++ >= maxResumeAttempts) {
+                        throw e;
+                    }
+                    response = resume(position, e);
+                }
+            }
+        }
+    }
+
+    private Response<ResponseBody> resume(long position, IOException dropped) throws IOException {
+        final Response<ResponseBody> response = downloadFrom(position).execute();
+        if (response.code() != HttpURLConnection.HTTP_OK && response.code() != HttpURLConnection.HTTP_PARTIAL) {
+            closeErrorBody(response);
+            throw dropped;
+        }
+        return response;
+    }
+
+    private void verifySize() throws IOException {
+        if (expectedSize != null && Files.size(toPath) != expectedSize) {
+            throw new IOException("Expected " + expectedSize + " bytes but downloaded " + Files.size(toPath));
+        }
+    }
+
+    /**
+     * Start of a {@code bytes start-end/total} content range.
+     */
+    private static long rangeStart(String contentRange) throws IOException {
+        try {
+            return Long.parseLong(contentRange.substring("bytes ".length(), contentRange.indexOf('-')).trim());
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid Content-Range " + contentRange, e);
+        }
+    }
+
+    /**
+     * Total of a {@code bytes start-end/total} or {@code bytes *}{@code /total} content range.
+     */
+    private static long totalLength(String contentRange) throws IOException {
+        try {
+            return Long.parseLong(contentRange.substring(contentRange.lastIndexOf('/') + 1).trim());
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid Content-Range " + contentRange, e);
+        }
+    }
+
+    private static void closeErrorBody(Response<ResponseBody> response) {
+        if (response.errorBody() != null) {
+            response.errorBody().close();
+        }
+    }
+
+    private static final class CachingInputStream extends FilterInputStream {
+        private final FileCacheManager.Writer cacheWriter;
+
+        private CachingInputStream(InputStream in, FileCacheManager.Writer cacheWriter) {
+            super(in);
+            this.cacheWriter = cacheWriter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            final int read = read(single, 0, 1);
+            return read == -1 ? -1 : Byte.toUnsignedInt(single[0]);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                cacheWriter.write(b, off, read);
+            }
+            return read;
+        }
+    }
+
+    private static PubNubException downloadError(IOException e) {
+        return PubNubException.builder()
+                .pubnubError(PubNubErrorBuilder.PNERROBJ_FILE_DOWNLOAD_ERROR)
+                .errormsg(e.getMessage())
+                .cause(e)
+                .build();
+    }
+
     @Override
     protected PNOperationType getOperationType() {
         return PNOperationType.PNFileAction;
@@ -116,7 +494,16 @@ public class DownloadFile extends Endpoint<ResponseBody, PNDownloadFileResult> {
                                   TelemetryManager telemetryManager,
                                   RetrofitManager retrofitManager,
                                   TokenManager tokenManager) {
+        return builder(pubNub, telemetryManager, retrofitManager, tokenManager, null);
+    }
+
+    public static Builder builder(PubNub pubNub,
+                                  TelemetryManager telemetryManager,
+                                  RetrofitManager retrofitManager,
+                                  TokenManager tokenManager,
+                                  @Nullable FileCacheManager fileCacheManager) {
         return new Builder(ChannelFileNameFileIdBuilder.create((channel, fileName, fileId) ->
-                new DownloadFile(channel, fileName, fileId, pubNub, telemetryManager, retrofitManager, tokenManager)));
+                new DownloadFile(channel, fileName, fileId, pubNub, telemetryManager, retrofitManager, tokenManager,
+                        fileCacheManager)));
     }
 }
@@ -0,0 +1,91 @@
+package com.pubnub.api.endpoints.files;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Content of a file to upload, read only while the request body is written.
+ */
+abstract class FileUploadContent {
+    static final long UNKNOWN_LENGTH = -1;
+
+    static FileUploadContent of(final byte[] bytes) {
+        return new FileUploadContent() {
+            @Override
+            long length() {
+                return bytes.length;
+            }
+
+            @Override
+            InputStream open() {
+                return new ByteArrayInputStream(bytes);
+            }
+        };
+    }
+
+    static FileUploadContent of(final Path path) {
+        return new FileUploadContent() {
+            @Override
+            long length() throws IOException {
+                return Files.size(path);
+            }
+
+            @Override
+            InputStream open() throws IOException {
+                return Files.newInputStream(path);
+            }
+        };
+    }
+
+    /**
+     * Content read from a stream, which can therefore be uploaded only once.
+     *
+     * @param length number of bytes of the stream, or {@link #UNKNOWN_LENGTH}
+     */
+    static FileUploadContent of(final InputStream inputStream, final long length) {
+        return new FileUploadContent() {
+            @Override
+            long length() {
+                return length;
+            }
+
+            @Override
+            InputStream open() {
+                return inputStream;
+            }
+
+            @Override
+            boolean isOneShot() {
+                return true;
+            }
+
+            @Override
+            void discard() throws IOException {
+                inputStream.close();
+            }
+        };
+    }
+
+    /**
+     * Number of bytes of the content, or {@link #UNKNOWN_LENGTH}.
+     */
+    abstract long length() throws IOException;
+
+    /**
+     * Stream of the content, closed by the caller once read.
+     */
+    abstract InputStream open() throws IOException;
+
+    boolean isOneShot() {
+        return false;
+    }
+
+    /**
+     * Releases the content when it is not going to be uploaded, which only matters for content read from a stream.
+     */
+    void discard() throws IOException {
+    }
+}
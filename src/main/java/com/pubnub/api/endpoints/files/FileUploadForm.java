@@ -0,0 +1,47 @@
+package com.pubnub.api.endpoints.files;
+
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Upload form sent as the request body. {@link MultipartBody} is never one-shot, so this tells OkHttp when the file
+ * part is: the body is then neither written again to retry the request nor read by body logging.
+ */
+class FileUploadForm extends RequestBody {
+    private final MultipartBody form;
+    private final boolean oneShot;
+
+    FileUploadForm(MultipartBody form, boolean oneShot) {
+        this.form = form;
+        this.oneShot = oneShot;
+    }
+
+    MultipartBody getForm() {
+        return form;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return form.contentType();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return form.contentLength();
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return oneShot;
+    }
+
+    @Override
+    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        form.writeTo(sink);
+    }
+}
@@ -0,0 +1,68 @@
+package com.pubnub.api.endpoints.files;
+
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.vendor.FileEncryptionUtil;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Streams the content of a file into the request, encrypting it on the way when there is a cipher key. Only a buffer
+ * of the content is held in memory at any time. A body of unknown length is sent with chunked transfer encoding.
+ */
+class FileUploadRequestBody extends RequestBody {
+    private final FileUploadContent content;
+    @Nullable
+    private final String cipherKey;
+    private final MediaType mediaType;
+
+    FileUploadRequestBody(FileUploadContent content, @Nullable String cipherKey, MediaType mediaType) {
+        this.content = content;
+        this.cipherKey = cipherKey;
+        this.mediaType = mediaType;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return mediaType;
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        final long length = content.length();
+        if (length == FileUploadContent.UNKNOWN_LENGTH || cipherKey == null) {
+            return length;
+        }
+        return FileEncryptionUtil.encryptedLength(length);
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return content.isOneShot();
+    }
+
+    @Override
+    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        try (InputStream inputStream = content.open()) {
+            final OutputStream outputStream = sink.outputStream();
+            if (cipherKey == null) {
+                final byte[] buffer = new byte[FileEncryptionUtil.BUFFER_SIZE_BYTES];
+                for (int read; (read = inputStream.read(buffer)) != -1; ) {
+                    outputStream.write(buffer, 0, read);
+                }
+            } else {
+                try {
+                    FileEncryptionUtil.encrypt(cipherKey, inputStream, outputStream);
+                } catch (PubNubException e) {
+                    throw new IOException(e.getErrormsg(), e);
+                }
+            }
+        }
+    }
+}
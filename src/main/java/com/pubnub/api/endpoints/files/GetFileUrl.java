@@ -11,6 +11,7 @@ import com.pubnub.api.endpoints.files.requiredparambuilder.FilesBuilderSteps.Fil
 import com.pubnub.api.endpoints.files.requiredparambuilder.FilesBuilderSteps.FileNameStep;
 import com.pubnub.api.endpoints.files.requiredparambuilder.ChannelFileNameFileIdBuilder;
 import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.managers.BaseParamsManager;
 import com.pubnub.api.managers.RetrofitManager;
 import com.pubnub.api.managers.TelemetryManager;
 import com.pubnub.api.managers.token_manager.TokenManager;
@@ -36,6 +37,7 @@ public class GetFileUrl extends Endpoint<ResponseBody, PNFileUrlResult> {
     private final String fileName;
     private PNCallback<PNFileUrlResult> cachedCallback;
     private final ExecutorService executorService;
+    private final TokenManager tokenManager;
 
     public GetFileUrl(String channel,
                       String fileName,
@@ -48,6 +50,7 @@ public class GetFileUrl extends Endpoint<ResponseBody, PNFileUrlResult> {
         this.fileId = fileId;
         this.fileName = fileName;
         this.executorService = retrofitInstance.getTransactionClientExecutorService();
+        this.tokenManager = tokenManager;
     }
 
     @Override
@@ -75,17 +78,25 @@ public class GetFileUrl extends Endpoint<ResponseBody, PNFileUrlResult> {
     @Override
     public PNFileUrlResult sync() throws PubNubException {
         try {
-            Map<String, String> baseParams = createBaseParams();
-            Call<ResponseBody> call = getRetrofit().getFilesService()
-                    .downloadFile(getPubnub().getConfiguration().getSubscribeKey(),
-                            channel,
-                            fileId,
-                            fileName,
-                            baseParams);
-            Request signedRequest = PubNubUtil.signRequest(call.request(),
-                    getPubnub().getConfiguration(),
-                    getPubnub().getTimestamp());
-            return new PNFileUrlResult(signedRequest.url().toString());
+            // the parameters are only built and signed when no recent URL is kept
+            String url = getPubnub().getFileUrlManager().getRequestUrl(channel,
+                    fileId,
+                    fileName,
+                    BaseParamsManager.auth(tokenManager, getPubnub().getConfiguration()),
+                    () -> {
+                        Map<String, String> baseParams = createBaseParams();
+                        Call<ResponseBody> call = getRetrofit().getFilesService()
+                                .downloadFile(getPubnub().getConfiguration().getSubscribeKey(),
+                                        channel,
+                                        fileId,
+                                        fileName,
+                                        baseParams);
+                        Request signedRequest = PubNubUtil.signRequest(call.request(),
+                                getPubnub().getConfiguration(),
+                                getPubnub().getTimestamp());
+                        return signedRequest.url().toString();
+                    });
+            return new PNFileUrlResult(url);
         } catch (Exception e) {
             throw PubNubException.builder().cause(e).build();
         }
@@ -13,6 +13,7 @@ import com.pubnub.api.endpoints.remoteaction.MappingRemoteAction;
 import com.pubnub.api.endpoints.remoteaction.RemoteAction;
 import com.pubnub.api.endpoints.remoteaction.RetryingRemoteAction;
 import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.managers.MetricsManager;
 import com.pubnub.api.managers.RetrofitManager;
 import com.pubnub.api.managers.TelemetryManager;
 import com.pubnub.api.managers.token_manager.TokenManager;
@@ -26,10 +27,12 @@ import lombok.Data;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
+import java.nio.file.Path;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -41,10 +44,12 @@ public class SendFile implements RemoteAction<PNFileUploadResult> {
     private final RemoteAction<PNFileUploadResult> sendFileMultistepAction;
     private final String channel;
     private final String fileName;
-    private final byte[] content;
+    private final FileUploadContent content;
     private final Exception byteContentReadingException;
     private final ExecutorService executorService;
     private final int fileMessagePublishRetryLimit;
+    @Nullable
+    private final MetricsManager metricsManager;
     @Setter
     private Object message;
     @Setter
@@ -62,6 +67,18 @@ public class SendFile implements RemoteAction<PNFileUploadResult> {
              UploadFile.Factory sendFileToS3Factory,
              ExecutorService executorService,
              int fileMessagePublishRetryLimit) {
+        this(requiredParams, generateUploadUrlFactory, publishFileMessageBuilder, sendFileToS3Factory, executorService,
+                fileMessagePublishRetryLimit, null);
+    }
+
+    SendFile(Builder.SendFileRequiredParams requiredParams,
+             GenerateUploadUrl.Factory generateUploadUrlFactory,
+             ChannelStep<FileNameStep<FileIdStep<PublishFileMessage>>> publishFileMessageBuilder,
+             UploadFile.Factory sendFileToS3Factory,
+             ExecutorService executorService,
+             int fileMessagePublishRetryLimit,
+             @Nullable MetricsManager metricsManager) {
+        this.metricsManager = metricsManager;
         this.channel = requiredParams.channel();
         this.fileName = requiredParams.fileName();
         this.content = requiredParams.content();
@@ -148,7 +165,8 @@ public class SendFile implements RemoteAction<PNFileUploadResult> {
         return RetryingRemoteAction.autoRetry(remoteAction,
                 maxNumberOfRetries,
                 PNOperationType.PNFileAction,
-                executorService);
+                executorService,
+                metricsManager);
     }
 
     @NotNull
@@ -243,36 +261,56 @@ public class SendFile implements RemoteAction<PNFileUploadResult> {
             @Override
             public SendFile inputStream(InputStream inputStream) {
                 try {
-                    return new SendFile(new SendFileRequiredParams(channelValue,
-                            fileNameValue,
-                            readBytes(inputStream),
-                            null),
-                            generateUploadUrlFactory,
-                            publishFileMessageBuilder,
-                            uploadFileFactory,
-                            retrofit.getTransactionClientExecutorService(),
-                            pubnub.getConfiguration().getFileMessagePublishRetryLimit());
-
+                    return create(FileUploadContent.of(readBytes(inputStream)), null);
                 } catch (IOException e) {
-                    return new SendFile(new SendFileRequiredParams(channelValue,
-                            fileNameValue,
-                            null,
-                            e),
-                            generateUploadUrlFactory,
-                            publishFileMessageBuilder,
-                            uploadFileFactory,
-                            retrofit.getTransactionClientExecutorService(),
-                            pubnub.getConfiguration().getFileMessagePublishRetryLimit());
+                    return create(null, e);
                 }
             }
+
+            @Override
+            public SendFile inputStream(InputStream inputStream, long contentLength) {
+                return create(inputStream != null ? FileUploadContent.of(inputStream, contentLength) : null, null);
+            }
+
+            @Override
+            public SendFile path(Path path) {
+                return create(path != null ? FileUploadContent.of(path) : null, null);
+            }
+
+            private SendFile create(FileUploadContent content, Exception byteReadingException) {
+                return new SendFile(new SendFileRequiredParams(channelValue,
+                        fileNameValue,
+                        content,
+                        byteReadingException),
+                        generateUploadUrlFactory,
+                        publishFileMessageBuilder,
+                        uploadFileFactory,
+                        retrofit.getTransactionClientExecutorService(),
+                        pubnub.getConfiguration().getFileMessagePublishRetryLimit(),
+                        pubnub.getMetricsManager());
+            }
         }
 
         @Data
         static class SendFileRequiredParams {
             private final String channel;
             private final String fileName;
-            private final byte[] content;
+            private final FileUploadContent content;
             private final Exception byteReadingException;
+
+            SendFileRequiredParams(String channel,
+                                   String fileName,
+                                   FileUploadContent content,
+                                   Exception byteReadingException) {
+                this.channel = channel;
+                this.fileName = fileName;
+                this.content = content;
+                this.byteReadingException = byteReadingException;
+            }
+
+            SendFileRequiredParams(String channel, String fileName, byte[] content, Exception byteReadingException) {
+                this(channel, fileName, content != null ? FileUploadContent.of(content) : null, byteReadingException);
+            }
         }
     }
 }
@@ -0,0 +1,518 @@
+package com.pubnub.api.endpoints.files;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.PubNubUtil;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.callbacks.FileBatchProgressCallback;
+import com.pubnub.api.callbacks.PNCallback;
+import com.pubnub.api.endpoints.BuilderSteps.ChannelStep;
+import com.pubnub.api.endpoints.files.requiredparambuilder.FilesBuilderSteps.FileIdStep;
+import com.pubnub.api.endpoints.files.requiredparambuilder.FilesBuilderSteps.FileNameStep;
+import com.pubnub.api.endpoints.remoteaction.RemoteAction;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.managers.RetrofitManager;
+import com.pubnub.api.managers.TelemetryManager;
+import com.pubnub.api.managers.token_manager.TokenManager;
+import com.pubnub.api.models.consumer.PNErrorData;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.files.PNBaseFile;
+import com.pubnub.api.models.consumer.files.PNFileBatchItemResult;
+import com.pubnub.api.models.consumer.files.PNFileBatchItemResult.Stage;
+import com.pubnub.api.models.consumer.files.PNFileBatchResult;
+import com.pubnub.api.models.consumer.files.PNPublishFileMessageResult;
+import com.pubnub.api.models.server.files.FileUploadRequestDetails;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploads many files through a pipeline of three stages, each with its own threads: upload URLs are requested ahead
+ * of the uploads, at most {@link #maxConcurrentUploads(int)} files are uploaded at once and the file messages are
+ * published as soon as their uploads complete, without holding an upload slot.
+ * <p>
+ * A file failing in any stage does not stop the others, the outcome of every file is reported in the
+ * {@link PNFileBatchResult}. Only network errors, rate limiting and server errors are retried, after a growing delay
+ * with jitter or the delay asked for by a rate limiting response.
+ */
+@Accessors(chain = true, fluent = true)
+public class SendFileBatch {
+    private static final int URL_LOOKAHEAD_PER_UPLOAD = 2;
+    private static final int URL_THREADS = 2;
+    private static final int DEFAULT_MAX_CONCURRENT_UPLOADS = 4;
+    private static final int DEFAULT_MAX_CONCURRENT_PUBLISHES = 2;
+    private static final int DEFAULT_UPLOAD_RETRY_LIMIT = 3;
+
+    private final GenerateUploadUrl.Factory generateUploadUrlFactory;
+    private final UploadFile.Factory uploadFileFactory;
+    private final ChannelStep<FileNameStep<FileIdStep<PublishFileMessage>>> publishFileMessageBuilder;
+    private final ExecutorService executorService;
+    private final int fileMessagePublishRetryLimit;
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Set<RemoteAction<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final Object retryLock = new Object();
+
+    /**
+     * Number of files uploaded at the same time.
+     */
+    @Setter
+    private int maxConcurrentUploads = DEFAULT_MAX_CONCURRENT_UPLOADS;
+    /**
+     * Number of file messages published at the same time.
+     */
+    @Setter
+    private int maxConcurrentPublishes = DEFAULT_MAX_CONCURRENT_PUBLISHES;
+    /**
+     * Rate shared by all uploads of the batch, {@code 0} for no limit.
+     */
+    @Setter
+    private long maxBytesPerSecond;
+    /**
+     * Attempts to request an upload URL and to upload a file, made only while the failures can be retried. Files
+     * added as streams are uploaded only once.
+     */
+    @Setter
+    private int uploadRetryLimit = DEFAULT_UPLOAD_RETRY_LIMIT;
+    @Setter
+    private String cipherKey;
+    @Setter
+    private FileBatchProgressCallback progressCallback;
+
+    SendFileBatch(GenerateUploadUrl.Factory generateUploadUrlFactory,
+                  UploadFile.Factory uploadFileFactory,
+                  ChannelStep<FileNameStep<FileIdStep<PublishFileMessage>>> publishFileMessageBuilder,
+                  ExecutorService executorService,
+                  int fileMessagePublishRetryLimit) {
+        this.generateUploadUrlFactory = generateUploadUrlFactory;
+        this.uploadFileFactory = uploadFileFactory;
+        this.publishFileMessageBuilder = publishFileMessageBuilder;
+        this.executorService = executorService;
+        this.fileMessagePublishRetryLimit = fileMessagePublishRetryLimit;
+    }
+
+    public static SendFileBatch create(PubNub pubnub,
+                                       TelemetryManager telemetry,
+                                       RetrofitManager retrofit,
+                                       TokenManager tokenManager) {
+        return new SendFileBatch(new GenerateUploadUrl.Factory(pubnub, telemetry, retrofit, tokenManager),
+                new UploadFile.Factory(pubnub, retrofit),
+                PublishFileMessage.builder(pubnub, telemetry, retrofit, tokenManager),
+                retrofit.getTransactionClientExecutorService(),
+                pubnub.getConfiguration().getFileMessagePublishRetryLimit());
+    }
+
+    public SendFileBatch file(@NotNull String channel, @NotNull String fileName, @NotNull Path path) {
+        return file(new Entry(channel, fileName, FileUploadContent.of(path)));
+    }
+
+    /**
+     * Adds a file read from a stream. The batch closes the stream once the file has been uploaded or has failed.
+     *
+     * @param contentLength number of bytes of the stream, or {@code -1} when unknown
+     */
+    public SendFileBatch file(@NotNull String channel,
+                              @NotNull String fileName,
+                              @NotNull InputStream inputStream,
+                              long contentLength) {
+        return file(new Entry(channel, fileName, FileUploadContent.of(inputStream, contentLength)));
+    }
+
+    /**
+     * Adds a file whose message, meta, ttl or storage differ from the defaults.
+     */
+    public SendFileBatch file(@NotNull Entry entry) {
+        entries.add(entry);
+        return this;
+    }
+
+    public PNFileBatchResult sync() throws PubNubException {
+        validate();
+        return run();
+    }
+
+    public void async(@NotNull PNCallback<PNFileBatchResult> callback) {
+        executorService.execute(() -> {
+            try {
+                validate();
+                callback.onResponse(run(), PNStatus.builder()
+                        .error(false)
+                        .category(PNStatusCategory.PNAcknowledgmentCategory)
+                        .operation(PNOperationType.PNFileAction)
+                        .build());
+            } catch (PubNubException ex) {
+                // only the validation throws, files failing later are reported in the result
+                callback.onResponse(null, PNStatus.builder()
+                        .error(true)
+                        .category(PNStatusCategory.PNBadRequestCategory)
+                        .operation(PNOperationType.PNFileAction)
+                        .errorData(new PNErrorData(ex.getErrormsg(), ex))
+                        .build());
+            }
+        });
+    }
+
+    /**
+     * Stops starting new stages and cancels the requests in flight. Files not published yet are reported as failed.
+     */
+    public void silentCancel() {
+        cancelled.set(true);
+        synchronized (retryLock) {
+            retryLock.notifyAll();
+        }
+        for (RemoteAction<?> action : inFlight) {
+            action.silentCancel();
+        }
+    }
+
+    private void validate() throws PubNubException {
+        if (entries.isEmpty()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("Batch has no files").build();
+        }
+        if (maxConcurrentUploads < 1 || maxConcurrentPublishes < 1 || uploadRetryLimit < 1 || maxBytesPerSecond < 0) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("Concurrency and retry limits must be positive").build();
+        }
+        for (Entry entry : entries) {
+            if (entry.channel == null || entry.channel.isEmpty()) {
+                throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CHANNEL_MISSING).build();
+            }
+            if (entry.fileName == null || entry.fileName.isEmpty()) {
+                throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                        .errormsg("File name cannot be null nor empty").build();
+            }
+        }
+    }
+
+    private PNFileBatchResult run() {
+        final ExecutorService urlExecutor = Executors.newFixedThreadPool(URL_THREADS, threads("Upload URL"));
+        final ExecutorService uploadExecutor = Executors.newFixedThreadPool(maxConcurrentUploads, threads("Upload"));
+        final ExecutorService publishExecutor = Executors.newFixedThreadPool(maxConcurrentPublishes,
+                threads("Publish File Message"));
+        final Semaphore lookahead = new Semaphore(maxConcurrentUploads * URL_LOOKAHEAD_PER_UPLOAD);
+        final BandwidthLimiter limiter = maxBytesPerSecond > 0 ? new BandwidthLimiter(maxBytesPerSecond) : null;
+        try {
+            final List<CompletableFuture<PNFileBatchItemResult>> futures = new ArrayList<>(entries.size());
+            for (int index = 0; index < entries.size(); index++) {
+                final Item item = new Item(index, entries.get(index));
+                futures.add(CompletableFuture
+                        .supplyAsync(() -> {
+                            item.acquire(lookahead);
+                            return item.attempt(Stage.GENERATE_UPLOAD_URL, uploadRetryLimit, () ->
+                                    generateUploadUrlFactory.create(item.entry.channel, item.entry.fileName));
+                        }, urlExecutor)
+                        .thenApplyAsync(details -> {
+                            item.release(lookahead);
+                            final FileUploadContent content = item.trackedContent(limiter);
+                            item.attempt(Stage.UPLOAD, content.isOneShot() ? 1 : uploadRetryLimit, () ->
+                                    uploadFileFactory.create(item.entry.fileName, content, cipherKey, details));
+                            return details;
+                        }, uploadExecutor)
+                        .thenApplyAsync(details -> {
+                            final PNPublishFileMessageResult published = item.attempt(Stage.PUBLISH_FILE_MESSAGE,
+                                    fileMessagePublishRetryLimit, () -> publishFileMessage(item.entry, details));
+                            return item.success(details, published);
+                        }, publishExecutor)
+                        .exceptionally(throwable -> {
+                            item.release(lookahead);
+                            item.discard();
+                            return item.failure(throwable);
+                        })
+                        .thenApply(result -> {
+                            if (progressCallback != null) {
+                                progressCallback.fileCompleted(result);
+                            }
+                            return result;
+                        }));
+            }
+
+            final List<PNFileBatchItemResult> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<PNFileBatchItemResult> future : futures) {
+                results.add(future.join());
+            }
+            return new PNFileBatchResult(Collections.unmodifiableList(results));
+        } finally {
+            urlExecutor.shutdownNow();
+            uploadExecutor.shutdownNow();
+            publishExecutor.shutdownNow();
+        }
+    }
+
+    private PublishFileMessage publishFileMessage(Entry entry, FileUploadRequestDetails details) {
+        // the builder keeps the required params between its steps
+        synchronized (publishFileMessageBuilder) {
+            return publishFileMessageBuilder.channel(entry.channel)
+                    .fileName(details.getData().getName())
+                    .fileId(details.getData().getId())
+                    .message(entry.message)
+                    .meta(entry.meta)
+                    .ttl(entry.ttl)
+                    .shouldStore(entry.shouldStore);
+        }
+    }
+
+    private static ThreadFactory threads(String name) {
+        final AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, "PubNub File Batch " + name + " " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Waits before the next attempt of a stage, returning early when the batch is cancelled.
+     */
+    private void awaitRetry(long delayMillis) {
+        final long deadline = System.currentTimeMillis() + delayMillis;
+        synchronized (retryLock) {
+            long remaining = delayMillis;
+            while (!cancelled.get() && remaining > 0) {
+                try {
+                    retryLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(cancelledException());
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+    }
+
+    private PubNubException cancelledException() {
+        return PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                .errormsg("Batch was cancelled").build();
+    }
+
+    private interface StageAction<T> {
+        RemoteAction<T> create();
+    }
+
+    private final class Item {
+        private final int index;
+        private final Entry entry;
+        private final AtomicBoolean holdsPermit = new AtomicBoolean();
+        private final AtomicInteger[] attempts = new AtomicInteger[Stage.values().length];
+        private volatile Stage currentStage = Stage.GENERATE_UPLOAD_URL;
+
+        private Item(int index, Entry entry) {
+            this.index = index;
+            this.entry = entry;
+            for (int i = 0; i < attempts.length; i++) {
+                attempts[i] = new AtomicInteger();
+            }
+        }
+
+        private void acquire(Semaphore lookahead) {
+            try {
+                lookahead.acquire();
+                holdsPermit.set(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(cancelledException());
+            }
+        }
+
+        private void release(Semaphore lookahead) {
+            if (holdsPermit.compareAndSet(true, false)) {
+                lookahead.release();
+            }
+        }
+
+        private <T> T attempt(Stage stage, int limit, StageAction<T> stageAction) {
+            currentStage = stage;
+            for (int attempt = 1; ; attempt++) {
+                if (cancelled.get()) {
+                    throw new CompletionException(cancelledException());
+                }
+                attempts[stage.ordinal()].incrementAndGet();
+                final RemoteAction<T> remoteAction = stageAction.create();
+                inFlight.add(remoteAction);
+                final PubNubException failure;
+                try {
+                    return remoteAction.sync();
+                } catch (PubNubException e) {
+                    failure = e;
+                } finally {
+                    inFlight.remove(remoteAction);
+                }
+                if (attempt >= limit || !PubNubUtil.isRetryable(failure)) {
+                    throw new CompletionException(failure);
+                }
+                awaitRetry(PubNubUtil.retryDelayMillis(attempt, failure));
+            }
+        }
+
+        private void discard() {
+            try {
+                entry.content.discard();
+            } catch (IOException e) {
+                // the file has failed already, there is nothing to report the stream with
+            }
+        }
+
+        private FileUploadContent trackedContent(final BandwidthLimiter limiter) {
+            final FileUploadContent content = entry.content;
+            if (limiter == null && progressCallback == null) {
+                return content;
+            }
+            return new FileUploadContent() {
+                @Override
+                long length() throws IOException {
+                    return content.length();
+                }
+
+                @Override
+                InputStream open() throws IOException {
+                    return new TrackingInputStream(content.open(), content.length(), limiter);
+                }
+
+                @Override
+                boolean isOneShot() {
+                    return content.isOneShot();
+                }
+            };
+        }
+
+        private PNFileBatchItemResult success(FileUploadRequestDetails details, PNPublishFileMessageResult published) {
+            return result()
+                    .file(new PNBaseFile(details.getData().getId(), details.getData().getName()))
+                    .timetoken(published.getTimetoken())
+                    .build();
+        }
+
+        private PNFileBatchItemResult failure(Throwable throwable) {
+            final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause()
+                    : throwable;
+            final PubNubException error = cause instanceof PubNubException
+                    ? (PubNubException) cause
+                    : PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_HTTP_ERROR)
+                    .errormsg(String.valueOf(cause)).build();
+            return result()
+                    .error(error)
+                    .failedStage(currentStage)
+                    .build();
+        }
+
+        private PNFileBatchItemResult.PNFileBatchItemResultBuilder result() {
+            return PNFileBatchItemResult.builder()
+                    .index(index)
+                    .channel(entry.channel)
+                    .fileName(entry.fileName)
+                    .uploadUrlAttempts(attempts[Stage.GENERATE_UPLOAD_URL.ordinal()].get())
+                    .uploadAttempts(attempts[Stage.UPLOAD.ordinal()].get())
+                    .publishAttempts(attempts[Stage.PUBLISH_FILE_MESSAGE.ordinal()].get());
+        }
+
+        private final class TrackingInputStream extends FilterInputStream {
+            private final long totalBytes;
+            private final BandwidthLimiter limiter;
+            private long bytesSent;
+
+            private TrackingInputStream(InputStream in, long totalBytes, BandwidthLimiter limiter) {
+                super(in);
+                this.totalBytes = totalBytes;
+                this.limiter = limiter;
+            }
+
+            @Override
+            public int read() throws IOException {
+                final int read = super.read();
+                if (read != -1) {
+                    sent(1);
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                final int read = super.read(b, off, len);
+                if (read > 0) {
+                    sent(read);
+                }
+                return read;
+            }
+
+            private void sent(int bytes) throws IOException {
+                throttle(bytes);
+                bytesSent += bytes;
+                if (progressCallback != null) {
+                    progressCallback.uploadProgress(index, entry.fileName, bytesSent, totalBytes);
+                }
+            }
+
+            private void throttle(int bytes) throws IOException {
+                if (limiter == null) {
+                    return;
+                }
+                try {
+                    limiter.acquire(bytes);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Upload interrupted");
+                }
+            }
+        }
+    }
+
+    /**
+     * A file of the batch with the options of its file message.
+     */
+    @Accessors(chain = true, fluent = true)
+    public static class Entry {
+        private final String channel;
+        private final String fileName;
+        private final FileUploadContent content;
+        @Setter
+        private Object message;
+        @Setter
+        private Object meta;
+        @Setter
+        private Integer ttl;
+        @Setter
+        private Boolean shouldStore;
+
+        private Entry(String channel, String fileName, FileUploadContent content) {
+            this.channel = channel;
+            this.fileName = fileName;
+            this.content = content;
+        }
+
+        public static Entry of(@NotNull String channel, @NotNull String fileName, @NotNull Path path) {
+            return new Entry(channel, fileName, FileUploadContent.of(path));
+        }
+
+        /**
+         * @param contentLength number of bytes of the stream, or {@code -1} when unknown
+         */
+        public static Entry of(@NotNull String channel,
+                               @NotNull String fileName,
+                               @NotNull InputStream inputStream,
+                               long contentLength) {
+            return new Entry(channel, fileName, FileUploadContent.of(inputStream, contentLength));
+        }
+    }
+}
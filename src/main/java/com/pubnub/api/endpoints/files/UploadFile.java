@@ -13,7 +13,6 @@ import com.pubnub.api.models.consumer.PNStatus;
 import com.pubnub.api.models.server.files.FileUploadRequestDetails;
 import com.pubnub.api.models.server.files.FormField;
 import com.pubnub.api.services.S3Service;
-import com.pubnub.api.vendor.FileEncryptionUtil;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
@@ -46,7 +45,7 @@ class UploadFile implements RemoteAction<Void> {
     private static final String FILE_PART_MULTIPART = "file";
     private final S3Service s3Service;
     private final String fileName;
-    private final byte[] content;
+    private final FileUploadContent content;
     private final String cipherKey;
     private final FormField key;
     private final List<FormField> formParams;
@@ -60,6 +59,16 @@ class UploadFile implements RemoteAction<Void> {
                FormField key,
                List<FormField> formParams,
                String baseUrl) {
+        this(s3Service, fileName, FileUploadContent.of(content), cipherKey, key, formParams, baseUrl);
+    }
+
+    UploadFile(S3Service s3Service,
+               String fileName,
+               FileUploadContent content,
+               String cipherKey,
+               FormField key,
+               List<FormField> formParams,
+               String baseUrl) {
         this.s3Service = s3Service;
         this.fileName = fileName;
         this.content = content;
@@ -85,15 +94,10 @@ class UploadFile implements RemoteAction<Void> {
         addFormParamsWithKeyFirst(key, formParams, builder);
         MediaType mediaType = getMediaType(getContentType(formParams));
 
-        RequestBody requestBody;
-        if (cipherKey == null) {
-            requestBody = RequestBody.create(content, mediaType);
-        } else {
-            requestBody = RequestBody.create(FileEncryptionUtil.encryptToBytes(cipherKey, content), mediaType);
-        }
+        RequestBody requestBody = new FileUploadRequestBody(content, cipherKey, mediaType);
 
         builder.addFormDataPart(FILE_PART_MULTIPART, fileName, requestBody);
-        return s3Service.upload(baseUrl, builder.build());
+        return s3Service.upload(baseUrl, new FileUploadForm(builder.build(), content.isOneShot()));
     }
 
     @Nullable
@@ -304,7 +308,7 @@ class UploadFile implements RemoteAction<Void> {
         }
 
         RemoteAction<Void> create(String fileName,
-                                  byte[] content,
+                                  FileUploadContent content,
                                   String cipherKey,
                                   FileUploadRequestDetails fileUploadRequestDetails) {
             String effectiveCipherKey = effectiveCipherKey(pubNub, cipherKey);
@@ -4,6 +4,7 @@ import com.pubnub.api.endpoints.BuilderSteps;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 public interface FilesBuilderSteps extends BuilderSteps {
 
@@ -12,7 +13,24 @@ public interface FilesBuilderSteps extends BuilderSteps {
     }
 
     interface InputStreamStep<T> {
+        /**
+         * Content read entirely into memory right away, the stream can be closed once this returns.
+         */
         T inputStream(InputStream inputStream) throws IOException;
+
+        /**
+         * Content streamed into the upload request as it is sent. The stream is read once and closed when the
+         * upload is done.
+         *
+         * @param contentLength number of bytes of the stream, or -1 if unknown to send it with chunked transfer
+         *                      encoding
+         */
+        T inputStream(InputStream inputStream, long contentLength);
+
+        /**
+         * Content streamed from the file into the upload request as it is sent.
+         */
+        T path(Path path);
     }
 
     interface FileIdStep<T> {
@@ -0,0 +1,383 @@
+package com.pubnub.api.endpoints.objects_api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.PubNubUtil;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.callbacks.PNCallback;
+import com.pubnub.api.endpoints.remoteaction.RemoteAction;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.models.consumer.PNErrorData;
+import com.pubnub.api.models.consumer.PNPage;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.objects_api.PNReconcileResult;
+import com.pubnub.api.models.server.objects_api.EntityArrayEnvelope;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Brings a server side list of objects (memberships of a UUID or members of a channel) to a desired state.
+ * <p>
+ * The current state is streamed page by page and compared against the desired set, so besides the desired
+ * entries only the ids which have to be removed are kept in memory. The resulting diff is applied with manage
+ * calls of at most {@code chunkSize} entries, running at most {@code maxConcurrency} of them in parallel and
+ * making up to {@code maxRetries} attempts for each of them. Only server errors, rate limiting and network
+ * errors are retried, after an exponentially growing delay with jitter or the delay asked for by a rate limiting
+ * response.
+ *
+ * @param <SELF>    concrete reconciliation type, returned from the fluent setters
+ * @param <DESIRED> type of the entries passed to manage calls
+ * @param <CURRENT> type of the entries returned by the server
+ */
+public abstract class ObjectsReconciliation<SELF extends ObjectsReconciliation<SELF, DESIRED, CURRENT>, DESIRED, CURRENT>
+        implements RemoteAction<PNReconcileResult> {
+    private static final int DEFAULT_CHUNK_SIZE = 100;
+    private static final int DEFAULT_MAX_CONCURRENCY = 4;
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final int PAGE_LIMIT = 100;
+
+    private final Collection<DESIRED> desired;
+    private final PubNub pubnub;
+    private final ExecutorService executorService;
+    private final PNOperationType operationType;
+    private final Set<RemoteAction<?>> inFlightActions = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final Object retryLock = new Object();
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private volatile boolean cancelled;
+    private PNCallback<PNReconcileResult> cachedCallback;
+
+    protected ObjectsReconciliation(final Collection<DESIRED> desired,
+                                    final PubNub pubnub,
+                                    final ExecutorService executorService,
+                                    final PNOperationType operationType) {
+        this.desired = desired;
+        this.pubnub = pubnub;
+        this.executorService = executorService;
+        this.operationType = operationType;
+    }
+
+    /**
+     * Maximum number of entries (set and remove combined) sent in a single manage call.
+     */
+    public SELF chunkSize(final int chunkSize) {
+        this.chunkSize = chunkSize;
+        return self();
+    }
+
+    /**
+     * Maximum number of manage calls executed in parallel.
+     */
+    public SELF maxConcurrency(final int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+        return self();
+    }
+
+    /**
+     * Number of attempts made for each manage call before the reconciliation fails.
+     */
+    public SELF maxRetries(final int maxRetries) {
+        this.maxRetries = maxRetries;
+        return self();
+    }
+
+    @SuppressWarnings("unchecked")
+    private SELF self() {
+        return (SELF) this;
+    }
+
+    @Override
+    public PNReconcileResult sync() throws PubNubException {
+        validate();
+        cancelled = false;
+
+        final Map<String, DESIRED> pending = new LinkedHashMap<>();
+        for (final DESIRED entry : desired) {
+            pending.put(desiredId(entry), entry);
+        }
+
+        // ids of desired entries found on the server, which cannot grow past the desired collection
+        final Set<String> matchedIds = new HashSet<>();
+        final Map<String, DESIRED> toRemove = new LinkedHashMap<>();
+        final List<DESIRED> toSet = new ArrayList<>();
+        int unchanged = 0;
+
+        PNPage page = null;
+        do {
+            final EntityArrayEnvelope<CURRENT> envelope = fetchCurrentPage(page, PAGE_LIMIT);
+            if (envelope == null || envelope.getData() == null || envelope.getData().isEmpty()) {
+                break;
+            }
+
+            for (final CURRENT current : envelope.getData()) {
+                final String id = currentId(current);
+                if (matchedIds.contains(id) || toRemove.containsKey(id)) {
+                    continue;
+                }
+                final DESIRED desiredEntry = pending.remove(id);
+                if (desiredEntry == null) {
+                    toRemove.put(id, removalEntry(id));
+                    continue;
+                }
+                matchedIds.add(id);
+                if (isUpToDate(desiredEntry, current)) {
+                    unchanged++;
+                } else {
+                    toSet.add(desiredEntry);
+                }
+            }
+
+            if (envelope.getNext() != null && !envelope.getNext().isEmpty()) {
+                page = envelope.nextPage();
+            } else {
+                page = null;
+            }
+        } while (page != null && !cancelled);
+
+        // whatever is left was never seen on the server
+        toSet.addAll(pending.values());
+
+        final List<Chunk<DESIRED>> chunks = chunk(toSet, toRemove.values());
+        applyChunks(chunks);
+
+        return new PNReconcileResult(toSet.size(), toRemove.size(), unchanged, chunks.size());
+    }
+
+    @Override
+    public void async(@NotNull final PNCallback<PNReconcileResult> callback) {
+        cachedCallback = callback;
+        executorService.execute(() -> {
+            try {
+                final PNReconcileResult result = sync();
+                callback.onResponse(result, PNStatus.builder()
+                        .executedEndpoint(this)
+                        .operation(operationType)
+                        .category(PNStatusCategory.PNAcknowledgmentCategory)
+                        .statusCode(HttpURLConnection.HTTP_OK)
+                        .build());
+            } catch (PubNubException ex) {
+                callback.onResponse(null, PNStatus.builder()
+                        .executedEndpoint(this)
+                        .operation(operationType)
+                        .category(PubNubUtil.errorCategory(ex))
+                        .statusCode(ex.getStatusCode())
+                        .error(true)
+                        .errorData(new PNErrorData(ex.getErrormsg(), ex))
+                        .build());
+            } catch (RuntimeException ex) {
+                callback.onResponse(null, PNStatus.builder()
+                        .executedEndpoint(this)
+                        .operation(operationType)
+                        .category(PNStatusCategory.PNUnknownCategory)
+                        .error(true)
+                        .errorData(new PNErrorData(ex.getMessage(), ex))
+                        .build());
+            }
+        });
+    }
+
+    @Override
+    public void retry() {
+        async(cachedCallback);
+    }
+
+    @Override
+    public void silentCancel() {
+        cancelled = true;
+        synchronized (retryLock) {
+            retryLock.notifyAll();
+        }
+        for (final RemoteAction<?> action : inFlightActions) {
+            action.silentCancel();
+        }
+    }
+
+    protected void validate() throws PubNubException {
+        if (desired == null) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("Desired collection cannot be null").build();
+        }
+        if (chunkSize < 1 || maxConcurrency < 1 || maxRetries < 1) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("chunkSize, maxConcurrency and maxRetries must be greater than 0").build();
+        }
+    }
+
+    private List<Chunk<DESIRED>> chunk(final List<DESIRED> toSet, final Collection<DESIRED> toRemove) {
+        final List<Chunk<DESIRED>> chunks = new ArrayList<>();
+        Chunk<DESIRED> current = null;
+        for (final DESIRED entry : toRemove) {
+            if (current == null || current.size() == chunkSize) {
+                current = new Chunk<>();
+                chunks.add(current);
+            }
+            current.toRemove.add(entry);
+        }
+        for (final DESIRED entry : toSet) {
+            if (current == null || current.size() == chunkSize) {
+                current = new Chunk<>();
+                chunks.add(current);
+            }
+            current.toSet.add(entry);
+        }
+        return chunks;
+    }
+
+    private void applyChunks(final List<Chunk<DESIRED>> chunks) throws PubNubException {
+        final Semaphore permits = new Semaphore(maxConcurrency);
+        final AtomicReference<PubNubException> failure = new AtomicReference<>();
+        final AtomicInteger remaining = new AtomicInteger(chunks.size());
+        final List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (final Chunk<DESIRED> chunk : chunks) {
+                permits.acquire();
+                if (cancelled || failure.get() != null) {
+                    permits.release();
+                    break;
+                }
+                futures.add(executorService.submit(() -> {
+                    try {
+                        applyChunk(chunk);
+                        remaining.decrementAndGet();
+                    } catch (PubNubException ex) {
+                        failure.compareAndSet(null, ex);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            silentCancel();
+            throw PubNubException.builder()
+                    .pubnubError(PubNubErrorBuilder.PNERROBJ_HTTP_ERROR)
+                    .errormsg(e.getMessage())
+                    .cause(e)
+                    .build();
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        if (remaining.get() > 0) {
+            throw PubNubException.builder()
+                    .pubnubError(PubNubErrorBuilder.PNERROBJ_HTTP_ERROR)
+                    .errormsg("Reconciliation was cancelled with " + remaining.get() + " chunks not applied")
+                    .build();
+        }
+    }
+
+    private void applyChunk(final Chunk<DESIRED> chunk) throws PubNubException {
+        final RemoteAction<?> action = createChunkAction(chunk.toSet, chunk.toRemove);
+        inFlightActions.add(action);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    action.sync();
+                    return;
+                } catch (PubNubException ex) {
+                    if (attempt >= maxRetries || cancelled || !PubNubUtil.isRetryable(ex)) {
+                        throw ex;
+                    }
+                    awaitRetry(PubNubUtil.retryDelayMillis(attempt, ex), ex);
+                    if (cancelled) {
+                        throw ex;
+                    }
+                    if (pubnub.getMetricsManager() != null) {
+                        pubnub.getMetricsManager().retried(operationType);
+                    }
+                }
+            }
+        } finally {
+            inFlightActions.remove(action);
+        }
+    }
+
+    /**
+     * Waits before the next attempt of a chunk, returning early when the reconciliation is cancelled.
+     */
+    private void awaitRetry(final long delayMillis, final PubNubException failure) throws PubNubException {
+        final long deadline = System.currentTimeMillis() + delayMillis;
+        synchronized (retryLock) {
+            long remaining = delayMillis;
+            while (!cancelled && remaining > 0) {
+                try {
+                    retryLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw failure;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * Compares custom payloads using their JSON representation, so a {@code Map} passed by the caller can be
+     * matched against the {@code JsonElement} returned by the server.
+     */
+    protected boolean customEquals(@Nullable final Object desiredCustom, @Nullable final Object currentCustom) {
+        return toJsonTree(desiredCustom).equals(toJsonTree(currentCustom));
+    }
+
+    private JsonElement toJsonTree(@Nullable final Object custom) {
+        if (custom == null) {
+            return JsonNull.INSTANCE;
+        }
+        if (custom instanceof JsonElement) {
+            return (JsonElement) custom;
+        }
+        return pubnub.getMapper().toJsonTree(custom);
+    }
+
+    protected abstract EntityArrayEnvelope<CURRENT> fetchCurrentPage(@Nullable PNPage page, int limit)
+            throws PubNubException;
+
+    protected abstract String desiredId(DESIRED entry);
+
+    protected abstract String currentId(CURRENT entry);
+
+    protected abstract boolean isUpToDate(DESIRED desiredEntry, CURRENT currentEntry);
+
+    protected abstract DESIRED removalEntry(String id);
+
+    protected abstract RemoteAction<?> createChunkAction(List<DESIRED> toSet, List<DESIRED> toRemove);
+
+    private static final class Chunk<E> {
+        private final List<E> toSet = new ArrayList<>();
+        private final List<E> toRemove = new ArrayList<>();
+
+        private int size() {
+            return toSet.size() + toRemove.size();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.pubnub.api.endpoints.objects_api.members;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.endpoints.objects_api.ObjectsReconciliation;
+import com.pubnub.api.endpoints.objects_api.utils.ObjectsBuilderSteps;
+import com.pubnub.api.endpoints.remoteaction.RemoteAction;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.managers.RetrofitManager;
+import com.pubnub.api.managers.TelemetryManager;
+import com.pubnub.api.managers.token_manager.TokenManager;
+import com.pubnub.api.models.consumer.PNPage;
+import com.pubnub.api.models.consumer.objects_api.member.PNMembers;
+import com.pubnub.api.models.consumer.objects_api.member.PNUUID;
+import com.pubnub.api.models.server.objects_api.EntityArrayEnvelope;
+import lombok.AllArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Makes the members of a channel equal to the desired collection: members missing on the server or having
+ * different custom data or status are set, members not present in the desired collection are removed.
+ */
+public class ReconcileChannelMembers extends ObjectsReconciliation<ReconcileChannelMembers, PNUUID, PNMembers> {
+    private final String channel;
+    private final PubNub pubnub;
+    private final TelemetryManager telemetry;
+    private final RetrofitManager retrofit;
+    private final TokenManager tokenManager;
+
+    ReconcileChannelMembers(final String channel,
+                            final Collection<PNUUID> uuids,
+                            final PubNub pubnub,
+                            final TelemetryManager telemetry,
+                            final RetrofitManager retrofit,
+                            final TokenManager tokenManager) {
+        super(uuids, pubnub, retrofit.getTransactionClientExecutorService(),
+                PNOperationType.PNManageChannelMembersOperation);
+        this.channel = channel;
+        this.pubnub = pubnub;
+        this.telemetry = telemetry;
+        this.retrofit = retrofit;
+        this.tokenManager = tokenManager;
+    }
+
+    public static Builder builder(final PubNub pubnubInstance,
+                                  final TelemetryManager telemetry,
+                                  final RetrofitManager retrofitInstance,
+                                  final TokenManager tokenManager) {
+        return new Builder(pubnubInstance, telemetry, retrofitInstance, tokenManager);
+    }
+
+    @Override
+    protected void validate() throws PubNubException {
+        super.validate();
+        if (pubnub.getConfiguration().getSubscribeKey() == null
+                || pubnub.getConfiguration().getSubscribeKey().isEmpty()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_SUBSCRIBE_KEY_MISSING).build();
+        }
+        if (channel == null || channel.isEmpty()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CHANNEL_MISSING).build();
+        }
+    }
+
+    @Override
+    protected EntityArrayEnvelope<PNMembers> fetchCurrentPage(@Nullable final PNPage page, final int limit)
+            throws PubNubException {
+        GetChannelMembers getChannelMembers = GetChannelMembers.builder(pubnub, telemetry, retrofit, tokenManager)
+                .channel(channel)
+                .includeCustom(true)
+                .limit(limit);
+        if (page != null) {
+            getChannelMembers = getChannelMembers.page(page);
+        }
+        return getChannelMembers.sync();
+    }
+
+    @Override
+    protected String desiredId(final PNUUID entry) {
+        return entry.getUuid().getId();
+    }
+
+    @Override
+    protected String currentId(final PNMembers entry) {
+        return entry.getUuid().getId();
+    }
+
+    @Override
+    protected boolean isUpToDate(final PNUUID desiredEntry, final PNMembers currentEntry) {
+        Object desiredCustom = null;
+        if (desiredEntry instanceof PNUUID.UUIDWithCustom) {
+            desiredCustom = ((PNUUID.UUIDWithCustom) desiredEntry).getCustom();
+        }
+        return Objects.equals(desiredEntry.getStatus(), currentEntry.getStatus())
+                && customEquals(desiredCustom, currentEntry.getCustom());
+    }
+
+    @Override
+    protected PNUUID removalEntry(final String id) {
+        return PNUUID.uuid(id);
+    }
+
+    @Override
+    protected RemoteAction<?> createChunkAction(final List<PNUUID> toSet, final List<PNUUID> toRemove) {
+        return ManageChannelMembers.builder(pubnub, telemetry, retrofit, tokenManager)
+                .channel(channel)
+                .set(toSet)
+                .remove(toRemove);
+    }
+
+    @AllArgsConstructor
+    public static class Builder
+            implements ObjectsBuilderSteps.ChannelStep<ObjectsBuilderSteps.UUIDsStep<ReconcileChannelMembers>> {
+        private final PubNub pubnubInstance;
+        private final TelemetryManager telemetry;
+        private final RetrofitManager retrofitInstance;
+        private final TokenManager tokenManager;
+
+        @Override
+        public ObjectsBuilderSteps.UUIDsStep<ReconcileChannelMembers> channel(final String channel) {
+            return new ObjectsBuilderSteps.UUIDsStep<ReconcileChannelMembers>() {
+                /**
+                 * @param uuids complete collection of members the channel should have after reconciliation
+                 */
+                @Override
+                public ReconcileChannelMembers uuids(@NotNull final Collection<PNUUID> uuids) {
+                    return new ReconcileChannelMembers(channel, uuids, pubnubInstance, telemetry, retrofitInstance,
+                            tokenManager);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.pubnub.api.endpoints.objects_api.memberships;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.endpoints.objects_api.ObjectsReconciliation;
+import com.pubnub.api.endpoints.objects_api.utils.ObjectsBuilderSteps;
+import com.pubnub.api.endpoints.remoteaction.RemoteAction;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.managers.RetrofitManager;
+import com.pubnub.api.managers.TelemetryManager;
+import com.pubnub.api.managers.token_manager.TokenManager;
+import com.pubnub.api.models.consumer.PNPage;
+import com.pubnub.api.models.consumer.objects_api.membership.PNChannelMembership;
+import com.pubnub.api.models.consumer.objects_api.membership.PNMembership;
+import com.pubnub.api.models.server.objects_api.EntityArrayEnvelope;
+import lombok.AllArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Makes the memberships of a UUID equal to the desired collection: memberships missing on the server or having
+ * different custom data are set, memberships not present in the desired collection are removed.
+ */
+public class ReconcileMemberships
+        extends ObjectsReconciliation<ReconcileMemberships, PNChannelMembership, PNMembership> {
+    private final PubNub pubnub;
+    private final TelemetryManager telemetry;
+    private final RetrofitManager retrofit;
+    private final TokenManager tokenManager;
+    private String uuid;
+
+    ReconcileMemberships(final Collection<PNChannelMembership> channelMemberships,
+                         final PubNub pubnub,
+                         final TelemetryManager telemetry,
+                         final RetrofitManager retrofit,
+                         final TokenManager tokenManager) {
+        super(channelMemberships, pubnub, retrofit.getTransactionClientExecutorService(),
+                PNOperationType.PNManageMembershipsOperation);
+        this.pubnub = pubnub;
+        this.telemetry = telemetry;
+        this.retrofit = retrofit;
+        this.tokenManager = tokenManager;
+    }
+
+    public static Builder builder(final PubNub pubnubInstance,
+                                  final TelemetryManager telemetry,
+                                  final RetrofitManager retrofitInstance,
+                                  final TokenManager tokenManager) {
+        return new Builder(pubnubInstance, telemetry, retrofitInstance, tokenManager);
+    }
+
+    public ReconcileMemberships uuid(final String uuid) {
+        this.uuid = uuid;
+        return this;
+    }
+
+    @Override
+    protected void validate() throws PubNubException {
+        super.validate();
+        if (pubnub.getConfiguration().getSubscribeKey() == null
+                || pubnub.getConfiguration().getSubscribeKey().isEmpty()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_SUBSCRIBE_KEY_MISSING).build();
+        }
+    }
+
+    @Override
+    protected EntityArrayEnvelope<PNMembership> fetchCurrentPage(@Nullable final PNPage page, final int limit)
+            throws PubNubException {
+        GetMemberships getMemberships = GetMemberships.create(pubnub, telemetry, retrofit, tokenManager)
+                .includeCustom(true)
+                .limit(limit);
+        if (uuid != null) {
+            getMemberships = getMemberships.uuid(uuid);
+        }
+        if (page != null) {
+            getMemberships = getMemberships.page(page);
+        }
+        return getMemberships.sync();
+    }
+
+    @Override
+    protected String desiredId(final PNChannelMembership entry) {
+        return entry.getChannel().getId();
+    }
+
+    @Override
+    protected String currentId(final PNMembership entry) {
+        return entry.getChannel().getId();
+    }
+
+    @Override
+    protected boolean isUpToDate(final PNChannelMembership desiredEntry, final PNMembership currentEntry) {
+        Object desiredCustom = null;
+        if (desiredEntry instanceof PNChannelMembership.ChannelWithCustom) {
+            desiredCustom = ((PNChannelMembership.ChannelWithCustom) desiredEntry).getCustom();
+        }
+        return customEquals(desiredCustom, currentEntry.getCustom());
+    }
+
+    @Override
+    protected PNChannelMembership removalEntry(final String id) {
+        return PNChannelMembership.channel(id);
+    }
+
+    @Override
+    protected RemoteAction<?> createChunkAction(final List<PNChannelMembership> toSet,
+                                                final List<PNChannelMembership> toRemove) {
+        final ManageMemberships manageMemberships = ManageMemberships.builder(pubnub, telemetry, retrofit, tokenManager)
+                .set(toSet)
+                .remove(toRemove);
+        if (uuid != null) {
+            return manageMemberships.uuid(uuid);
+        }
+        return manageMemberships;
+    }
+
+    @AllArgsConstructor
+    public static class Builder implements ObjectsBuilderSteps.ChannelMembershipsStep<ReconcileMemberships> {
+        private final PubNub pubnubInstance;
+        private final TelemetryManager telemetry;
+        private final RetrofitManager retrofitInstance;
+        private final TokenManager tokenManager;
+
+        /**
+         * @param channelMemberships complete collection of memberships the UUID should have after reconciliation
+         */
+        @Override
+        public ReconcileMemberships channelMemberships(@NotNull final Collection<PNChannelMembership> channelMemberships) {
+            return new ReconcileMemberships(channelMemberships, pubnubInstance, telemetry, retrofitInstance,
+                    tokenManager);
+        }
+    }
+}
@@ -29,6 +29,12 @@ public class Heartbeat extends Endpoint<Envelope, Boolean> {
     @Setter
     private Object state;
 
+    /**
+     * Sends the heartbeat on behalf of this user instead of the configured one.
+     */
+    @Setter
+    private String uuid;
+
     public Heartbeat(PubNub pubnub, TelemetryManager telemetryManager, RetrofitManager retrofit, TokenManager tokenManager) {
         super(pubnub, telemetryManager, retrofit, tokenManager);
         channels = new ArrayList<>();
@@ -77,8 +83,17 @@ public class Heartbeat extends Endpoint<Envelope, Boolean> {
             params.put("state", stringifiedState);
         }
 
-        params.putAll(encodeParams(params));
+        if (uuid != null) {
+            params.put("uuid", uuid);
+        }
 
+        encodeAuth(params);
+
+        if (uuid != null) {
+            // heartbeats of other users must not queue behind the single connection of the presence client
+            return this.getRetrofit().getMultiplexedPresenceService()
+                    .heartbeat(this.getPubnub().getConfiguration().getSubscribeKey(), channelsCSV, params);
+        }
         return this.getRetrofit().getPresenceService().heartbeat(this.getPubnub().getConfiguration().getSubscribeKey(), channelsCSV, params);
     }
 
@@ -0,0 +1,283 @@
+package com.pubnub.api.endpoints.presence;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.pubnub.api.callbacks.HereNowVisitor;
+import com.pubnub.api.models.consumer.presence.PNHereNowColumnarResult;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads a here now response token by token, passing every channel and occupant to a {@link HereNowVisitor}
+ * without building a JSON tree.
+ * <p>
+ * When the occupants are collected into a result, equal UUIDs occupying several channels are passed as one instance.
+ * The result holds every UUID anyway, so this only saves memory. A user visitor gets each UUID as read instead: no
+ * UUID is remembered and memory does not grow with the number of occupants.
+ */
+class HereNowStreamParser {
+    private final HereNowVisitor visitor;
+    private final boolean includeState;
+
+    /**
+     * Equal UUIDs occupying several channels share one instance, {@code null} when UUIDs are not shared.
+     */
+    @Nullable
+    private final Map<String, String> uuids;
+
+    @Getter
+    private int totalChannels;
+    @Getter
+    private int totalOccupancy;
+
+    /**
+     * @param shareUuids whether equal UUIDs are passed as one instance, which keeps every distinct UUID in memory
+     *                   until the response has been read
+     */
+    HereNowStreamParser(HereNowVisitor visitor, boolean includeState, boolean shareUuids) {
+        this.visitor = visitor;
+        this.includeState = includeState;
+        this.uuids = shareUuids ? new HashMap<>() : null;
+    }
+
+    /**
+     * @param singleChannel the requested channel when the response describes only that channel, {@code null}
+     *                      for a response listing channels
+     */
+    void parse(JsonReader reader, @Nullable String singleChannel) throws IOException {
+        int occupancy = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "payload":
+                    if (singleChannel == null && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        readPayload(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "uuids":
+                    if (singleChannel != null) {
+                        readOccupants(reader, singleChannel);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "occupancy":
+                    occupancy = reader.nextInt();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (singleChannel != null) {
+            visitor.channel(singleChannel, occupancy);
+            totalChannels = 1;
+            totalOccupancy = occupancy;
+        }
+    }
+
+    private void readPayload(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "channels":
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        readChannel(reader, reader.nextName().intern());
+                    }
+                    reader.endObject();
+                    break;
+                case "total_channels":
+                    totalChannels = reader.nextInt();
+                    break;
+                case "total_occupancy":
+                    totalOccupancy = reader.nextInt();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readChannel(JsonReader reader, String channel) throws IOException {
+        int occupancy = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "uuids":
+                    readOccupants(reader, channel);
+                    break;
+                case "occupancy":
+                    occupancy = reader.nextInt();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        visitor.channel(channel, occupancy);
+    }
+
+    private void readOccupants(JsonReader reader, String channel) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                visitor.occupant(channel, uuid(reader.nextString()), null);
+                continue;
+            }
+
+            String uuid = null;
+            String state = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "uuid":
+                        uuid = uuid(reader.nextString());
+                        break;
+                    case "state":
+                        if (includeState) {
+                            state = copy(reader);
+                        } else {
+                            reader.skipValue();
+                        }
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            if (uuid != null) {
+                visitor.occupant(channel, uuid, state);
+            }
+        }
+        reader.endArray();
+    }
+
+    private String uuid(String uuid) {
+        if (uuids == null) {
+            return uuid;
+        }
+        final String existing = uuids.putIfAbsent(uuid, uuid);
+        return existing != null ? existing : uuid;
+    }
+
+    private static String copy(JsonReader reader) throws IOException {
+        final StringWriter json = new StringWriter();
+        final JsonWriter writer = new JsonWriter(json);
+        copy(reader, writer);
+        writer.flush();
+        return json.toString();
+    }
+
+    private static void copy(JsonReader reader, JsonWriter writer) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                writer.beginArray();
+                while (reader.hasNext()) {
+                    copy(reader, writer);
+                }
+                reader.endArray();
+                writer.endArray();
+                break;
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                writer.beginObject();
+                while (reader.hasNext()) {
+                    writer.name(reader.nextName());
+                    copy(reader, writer);
+                }
+                reader.endObject();
+                writer.endObject();
+                break;
+            case STRING:
+                writer.value(reader.nextString());
+                break;
+            case NUMBER:
+                writer.jsonValue(reader.nextString());
+                break;
+            case BOOLEAN:
+                writer.value(reader.nextBoolean());
+                break;
+            case NULL:
+                reader.nextNull();
+                writer.nullValue();
+                break;
+            default:
+                throw new IOException("unexpected " + reader.peek() + " at " + reader.getPath());
+        }
+    }
+
+    /**
+     * Collects the visited channels and occupants into a {@link PNHereNowColumnarResult}.
+     */
+    static class ColumnarCollector implements HereNowVisitor {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private String[] channels = new String[INITIAL_CAPACITY];
+        private int[] occupancies = new int[INITIAL_CAPACITY];
+        private int[] occupantOffsets = new int[INITIAL_CAPACITY + 1];
+        private int channelCount;
+
+        private String[] uuids = new String[INITIAL_CAPACITY];
+        private String[] states;
+        private int occupantCount;
+
+        @Override
+        public void occupant(@NotNull String channel, @NotNull String uuid, @Nullable String state) {
+            if (occupantCount == uuids.length) {
+                uuids = Arrays.copyOf(uuids, occupantCount * 2);
+                if (states != null) {
+                    states = Arrays.copyOf(states, occupantCount * 2);
+                }
+            }
+            if (state != null && states == null) {
+                states = new String[uuids.length];
+            }
+            uuids[occupantCount] = uuid;
+            if (states != null) {
+                states[occupantCount] = state;
+            }
+            occupantCount++;
+        }
+
+        @Override
+        public void channel(@NotNull String channel, int occupancy) {
+            if (channelCount == channels.length) {
+                channels = Arrays.copyOf(channels, channelCount * 2);
+                occupancies = Arrays.copyOf(occupancies, channelCount * 2);
+                occupantOffsets = Arrays.copyOf(occupantOffsets, channelCount * 2 + 1);
+            }
+            channels[channelCount] = channel;
+            occupancies[channelCount] = occupancy;
+            channelCount++;
+            occupantOffsets[channelCount] = occupantCount;
+        }
+
+        PNHereNowColumnarResult build(int totalChannels, int totalOccupancy) {
+            return new PNHereNowColumnarResult(totalChannels,
+                    totalOccupancy,
+                    Arrays.copyOf(channels, channelCount),
+                    Arrays.copyOf(occupancies, channelCount),
+                    Arrays.copyOf(occupantOffsets, channelCount + 1),
+                    Arrays.copyOf(uuids, occupantCount),
+                    states != null ? Arrays.copyOf(states, occupantCount) : null);
+        }
+    }
+}
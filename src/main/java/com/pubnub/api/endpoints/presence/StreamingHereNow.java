@@ -0,0 +1,137 @@
+package com.pubnub.api.endpoints.presence;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.PubNubUtil;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.callbacks.HereNowVisitor;
+import com.pubnub.api.endpoints.Endpoint;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.managers.RetrofitManager;
+import com.pubnub.api.managers.TelemetryManager;
+import com.pubnub.api.managers.token_manager.TokenManager;
+import com.pubnub.api.models.consumer.presence.PNHereNowColumnarResult;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Here now reading the response as a stream, for requests covering many channels or occupants.
+ * <p>
+ * The result is returned as a {@link PNHereNowColumnarResult}. When a {@link HereNowVisitor} is set, channels and
+ * occupants are only passed to it while the response is read and the result holds just the totals, so memory does
+ * not grow with the number of occupants.
+ */
+@Accessors(chain = true, fluent = true)
+public class StreamingHereNow extends Endpoint<ResponseBody, PNHereNowColumnarResult> {
+    @Setter
+    private List<String> channels;
+    @Setter
+    private List<String> channelGroups;
+    @Setter
+    private boolean includeState;
+    @Setter
+    private boolean includeUUIDs = true;
+    @Setter
+    private HereNowVisitor visitor;
+
+    public StreamingHereNow(PubNub pubnubInstance,
+                            TelemetryManager telemetryManager,
+                            RetrofitManager retrofit,
+                            TokenManager tokenManager) {
+        super(pubnubInstance, telemetryManager, retrofit, tokenManager);
+        channels = new ArrayList<>();
+        channelGroups = new ArrayList<>();
+    }
+
+    @Override
+    protected List<String> getAffectedChannels() {
+        return channels;
+    }
+
+    @Override
+    protected List<String> getAffectedChannelGroups() {
+        return channelGroups;
+    }
+
+    @Override
+    protected void validateParams() throws PubNubException {
+        if (this.getPubnub().getConfiguration().getSubscribeKey() == null
+                || this.getPubnub().getConfiguration().getSubscribeKey().isEmpty()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_SUBSCRIBE_KEY_MISSING).build();
+        }
+    }
+
+    @Override
+    protected Call<ResponseBody> doWork(Map<String, String> params) {
+        if (includeState) {
+            params.put("state", "1");
+        }
+        if (!includeUUIDs) {
+            params.put("disable_uuids", "1");
+        }
+        if (channelGroups.size() > 0) {
+            params.put("channel-group", PubNubUtil.joinString(channelGroups, ","));
+        }
+
+        final String subscribeKey = this.getPubnub().getConfiguration().getSubscribeKey();
+        if (channels.size() > 0) {
+            return this.getRetrofit().getExtendedPresenceService()
+                    .hereNowStream(subscribeKey, PubNubUtil.joinString(channels, ","), params);
+        } else if (channelGroups.size() > 0) {
+            return this.getRetrofit().getExtendedPresenceService().hereNowStream(subscribeKey, ",", params);
+        } else {
+            return this.getRetrofit().getExtendedPresenceService().globalHereNowStream(subscribeKey, params);
+        }
+    }
+
+    @Override
+    protected PNHereNowColumnarResult createResponse(Response<ResponseBody> input) throws PubNubException {
+        if (input.body() == null) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PARSING_ERROR).build();
+        }
+
+        // a single channel without groups is described at the top level of the response
+        final String singleChannel = channels.size() == 1 && channelGroups.isEmpty() ? channels.get(0) : null;
+        final HereNowStreamParser.ColumnarCollector collector = visitor == null
+                ? new HereNowStreamParser.ColumnarCollector()
+                : null;
+        final HereNowStreamParser parser = visitor != null
+                ? new HereNowStreamParser(visitor, includeState, false)
+                : new HereNowStreamParser(collector, includeState, true);
+
+        try (ResponseBody body = input.body(); JsonReader reader = new JsonReader(body.charStream())) {
+            parser.parse(reader, singleChannel);
+        } catch (IOException | IllegalStateException | NumberFormatException | JsonParseException e) {
+            throw PubNubException.builder()
+                    .pubnubError(PubNubErrorBuilder.PNERROBJ_PARSING_ERROR)
+                    .errormsg(e.getMessage())
+                    .cause(e)
+                    .build();
+        }
+
+        final HereNowStreamParser.ColumnarCollector result = collector != null
+                ? collector
+                : new HereNowStreamParser.ColumnarCollector();
+        return result.build(parser.getTotalChannels(), parser.getTotalOccupancy());
+    }
+
+    @Override
+    protected PNOperationType getOperationType() {
+        return PNOperationType.PNHereNowOperation;
+    }
+
+    @Override
+    protected boolean isAuthRequired() {
+        return true;
+    }
+}
@@ -6,6 +6,7 @@ import com.pubnub.api.PubNubUtil;
 import com.pubnub.api.builder.PubNubErrorBuilder;
 import com.pubnub.api.endpoints.Endpoint;
 import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.managers.HistoryCacheManager;
 import com.pubnub.api.managers.MapperManager;
 import com.pubnub.api.managers.PublishSequenceManager;
 import com.pubnub.api.managers.RetrofitManager;
@@ -41,15 +42,26 @@ public class Publish extends Endpoint<List<Object>, PNPublishResult> {
     private Integer ttl;
 
     private PublishSequenceManager publishSequenceManager;
+    private final HistoryCacheManager historyCache;
 
     public Publish(PubNub pubnub,
                    PublishSequenceManager providedPublishSequenceManager,
                    TelemetryManager telemetryManager,
                    RetrofitManager retrofit,
                    TokenManager tokenManager) {
+        this(pubnub, providedPublishSequenceManager, telemetryManager, retrofit, tokenManager, null);
+    }
+
+    public Publish(PubNub pubnub,
+                   PublishSequenceManager providedPublishSequenceManager,
+                   TelemetryManager telemetryManager,
+                   RetrofitManager retrofit,
+                   TokenManager tokenManager,
+                   HistoryCacheManager historyCache) {
         super(pubnub, telemetryManager, retrofit, tokenManager);
 
         this.publishSequenceManager = providedPublishSequenceManager;
+        this.historyCache = historyCache;
         this.replicate = true;
     }
 
@@ -114,7 +126,7 @@ public class Publish extends Endpoint<List<Object>, PNPublishResult> {
             stringifiedMessage = crypto.encrypt(stringifiedMessage).replace("\n", "");
         }
 
-        params.putAll(encodeParams(params));
+        encodeAuth(params);
 
         if (usePOST != null && usePOST) {
             Object payloadToSend;
@@ -146,8 +158,12 @@ public class Publish extends Endpoint<List<Object>, PNPublishResult> {
     protected PNPublishResult createResponse(Response<List<Object>> input) throws PubNubException {
         PNPublishResult.PNPublishResultBuilder pnPublishResult = PNPublishResult.builder();
         pnPublishResult.timetoken(Long.valueOf(input.body().get(2).toString()));
+        PNPublishResult result = pnPublishResult.build();
 
-        return pnPublishResult.build();
+        if (historyCache != null && Boolean.FALSE.equals(shouldStore)) {
+            historyCache.notStored(channel, result.getTimetoken());
+        }
+        return result;
     }
 
     @Override
@@ -74,7 +74,7 @@ public class Signal extends Endpoint<List<Object>, PNPublishResult> {
 
         String stringifiedMessage = mapper.toJson(message);
 
-        params.putAll(encodeParams(params));
+        encodeAuth(params);
 
         stringifiedMessage = PubNubUtil.urlEncode(stringifiedMessage);
 
@@ -10,6 +10,7 @@ import com.pubnub.api.enums.PNOperationType;
 import com.pubnub.api.enums.PNStatusCategory;
 import com.pubnub.api.managers.MapperManager;
 import com.pubnub.api.managers.RetrofitManager;
+import com.pubnub.api.managers.StateManager;
 import com.pubnub.api.managers.token_manager.TokenManager;
 import com.pubnub.api.models.consumer.PNStatus;
 import com.pubnub.api.models.server.SubscribeEnvelope;
@@ -66,6 +67,11 @@ public class Subscribe extends Endpoint<SubscribeEnvelope, SubscribeEnvelope> {
     @Setter
     private Object state;
 
+    /**
+     * Pre-encoded channels, channel groups, state and filter expression, used instead of the individual values.
+     */
+    private StateManager.SubscribeRequestSnapshot snapshot;
+
     /**
      * Create a new Subscribe instance endpoint.
      *
@@ -77,6 +83,17 @@ public class Subscribe extends Endpoint<SubscribeEnvelope, SubscribeEnvelope> {
         channelGroups = new ArrayList<>();
     }
 
+    /**
+     * Takes the channels, channel groups, state and filter expression from a snapshot kept by the
+     * {@link StateManager}, so they are not encoded again on every long poll.
+     */
+    public Subscribe snapshot(StateManager.SubscribeRequestSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.channels = snapshot.getChannels();
+        this.channelGroups = snapshot.getChannelGroups();
+        return this;
+    }
+
     @Override
     protected List<String> getAffectedChannels() {
         return channels;
@@ -139,12 +156,21 @@ public class Subscribe extends Endpoint<SubscribeEnvelope, SubscribeEnvelope> {
 
         String channelCSV;
 
-        if (channelGroups.size() > 0) {
-            params.put("channel-group", PubNubUtil.joinString(channelGroups, ","));
-        }
+        if (snapshot != null) {
+            if (snapshot.getChannelGroupsParam() != null) {
+                params.put("channel-group", snapshot.getChannelGroupsParam());
+            }
+            if (snapshot.getEncodedFilterExpression() != null) {
+                params.put("filter-expr", snapshot.getEncodedFilterExpression());
+            }
+        } else {
+            if (channelGroups.size() > 0) {
+                params.put("channel-group", PubNubUtil.joinString(channelGroups, ","));
+            }
 
-        if (filterExpression != null && filterExpression.length() > 0) {
-            params.put("filter-expr", PubNubUtil.urlEncode(filterExpression));
+            if (filterExpression != null && filterExpression.length() > 0) {
+                params.put("filter-expr", PubNubUtil.urlEncode(filterExpression));
+            }
         }
 
         if (timetoken != null) {
@@ -155,7 +181,9 @@ public class Subscribe extends Endpoint<SubscribeEnvelope, SubscribeEnvelope> {
             params.put("tr", region);
         }
 
-        if (channels.size() > 0) {
+        if (snapshot != null) {
+            channelCSV = snapshot.getChannelsPath();
+        } else if (channels.size() > 0) {
             channelCSV = PubNubUtil.joinString(channels, ",");
         } else {
             channelCSV = ",";
@@ -163,13 +191,15 @@ public class Subscribe extends Endpoint<SubscribeEnvelope, SubscribeEnvelope> {
 
         params.put("heartbeat", String.valueOf(this.getPubnub().getConfiguration().getPresenceTimeout()));
 
-        if (state != null) {
+        if (snapshot != null) {
+            params.put("state", snapshot.getEncodedState(mapper));
+        } else if (state != null) {
             String stringifiedState = mapper.toJson(state);
             stringifiedState = PubNubUtil.urlEncode(stringifiedState);
             params.put("state", stringifiedState);
         }
 
-        params.putAll(encodeParams(params));
+        encodeAuth(params);
 
         return this.getRetrofit().getSubscribeService()
                 .subscribe(this.getPubnub().getConfiguration().getSubscribeKey(), channelCSV, params);
@@ -5,6 +5,7 @@ import com.pubnub.api.builder.PubNubErrorBuilder;
 import com.pubnub.api.callbacks.PNCallback;
 import com.pubnub.api.enums.PNOperationType;
 import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.managers.MetricsManager;
 import com.pubnub.api.models.consumer.PNErrorData;
 import com.pubnub.api.models.consumer.PNStatus;
 import lombok.Data;
@@ -21,16 +22,30 @@ public class RetryingRemoteAction<T> implements RemoteAction<T> {
     private final int maxNumberOfAutomaticRetries;
     private final PNOperationType operationType;
     private final ExecutorService executorService;
+    @Nullable
+    private final MetricsManager metricsManager;
     private PNCallback<T> cachedCallback;
 
     public RetryingRemoteAction(RemoteAction<T> remoteAction,
                                 int maxNumberOfAutomaticRetries,
                                 PNOperationType operationType,
                                 ExecutorService executorService) {
+        this(remoteAction, maxNumberOfAutomaticRetries, operationType, executorService, null);
+    }
+
+    /**
+     * @param metricsManager counts the retries, or {@code null}
+     */
+    public RetryingRemoteAction(RemoteAction<T> remoteAction,
+                                int maxNumberOfAutomaticRetries,
+                                PNOperationType operationType,
+                                ExecutorService executorService,
+                                @Nullable MetricsManager metricsManager) {
         this.remoteAction = remoteAction;
         this.maxNumberOfAutomaticRetries = maxNumberOfAutomaticRetries;
         this.operationType = operationType;
         this.executorService = executorService;
+        this.metricsManager = metricsManager;
     }
 
     public static <T> RetryingRemoteAction<T> autoRetry(RemoteAction<T> remoteAction,
@@ -40,11 +55,21 @@ public class RetryingRemoteAction<T> implements RemoteAction<T> {
         return new RetryingRemoteAction<>(remoteAction, maxNumberOfAutomaticRetries, operationType, executorService);
     }
 
+    public static <T> RetryingRemoteAction<T> autoRetry(RemoteAction<T> remoteAction,
+                                                        int maxNumberOfAutomaticRetries,
+                                                        PNOperationType operationType,
+                                                        ExecutorService executorService,
+                                                        @Nullable MetricsManager metricsManager) {
+        return new RetryingRemoteAction<>(remoteAction, maxNumberOfAutomaticRetries, operationType, executorService,
+                metricsManager);
+    }
+
     @Override
     public T sync() throws PubNubException {
         validate();
         PubNubException thrownException = null;
         for (int i = 0; i < maxNumberOfAutomaticRetries; i++) {
+            countRetry(i);
             try {
                 return remoteAction.sync();
             } catch (PubNubException ex) {
@@ -76,6 +101,7 @@ public class RetryingRemoteAction<T> implements RemoteAction<T> {
 
                 ResultAndStatus<T> lastResultAndStatus = null;
                 for (int i = 0; i < maxNumberOfAutomaticRetries; i++) {
+                    countRetry(i);
                     lastResultAndStatus = syncAsync();
                     if (!lastResultAndStatus.status.isError()) {
                         callback.onResponse(lastResultAndStatus.result, lastResultAndStatus.status);
@@ -135,6 +161,12 @@ public class RetryingRemoteAction<T> implements RemoteAction<T> {
     }
 
 
+    private void countRetry(int attempt) {
+        if (attempt > 0 && metricsManager != null) {
+            metricsManager.retried(operationType);
+        }
+    }
+
     private void validate() throws PubNubException {
         if (maxNumberOfAutomaticRetries < 1) {
             throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
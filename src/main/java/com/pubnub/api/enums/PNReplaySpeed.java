@@ -0,0 +1,13 @@
+package com.pubnub.api.enums;
+
+public enum PNReplaySpeed {
+
+    /**
+     * Responses are spaced as they were received when captured.
+     */
+    REAL_TIME,
+    /**
+     * Every response is handed over as soon as it is requested.
+     */
+    FULL_SPEED
+}
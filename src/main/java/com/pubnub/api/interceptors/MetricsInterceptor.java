@@ -0,0 +1,86 @@
+package com.pubnub.api.interceptors;
+
+import com.pubnub.api.managers.MetricsManager;
+import com.pubnub.api.metrics.PNMetrics;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Counts the body bytes sent and received by an HTTP client. Installed as a network interceptor, so compressed
+ * responses are counted before they are decompressed.
+ */
+public class MetricsInterceptor implements Interceptor {
+
+    private final PNMetrics.Counter bytesSent;
+    private final PNMetrics.Counter bytesReceived;
+
+    public MetricsInterceptor(MetricsManager metricsManager, String client) {
+        this.bytesSent = metricsManager.bytesSent(client);
+        this.bytesReceived = metricsManager.bytesReceived(client);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final Request request = chain.request();
+        if (request.body() != null) {
+            final long contentLength = request.body().contentLength();
+            if (contentLength > 0) {
+                bytesSent.increment(contentLength);
+            }
+        }
+
+        final Response response = chain.proceed(request);
+        final ResponseBody body = response.body();
+        if (body == null) {
+            return response;
+        }
+        return response.newBuilder().body(new CountingResponseBody(body, bytesReceived)).build();
+    }
+
+    private static final class CountingResponseBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        private CountingResponseBody(ResponseBody delegate, PNMetrics.Counter counter) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(@NotNull Buffer sink, long byteCount) throws IOException {
+                    final long read = super.read(sink, byteCount);
+                    if (read > 0) {
+                        counter.increment(read);
+                    }
+                    return read;
+                }
+            });
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @NotNull
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
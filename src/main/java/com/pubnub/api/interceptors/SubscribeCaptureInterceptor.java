@@ -0,0 +1,35 @@
+package com.pubnub.api.interceptors;
+
+import com.pubnub.api.capture.SubscribeCapture;
+import lombok.extern.java.Log;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * Records the subscribe responses of the subscription client into a {@link SubscribeCapture}. The body is peeked, so
+ * it is buffered in memory before being parsed.
+ */
+@Log
+public class SubscribeCaptureInterceptor implements Interceptor {
+
+    private final SubscribeCapture capture;
+
+    public SubscribeCaptureInterceptor(SubscribeCapture capture) {
+        this.capture = capture;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final Response response = chain.proceed(chain.request());
+        if (SubscribeCapture.isSubscribe(response.request())) {
+            try {
+                capture.record(response.code(), response.peekBody(Long.MAX_VALUE).bytes());
+            } catch (IOException e) {
+                log.warning("subscribe capture failed: " + e);
+            }
+        }
+        return response;
+    }
+}
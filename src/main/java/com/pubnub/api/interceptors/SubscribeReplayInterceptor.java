@@ -0,0 +1,43 @@
+package com.pubnub.api.interceptors;
+
+import com.pubnub.api.capture.SubscribeCapture;
+import com.pubnub.api.capture.SubscribeReplay;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * Answers the subscribe requests of the subscription client from a {@link SubscribeReplay} instead of the network.
+ * Other requests of the client go through.
+ */
+public class SubscribeReplayInterceptor implements Interceptor {
+    private static final MediaType APPLICATION_JSON = MediaType.get("application/json; charset=UTF-8");
+
+    private final SubscribeReplay replay;
+
+    public SubscribeReplayInterceptor(SubscribeReplay replay) {
+        this.replay = replay;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final Request request = chain.request();
+        if (!SubscribeCapture.isSubscribe(request)) {
+            return chain.proceed(request);
+        }
+        final SubscribeReplay.Record replayed = replay.next(chain.call());
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(replayed.getCode())
+                .message(replayed.getCode() == HttpURLConnection.HTTP_OK ? "OK" : "Replayed")
+                .body(ResponseBody.create(replayed.getBody(), APPLICATION_JSON))
+                .build();
+    }
+}
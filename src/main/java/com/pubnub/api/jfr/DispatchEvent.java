@@ -0,0 +1,24 @@
+package com.pubnub.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.pubnub.Dispatch")
+@Label("PubNub Dispatch")
+@Category("PubNub")
+@Description("A subscribe event handled by one listener")
+@StackTrace(false)
+final class DispatchEvent extends jdk.jfr.Event {
+
+    @Label("Listener")
+    Class<?> listener;
+
+    @Label("Event Type")
+    String eventType;
+
+    @Label("Channel")
+    String channel;
+}
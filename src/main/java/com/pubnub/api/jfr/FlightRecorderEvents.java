@@ -0,0 +1,55 @@
+package com.pubnub.api.jfr;
+
+import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Emits Java Flight Recorder events for requests, subscribe loop iterations and listener dispatches.
+ * <p>
+ * The events are only loaded when the runtime provides {@code jdk.jfr}; otherwise, and whenever an event type is
+ * disabled in the recording settings, the {@code ...Started} methods return {@code null} and the {@code ...Finished}
+ * methods do nothing. The returned objects are opaque and only passed back to the matching {@code ...Finished}
+ * method.
+ */
+public interface FlightRecorderEvents {
+
+    FlightRecorderEvents INSTANCE = FlightRecorderSupport.load();
+
+    @Nullable
+    Object requestStarted();
+
+    /**
+     * @param statusCode    HTTP status of the response, or 0 when none was received
+     * @param errorCategory category of the failure, or {@code null} when the request succeeded
+     */
+    void requestFinished(@Nullable Object event,
+                         @NotNull PNOperationType operation,
+                         boolean async,
+                         int statusCode,
+                         @Nullable PNStatusCategory errorCategory);
+
+    @Nullable
+    Object subscribeStarted();
+
+    /**
+     * @param lagMillis time since the oldest received message was published, 0 without messages
+     */
+    void subscribeFinished(@Nullable Object event,
+                           int channels,
+                           int channelGroups,
+                           int messages,
+                           long timetoken,
+                           long lagMillis,
+                           @Nullable PNStatusCategory category);
+
+    @Nullable
+    Object dispatchStarted();
+
+    void dispatchFinished(@Nullable Object event,
+                          @NotNull SubscribeCallback listener,
+                          @NotNull String eventType,
+                          @Nullable String channel);
+}
@@ -0,0 +1,74 @@
+package com.pubnub.api.jfr;
+
+import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Loads the flight recorder events by name, so their classes, which extend {@code jdk.jfr.Event}, are never
+ * resolved on runtimes without it.
+ */
+@Slf4j
+final class FlightRecorderSupport implements FlightRecorderEvents {
+    private static final String EVENT_CLASS = "jdk.jfr.Event";
+    private static final String EVENTS_CLASS = "com.pubnub.api.jfr.JfrEvents";
+
+    private FlightRecorderSupport() {
+    }
+
+    static FlightRecorderEvents load() {
+        try {
+            Class.forName(EVENT_CLASS);
+            return (FlightRecorderEvents) Class.forName(EVENTS_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            log.trace("flight recorder events disabled", e);
+            return new FlightRecorderSupport();
+        }
+    }
+
+    @Nullable
+    @Override
+    public Object requestStarted() {
+        return null;
+    }
+
+    @Override
+    public void requestFinished(@Nullable Object event,
+                                @NotNull PNOperationType operation,
+                                boolean async,
+                                int statusCode,
+                                @Nullable PNStatusCategory errorCategory) {
+    }
+
+    @Nullable
+    @Override
+    public Object subscribeStarted() {
+        return null;
+    }
+
+    @Override
+    public void subscribeFinished(@Nullable Object event,
+                                  int channels,
+                                  int channelGroups,
+                                  int messages,
+                                  long timetoken,
+                                  long lagMillis,
+                                  @Nullable PNStatusCategory category) {
+    }
+
+    @Nullable
+    @Override
+    public Object dispatchStarted() {
+        return null;
+    }
+
+    @Override
+    public void dispatchFinished(@Nullable Object event,
+                                 @NotNull SubscribeCallback listener,
+                                 @NotNull String eventType,
+                                 @Nullable String channel) {
+    }
+}
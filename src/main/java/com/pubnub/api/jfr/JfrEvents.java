@@ -0,0 +1,111 @@
+package com.pubnub.api.jfr;
+
+import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Flight recorder events, loaded by {@link FlightRecorderSupport} only when {@code jdk.jfr} is available.
+ */
+final class JfrEvents implements FlightRecorderEvents {
+
+    JfrEvents() {
+    }
+
+    @Nullable
+    @Override
+    public Object requestStarted() {
+        final RequestEvent event = new RequestEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void requestFinished(@Nullable Object event,
+                                @NotNull PNOperationType operation,
+                                boolean async,
+                                int statusCode,
+                                @Nullable PNStatusCategory errorCategory) {
+        if (event == null) {
+            return;
+        }
+        final RequestEvent requestEvent = (RequestEvent) event;
+        requestEvent.end();
+        if (requestEvent.shouldCommit()) {
+            requestEvent.operation = operation.name();
+            requestEvent.async = async;
+            requestEvent.statusCode = statusCode;
+            requestEvent.errorCategory = errorCategory != null ? errorCategory.name() : null;
+            requestEvent.commit();
+        }
+    }
+
+    @Nullable
+    @Override
+    public Object subscribeStarted() {
+        final SubscribeEvent event = new SubscribeEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void subscribeFinished(@Nullable Object event,
+                                  int channels,
+                                  int channelGroups,
+                                  int messages,
+                                  long timetoken,
+                                  long lagMillis,
+                                  @Nullable PNStatusCategory category) {
+        if (event == null) {
+            return;
+        }
+        final SubscribeEvent subscribeEvent = (SubscribeEvent) event;
+        subscribeEvent.end();
+        if (subscribeEvent.shouldCommit()) {
+            subscribeEvent.channels = channels;
+            subscribeEvent.channelGroups = channelGroups;
+            subscribeEvent.messages = messages;
+            subscribeEvent.timetoken = timetoken;
+            subscribeEvent.lag = lagMillis;
+            subscribeEvent.category = category != null ? category.name() : null;
+            subscribeEvent.commit();
+        }
+    }
+
+    @Nullable
+    @Override
+    public Object dispatchStarted() {
+        final DispatchEvent event = new DispatchEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void dispatchFinished(@Nullable Object event,
+                                 @NotNull SubscribeCallback listener,
+                                 @NotNull String eventType,
+                                 @Nullable String channel) {
+        if (event == null) {
+            return;
+        }
+        final DispatchEvent dispatchEvent = (DispatchEvent) event;
+        dispatchEvent.end();
+        if (dispatchEvent.shouldCommit()) {
+            dispatchEvent.listener = listener.getClass();
+            dispatchEvent.eventType = eventType;
+            dispatchEvent.channel = channel;
+            dispatchEvent.commit();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.pubnub.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.pubnub.Request")
+@Label("PubNub Request")
+@Category("PubNub")
+@Description("A request of a PubNub operation, from its call to its response")
+final class RequestEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Async")
+    boolean async;
+
+    @Label("Status Code")
+    int statusCode;
+
+    @Label("Error Category")
+    String errorCategory;
+}
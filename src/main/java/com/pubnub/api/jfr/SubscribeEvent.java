@@ -0,0 +1,36 @@
+package com.pubnub.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.pubnub.Subscribe")
+@Label("PubNub Subscribe")
+@Category("PubNub")
+@Description("An iteration of the subscribe loop, from the long poll to its response")
+@StackTrace(false)
+final class SubscribeEvent extends jdk.jfr.Event {
+
+    @Label("Channels")
+    int channels;
+
+    @Label("Channel Groups")
+    int channelGroups;
+
+    @Label("Messages")
+    int messages;
+
+    @Label("Timetoken")
+    long timetoken;
+
+    @Label("Lag")
+    @Description("Time since the oldest received message was published")
+    @Timespan(Timespan.MILLISECONDS)
+    long lag;
+
+    @Label("Category")
+    String category;
+}
@@ -0,0 +1,232 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubUtil;
+import com.pubnub.api.managers.token_manager.TokenManager;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps the query parameters sent with every request, so they are not assembled again for each request.
+ * <p>
+ * The parameters are held in immutable templates, replaced only when the user id, the instance id setting, the auth
+ * key, the token or the telemetry latencies change.
+ */
+public class BaseParamsManager {
+    private final PubNub pubnub;
+    private final String pnsdk;
+
+    private volatile Template authenticated;
+    private volatile Template anonymous;
+
+    public BaseParamsManager(PubNub pubnub) {
+        this.pubnub = pubnub;
+        this.pnsdk = "PubNub-Java-Unified/".concat(pubnub.getVersion());
+    }
+
+    /**
+     * Returns the template for the current configuration, reusing the previous one when nothing it holds changed.
+     *
+     * @param includeAuth whether the auth key or the token is included
+     */
+    public Template template(@Nullable TokenManager tokenManager,
+                             @Nullable TelemetryManager telemetryManager,
+                             boolean includeAuth) {
+        final PNConfiguration configuration = pubnub.getConfiguration();
+        final String uuid = configuration.getUserId().getValue();
+        final String instanceId = configuration.isIncludeInstanceIdentifier() ? pubnub.getInstanceId() : null;
+        final String auth = includeAuth ? auth(tokenManager, configuration) : null;
+        Map<String, String> latencies = telemetryManager != null ? telemetryManager.operationsLatency() : null;
+        if (latencies == null) {
+            latencies = Collections.emptyMap();
+        }
+
+        final Template current = includeAuth ? authenticated : anonymous;
+        if (current != null && current.matches(uuid, instanceId, auth, latencies)) {
+            return current;
+        }
+
+        final Template template = new Template(pnsdk, uuid, instanceId, auth, latencies);
+        if (includeAuth) {
+            authenticated = template;
+        } else {
+            anonymous = template;
+        }
+        return template;
+    }
+
+    /**
+     * Auth sent by requests that require it: the token when one is set, the auth key otherwise.
+     */
+    @Nullable
+    public static String auth(@Nullable TokenManager tokenManager, PNConfiguration configuration) {
+        final String token = tokenManager != null ? tokenManager.getToken() : null;
+        return token != null ? token : configuration.getAuthKey();
+    }
+
+    /**
+     * Immutable base parameters of a request. The request id, which changes for every request, is not included.
+     */
+    public static final class Template {
+        private final String uuid;
+        private final String instanceId;
+        private final Map<String, String> latencies;
+
+        @Getter
+        private final Map<String, String> params;
+        @Getter
+        @Nullable
+        private final String auth;
+        @Getter
+        @Nullable
+        private final String encodedAuth;
+
+        private Template(String pnsdk,
+                         String uuid,
+                         @Nullable String instanceId,
+                         @Nullable String auth,
+                         Map<String, String> latencies) {
+            this.uuid = uuid;
+            this.instanceId = instanceId;
+            this.auth = auth;
+            this.encodedAuth = auth != null ? PubNubUtil.urlEncode(auth) : null;
+            this.latencies = latencies;
+
+            final Map<String, String> templateParams = new HashMap<>(latencies);
+            templateParams.put("pnsdk", pnsdk);
+            templateParams.put("uuid", uuid);
+            if (instanceId != null) {
+                templateParams.put("instanceid", instanceId);
+            }
+            if (auth != null) {
+                templateParams.put(PubNubUtil.AUTH_QUERY_PARAM_NAME, auth);
+            }
+            this.params = Collections.unmodifiableMap(templateParams);
+        }
+
+        /**
+         * Returns new parameters of a single request on top of the parameters of this template.
+         */
+        public RequestParams newRequestParams() {
+            return new RequestParams(params);
+        }
+
+        private boolean matches(String currentUuid,
+                                @Nullable String currentInstanceId,
+                                @Nullable String currentAuth,
+                                Map<String, String> currentLatencies) {
+            return latencies == currentLatencies
+                    && uuid.equals(currentUuid)
+                    && Objects.equals(instanceId, currentInstanceId)
+                    && Objects.equals(auth, currentAuth);
+        }
+    }
+
+    /**
+     * Query parameters of a single request, read through to the parameters of a template. Only the parameters the
+     * request adds or replaces are stored, so the template ones are not copied for every request. Parameters cannot
+     * be removed.
+     */
+    public static final class RequestParams extends AbstractMap<String, String> {
+        private final Map<String, String> base;
+        private final Map<String, String> own = new HashMap<>();
+        private final Set<Entry<String, String>> entries = new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return RequestParams.this.size();
+            }
+        };
+
+        private RequestParams(Map<String, String> base) {
+            this.base = base;
+        }
+
+        @Override
+        public String get(Object key) {
+            final String value = own.get(key);
+            return value != null || own.containsKey(key) ? value : base.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return own.containsKey(key) || base.containsKey(key);
+        }
+
+        @Override
+        public String put(String key, String value) {
+            final String previous = get(key);
+            own.put(key, value);
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            int size = own.size();
+            for (String key : base.keySet()) {
+                if (!own.containsKey(key)) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return entries;
+        }
+
+        /**
+         * Iterates the parameters of the request, then the template parameters it has not replaced.
+         */
+        private final class EntryIterator implements Iterator<Entry<String, String>> {
+            private final Iterator<Entry<String, String>> ownEntries = own.entrySet().iterator();
+            private final Iterator<Entry<String, String>> baseEntries = base.entrySet().iterator();
+            private Entry<String, String> next;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null) {
+                    return true;
+                }
+                if (ownEntries.hasNext()) {
+                    next = ownEntries.next();
+                    return true;
+                }
+                while (baseEntries.hasNext()) {
+                    final Entry<String, String> entry = baseEntries.next();
+                    if (!own.containsKey(entry.getKey())) {
+                        next = entry;
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public Entry<String, String> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Entry<String, String> entry = next;
+                next = null;
+                return entry;
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.pubnub.api.managers;
+
+import com.google.gson.JsonElement;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.callbacks.PNCallback;
+import com.pubnub.api.endpoints.HistoryReader;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.managers.token_manager.TokenManager;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.history.PNFetchMessageItem;
+import com.pubnub.api.models.server.PublishMetaData;
+import com.pubnub.api.models.server.SubscribeMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fills the gap a subscribe loop may have left, by reading the history of the subscribed channels between the last
+ * delivered timetoken and the timetoken of the current subscribe response.
+ */
+@Slf4j
+class CatchUpManager {
+    private static final String WILDCARD_SUFFIX = ".*";
+    private static final String PRESENCE_SUFFIX = "-pnpres";
+    private static final String MESSAGE_TYPE_FIELD = "message_type";
+
+    private final PubNub pubnub;
+    private final TelemetryManager telemetryManager;
+    private final RetrofitManager retrofitManager;
+    private final TokenManager tokenManager;
+
+    CatchUpManager(PubNub pubnub,
+                   TelemetryManager telemetryManager,
+                   RetrofitManager retrofitManager,
+                   TokenManager tokenManager) {
+        this.pubnub = pubnub;
+        this.telemetryManager = telemetryManager;
+        this.retrofitManager = retrofitManager;
+        this.tokenManager = tokenManager;
+    }
+
+    /**
+     * Merges the live messages of a subscribe response with the messages published to {@code channels} after
+     * {@code fromTimetoken} and up to {@code toTimetoken} which the response does not contain.
+     * <p>
+     * The callback always receives the messages to dispatch, ordered by publish timetoken. When history could not
+     * be read the status is an error and only the live messages are passed.
+     */
+    void catchUp(List<String> channels,
+                 long fromTimetoken,
+                 long toTimetoken,
+                 List<SubscribeMessage> liveMessages,
+                 PNCallback<List<SubscribeMessage>> callback) {
+        final List<String> historyChannels = new ArrayList<>();
+        for (String channel : channels) {
+            if (!channel.endsWith(WILDCARD_SUFFIX) && !channel.endsWith(PRESENCE_SUFFIX)) {
+                historyChannels.add(channel);
+            }
+        }
+
+        final Set<String> delivered = new HashSet<>();
+        for (SubscribeMessage message : liveMessages) {
+            delivered.add(key(message.getChannel(), message.getPublishMetaData().getPublishTimetoken()));
+        }
+
+        final List<SubscribeMessage> merged = new ArrayList<>(liveMessages);
+        if (historyChannels.isEmpty()) {
+            callback.onResponse(merged, PNStatus.builder()
+                    .operation(PNOperationType.PNFetchMessagesOperation)
+                    .category(PNStatusCategory.PNAcknowledgmentCategory)
+                    .build());
+            return;
+        }
+
+        log.debug("catching up " + historyChannels.size() + " channels from " + fromTimetoken + " to " + toTimetoken);
+        new HistoryReader(pubnub, telemetryManager, retrofitManager, tokenManager)
+                .channels(historyChannels)
+                .start(toTimetoken + 1)
+                .end(fromTimetoken + 1)
+                .includeMeta(true)
+                .includeUUID(true)
+                .includeMessageType(true)
+                .channelHistoryCallback((channel, messages) -> {
+                    for (PNFetchMessageItem item : messages) {
+                        if (!delivered.contains(key(channel, item.getTimetoken()))) {
+                            merged.add(toSubscribeMessage(channel, item));
+                        }
+                    }
+                })
+                .async((result, status) -> {
+                    if (status.isError()) {
+                        merged.retainAll(liveMessages);
+                    }
+                    merged.sort(Comparator.comparing(
+                            (SubscribeMessage message) -> message.getPublishMetaData().getPublishTimetoken()));
+                    callback.onResponse(merged, status);
+                });
+    }
+
+    private SubscribeMessage toSubscribeMessage(String channel, PNFetchMessageItem item) {
+        final PublishMetaData publishMetaData = new PublishMetaData();
+        publishMetaData.setPublishTimetoken(item.getTimetoken());
+
+        return SubscribeMessage.builder()
+                .channel(channel)
+                .subscriptionMatch(channel)
+                .subscribeKey(pubnub.getConfiguration().getSubscribeKey())
+                .payload(item.getMessage())
+                .issuingClientId(item.getUuid())
+                .userMetadata(item.getMeta())
+                .publishMetaData(publishMetaData)
+                .type(messageType(item))
+                .decrypted(true)
+                .build();
+    }
+
+    /**
+     * Reads the message type of a history item as it was serialized, since the item keeps its own accessor private.
+     */
+    private int messageType(PNFetchMessageItem item) {
+        final MapperManager mapper = pubnub.getMapper();
+        final JsonElement element = mapper.toJsonTree(item);
+        if (!mapper.hasField(element, MESSAGE_TYPE_FIELD)) {
+            return 0;
+        }
+        final String messageType = mapper.elementToString(element, MESSAGE_TYPE_FIELD);
+        return messageType.isEmpty() ? 0 : Integer.parseInt(messageType);
+    }
+
+    private static String key(String channel, Long timetoken) {
+        return channel + "/" + timetoken;
+    }
+}
@@ -0,0 +1,466 @@
+package com.pubnub.api.managers;
+
+import lombok.extern.java.Log;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * On-disk cache of downloaded files, keyed by subscribe key, channel, file id and file name. Files are kept as served,
+ * so encrypted files stay encrypted in the cache.
+ * <p>
+ * Every entry is a single file named after its key and the SHA-256 of its content. It is written to a temporary
+ * file first and then moved in place atomically, so readers, including other processes sharing the directory, never
+ * see a partial entry. The checksum is verified the first time an entry is read by this instance.
+ * <p>
+ * Once the cache grows over its maximum size the least recently used entries are evicted. An entry evicted or
+ * removed while it is read is deleted when its last reader closes it. Temporary files left behind by writers that
+ * died are deleted when the cache is loaded, once they are an hour old.
+ */
+@Log
+public class FileCacheManager {
+    private static final String SUFFIX = ".file";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long STALE_TEMP_MILLIS = 60 * 60 * 1000;
+    private static final char SEPARATOR = '-';
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int BUFFER_SIZE = 8192;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int NIBBLE_BITS = 4;
+    private static final int NIBBLE_MASK = 0xF;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    private long size;
+    private boolean loaded;
+
+    public FileCacheManager(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    public static String key(String subscribeKey, String channel, String fileId, String fileName) {
+        return hex(sha256().digest((subscribeKey + '\n' + channel + '\n' + fileId + '\n' + fileName)
+                .getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Opens the cached content of a file, or returns {@code null} when it is not cached or its checksum does not
+     * match. The returned stream must be closed.
+     */
+    @Nullable
+    public FileInputStream open(String key) {
+        Entry entry;
+        synchronized (this) {
+            load();
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = discover(key);
+            }
+            if (entry == null) {
+                return null;
+            }
+            entry.readers++;
+        }
+
+        try {
+            if (!entry.verified) {
+                verify(entry);
+            }
+            final FileInputStream inputStream = new EntryInputStream(entry);
+            touch(entry);
+            return inputStream;
+        } catch (IOException e) {
+            if (!(e instanceof NoSuchFileException)) {
+                log.log(Level.WARNING, "Dropping unreadable cached file " + entry.path, e);
+            }
+            synchronized (this) {
+                release(entry);
+                drop(entry);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Starts writing the content of a file, which becomes visible to readers once {@link Writer#commit()} is called.
+     * Writing to the cache never fails the caller, an entry which could not be written is simply not cached.
+     */
+    public Writer writer(String key) {
+        return new Writer(key);
+    }
+
+    public void put(String key, byte[] content) {
+        final Writer writer = writer(key);
+        writer.write(content, 0, content.length);
+        writer.commit();
+    }
+
+    public void put(String key, Path source) {
+        final Writer writer = writer(key);
+        try (InputStream inputStream = Files.newInputStream(source)) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            for (int read; (read = inputStream.read(buffer)) != -1; ) {
+                writer.write(buffer, 0, read);
+            }
+            writer.commit();
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Could not cache " + source, e);
+            writer.abort();
+        }
+    }
+
+    public synchronized void remove(String key) {
+        load();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = discover(key);
+        }
+        if (entry != null) {
+            drop(entry);
+        }
+    }
+
+    public synchronized long getSize() {
+        load();
+        return size;
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        final List<Entry> found = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path path : stream) {
+                    final Entry entry = entry(path);
+                    if (entry != null) {
+                        found.add(entry);
+                    }
+                }
+            }
+            deleteStaleTempFiles();
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Could not read the file cache in " + directory, e);
+        }
+        // least recently used first, as the access order of the map
+        found.sort(Comparator.comparingLong(entry -> entry.lastUsed));
+        for (Entry entry : found) {
+            add(entry);
+        }
+        evict();
+    }
+
+    /**
+     * Deletes the temporary files of writes that were never committed nor aborted. Recent ones are kept, as they may
+     * still be written by another instance or process.
+     */
+    private void deleteStaleTempFiles() throws IOException {
+        final long staleBefore = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+            for (Path path : stream) {
+                try {
+                    if (Files.getLastModifiedTime(path).toMillis() < staleBefore) {
+                        Files.deleteIfExists(path);
+                    }
+                } catch (IOException e) {
+                    log.log(Level.FINE, "Could not delete " + path, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks for an entry written by another instance or process since the cache was loaded.
+     */
+    @Nullable
+    private Entry discover(String key) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, key + SEPARATOR + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                final Entry entry = entry(path);
+                if (entry != null) {
+                    add(entry);
+                    evict();
+                    return entries.get(key);
+                }
+            }
+        } catch (IOException e) {
+            log.log(Level.FINE, "Could not look up " + key + " in the file cache", e);
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Entry entry(Path path) {
+        final String name = path.getFileName().toString();
+        final int separator = name.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            return null;
+        }
+        try {
+            return new Entry(name.substring(0, separator),
+                    name.substring(separator + 1, name.length() - SUFFIX.length()),
+                    path,
+                    Files.size(path),
+                    Files.getLastModifiedTime(path).toMillis());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void add(Entry entry) {
+        final Entry previous = entries.get(entry.key);
+        if (previous != null) {
+            if (previous.path.equals(entry.path)) {
+                return;
+            }
+            drop(previous);
+        }
+        entries.put(entry.key, entry);
+        size += entry.size;
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (size > maxBytes && iterator.hasNext()) {
+            final Entry entry = iterator.next().getValue();
+            iterator.remove();
+            size -= entry.size;
+            entry.removed = true;
+            deleteIfUnread(entry);
+        }
+    }
+
+    private void drop(Entry entry) {
+        if (entries.get(entry.key) == entry) {
+            entries.remove(entry.key);
+            size -= entry.size;
+        }
+        entry.removed = true;
+        deleteIfUnread(entry);
+    }
+
+    private void release(Entry entry) {
+        entry.readers--;
+        deleteIfUnread(entry);
+    }
+
+    private static void deleteIfUnread(Entry entry) {
+        if (entry.removed && entry.readers == 0) {
+            try {
+                Files.deleteIfExists(entry.path);
+            } catch (IOException e) {
+                log.log(Level.FINE, "Could not delete cached file " + entry.path, e);
+            }
+        }
+    }
+
+    private static void verify(Entry entry) throws IOException {
+        final MessageDigest digest = sha256();
+        try (InputStream inputStream = Files.newInputStream(entry.path)) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            for (int read; (read = inputStream.read(buffer)) != -1; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        if (!hex(digest.digest()).equals(entry.checksum)) {
+            throw new IOException("Checksum mismatch");
+        }
+        entry.verified = true;
+    }
+
+    /**
+     * Keeps the recency of the entry for the next instances loading the cache.
+     */
+    private static void touch(Entry entry) {
+        try {
+            Files.setLastModifiedTime(entry.path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.log(Level.FINE, "Could not touch cached file " + entry.path, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        final StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(HEX_DIGITS[(b >> NIBBLE_BITS) & NIBBLE_MASK]).append(HEX_DIGITS[b & NIBBLE_MASK]);
+        }
+        return builder.toString();
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final String checksum;
+        private final Path path;
+        private final long size;
+        private final long lastUsed;
+        private int readers;
+        private boolean removed;
+        private volatile boolean verified;
+
+        private Entry(String key, String checksum, Path path, long size, long lastUsed) {
+            this.key = key;
+            this.checksum = checksum;
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private final class EntryInputStream extends FileInputStream {
+        private final Entry entry;
+        private boolean closed;
+
+        private EntryInputStream(Entry entry) throws IOException {
+            super(entry.path.toFile());
+            this.entry = entry;
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            synchronized (FileCacheManager.this) {
+                if (!closed) {
+                    closed = true;
+                    release(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Content of a file being cached, written to a temporary file until it is committed.
+     */
+    public final class Writer {
+        private final String key;
+        private final MessageDigest digest = sha256();
+        private Path temp;
+        private OutputStream outputStream;
+        private long written;
+
+        private Writer(String key) {
+            this.key = key;
+            try {
+                Files.createDirectories(directory);
+                temp = directory.resolve(key + SEPARATOR + UUID.randomUUID() + TEMP_SUFFIX);
+                outputStream = new FileOutputStream(temp.toFile());
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        public void write(byte[] bytes, int offset, int length) {
+            if (outputStream == null) {
+                return;
+            }
+            written += length;
+            if (written > maxBytes) {
+                abort();
+                return;
+            }
+            try {
+                outputStream.write(bytes, offset, length);
+                digest.update(bytes, offset, length);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Moves the content in place, replacing a previous content of the same file.
+         */
+        public void commit() {
+            if (outputStream == null) {
+                return;
+            }
+            final Path target = directory.resolve(key + SEPARATOR + hex(digest.digest()) + SUFFIX);
+            try {
+                try (FileOutputStream fileOutputStream = (FileOutputStream) outputStream) {
+                    fileOutputStream.getChannel().force(true);
+                }
+                outputStream = null;
+                move(temp, target);
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+
+            final Entry entry = entry(target);
+            if (entry == null) {
+                return;
+            }
+            entry.verified = true;
+            synchronized (FileCacheManager.this) {
+                load();
+                add(entry);
+                evict();
+            }
+        }
+
+        public void abort() {
+            if (outputStream != null) {
+                try {
+                    outputStream.close();
+                } catch (IOException e) {
+                    log.log(Level.FINE, "Could not close " + temp, e);
+                }
+                outputStream = null;
+            }
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.log(Level.FINE, "Could not delete " + temp, e);
+                }
+            }
+        }
+
+        private void fail(IOException e) {
+            log.log(Level.WARNING, "Could not cache file " + key, e);
+            abort();
+        }
+
+        private void move(Path source, Path target) throws IOException {
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubUtil;
+import com.pubnub.api.services.FilesService;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Builds the download URLs of files and keeps the recent ones, so channels with many file events do not format and
+ * sign the same URL again for every event.
+ * <p>
+ * URLs are reused for {@link PNConfiguration#getFileUrlCacheValidity()} seconds, which also bounds how old the
+ * timestamp of a reused signed URL can be. At most {@value #MAX_ENTRIES} URLs are kept, the least recently used are
+ * evicted first.
+ */
+public class FileUrlManager {
+    private static final int MAX_ENTRIES = 1000;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final String EVENT_URL = "event";
+    private static final String REQUEST_URL = "request";
+
+    /**
+     * Literal parts of {@link FilesService#GET_FILE_URL} around its subscribe key, channel, file id and file name.
+     */
+    private static final String[] TEMPLATE = FilesService.GET_FILE_URL.split("\\{[^}]*\\}", -1);
+
+    private final PubNub pubnub;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> urls = new LinkedHashMap<String, Entry>(INITIAL_CAPACITY,
+            LOAD_FACTOR, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public FileUrlManager(PubNub pubnub) {
+        this(pubnub, System::currentTimeMillis);
+    }
+
+    FileUrlManager(PubNub pubnub, LongSupplier clock) {
+        this.pubnub = pubnub;
+        this.clock = clock;
+    }
+
+    /**
+     * URL of a file announced by a file event, signed when a secret key is configured.
+     */
+    public String getEventUrl(String channel, String fileId, String fileName) {
+        final String authKey = pubnub.getConfiguration().getAuthKey();
+        final String key = key(EVENT_URL, channel, fileId, fileName, authKey);
+        String url = get(key);
+        if (url == null) {
+            url = buildEventUrl(channel, fileId, fileName, authKey);
+            put(key, url);
+        }
+        return url;
+    }
+
+    /**
+     * URL returned by {@link PubNub#getFileUrl()}, built by {@code builder} when no recent one is kept.
+     *
+     * @param authKey auth key or token the URL is built with
+     */
+    public <E extends Exception> String getRequestUrl(String channel,
+                                                      String fileId,
+                                                      String fileName,
+                                                      @Nullable String authKey,
+                                                      UrlBuilder<E> builder) throws E {
+        final String key = key(REQUEST_URL, channel, fileId, fileName, authKey);
+        String url = get(key);
+        if (url == null) {
+            url = builder.build();
+            put(key, url);
+        }
+        return url;
+    }
+
+    private String buildEventUrl(String channel, String fileId, String fileName, @Nullable String authKey) {
+        final PNConfiguration configuration = pubnub.getConfiguration();
+        final String basePath = new StringBuilder(pubnub.getBaseUrl())
+                .append(TEMPLATE[0]).append(configuration.getSubscribeKey())
+                .append(TEMPLATE[1]).append(channel)
+                .append(TEMPLATE[2]).append(fileId)
+                .append(TEMPLATE[3]).append(fileName)
+                .append(TEMPLATE[4])
+                .toString();
+
+        final StringBuilder url = new StringBuilder(basePath);
+        char separator = '?';
+        if (PubNubUtil.shouldSignRequest(configuration)) {
+            final int timestamp = pubnub.getTimestamp();
+            final HashMap<String, String> queryParams = new HashMap<>();
+            if (authKey != null) {
+                queryParams.put(PubNubUtil.AUTH_QUERY_PARAM_NAME, authKey);
+            }
+            final String signature = PubNubUtil.generateSignature(configuration, basePath, queryParams, "get", null,
+                    timestamp);
+            url.append(separator).append(PubNubUtil.TIMESTAMP_QUERY_PARAM_NAME).append('=').append(timestamp)
+                    .append('&').append(PubNubUtil.SIGNATURE_QUERY_PARAM_NAME).append('=').append(signature);
+            separator = '&';
+        }
+        if (authKey != null) {
+            url.append(separator).append(PubNubUtil.AUTH_QUERY_PARAM_NAME).append('=').append(authKey);
+        }
+        return url.toString();
+    }
+
+    private String key(String kind, String channel, String fileId, String fileName, @Nullable String authKey) {
+        final PNConfiguration configuration = pubnub.getConfiguration();
+        return kind + '\n' + pubnub.getBaseUrl() + '\n' + configuration.getSubscribeKey() + '\n'
+                + configuration.getUserId().getValue() + '\n' + PubNubUtil.shouldSignRequest(configuration) + '\n'
+                + authKey + '\n' + channel + '\n' + fileId + '\n' + fileName;
+    }
+
+    @Nullable
+    private synchronized String get(String key) {
+        final Entry entry = urls.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.createdAt >= validityMillis()) {
+            urls.remove(key);
+            return null;
+        }
+        return entry.url;
+    }
+
+    private synchronized void put(String key, String url) {
+        if (validityMillis() > 0) {
+            urls.put(key, new Entry(url, clock.getAsLong()));
+        }
+    }
+
+    private long validityMillis() {
+        return TimeUnit.SECONDS.toMillis(pubnub.getConfiguration().getFileUrlCacheValidity());
+    }
+
+    public interface UrlBuilder<E extends Exception> {
+        String build() throws E;
+    }
+
+    private static final class Entry {
+        private final String url;
+        private final long createdAt;
+
+        private Entry(String url, long createdAt) {
+            this.url = url;
+            this.createdAt = createdAt;
+        }
+    }
+}
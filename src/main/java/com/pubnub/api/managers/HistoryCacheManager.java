@@ -0,0 +1,320 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.history.PNFetchMessageItem;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import com.pubnub.api.models.consumer.pubsub.files.PNFileEventResult;
+import com.pubnub.api.workers.SubscribeMessageProcessor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps decrypted history of recently read channels, so repeated reads of the most recent messages of a channel
+ * only fetch what was published since the last read.
+ * <p>
+ * For every channel the cache remembers the interval it holds completely: from {@code coveredFrom} up to
+ * {@code head}. While the channel stays subscribed the head is moved forward by live messages and reads are
+ * served without any request. Every change of the subscribe loop which could have lost messages makes the
+ * channels fall back to an incremental fetch of the messages newer than their head.
+ * <p>
+ * The total number of cached messages is bounded; least recently used channels are evicted first.
+ * <p>
+ * Messages published by this instance with storage disabled are never kept. Nothing in the subscribe stream tells
+ * such messages published by other clients apart, so they are kept until the channel is fetched again.
+ */
+public class HistoryCacheManager extends SubscribeCallback.BaseSubscribeCallback {
+    private static final int NOT_LIVE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MAX_NOT_STORED = 1000;
+    private static final String MESSAGE_TYPE = String.valueOf(SubscribeMessageProcessor.TYPE_MESSAGE);
+
+    private final PubNub pubnub;
+    private final int maximumSize;
+    private final LinkedHashMap<String, ChannelHistory> channels = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR,
+            true);
+    /**
+     * Channel and timetoken of messages published without storage whose live message has not been seen yet.
+     */
+    private final LinkedHashMap<String, Boolean> notStored = new LinkedHashMap<String, Boolean>(INITIAL_CAPACITY,
+            LOAD_FACTOR) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_NOT_STORED;
+        }
+    };
+
+    private int size;
+    private int epoch;
+    private boolean connected;
+
+    public HistoryCacheManager(PubNub pubnub, int maximumSize) {
+        this.pubnub = pubnub;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Called before fetching a channel. The returned ticket is passed back when the fetched messages are stored
+     * and tells whether the subscribe stream has been delivering the channel without interruption in between.
+     */
+    public int begin(String channel) {
+        final boolean subscribed = pubnub.getSubscribedChannels().contains(channel);
+        synchronized (this) {
+            return subscribed && connected ? epoch : NOT_LIVE;
+        }
+    }
+
+    /**
+     * Returns up to {@code max} most recent messages of the channel not older than {@code end}, in ascending
+     * timetoken order, or {@code null} when the cache cannot answer without a request.
+     *
+     * @param fresh whether the head of the channel has just been brought up to date by a fetch
+     */
+    @Nullable
+    public List<PNFetchMessageItem> read(String channel, @Nullable Long end, int max, boolean fresh) {
+        final boolean subscribed = pubnub.getSubscribedChannels().contains(channel);
+        synchronized (this) {
+            final ChannelHistory history = channels.get(channel);
+            if (history == null || !(fresh || (history.live && subscribed))) {
+                return null;
+            }
+
+            final long lowerBound = end != null ? end : Long.MIN_VALUE;
+            final List<PNFetchMessageItem> items = new ArrayList<>();
+            if (lowerBound <= history.head) {
+                for (PNFetchMessageItem item : history.messages.subMap(lowerBound, true, history.head, true)
+                        .descendingMap().values()) {
+                    if (items.size() == max) {
+                        break;
+                    }
+                    items.add(item);
+                }
+            }
+
+            if (items.size() < max && history.coveredFrom > lowerBound) {
+                return null;
+            }
+            Collections.reverse(items);
+            return items;
+        }
+    }
+
+    /**
+     * Returns the newest timetoken up to which the channel is cached, or {@code null} when it is not cached.
+     */
+    @Nullable
+    public synchronized Long getHead(String channel) {
+        final ChannelHistory history = channels.get(channel);
+        return history != null ? history.head : null;
+    }
+
+    /**
+     * Stores all messages published after the head of the channel.
+     */
+    public void storeNewer(String channel, List<PNFetchMessageItem> items, int ticket) {
+        final boolean subscribed = pubnub.getSubscribedChannels().contains(channel);
+        synchronized (this) {
+            final ChannelHistory history = channels.get(channel);
+            if (history == null) {
+                return;
+            }
+            for (PNFetchMessageItem item : items) {
+                put(history, item);
+                history.head = Math.max(history.head, item.getTimetoken());
+            }
+            history.live = isLive(ticket, subscribed);
+            evict(channel);
+        }
+    }
+
+    /**
+     * Stores the {@code max} most recent messages of the channel not older than {@code end}, as returned by
+     * the server.
+     */
+    public void storeLatest(String channel, List<PNFetchMessageItem> items, @Nullable Long end, int max, int ticket) {
+        if (items.isEmpty()) {
+            return;
+        }
+        final boolean subscribed = pubnub.getSubscribedChannels().contains(channel);
+        final long fetchedHead = items.get(items.size() - 1).getTimetoken();
+        final long fetchedFrom;
+        if (items.size() >= max) {
+            fetchedFrom = items.get(0).getTimetoken();
+        } else {
+            fetchedFrom = end != null ? end : Long.MIN_VALUE;
+        }
+
+        synchronized (this) {
+            ChannelHistory history = channels.get(channel);
+            if (history == null || fetchedFrom > history.head) {
+                if (history != null) {
+                    size -= history.messages.size();
+                }
+                history = new ChannelHistory(fetchedFrom, fetchedHead);
+                channels.put(channel, history);
+            } else {
+                history.coveredFrom = Math.min(history.coveredFrom, fetchedFrom);
+                history.head = Math.max(history.head, fetchedHead);
+            }
+            for (PNFetchMessageItem item : items) {
+                put(history, item);
+            }
+            history.live = isLive(ticket, subscribed);
+            evict(channel);
+        }
+    }
+
+    /**
+     * Called once a message published with storage disabled has been accepted, so it is not returned as history
+     * whether its live message arrived before or arrives after the publish response.
+     */
+    public synchronized void notStored(String channel, long timetoken) {
+        final ChannelHistory history = channels.get(channel);
+        if (history != null && history.messages.remove(timetoken) != null) {
+            size--;
+            return;
+        }
+        notStored.put(notStoredKey(channel, timetoken), Boolean.TRUE);
+    }
+
+    public synchronized void invalidate(String channel) {
+        final ChannelHistory history = channels.remove(channel);
+        if (history != null) {
+            size -= history.messages.size();
+        }
+    }
+
+    @Override
+    public void status(@NotNull PubNub pubnub, @NotNull PNStatus pnStatus) {
+        if (pnStatus.getCategory() == null) {
+            return;
+        }
+        switch (pnStatus.getCategory()) {
+            case PNConnectedCategory:
+            case PNReconnectedCategory:
+                connectionChanged(true);
+                break;
+            case PNUnexpectedDisconnectCategory:
+            case PNDisconnectedCategory:
+            case PNReconnectionAttemptsExhaustedCategory:
+                connectionChanged(false);
+                break;
+            case PNRequestMessageCountExceededCategory:
+                interrupted();
+                break;
+            case PNAcknowledgmentCategory:
+                if (pnStatus.getOperation() == PNOperationType.PNUnsubscribeOperation) {
+                    interrupted();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public synchronized void message(@NotNull PubNub pubnub, @NotNull PNMessageResult pnMessageResult) {
+        final ChannelHistory history = channels.get(pnMessageResult.getChannel());
+        final Long timetoken = pnMessageResult.getTimetoken();
+        if (history == null || timetoken == null || timetoken <= history.coveredFrom) {
+            return;
+        }
+        if (notStored.remove(notStoredKey(pnMessageResult.getChannel(), timetoken)) == null) {
+            put(history, PNFetchMessageItem.builder()
+                    .message(pnMessageResult.getMessage())
+                    .meta(pnMessageResult.getUserMetadata())
+                    .timetoken(timetoken)
+                    .uuid(pnMessageResult.getPublisher())
+                    .messageType(MESSAGE_TYPE)
+                    .build());
+        }
+        if (history.live) {
+            history.head = Math.max(history.head, timetoken);
+        }
+        evict(pnMessageResult.getChannel());
+    }
+
+    @Override
+    public synchronized void file(@NotNull PubNub pubnub, @NotNull PNFileEventResult pnFileEventResult) {
+        // file messages are stored in history in a different shape than they are delivered, let a fetch add them
+        final ChannelHistory history = channels.get(pnFileEventResult.getChannel());
+        if (history != null) {
+            history.live = false;
+        }
+    }
+
+    private synchronized void connectionChanged(boolean isConnected) {
+        connected = isConnected;
+        interrupted();
+    }
+
+    private synchronized void interrupted() {
+        epoch++;
+        for (ChannelHistory history : channels.values()) {
+            history.live = false;
+        }
+    }
+
+    private boolean isLive(int ticket, boolean subscribed) {
+        return ticket != NOT_LIVE && ticket == epoch && connected && subscribed;
+    }
+
+    private static String notStoredKey(String channel, long timetoken) {
+        return channel + '\n' + timetoken;
+    }
+
+    private void put(ChannelHistory history, PNFetchMessageItem item) {
+        if (history.messages.put(item.getTimetoken(), item) == null) {
+            size++;
+        }
+    }
+
+    private void evict(String keep) {
+        while (size > maximumSize) {
+            if (channels.size() == 1) {
+                final ChannelHistory history = channels.get(keep);
+                history.messages.pollFirstEntry();
+                size--;
+                if (history.messages.isEmpty()) {
+                    channels.remove(keep);
+                    return;
+                }
+                history.coveredFrom = history.messages.firstKey();
+                continue;
+            }
+
+            final Iterator<Map.Entry<String, ChannelHistory>> iterator = channels.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, ChannelHistory> eldest = iterator.next();
+                if (!eldest.getKey().equals(keep)) {
+                    size -= eldest.getValue().messages.size();
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    private static final class ChannelHistory {
+        private final TreeMap<Long, PNFetchMessageItem> messages = new TreeMap<>();
+        private long coveredFrom;
+        private long head;
+        private boolean live;
+
+        private ChannelHistory(long coveredFrom, long head) {
+            this.coveredFrom = coveredFrom;
+            this.head = head;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.pubnub.api.managers;
 
 import com.pubnub.api.PubNub;
 import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.jfr.FlightRecorderEvents;
 import com.pubnub.api.models.consumer.PNStatus;
 import com.pubnub.api.models.consumer.objects_api.channel.PNChannelMetadataResult;
 import com.pubnub.api.models.consumer.objects_api.membership.PNMembershipResult;
@@ -19,6 +20,7 @@ public class ListenerManager {
 
     private final List<SubscribeCallback> listeners;
     private final PubNub pubnub;
+    private final FlightRecorderEvents flightRecorderEvents = FlightRecorderEvents.INSTANCE;
 
     public ListenerManager(PubNub pubnubInstance) {
         this.listeners = new ArrayList<>();
@@ -58,49 +60,96 @@ public class ListenerManager {
 
     public void announce(PNMessageResult message) {
         for (SubscribeCallback subscribeCallback : getListeners()) {
-            subscribeCallback.message(this.pubnub, message);
+            final Object dispatchEvent = flightRecorderEvents.dispatchStarted();
+            try {
+                subscribeCallback.message(this.pubnub, message);
+            } finally {
+                flightRecorderEvents.dispatchFinished(dispatchEvent, subscribeCallback,
+                        "message", message.getChannel());
+            }
         }
     }
 
     public void announce(PNPresenceEventResult presence) {
         for (SubscribeCallback subscribeCallback : getListeners()) {
-            subscribeCallback.presence(this.pubnub, presence);
+            final Object dispatchEvent = flightRecorderEvents.dispatchStarted();
+            try {
+                subscribeCallback.presence(this.pubnub, presence);
+            } finally {
+                flightRecorderEvents.dispatchFinished(dispatchEvent, subscribeCallback,
+                        "presence", presence.getChannel());
+            }
         }
     }
 
     public void announce(PNSignalResult signal) {
         for (SubscribeCallback subscribeCallback : getListeners()) {
-            subscribeCallback.signal(this.pubnub, signal);
+            final Object dispatchEvent = flightRecorderEvents.dispatchStarted();
+            try {
+                subscribeCallback.signal(this.pubnub, signal);
+            } finally {
+                flightRecorderEvents.dispatchFinished(dispatchEvent, subscribeCallback, "signal", signal.getChannel());
+            }
         }
     }
 
     public void announce(final PNUUIDMetadataResult uuidMetadataResult) {
         for (final SubscribeCallback subscribeCallback: getListeners()) {
-            subscribeCallback.uuid(this.pubnub, uuidMetadataResult);
+            final Object dispatchEvent = flightRecorderEvents.dispatchStarted();
+            try {
+                subscribeCallback.uuid(this.pubnub, uuidMetadataResult);
+            } finally {
+                flightRecorderEvents.dispatchFinished(dispatchEvent, subscribeCallback,
+                        "uuid", uuidMetadataResult.getChannel());
+            }
         }
     }
 
     public void announce(final PNChannelMetadataResult channelMetadataResult) {
         for (final SubscribeCallback subscribeCallback: getListeners()) {
-            subscribeCallback.channel(this.pubnub, channelMetadataResult);
+            final Object dispatchEvent = flightRecorderEvents.dispatchStarted();
+            try {
+                subscribeCallback.channel(this.pubnub, channelMetadataResult);
+            } finally {
+                flightRecorderEvents.dispatchFinished(dispatchEvent, subscribeCallback,
+                        "channel", channelMetadataResult.getChannel());
+            }
         }
     }
 
     public void announce(final PNMembershipResult membershipResult) {
         for (final SubscribeCallback subscribeCallback: getListeners()) {
-            subscribeCallback.membership(this.pubnub, membershipResult);
+            final Object dispatchEvent = flightRecorderEvents.dispatchStarted();
+            try {
+                subscribeCallback.membership(this.pubnub, membershipResult);
+            } finally {
+                flightRecorderEvents.dispatchFinished(dispatchEvent, subscribeCallback,
+                        "membership", membershipResult.getChannel());
+            }
         }
     }
 
     public void announce(PNMessageActionResult messageAction) {
         for (SubscribeCallback subscribeCallback : getListeners()) {
-            subscribeCallback.messageAction(this.pubnub, messageAction);
+            final Object dispatchEvent = flightRecorderEvents.dispatchStarted();
+            try {
+                subscribeCallback.messageAction(this.pubnub, messageAction);
+            } finally {
+                flightRecorderEvents.dispatchFinished(dispatchEvent, subscribeCallback,
+                        "messageAction", messageAction.getChannel());
+            }
         }
     }
 
     public void announce(PNFileEventResult fileEventResult) {
         for (SubscribeCallback subscribeCallback : getListeners()) {
-            subscribeCallback.file(this.pubnub, fileEventResult);
+            final Object dispatchEvent = flightRecorderEvents.dispatchStarted();
+            try {
+                subscribeCallback.file(this.pubnub, fileEventResult);
+            } finally {
+                flightRecorderEvents.dispatchFinished(dispatchEvent, subscribeCallback,
+                        "file", fileEventResult.getChannel());
+            }
         }
     }
 }
@@ -0,0 +1,115 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.metrics.PNMetrics;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+import static com.pubnub.api.metrics.PNMetricNames.BYTES_RECEIVED;
+import static com.pubnub.api.metrics.PNMetricNames.BYTES_SENT;
+import static com.pubnub.api.metrics.PNMetricNames.LISTENER_DISPATCH;
+import static com.pubnub.api.metrics.PNMetricNames.OUTCOME_ERROR;
+import static com.pubnub.api.metrics.PNMetricNames.OUTCOME_SUCCESS;
+import static com.pubnub.api.metrics.PNMetricNames.RECONNECTIONS;
+import static com.pubnub.api.metrics.PNMetricNames.RECONNECTION_ATTEMPTS;
+import static com.pubnub.api.metrics.PNMetricNames.REQUESTS;
+import static com.pubnub.api.metrics.PNMetricNames.REQUEST_ERRORS;
+import static com.pubnub.api.metrics.PNMetricNames.RETRIES;
+import static com.pubnub.api.metrics.PNMetricNames.SUBSCRIBE_LAG;
+import static com.pubnub.api.metrics.PNMetricNames.SUBSCRIBE_MESSAGES;
+import static com.pubnub.api.metrics.PNMetricNames.TAG_CATEGORY;
+import static com.pubnub.api.metrics.PNMetricNames.TAG_CLIENT;
+import static com.pubnub.api.metrics.PNMetricNames.TAG_OPERATION;
+import static com.pubnub.api.metrics.PNMetricNames.TAG_OUTCOME;
+
+/**
+ * Holds the instruments the SDK reports to the configured {@link PNMetrics}, looked up once so reporting a value
+ * does not go through the registry of the metrics backend.
+ */
+public class MetricsManager {
+    private static final PNOperationType[] OPERATION_TYPES = PNOperationType.values();
+
+    private final PNMetrics metrics;
+
+    /**
+     * Whether metrics are reported at all, measurements are skipped when they are not.
+     */
+    @Getter
+    private final boolean enabled;
+
+    private final AtomicReferenceArray<PNMetrics.Timer> successTimers =
+            new AtomicReferenceArray<>(OPERATION_TYPES.length);
+    private final AtomicReferenceArray<PNMetrics.Timer> errorTimers =
+            new AtomicReferenceArray<>(OPERATION_TYPES.length);
+
+    @Getter
+    private final PNMetrics.Counter subscribeMessages;
+    @Getter
+    private final PNMetrics.Timer subscribeLag;
+    @Getter
+    private final PNMetrics.Timer listenerDispatch;
+    @Getter
+    private final PNMetrics.Counter reconnectionAttempts;
+    @Getter
+    private final PNMetrics.Counter reconnections;
+
+    public MetricsManager(@Nullable PNMetrics metrics) {
+        this.metrics = metrics != null ? metrics : PNMetrics.NONE;
+        this.enabled = this.metrics != PNMetrics.NONE;
+        this.subscribeMessages = this.metrics.counter(SUBSCRIBE_MESSAGES);
+        this.subscribeLag = this.metrics.timer(SUBSCRIBE_LAG);
+        this.listenerDispatch = this.metrics.timer(LISTENER_DISPATCH);
+        this.reconnectionAttempts = this.metrics.counter(RECONNECTION_ATTEMPTS);
+        this.reconnections = this.metrics.counter(RECONNECTIONS);
+    }
+
+    /**
+     * Records the duration of a request started at {@code startNanos}, from {@link System#nanoTime()}.
+     *
+     * @param errorCategory the category of the failure, or {@code null} when the request succeeded
+     */
+    public void requestCompleted(@NotNull PNOperationType type, long startNanos,
+                                 @Nullable PNStatusCategory errorCategory) {
+        if (!enabled) {
+            return;
+        }
+        final boolean success = errorCategory == null;
+        final AtomicReferenceArray<PNMetrics.Timer> timers = success ? successTimers : errorTimers;
+        PNMetrics.Timer timer = timers.get(type.ordinal());
+        if (timer == null) {
+            timer = metrics.timer(REQUESTS, TAG_OPERATION, type.name(), TAG_OUTCOME,
+                    success ? OUTCOME_SUCCESS : OUTCOME_ERROR);
+            timers.set(type.ordinal(), timer);
+        }
+        timer.record(System.nanoTime() - startNanos);
+        if (!success) {
+            metrics.counter(REQUEST_ERRORS, TAG_OPERATION, type.name(), TAG_CATEGORY, errorCategory.name())
+                    .increment(1);
+        }
+    }
+
+    public void retried(@NotNull PNOperationType type) {
+        if (enabled) {
+            metrics.counter(RETRIES, TAG_OPERATION, type.name()).increment(1);
+        }
+    }
+
+    public void gauge(@NotNull String name, @NotNull LongSupplier value) {
+        metrics.gauge(name, value);
+    }
+
+    @NotNull
+    public PNMetrics.Counter bytesSent(@NotNull String client) {
+        return metrics.counter(BYTES_SENT, TAG_CLIENT, client);
+    }
+
+    @NotNull
+    public PNMetrics.Counter bytesReceived(@NotNull String client) {
+        return metrics.counter(BYTES_RECEIVED, TAG_CLIENT, client);
+    }
+}
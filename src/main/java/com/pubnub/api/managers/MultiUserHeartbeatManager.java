@@ -0,0 +1,213 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.UserId;
+import com.pubnub.api.endpoints.presence.Heartbeat;
+import com.pubnub.api.enums.PNHeartbeatNotificationOptions;
+import com.pubnub.api.managers.token_manager.TokenManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import static com.pubnub.api.managers.StateManager.MILLIS_IN_SECOND;
+
+/**
+ * Keeps many users present on their channels from a single {@link PubNub} instance.
+ * <p>
+ * All users share one timer and an HTTP client of their own, so their heartbeats never queue ahead of other
+ * requests. The heartbeat interval is divided in slots of {@value #TICK_MILLIS} ms and users are assigned to the
+ * slots in turn, so their heartbeats are spread evenly across the interval instead of being sent in bursts. Users
+ * heartbeat with the credentials of the instance.
+ * <p>
+ * The interval is {@link com.pubnub.api.PNConfiguration#getHeartbeatInterval()}, or half the presence timeout minus
+ * a second when no interval is configured, as {@link com.pubnub.api.PNConfiguration#setPresenceTimeout(int)} picks.
+ */
+public class MultiUserHeartbeatManager {
+    private static final int TICK_MILLIS = 100;
+
+    private final PubNub pubnub;
+    private final TelemetryManager telemetryManager;
+    private final RetrofitManager retrofitManager;
+    private final TokenManager tokenManager;
+    private final ListenerManager listenerManager;
+
+    private final Map<String, User> users = new HashMap<>();
+    private final List<Set<User>> slots = new ArrayList<>();
+    private final int heartbeatInterval;
+    private int nextSlot;
+    private int tick;
+    private Timer timer;
+
+    public MultiUserHeartbeatManager(PubNub pubnub,
+                                     TelemetryManager telemetryManager,
+                                     RetrofitManager retrofitManager,
+                                     TokenManager tokenManager,
+                                     ListenerManager listenerManager) {
+        this.pubnub = pubnub;
+        this.telemetryManager = telemetryManager;
+        this.retrofitManager = retrofitManager;
+        this.tokenManager = tokenManager;
+        this.listenerManager = listenerManager;
+
+        if (pubnub.getConfiguration().getHeartbeatInterval() > 0) {
+            heartbeatInterval = pubnub.getConfiguration().getHeartbeatInterval();
+        } else {
+            heartbeatInterval = pubnub.getConfiguration().getPresenceTimeout() / 2 - 1;
+        }
+        final int slotCount = Math.max(1, heartbeatInterval * MILLIS_IN_SECOND / TICK_MILLIS);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Starts or updates the heartbeats of a user. The first heartbeat is sent right away, the next ones every
+     * {@link #getHeartbeatInterval()} seconds.
+     *
+     * @param state presence state sent with every heartbeat, or {@code null}
+     */
+    public void setPresence(@NotNull UserId userId,
+                            @NotNull List<String> channels,
+                            @NotNull List<String> channelGroups,
+                            @Nullable Object state) {
+        if (channels.isEmpty() && channelGroups.isEmpty()) {
+            removePresence(userId);
+            return;
+        }
+
+        final User user;
+        synchronized (this) {
+            User existing = users.get(userId.getValue());
+            if (existing == null) {
+                existing = new User(userId.getValue(), nextSlot);
+                nextSlot = (nextSlot + 1) % slots.size();
+                users.put(existing.uuid, existing);
+                slots.get(existing.slot).add(existing);
+            }
+            existing.channels = new ArrayList<>(channels);
+            existing.channelGroups = new ArrayList<>(channelGroups);
+            existing.state = state;
+            user = existing;
+            startTimer();
+        }
+        heartbeat(user);
+    }
+
+    /**
+     * Stops the heartbeats of a user, who then times out of its channels.
+     */
+    public synchronized void removePresence(@NotNull UserId userId) {
+        final User user = users.remove(userId.getValue());
+        if (user != null) {
+            slots.get(user.slot).remove(user);
+        }
+        if (users.isEmpty()) {
+            stopTimer();
+        }
+    }
+
+    /**
+     * Seconds between two heartbeats of a user.
+     */
+    public int getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public synchronized Set<String> getUserIds() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(users.keySet()));
+    }
+
+    public synchronized void destroy() {
+        users.clear();
+        for (Set<User> slot : slots) {
+            slot.clear();
+        }
+        stopTimer();
+    }
+
+    private void startTimer() {
+        if (timer != null) {
+            return;
+        }
+        timer = new Timer("Multi User Heartbeat Timer", true);
+        timer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                heartbeatNextSlot();
+            }
+        }, TICK_MILLIS, TICK_MILLIS);
+    }
+
+    /**
+     * Sends the heartbeats of the users of the next slot, which the timer does every {@value #TICK_MILLIS} ms.
+     */
+    void heartbeatNextSlot() {
+        for (User user : nextSlot()) {
+            heartbeat(user);
+        }
+    }
+
+    int getSlotCount() {
+        return slots.size();
+    }
+
+    private void stopTimer() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+    }
+
+    private synchronized List<User> nextSlot() {
+        tick = (tick + 1) % slots.size();
+        return new ArrayList<>(slots.get(tick));
+    }
+
+    private void heartbeat(final User user) {
+        synchronized (user) {
+            if (user.inFlight) {
+                return;
+            }
+            user.inFlight = true;
+        }
+        new Heartbeat(pubnub, telemetryManager, retrofitManager, tokenManager)
+                .uuid(user.uuid)
+                .channels(user.channels)
+                .channelGroups(user.channelGroups)
+                .state(user.state)
+                .async((result, status) -> {
+                    synchronized (user) {
+                        user.inFlight = false;
+                    }
+                    final PNHeartbeatNotificationOptions heartbeatVerbosity =
+                            pubnub.getConfiguration().getHeartbeatNotificationOptions();
+                    if (heartbeatVerbosity == PNHeartbeatNotificationOptions.ALL
+                            || (status.isError() && heartbeatVerbosity == PNHeartbeatNotificationOptions.FAILURES)) {
+                        listenerManager.announce(status);
+                    }
+                });
+    }
+
+    private static final class User {
+        private final String uuid;
+        private final int slot;
+        private volatile List<String> channels;
+        private volatile List<String> channelGroups;
+        private volatile Object state;
+        private boolean inFlight;
+
+        private User(String uuid, int slot) {
+            this.uuid = uuid;
+            this.slot = slot;
+        }
+    }
+}
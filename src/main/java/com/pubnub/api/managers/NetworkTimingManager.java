@@ -0,0 +1,195 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.models.consumer.PNNetworkTimings;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Times the phases of the HTTP calls, installed as the {@link EventListener.Factory} of the HTTP clients.
+ * <p>
+ * The timings of a call are kept until they are taken with the request of the call, or until the request is no
+ * longer referenced. Requests do not override {@code equals}, so they are looked up by identity.
+ */
+public class NetworkTimingManager implements EventListener.Factory {
+
+    private final Map<Request, CallTimings> timings = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @NotNull
+    @Override
+    public EventListener create(@NotNull Call call) {
+        final CallTimings callTimings = new CallTimings();
+        timings.put(call.request(), callTimings);
+        return callTimings;
+    }
+
+    /**
+     * Returns and forgets the timings of the call made for a request, or {@code null} when it was not timed.
+     */
+    @Nullable
+    public PNNetworkTimings take(@NotNull Request request) {
+        final CallTimings callTimings = timings.remove(request);
+        return callTimings != null ? callTimings.snapshot() : null;
+    }
+
+    private static final class CallTimings extends EventListener {
+        private long callStart;
+        private long callEnd;
+        private long dnsStart;
+        private long dnsEnd;
+        private long connectStart;
+        private long connectEnd;
+        private long secureConnectStart;
+        private long secureConnectEnd;
+        private long connectionAcquired;
+        private long requestStart;
+        private long requestEnd;
+        private long responseStart;
+        private long responseEnd;
+
+        @Override
+        public synchronized void callStart(@NotNull Call call) {
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void dnsStart(@NotNull Call call, @NotNull String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void dnsEnd(@NotNull Call call,
+                                        @NotNull String domainName,
+                                        @NotNull List<InetAddress> inetAddressList) {
+            dnsEnd = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void connectStart(@NotNull Call call,
+                                              @NotNull InetSocketAddress inetSocketAddress,
+                                              @NotNull Proxy proxy) {
+            if (connectStart == 0) {
+                connectStart = System.nanoTime();
+            }
+        }
+
+        @Override
+        public synchronized void secureConnectStart(@NotNull Call call) {
+            secureConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void secureConnectEnd(@NotNull Call call, @Nullable Handshake handshake) {
+            secureConnectEnd = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void connectEnd(@NotNull Call call,
+                                            @NotNull InetSocketAddress inetSocketAddress,
+                                            @NotNull Proxy proxy,
+                                            @Nullable Protocol protocol) {
+            connectEnd = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void connectFailed(@NotNull Call call,
+                                               @NotNull InetSocketAddress inetSocketAddress,
+                                               @NotNull Proxy proxy,
+                                               @Nullable Protocol protocol,
+                                               @NotNull IOException ioe) {
+            connectEnd = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void connectionAcquired(@NotNull Call call, @NotNull Connection connection) {
+            if (connectionAcquired == 0) {
+                connectionAcquired = System.nanoTime();
+            }
+        }
+
+        @Override
+        public synchronized void requestHeadersStart(@NotNull Call call) {
+            if (requestStart == 0) {
+                requestStart = System.nanoTime();
+            }
+        }
+
+        @Override
+        public synchronized void requestHeadersEnd(@NotNull Call call, @NotNull Request request) {
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void requestBodyEnd(@NotNull Call call, long byteCount) {
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void responseHeadersStart(@NotNull Call call) {
+            responseStart = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void responseHeadersEnd(@NotNull Call call, @NotNull Response response) {
+            responseEnd = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void responseBodyEnd(@NotNull Call call, long byteCount) {
+            responseEnd = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void callEnd(@NotNull Call call) {
+            callEnd = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void callFailed(@NotNull Call call, @NotNull IOException ioe) {
+            callEnd = System.nanoTime();
+        }
+
+        synchronized PNNetworkTimings snapshot() {
+            final long queueEnd = firstOf(dnsStart, connectStart, connectionAcquired, requestStart);
+            return PNNetworkTimings.builder()
+                    .queueNanos(span(callStart, queueEnd))
+                    .dnsNanos(span(dnsStart, dnsEnd))
+                    .connectNanos(span(connectStart, connectEnd))
+                    .tlsNanos(span(secureConnectStart, secureConnectEnd))
+                    .requestNanos(span(requestStart, requestEnd))
+                    .waitNanos(span(requestEnd, responseStart))
+                    .responseNanos(span(responseStart, responseEnd))
+                    .totalNanos(span(callStart, callEnd != 0 ? callEnd : System.nanoTime()))
+                    .connectionReused(connectionAcquired != 0 && connectStart == 0)
+                    .build();
+        }
+
+        private static long firstOf(long... times) {
+            for (long time : times) {
+                if (time != 0) {
+                    return time;
+                }
+            }
+            return 0;
+        }
+
+        private static long span(long start, long end) {
+            return start != 0 && end > start ? end - start : 0;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.presence.PNHereNowChannelData;
+import com.pubnub.api.models.consumer.presence.PNHereNowOccupantData;
+import com.pubnub.api.models.consumer.presence.PNHereNowResult;
+import com.pubnub.api.models.consumer.pubsub.PNPresenceEventResult;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the occupancy and the occupants of every channel subscribed with presence up to date from the presence
+ * events, so reading them does not require any request.
+ * <p>
+ * A channel is read with {@link PubNub#hereNow()} when it starts being tracked, when the subscribe loop connects or
+ * reconnects, when an interval event asks for it with {@code hereNowRefresh}, and when the occupants known
+ * locally no longer match the occupancy announced by an event. Events received while a read is in flight are
+ * applied again on top of its result.
+ */
+@Slf4j
+public class PresenceOccupancyManager extends SubscribeCallback.BaseSubscribeCallback {
+    private static final String PRESENCE_SUFFIX = "-pnpres";
+    private static final String WILDCARD_SUFFIX = ".*";
+    private static final int MAX_CHANNELS_PER_REFRESH = 50;
+
+    private static final String JOIN = "join";
+    private static final String LEAVE = "leave";
+    private static final String TIMEOUT = "timeout";
+    private static final String STATE_CHANGE = "state-change";
+    private static final String INTERVAL = "interval";
+
+    private final PubNub pubnub;
+    private final Map<String, ChannelOccupancy> channels = new ConcurrentHashMap<>();
+
+    public PresenceOccupancyManager(PubNub pubnub) {
+        this.pubnub = pubnub;
+    }
+
+    /**
+     * Returns the number of occupants of the channel, or {@code null} when it is not tracked.
+     */
+    @Nullable
+    public Integer getOccupancy(String channel) {
+        final ChannelOccupancy occupancy = channels.get(channel);
+        return occupancy != null && occupancy.initialized ? occupancy.occupancy : null;
+    }
+
+    /**
+     * Returns a live read-only view of the occupants of the channel, empty when it is not tracked.
+     */
+    @NotNull
+    public Set<String> getOccupants(String channel) {
+        final ChannelOccupancy occupancy = channels.get(channel);
+        return occupancy != null ? occupancy.readOnlyOccupants : Collections.<String>emptySet();
+    }
+
+    @Override
+    public void status(@NotNull PubNub pubnub, @NotNull PNStatus pnStatus) {
+        if (pnStatus.getCategory() == null || pnStatus.getAffectedChannels() == null) {
+            return;
+        }
+        switch (pnStatus.getCategory()) {
+            case PNConnectedCategory:
+            case PNReconnectedCategory:
+                final List<String> presenceChannels = new ArrayList<>();
+                for (String channel : pnStatus.getAffectedChannels()) {
+                    if (channel.endsWith(PRESENCE_SUFFIX)) {
+                        final String tracked = channel.substring(0, channel.length() - PRESENCE_SUFFIX.length());
+                        if (!tracked.endsWith(WILDCARD_SUFFIX)) {
+                            presenceChannels.add(tracked);
+                        }
+                    }
+                }
+                refresh(presenceChannels);
+                break;
+            case PNAcknowledgmentCategory:
+                if (pnStatus.getOperation() == PNOperationType.PNUnsubscribeOperation) {
+                    for (String channel : pnStatus.getAffectedChannels()) {
+                        channels.remove(channel);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void presence(@NotNull PubNub pubnub, @NotNull PNPresenceEventResult event) {
+        final String channel = event.getChannel();
+        if (channel == null || event.getEvent() == null) {
+            return;
+        }
+        final ChannelOccupancy occupancy = channels.computeIfAbsent(channel, name -> new ChannelOccupancy());
+
+        final boolean refresh;
+        synchronized (occupancy) {
+            if (occupancy.pendingEvents != null) {
+                occupancy.pendingEvents.add(event);
+            }
+            final boolean consistent = apply(occupancy, event);
+            refresh = occupancy.pendingEvents == null
+                    && (!occupancy.initialized || !consistent || Boolean.TRUE.equals(event.getHereNowRefresh()));
+        }
+        if (refresh) {
+            refresh(Collections.singletonList(channel));
+        }
+    }
+
+    /**
+     * Applies the event and returns whether the occupants match the occupancy it announces.
+     */
+    private static boolean apply(ChannelOccupancy occupancy, PNPresenceEventResult event) {
+        switch (event.getEvent()) {
+            case JOIN:
+            case STATE_CHANGE:
+                if (event.getUuid() != null) {
+                    occupancy.occupants.add(event.getUuid());
+                }
+                break;
+            case LEAVE:
+            case TIMEOUT:
+                if (event.getUuid() != null) {
+                    occupancy.occupants.remove(event.getUuid());
+                }
+                break;
+            case INTERVAL:
+                addAll(occupancy.occupants, event.getJoin());
+                removeAll(occupancy.occupants, event.getLeave());
+                removeAll(occupancy.occupants, event.getTimeout());
+                break;
+            default:
+                return true;
+        }
+        if (event.getOccupancy() == null) {
+            return true;
+        }
+        occupancy.occupancy = event.getOccupancy();
+        return occupancy.occupants.size() == event.getOccupancy();
+    }
+
+    private void refresh(List<String> channelsToRefresh) {
+        final List<String> batch = new ArrayList<>();
+        for (String channel : channelsToRefresh) {
+            final ChannelOccupancy occupancy = channels.computeIfAbsent(channel, name -> new ChannelOccupancy());
+            synchronized (occupancy) {
+                if (occupancy.pendingEvents != null) {
+                    continue;
+                }
+                occupancy.pendingEvents = new ArrayList<>();
+            }
+            batch.add(channel);
+            if (batch.size() == MAX_CHANNELS_PER_REFRESH) {
+                hereNow(new ArrayList<>(batch));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            hereNow(batch);
+        }
+    }
+
+    private void hereNow(final List<String> batch) {
+        pubnub.hereNow()
+                .channels(batch)
+                .includeUUIDs(true)
+                .includeState(false)
+                .async((result, status) -> {
+                    if (status.isError()) {
+                        log.warn("failed to read the occupancy of " + batch + ": " + status.getErrorData());
+                    }
+                    for (String channel : batch) {
+                        snapshot(channel, status.isError() ? null : result);
+                    }
+                });
+    }
+
+    private void snapshot(String channel, @Nullable PNHereNowResult result) {
+        final ChannelOccupancy occupancy = channels.get(channel);
+        if (occupancy == null) {
+            return;
+        }
+        synchronized (occupancy) {
+            final List<PNPresenceEventResult> pendingEvents = occupancy.pendingEvents;
+            occupancy.pendingEvents = null;
+            if (result == null) {
+                return;
+            }
+
+            // channels without occupants are left out of the response
+            final PNHereNowChannelData data = result.getChannels() != null ? result.getChannels().get(channel) : null;
+            final Set<String> occupants = new HashSet<>();
+            if (data != null && data.getOccupants() != null) {
+                for (PNHereNowOccupantData occupant : data.getOccupants()) {
+                    occupants.add(occupant.getUuid());
+                }
+            }
+            occupancy.occupants.retainAll(occupants);
+            occupancy.occupants.addAll(occupants);
+            occupancy.occupancy = data != null ? data.getOccupancy() : 0;
+            occupancy.initialized = true;
+
+            if (pendingEvents != null) {
+                for (PNPresenceEventResult event : pendingEvents) {
+                    apply(occupancy, event);
+                }
+            }
+        }
+    }
+
+    private static void addAll(Set<String> occupants, @Nullable List<String> uuids) {
+        if (uuids != null) {
+            occupants.addAll(uuids);
+        }
+    }
+
+    private static void removeAll(Set<String> occupants, @Nullable List<String> uuids) {
+        if (uuids != null) {
+            occupants.removeAll(uuids);
+        }
+    }
+
+    private static final class ChannelOccupancy {
+        private final Set<String> occupants = ConcurrentHashMap.newKeySet();
+        private final Set<String> readOnlyOccupants = Collections.unmodifiableSet(occupants);
+        private volatile int occupancy;
+        private volatile boolean initialized;
+
+        /**
+         * Events received since the channel has been requested from here now, {@code null} when no request is
+         * in flight.
+         */
+        private List<PNPresenceEventResult> pendingEvents;
+    }
+}
@@ -113,11 +113,18 @@ public class ReconnectionManager {
     }
 
     private void callTime() {
+        final MetricsManager metricsManager = pubnub.getMetricsManager();
+        if (metricsManager != null) {
+            metricsManager.getReconnectionAttempts().increment(1);
+        }
         pubnub.time().async(new PNCallback<PNTimeResult>() {
             @Override
             public void onResponse(PNTimeResult result, @NotNull PNStatus status) {
                 if (!status.isError()) {
                     stopHeartbeatTimer();
+                    if (metricsManager != null) {
+                        metricsManager.getReconnections().increment(1);
+                    }
                     callback.onReconnection();
                 } else {
                     log.debug("callTime() at: " + Calendar.getInstance().getTime().toString());
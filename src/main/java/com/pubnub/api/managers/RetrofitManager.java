@@ -6,9 +6,16 @@ import com.pubnub.api.callbacks.SubscribeCallback;
 import com.pubnub.api.endpoints.vendor.AppEngineFactory;
 import com.pubnub.api.enums.PNLogVerbosity;
 import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.interceptors.MetricsInterceptor;
 import com.pubnub.api.interceptors.SignatureInterceptor;
+import com.pubnub.api.interceptors.SubscribeCaptureInterceptor;
+import com.pubnub.api.interceptors.SubscribeReplayInterceptor;
 import com.pubnub.api.models.consumer.PNStatus;
 import com.pubnub.api.services.*;
+import com.pubnub.api.services.direct.DirectPresenceService;
+import com.pubnub.api.services.direct.DirectPublishService;
+import com.pubnub.api.services.direct.DirectSignalService;
+import com.pubnub.api.services.direct.DirectSubscribeService;
 import lombok.Getter;
 import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
@@ -28,10 +35,17 @@ public class RetrofitManager {
 
     private SignatureInterceptor signatureInterceptor;
 
+    /**
+     * Phase timings of the calls of all clients.
+     */
+    @Getter
+    private final NetworkTimingManager networkTimingManager = new NetworkTimingManager();
+
     private OkHttpClient transactionClientInstance;
     private OkHttpClient subscriptionClientInstance;
     private OkHttpClient noSignatureClientInstance;
     private OkHttpClient presenceClientInstance;
+    private OkHttpClient multiUserHeartbeatClientInstance;
 
 
     // services
@@ -65,6 +79,13 @@ public class RetrofitManager {
     private final S3Service s3Service;
     @Getter
     private final ExtendedPresenceService extendedPresenceService;
+
+    /**
+     * Presence service used for heartbeats sent on behalf of many users. It has a client and dispatcher of its own,
+     * so those heartbeats do not take the transactional requests per host limit from publishes and history calls.
+     */
+    @Getter
+    private final PresenceService multiplexedPresenceService;
     @Getter
     private final Retrofit transactionInstance;
     @Getter
@@ -73,6 +94,7 @@ public class RetrofitManager {
     private final Retrofit noSignatureInstance;
     @Getter
     private final Retrofit presenceInstance;
+    private final Retrofit multiUserHeartbeatInstance;
 
     public RetrofitManager(PubNub pubNubInstance) {
         this.pubnub = pubNubInstance;
@@ -83,7 +105,8 @@ public class RetrofitManager {
             this.transactionClientInstance = createOkHttpClient(
                     prepareOkHttpClient(
                             this.pubnub.getConfiguration().getNonSubscribeRequestTimeout(),
-                            this.pubnub.getConfiguration().getConnectTimeout()
+                            this.pubnub.getConfiguration().getConnectTimeout(),
+                            "transaction"
                     ).addInterceptor(this.signatureInterceptor)
                             .retryOnConnectionFailure(false)
             );
@@ -94,23 +117,44 @@ public class RetrofitManager {
             this.presenceClientInstance = createOkHttpClient(
                     prepareOkHttpClient(
                             this.pubnub.getConfiguration().getNonSubscribeRequestTimeout(),
-                            this.pubnub.getConfiguration().getConnectTimeout()
+                            this.pubnub.getConfiguration().getConnectTimeout(),
+                            "presence"
                     ).addInterceptor(this.signatureInterceptor)
                             .retryOnConnectionFailure(false)
                             .dispatcher(dispatcher)
             );
 
-            this.subscriptionClientInstance = createOkHttpClient(
+            this.multiUserHeartbeatClientInstance = createOkHttpClient(
                     prepareOkHttpClient(
-                            this.pubnub.getConfiguration().getSubscribeTimeout(),
-                            this.pubnub.getConfiguration().getConnectTimeout()
+                            this.pubnub.getConfiguration().getNonSubscribeRequestTimeout(),
+                            this.pubnub.getConfiguration().getConnectTimeout(),
+                            "multiUserHeartbeat"
                     ).addInterceptor(this.signatureInterceptor)
                             .retryOnConnectionFailure(false)
+                            .dispatcher(new Dispatcher())
             );
 
+            final OkHttpClient.Builder subscriptionClient = prepareOkHttpClient(
+                    this.pubnub.getConfiguration().getSubscribeTimeout(),
+                    this.pubnub.getConfiguration().getConnectTimeout(),
+                    "subscription"
+            ).addInterceptor(this.signatureInterceptor)
+                    .retryOnConnectionFailure(false);
+            if (this.pubnub.getConfiguration().getSubscribeCapture() != null) {
+                subscriptionClient.addInterceptor(
+                        new SubscribeCaptureInterceptor(this.pubnub.getConfiguration().getSubscribeCapture()));
+            }
+            if (this.pubnub.getConfiguration().getSubscribeReplay() != null) {
+                // last, so the requests are built and signed as usual and only the network is replaced
+                subscriptionClient.addInterceptor(
+                        new SubscribeReplayInterceptor(this.pubnub.getConfiguration().getSubscribeReplay()));
+            }
+            this.subscriptionClientInstance = createOkHttpClient(subscriptionClient);
+
             this.noSignatureClientInstance = createOkHttpClient(
                     prepareOkHttpClient(this.pubnub.getConfiguration().getSubscribeTimeout(),
-                            this.pubnub.getConfiguration().getConnectTimeout()
+                            this.pubnub.getConfiguration().getConnectTimeout(),
+                            "files"
                     ).retryOnConnectionFailure(false)
             );
 
@@ -137,6 +181,7 @@ public class RetrofitManager {
         this.subscriptionInstance = createRetrofit(this.subscriptionClientInstance);
         this.noSignatureInstance = createRetrofit(this.noSignatureClientInstance);
         this.presenceInstance = createRetrofit(this.presenceClientInstance);
+        this.multiUserHeartbeatInstance = createRetrofit(this.multiUserHeartbeatClientInstance);
 
         this.presenceService = presenceInstance.create(PresenceService.class);
         this.historyService = transactionInstance.create(HistoryService.class);
@@ -153,14 +198,25 @@ public class RetrofitManager {
         this.filesService = transactionInstance.create(FilesService.class);
         this.s3Service = noSignatureInstance.create(S3Service.class);
         this.extendedPresenceService = transactionInstance.create(ExtendedPresenceService.class);
+        if (pubnub.getConfiguration().isDirectRequests()) {
+            this.presenceService = new DirectPresenceService(presenceInstance, pubnub, presenceService);
+            this.publishService = new DirectPublishService(transactionInstance, pubnub, publishService);
+            this.subscribeService = new DirectSubscribeService(subscriptionInstance, pubnub);
+            this.signalService = new DirectSignalService(transactionInstance, pubnub);
+            this.multiplexedPresenceService = new DirectPresenceService(multiUserHeartbeatInstance, pubnub,
+                    multiUserHeartbeatInstance.create(PresenceService.class));
+        } else {
+            this.multiplexedPresenceService = multiUserHeartbeatInstance.create(PresenceService.class);
+        }
 
     }
 
-    private OkHttpClient.Builder prepareOkHttpClient(int requestTimeout, int connectTimeOut) {
+    private OkHttpClient.Builder prepareOkHttpClient(int requestTimeout, int connectTimeOut, String clientName) {
         PNConfiguration pnConfiguration = pubnub.getConfiguration();
         OkHttpClient.Builder httpClient = new OkHttpClient.Builder();
         httpClient.readTimeout(requestTimeout, TimeUnit.SECONDS);
         httpClient.connectTimeout(connectTimeOut, TimeUnit.SECONDS);
+        httpClient.eventListenerFactory(networkTimingManager);
 
         if (pubnub.getConfiguration().getLogVerbosity() == PNLogVerbosity.BODY) {
             HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
@@ -201,6 +257,11 @@ public class RetrofitManager {
             httpClient.certificatePinner(pubnub.getConfiguration().getCertificatePinner());
         }
 
+        final MetricsManager metricsManager = pubnub.getMetricsManager();
+        if (metricsManager != null && metricsManager.isEnabled()) {
+            httpClient.addNetworkInterceptor(new MetricsInterceptor(metricsManager, clientName));
+        }
+
 
         return httpClient;
     }
@@ -261,5 +322,8 @@ public class RetrofitManager {
         if (this.noSignatureClientInstance != null) {
             closeExecutor(this.noSignatureClientInstance, force);
         }
+        if (this.multiUserHeartbeatClientInstance != null) {
+            closeExecutor(this.multiUserHeartbeatClientInstance, force);
+        }
     }
 }
@@ -1,6 +1,8 @@
 package com.pubnub.api.managers;
 
 import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.PubNubUtil;
 import com.pubnub.api.builder.dto.ChangeTemporaryUnavailableOperation;
 import com.pubnub.api.builder.dto.PresenceOperation;
 import com.pubnub.api.builder.dto.PubSubOperation;
@@ -10,8 +12,12 @@ import com.pubnub.api.builder.dto.TimetokenAndRegionOperation;
 import com.pubnub.api.builder.dto.UnsubscribeOperation;
 import com.pubnub.api.enums.PNStatusCategory;
 import com.pubnub.api.models.SubscriptionItem;
+import com.pubnub.api.models.consumer.pubsub.PNSubscriptionCursor;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -20,6 +26,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class StateManager {
     @Data
@@ -70,6 +77,12 @@ public class StateManager {
     private final PNConfiguration configuration;
     private PNStatusCategory announceStatus = null;
 
+    /**
+     * Incremented on every change of the subscriptions or of their state.
+     */
+    private long version;
+    private SubscribeRequestSnapshot subscribeRequestSnapshot;
+
     public StateManager(final PNConfiguration configuration) {
         this.configuration = configuration;
     }
@@ -116,6 +129,21 @@ public class StateManager {
 
     public synchronized SubscriptionStateData subscriptionStateData(Boolean includePresence,
                                                                     ChannelFilter channelFilter) {
+        if (includePresence && channelFilter == ChannelFilter.WITHOUT_TEMPORARY_UNAVAILABLE) {
+            final SubscribeRequestSnapshot snapshot = subscribeRequestSnapshot();
+            return new SubscriptionStateData(
+                    snapshot.getStatePayload(),
+                    snapshot.getChannelGroups(),
+                    snapshot.getChannels(),
+                    timetoken,
+                    region,
+                    snapshot.isAnythingToSubscribe(),
+                    snapshot.isSubscribedToOnlyTemporaryUnavailable(),
+                    announceStatus,
+                    snapshot
+            );
+        }
+
         final List<String> channelsList;
         final List<String> groupsList;
         if (channelFilter == ChannelFilter.WITH_TEMPORARY_UNAVAILABLE) {
@@ -133,10 +161,63 @@ public class StateManager {
                 region,
                 hasAnythingToSubscribe(),
                 subscribedToOnlyTemporaryUnavailable(),
-                announceStatus
+                announceStatus,
+                null
         );
     }
 
+    /**
+     * Returns the subscribe request for the current subscriptions, excluding the temporarily unavailable ones. The
+     * snapshot is reused by the subscribe loop until the subscriptions, their state, the postponed channels or the
+     * filter expression change.
+     */
+    private SubscribeRequestSnapshot subscribeRequestSnapshot() {
+        final List<String> postponedChannels = channelsToPostponeSubscription(temporaryUnavailableChannels);
+        final List<String> postponedChannelGroups =
+                channelGroupsToPostponeSubscription(temporaryUnavailableChannelGroups);
+        final String filterExpression = configuration.getFilterExpression();
+
+        final SubscribeRequestSnapshot snapshot = subscribeRequestSnapshot;
+        if (snapshot != null
+                && snapshot.version == version
+                && snapshot.postponedChannels.equals(postponedChannels)
+                && snapshot.postponedChannelGroups.equals(postponedChannelGroups)
+                && Objects.equals(snapshot.filterExpression, filterExpression)) {
+            return snapshot;
+        }
+
+        final List<String> channelsList = prepareMembershipList(channels, presenceChannels, true);
+        final List<String> groupsList = prepareMembershipList(groups, presenceGroups, true);
+        final boolean anythingToSubscribe = !channelsList.isEmpty() || !groupsList.isEmpty();
+        channelsList.removeAll(postponedChannels);
+        groupsList.removeAll(postponedChannelGroups);
+
+        subscribeRequestSnapshot = new SubscribeRequestSnapshot(version,
+                postponedChannels,
+                postponedChannelGroups,
+                channelsList,
+                groupsList,
+                createStatePayload(),
+                filterExpression,
+                anythingToSubscribe);
+        return subscribeRequestSnapshot;
+    }
+
+    /**
+     * Describes all subscriptions, including the temporarily unavailable ones, for a subscribe loop positioned at
+     * {@code cursorTimetoken}.
+     */
+    synchronized PNSubscriptionCursor subscriptionCursor(Long cursorTimetoken, String cursorRegion) {
+        return PNSubscriptionCursor.builder()
+                .timetoken(cursorTimetoken)
+                .region(cursorRegion)
+                .channels(getNames(channels))
+                .channelGroups(getNames(groups))
+                .presenceChannels(getNames(presenceChannels))
+                .presenceChannelGroups(getNames(presenceGroups))
+                .build();
+    }
+
     @SuppressWarnings("deprecation")
     public synchronized HeartbeatStateData heartbeatStateData() {
         if (configuration.isManagePresenceListManually()) {
@@ -212,6 +293,7 @@ public class StateManager {
 
         }
         if (changeDetected) {
+            version++;
             explicitlySetTimetoken(subscribeOperation.getTimetoken());
         }
         return changeDetected;
@@ -233,6 +315,7 @@ public class StateManager {
     }
 
     private void adaptStateBuilder(StateOperation stateOperation) {
+        version++;
         for (String channel : stateOperation.getChannels()) {
             SubscriptionItem subscribedChannel = channels.get(channel);
 
@@ -264,6 +347,7 @@ public class StateManager {
 
 
     private void unsubscribe(UnsubscribeOperation unsubscribeOperation) {
+        version++;
         for (String channel : unsubscribeOperation.getChannels()) {
             this.channels.remove(channel);
             this.presenceChannels.remove(channel);
@@ -413,6 +497,9 @@ public class StateManager {
     }
 
     private List<String> channelsToPostponeSubscription(final List<TemporaryUnavailableItem> temporaryUnavailableChannels) {
+        if (temporaryUnavailableChannels.isEmpty()) {
+            return Collections.emptyList();
+        }
         final List<String> result = new ArrayList<>();
 
         for (TemporaryUnavailableItem temporaryUnavailableChannel : temporaryUnavailableChannels) {
@@ -425,6 +512,9 @@ public class StateManager {
     }
 
     private List<String> channelGroupsToPostponeSubscription(final List<TemporaryUnavailableItem> temporaryUnavailableChannelGroups) {
+        if (temporaryUnavailableChannelGroups.isEmpty()) {
+            return Collections.emptyList();
+        }
         final List<String> result = new ArrayList<>();
 
         for (TemporaryUnavailableItem temporaryUnavailableChannelGroup : temporaryUnavailableChannelGroups) {
@@ -479,11 +569,91 @@ public class StateManager {
         private final boolean anythingToSubscribe;
         private final boolean subscribedToOnlyTemporaryUnavailable;
         private final PNStatusCategory announceStatus;
+        /**
+         * The encoded subscribe request, only set for the state of the subscribe loop.
+         */
+        @Nullable
+        private final SubscribeRequestSnapshot subscribeRequest;
         public boolean isShouldAnnounce() {
             return announceStatus != null;
         }
     }
 
+    /**
+     * Immutable subscribe request built once per change of the subscriptions, so the subscribe loop only substitutes
+     * the timetoken and the region between long polls.
+     */
+    @Getter
+    public static final class SubscribeRequestSnapshot {
+        private static final String EMPTY_CHANNELS_PATH = ",";
+
+        @Getter(AccessLevel.NONE)
+        private final long version;
+        @Getter(AccessLevel.NONE)
+        private final List<String> postponedChannels;
+        @Getter(AccessLevel.NONE)
+        private final List<String> postponedChannelGroups;
+
+        private final List<String> channels;
+        private final List<String> channelGroups;
+        private final Map<String, Object> statePayload;
+        @Nullable
+        private final String filterExpression;
+        private final boolean anythingToSubscribe;
+
+        /**
+         * The channels joined for the request path, {@value #EMPTY_CHANNELS_PATH} when only groups are subscribed.
+         */
+        private final String channelsPath;
+        @Nullable
+        private final String channelGroupsParam;
+        @Nullable
+        private final String encodedFilterExpression;
+
+        @Getter(AccessLevel.NONE)
+        private volatile String encodedState;
+
+        private SubscribeRequestSnapshot(long version,
+                                         List<String> postponedChannels,
+                                         List<String> postponedChannelGroups,
+                                         List<String> channels,
+                                         List<String> channelGroups,
+                                         Map<String, Object> statePayload,
+                                         @Nullable String filterExpression,
+                                         boolean anythingToSubscribe) {
+            this.version = version;
+            this.postponedChannels = postponedChannels;
+            this.postponedChannelGroups = postponedChannelGroups;
+            this.channels = Collections.unmodifiableList(channels);
+            this.channelGroups = Collections.unmodifiableList(channelGroups);
+            this.statePayload = Collections.unmodifiableMap(statePayload);
+            this.filterExpression = filterExpression;
+            this.anythingToSubscribe = anythingToSubscribe;
+
+            channelsPath = channels.isEmpty() ? EMPTY_CHANNELS_PATH : PubNubUtil.joinString(channels, ",");
+            channelGroupsParam = channelGroups.isEmpty() ? null : PubNubUtil.joinString(channelGroups, ",");
+            encodedFilterExpression = filterExpression != null && !filterExpression.isEmpty()
+                    ? PubNubUtil.urlEncode(filterExpression)
+                    : null;
+        }
+
+        public boolean isSubscribedToOnlyTemporaryUnavailable() {
+            return channels.isEmpty() && channelGroups.isEmpty();
+        }
+
+        /**
+         * Returns the state payload serialized and encoded for the query, computed on first use.
+         */
+        public String getEncodedState(MapperManager mapper) throws PubNubException {
+            String state = encodedState;
+            if (state == null) {
+                state = PubNubUtil.urlEncode(mapper.toJson(statePayload));
+                encodedState = state;
+            }
+            return state;
+        }
+    }
+
     @Data
     public static class HeartbeatStateData {
         private final Map<String, Object> statePayload;
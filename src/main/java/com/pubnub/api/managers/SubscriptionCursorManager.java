@@ -0,0 +1,214 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.managers.subscription_cursor.SubscriptionCursorStore;
+import com.pubnub.api.models.consumer.pubsub.PNSubscriptionCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tracks the timetoken up to which every received message has been dispatched to the listeners and checkpoints it,
+ * together with the subscriptions, to a {@link SubscriptionCursorStore}.
+ * <p>
+ * A subscribe response is acknowledged only once the consumer thread has dispatched all of its messages, so
+ * resuming from a checkpoint may deliver some messages again but never skips one.
+ * <p>
+ * Checkpoints are saved by a single background writer, so a slow store never holds up the subscribe loop or the
+ * consumer thread. Only the latest cursor waiting to be saved is kept.
+ */
+@Slf4j
+public class SubscriptionCursorManager {
+    private final SubscriptionCursorStore store;
+    private final StateManager stateManager;
+    private final int checkpointMessages;
+    private final Timer timer;
+    private final Executor writer;
+    private final Object saveLock = new Object();
+    private final AtomicReference<PNSubscriptionCursor> unsaved = new AtomicReference<>();
+
+    private final Deque<PendingCursor> pending = new ArrayDeque<>();
+    private long queued;
+    private long dispatched;
+    private int dispatchedSinceCheckpoint;
+    private Long timetoken;
+    private String region;
+    private boolean dirty;
+
+    SubscriptionCursorManager(SubscriptionCursorStore store,
+                              StateManager stateManager,
+                              int checkpointMessages,
+                              int checkpointInterval) {
+        this(store, stateManager, checkpointMessages, checkpointInterval,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    final Thread thread = new Thread(runnable, "Subscription Cursor Writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    SubscriptionCursorManager(SubscriptionCursorStore store,
+                              StateManager stateManager,
+                              int checkpointMessages,
+                              int checkpointInterval,
+                              Executor writer) {
+        this.store = store;
+        this.writer = writer;
+        this.stateManager = stateManager;
+        this.checkpointMessages = checkpointMessages;
+
+        if (checkpointInterval > 0) {
+            timer = new Timer("Subscription Cursor Checkpoint Timer", true);
+            timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    checkpointIfDirty();
+                }
+            }, checkpointInterval, checkpointInterval);
+        } else {
+            timer = null;
+        }
+    }
+
+    /**
+     * Loads the stored cursor and, unless the subscribe loop has already moved, continues from it.
+     */
+    @Nullable
+    PNSubscriptionCursor restore() throws PubNubException {
+        final PNSubscriptionCursor cursor = store.load();
+        synchronized (this) {
+            if (cursor != null && timetoken == null) {
+                timetoken = cursor.getTimetoken();
+                region = cursor.getRegion();
+            }
+        }
+        return cursor;
+    }
+
+    synchronized boolean hasCursor() {
+        return timetoken != null;
+    }
+
+    /**
+     * Called when the messages of a subscribe response are handed to the consumer thread.
+     *
+     * @param responseTimetoken the timetoken to acknowledge once the messages are dispatched, or {@code null} when
+     *                          the response must not move the cursor
+     */
+    synchronized void responseQueued(int count, @Nullable Long responseTimetoken, String responseRegion) {
+        queued += count;
+        if (responseTimetoken != null) {
+            pending.add(new PendingCursor(queued, responseTimetoken, responseRegion));
+        }
+        acknowledge();
+    }
+
+    /**
+     * Called by the consumer thread after every message it took from the queue.
+     */
+    public void messageDispatched() {
+        final boolean checkpoint;
+        synchronized (this) {
+            dispatched++;
+            dispatchedSinceCheckpoint++;
+            acknowledge();
+            checkpoint = dirty && dispatchedSinceCheckpoint >= checkpointMessages;
+        }
+        if (checkpoint) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Hands the acknowledged cursor with the current subscriptions, if there is one, to the writer.
+     */
+    void checkpoint() {
+        final PNSubscriptionCursor cursor;
+        synchronized (this) {
+            if (timetoken == null) {
+                return;
+            }
+            cursor = stateManager.subscriptionCursor(timetoken, region);
+            dirty = false;
+            dispatchedSinceCheckpoint = 0;
+        }
+        if (unsaved.getAndSet(cursor) == null) {
+            try {
+                writer.execute(this::save);
+            } catch (RejectedExecutionException e) {
+                save();
+            }
+        }
+    }
+
+    /**
+     * Saves the last cursor on the calling thread, so it is stored once this returns.
+     */
+    void destroy() {
+        if (timer != null) {
+            timer.cancel();
+        }
+        checkpoint();
+        save();
+        if (writer instanceof ExecutorService) {
+            ((ExecutorService) writer).shutdown();
+        }
+    }
+
+    private void save() {
+        synchronized (saveLock) {
+            final PNSubscriptionCursor cursor = unsaved.getAndSet(null);
+            if (cursor == null) {
+                return;
+            }
+            try {
+                store.save(cursor);
+            } catch (PubNubException e) {
+                log.warn("failed to save subscription cursor", e);
+                synchronized (this) {
+                    dirty = true;
+                }
+            }
+        }
+    }
+
+    private void checkpointIfDirty() {
+        final boolean checkpoint;
+        synchronized (this) {
+            checkpoint = dirty;
+        }
+        if (checkpoint) {
+            checkpoint();
+        }
+    }
+
+    private void acknowledge() {
+        while (!pending.isEmpty() && pending.peek().queued <= dispatched) {
+            final PendingCursor cursor = pending.poll();
+            timetoken = cursor.timetoken;
+            region = cursor.region;
+            dirty = true;
+        }
+    }
+
+    private static final class PendingCursor {
+        private final long queued;
+        private final long timetoken;
+        private final String region;
+
+        private PendingCursor(long queued, long timetoken, String region) {
+            this.queued = queued;
+            this.timetoken = timetoken;
+            this.region = region;
+        }
+    }
+}
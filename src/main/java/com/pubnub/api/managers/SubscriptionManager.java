@@ -1,6 +1,9 @@
 package com.pubnub.api.managers;
 
+import com.pubnub.api.PNConfiguration;
 import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
 import com.pubnub.api.builder.dto.*;
 import com.pubnub.api.builder.dto.ChangeTemporaryUnavailableOperation.ChangeTemporaryUnavailableOperationBuilder;
 import com.pubnub.api.callbacks.PNCallback;
@@ -10,16 +13,27 @@ import com.pubnub.api.endpoints.presence.Leave;
 import com.pubnub.api.endpoints.pubsub.Subscribe;
 import com.pubnub.api.enums.PNHeartbeatNotificationOptions;
 import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.jfr.FlightRecorderEvents;
 import com.pubnub.api.managers.token_manager.TokenManager;
+import com.pubnub.api.managers.subscription_cursor.SubscriptionCursorStore;
+import com.pubnub.api.metrics.PNMetricNames;
 import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.pubsub.PNSubscriptionCursor;
+import com.pubnub.api.models.server.PublishMetaData;
+import com.pubnub.api.models.server.SubscribeEnvelope;
 import com.pubnub.api.models.server.SubscribeMessage;
+import com.pubnub.api.models.server.SubscribeMetadata;
 import com.pubnub.api.workers.SubscribeMessageProcessor;
 import com.pubnub.api.workers.SubscribeMessageWorker;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -32,6 +46,7 @@ public class SubscriptionManager {
     private static final int TWO_SECONDS = 2 * MILLIS_IN_SECOND;
 
     private static final int HEARTBEAT_INTERVAL_MULTIPLIER = 1000;
+    private static final long TIMETOKENS_IN_MILLISECOND = 10_000;
 
     private volatile boolean connected;
 
@@ -61,6 +76,31 @@ public class SubscriptionManager {
 
     private Thread consumerThread;
 
+    private final CatchUpManager catchUpManager;
+
+    /**
+     * Timetoken up to which subscribe responses have been handed to the consumer thread.
+     */
+    private volatile Long lastDeliveredTimetoken;
+
+    /**
+     * Set when messages after this timetoken may have been missed and have to be caught up from history.
+     */
+    private volatile Long catchUpFromTimetoken;
+
+    private final SubscriptionCursorManager subscriptionCursorManager;
+
+    @Nullable
+    private final MetricsManager metricsManager;
+
+    /**
+     * Subscribe and unsubscribe operations waiting for the coalescing window to be applied together.
+     */
+    private final List<PubSubOperation> coalescedOperations = new ArrayList<>();
+    private final Set<String> coalescedLeaveChannels = new LinkedHashSet<>();
+    private final Set<String> coalescedLeaveChannelGroups = new LinkedHashSet<>();
+    private Timer coalescingTimer;
+
     public SubscriptionManager(final PubNub pubnubInstance,
                                final RetrofitManager retrofitManagerInstance,
                                final TelemetryManager telemetry,
@@ -82,7 +122,22 @@ public class SubscriptionManager {
         this.retrofitManager = retrofitManagerInstance;
         this.duplicationManager = duplicationManager;
         this.tokenManager = tokenManager;
+        this.catchUpManager = new CatchUpManager(pubnubInstance, telemetry, retrofitManagerInstance, tokenManager);
+        this.metricsManager = pubnubInstance.getMetricsManager();
+        if (metricsManager != null) {
+            metricsManager.gauge(PNMetricNames.SUBSCRIBE_QUEUE_SIZE, messageQueue::size);
+        }
 
+        final PNConfiguration configuration = pubnubInstance.getConfiguration();
+        final SubscriptionCursorStore subscriptionCursorStore = configuration.getSubscriptionCursorStore();
+        if (subscriptionCursorStore != null) {
+            this.subscriptionCursorManager = new SubscriptionCursorManager(subscriptionCursorStore,
+                    stateManager,
+                    configuration.getSubscriptionCursorCheckpointMessages(),
+                    configuration.getSubscriptionCursorCheckpointInterval());
+        } else {
+            this.subscriptionCursorManager = null;
+        }
 
         final ReconnectionCallback reconnectionCallback = new ReconnectionCallback() {
             @Override
@@ -120,7 +175,8 @@ public class SubscriptionManager {
 
         if (this.pubnub.getConfiguration().isStartSubscriberThread()) {
             consumerThread = new Thread(new SubscribeMessageWorker(
-                    listenerManager, messageQueue, new SubscribeMessageProcessor(this.pubnub, duplicationManager)));
+                    listenerManager, messageQueue, new SubscribeMessageProcessor(this.pubnub, duplicationManager),
+                    subscriptionCursorManager, metricsManager));
             consumerThread.setName("Subscription Manager Consumer Thread");
             consumerThread.setDaemon(true);
             consumerThread.start();
@@ -154,21 +210,87 @@ public class SubscriptionManager {
     }
 
     public synchronized void destroy(boolean forceDestroy) {
+        cancelCoalescedOperations();
         this.disconnect();
+        if (subscriptionCursorManager != null) {
+            subscriptionCursorManager.destroy();
+        }
         if (forceDestroy && consumerThread != null) {
             consumerThread.interrupt();
         }
     }
 
+    /**
+     * Subscribes to the subscriptions of the stored cursor, starting after its timetoken.
+     *
+     * @return the resumed cursor, or {@code null} when none has been stored yet
+     */
+    @Nullable
+    public PNSubscriptionCursor resumeSubscription() throws PubNubException {
+        if (subscriptionCursorManager == null) {
+            throw PubNubException.builder()
+                    .pubnubError(PubNubErrorBuilder.PNERROBJ_SUBSCRIPTION_CURSOR_STORE_MISSING)
+                    .build();
+        }
+        final PNSubscriptionCursor cursor = subscriptionCursorManager.restore();
+        if (cursor == null) {
+            return null;
+        }
+
+        final List<String> presenceChannels = nonNull(cursor.getPresenceChannels());
+        final List<String> presenceChannelGroups = nonNull(cursor.getPresenceChannelGroups());
+        final List<String> channels = new ArrayList<>(nonNull(cursor.getChannels()));
+        final List<String> channelGroups = new ArrayList<>(nonNull(cursor.getChannelGroups()));
+        channels.removeAll(presenceChannels);
+        channelGroups.removeAll(presenceChannelGroups);
+
+        // both operations are applied before the subscribe loop starts, so they share the stored timetoken
+        reconnect(SubscribeOperation.builder()
+                        .channels(presenceChannels)
+                        .channelGroups(presenceChannelGroups)
+                        .presenceEnabled(true)
+                        .timetoken(cursor.getTimetoken())
+                        .build(),
+                SubscribeOperation.builder()
+                        .channels(channels)
+                        .channelGroups(channelGroups)
+                        .timetoken(cursor.getTimetoken())
+                        .build());
+        return cursor;
+    }
+
+    /**
+     * Applies all operations with a single restart of the subscribe loop.
+     */
+    private synchronized void reconnect(PubSubOperation... pubSubOperations) {
+        connected = true;
+        this.startSubscribeLoop(pubSubOperations);
+        this.registerHeartbeatTimer(PubSubOperation.NO_OP);
+    }
+
+    private static List<String> nonNull(List<String> list) {
+        return list != null ? list : new ArrayList<>();
+    }
+
     public void adaptStateBuilder(StateOperation stateOperation) {
-        reconnect(stateOperation);
+        if (!coalesce(stateOperation)) {
+            reconnect(stateOperation);
+        }
     }
 
     public void adaptSubscribeBuilder(SubscribeOperation subscribeOperation) {
-        reconnect(subscribeOperation);
+        if (!coalesce(subscribeOperation)) {
+            reconnect(subscribeOperation);
+        }
     }
 
     public void adaptPresenceBuilder(PresenceOperation presenceOperation) {
+        if (!coalesce(presenceOperation)) {
+            presence(presenceOperation);
+        }
+    }
+
+    private void presence(PresenceOperation presenceOperation) {
         if (!this.pubnub.getConfiguration().isSuppressLeaveEvents() && !presenceOperation.isConnected()) {
             new Leave(pubnub, this.telemetryManager, this.retrofitManager, tokenManager)
                     .channels(presenceOperation.getChannels()).channelGroups(presenceOperation.getChannelGroups())
@@ -184,12 +306,154 @@ public class SubscriptionManager {
     }
 
     public void adaptUnsubscribeBuilder(UnsubscribeOperation unsubscribeOperation) {
+        if (coalesce(unsubscribeOperation)) {
+            return;
+        }
         reconnect(unsubscribeOperation);
+        leave(unsubscribeOperation.getChannels(), unsubscribeOperation.getChannelGroups());
+    }
 
+    /**
+     * Holds the operation back when a coalescing window is configured. The first held operation opens the window;
+     * all operations held until it closes restart the subscribe loop once and send a single leave. Channels and
+     * groups unsubscribed from before a held subscribe to them has been applied are dropped from both operations.
+     *
+     * @return whether the operation has been held back
+     */
+    private synchronized boolean coalesce(PubSubOperation pubSubOperation) {
+        final int coalescingWindow = pubnub.getConfiguration().getSubscriptionChangeCoalescingWindow();
+        if (coalescingWindow <= 0) {
+            return false;
+        }
+
+        if (pubSubOperation instanceof UnsubscribeOperation) {
+            final UnsubscribeOperation unsubscribeOperation =
+                    cancelHeldSubscriptions((UnsubscribeOperation) pubSubOperation);
+            if (!unsubscribeOperation.getChannels().isEmpty() || !unsubscribeOperation.getChannelGroups().isEmpty()) {
+                coalescedOperations.add(unsubscribeOperation);
+                coalescedLeaveChannels.addAll(unsubscribeOperation.getChannels());
+                coalescedLeaveChannelGroups.addAll(unsubscribeOperation.getChannelGroups());
+            }
+        } else {
+            coalescedOperations.add(pubSubOperation);
+        }
+
+        if (coalescingTimer == null) {
+            coalescingTimer = new Timer("Subscription Manager Coalescing Timer", true);
+            coalescingTimer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    applyCoalescedOperations();
+                }
+            }, coalescingWindow);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the channels and groups of the unsubscribe that held subscribes would add, from those subscribes and
+     * from the returned unsubscribe, so they neither restart the subscribe loop nor send a leave.
+     */
+    private UnsubscribeOperation cancelHeldSubscriptions(UnsubscribeOperation unsubscribeOperation) {
+        final StateManager.SubscriptionStateData subscriptionStateData = subscriptionState.subscriptionStateData(false);
+        final List<String> cancelledChannels = new ArrayList<>();
+        final List<String> cancelledChannelGroups = new ArrayList<>();
+        for (PubSubOperation pubSubOperation : coalescedOperations) {
+            if (pubSubOperation instanceof SubscribeOperation) {
+                cancelledChannels.addAll(((SubscribeOperation) pubSubOperation).getChannels());
+                cancelledChannelGroups.addAll(((SubscribeOperation) pubSubOperation).getChannelGroups());
+            }
+        }
+        cancelledChannels.retainAll(unsubscribeOperation.getChannels());
+        cancelledChannels.removeAll(subscriptionStateData.getChannels());
+        cancelledChannelGroups.retainAll(unsubscribeOperation.getChannelGroups());
+        cancelledChannelGroups.removeAll(subscriptionStateData.getChannelGroups());
+        if (cancelledChannels.isEmpty() && cancelledChannelGroups.isEmpty()) {
+            return unsubscribeOperation;
+        }
+
+        for (int i = coalescedOperations.size() - 1; i >= 0; i--) {
+            if (coalescedOperations.get(i) instanceof SubscribeOperation) {
+                final SubscribeOperation subscribeOperation = (SubscribeOperation) coalescedOperations.get(i);
+                final List<String> channels = new ArrayList<>(subscribeOperation.getChannels());
+                final List<String> channelGroups = new ArrayList<>(subscribeOperation.getChannelGroups());
+                channels.removeAll(cancelledChannels);
+                channelGroups.removeAll(cancelledChannelGroups);
+                if (channels.isEmpty() && channelGroups.isEmpty()) {
+                    coalescedOperations.remove(i);
+                } else {
+                    coalescedOperations.set(i, SubscribeOperation.builder()
+                            .channels(channels)
+                            .channelGroups(channelGroups)
+                            .presenceEnabled(subscribeOperation.isPresenceEnabled())
+                            .timetoken(subscribeOperation.getTimetoken())
+                            .build());
+                }
+            }
+        }
+
+        final List<String> channels = new ArrayList<>(unsubscribeOperation.getChannels());
+        final List<String> channelGroups = new ArrayList<>(unsubscribeOperation.getChannelGroups());
+        channels.removeAll(cancelledChannels);
+        channelGroups.removeAll(cancelledChannelGroups);
+        return UnsubscribeOperation.builder().channels(channels).channelGroups(channelGroups).build();
+    }
+
+    private void applyCoalescedOperations() {
+        final List<String> leaveChannels;
+        final List<String> leaveChannelGroups;
+        synchronized (this) {
+            if (coalescedOperations.isEmpty()) {
+                return;
+            }
+            final List<PubSubOperation> pubSubOperations = new ArrayList<>();
+            final List<PresenceOperation> presenceOperations = new ArrayList<>();
+            for (PubSubOperation pubSubOperation : coalescedOperations) {
+                if (pubSubOperation instanceof PresenceOperation) {
+                    presenceOperations.add((PresenceOperation) pubSubOperation);
+                } else {
+                    pubSubOperations.add(pubSubOperation);
+                }
+            }
+            leaveChannels = new ArrayList<>(coalescedLeaveChannels);
+            leaveChannelGroups = new ArrayList<>(coalescedLeaveChannelGroups);
+            cancelCoalescedOperations();
+
+            if (!pubSubOperations.isEmpty()) {
+                reconnect(pubSubOperations.toArray(new PubSubOperation[0]));
+            }
+            // after the restart, which would replace their heartbeat timer
+            for (PresenceOperation presenceOperation : presenceOperations) {
+                presence(presenceOperation);
+            }
+
+            // no leave for what has been subscribed to again within the window
+            final StateManager.SubscriptionStateData subscriptionStateData =
+                    subscriptionState.subscriptionStateData(false);
+            leaveChannels.removeAll(subscriptionStateData.getChannels());
+            leaveChannelGroups.removeAll(subscriptionStateData.getChannelGroups());
+        }
+
+        if (!leaveChannels.isEmpty() || !leaveChannelGroups.isEmpty()) {
+            leave(leaveChannels, leaveChannelGroups);
+        }
+    }
+
+    private synchronized void cancelCoalescedOperations() {
+        if (coalescingTimer != null) {
+            coalescingTimer.cancel();
+            coalescingTimer = null;
+        }
+        coalescedOperations.clear();
+        coalescedLeaveChannels.clear();
+        coalescedLeaveChannelGroups.clear();
+    }
+
+    private void leave(List<String> channels, List<String> channelGroups) {
         if (!this.pubnub.getConfiguration().isSuppressLeaveEvents()) {
             new Leave(pubnub, this.telemetryManager, this.retrofitManager, tokenManager)
-                    .channels(unsubscribeOperation.getChannels())
-                    .channelGroups(unsubscribeOperation.getChannelGroups())
+                    .channels(channels)
+                    .channelGroups(channelGroups)
                     .async(new PNCallback<Boolean>() {
                         @Override
                         public void onResponse(Boolean result, @NotNull PNStatus status) {
@@ -277,6 +541,16 @@ public class SubscriptionManager {
             }
         }
 
+        if (subscriptionCursorManager != null) {
+            for (PubSubOperation pubSubOperation : pubSubOperations) {
+                if (pubSubOperation instanceof SubscribeOperation
+                        || pubSubOperation instanceof UnsubscribeOperation) {
+                    subscriptionCursorManager.checkpoint();
+                    break;
+                }
+            }
+        }
+
         final StateManager.SubscriptionStateData subscriptionStateData = subscriptionState.subscriptionStateData(
                 true,
                 WITHOUT_TEMPORARY_UNAVAILABLE);
@@ -290,15 +564,17 @@ public class SubscriptionManager {
             return;
         }
 
-        subscribeCall = new Subscribe(pubnub, this.retrofitManager, tokenManager)
-                .channels(subscriptionStateData.getChannels())
-                .channelGroups(subscriptionStateData.getChannelGroups())
+        final Subscribe loopCall = new Subscribe(pubnub, this.retrofitManager, tokenManager)
+                .snapshot(subscriptionStateData.getSubscribeRequest())
                 .timetoken(subscriptionStateData.getTimetoken())
-                .region(subscriptionStateData.getRegion())
-                .filterExpression(pubnub.getConfiguration().getFilterExpression())
-                .state(subscriptionStateData.getStatePayload());
+                .region(subscriptionStateData.getRegion());
+        subscribeCall = loopCall;
 
-        subscribeCall.async((result, status) -> {
+        final Object flightRecorderEvent = FlightRecorderEvents.INSTANCE.subscribeStarted();
+        loopCall.async((result, status) -> {
+            if (flightRecorderEvent != null) {
+                finishFlightRecorderEvent(flightRecorderEvent, subscriptionStateData, result, status);
+            }
             if (status.isError()) {
                 handleError(status, pubSubOperations);
             } else {
@@ -341,22 +617,77 @@ public class SubscriptionManager {
                             .build();
 
                     listenerManager.announce(pnStatus);
-                }
-
-                if (result.getMessages().size() != 0) {
-                    messageQueue.addAll(result.getMessages());
+                    markMessagesMissedAfter(subscriptionStateData.getTimetoken());
                 }
 
                 final TimetokenAndRegionOperation timetokenAndRegionOperation = new TimetokenAndRegionOperation(
                         result.getMetadata()
                                 .getTimetoken(),
                         result.getMetadata().getRegion());
-                startSubscribeLoop(timetokenAndRegionOperation, availableChannels.build(), statusAnnouncedOperation);
+                final ChangeTemporaryUnavailableOperation availableChannelsOperation = availableChannels.build();
+
+                final Long catchUpFrom = catchUpFromTimetoken;
+                if (catchUpFrom != null && subscriptionStateData.getTimetoken() != 0L) {
+                    // the subscribe loop resumed from a stored timetoken, recover whatever it could not deliver
+                    catchUpFromTimetoken = null;
+                    catchUpManager.catchUp(subscriptionStateData.getChannels(),
+                            catchUpFrom,
+                            result.getMetadata().getTimetoken(),
+                            result.getMessages(),
+                            (messages, catchUpStatus) -> {
+                                synchronized (SubscriptionManager.this) {
+                                    if (subscribeCall != loopCall) {
+                                        // the loop was restarted or stopped meanwhile, the next one catches up
+                                        markMessagesMissedAfter(catchUpFrom);
+                                        return;
+                                    }
+                                    if (catchUpStatus.isError()) {
+                                        listenerManager.announce(catchUpStatus);
+                                    }
+                                    deliver(messages, subscriptionStateData.getTimetoken(), result.getMetadata());
+                                    startSubscribeLoop(timetokenAndRegionOperation, availableChannelsOperation,
+                                            statusAnnouncedOperation);
+                                }
+                            });
+                    return;
+                }
+
+                deliver(result.getMessages(), subscriptionStateData.getTimetoken(), result.getMetadata());
+                startSubscribeLoop(timetokenAndRegionOperation, availableChannelsOperation, statusAnnouncedOperation);
             }
         });
 
     }
 
+    private static void finishFlightRecorderEvent(Object flightRecorderEvent,
+                                                  StateManager.SubscriptionStateData subscriptionStateData,
+                                                  @Nullable SubscribeEnvelope result,
+                                                  PNStatus status) {
+        int messages = 0;
+        long timetoken = 0;
+        long oldestPublishTimetoken = Long.MAX_VALUE;
+        if (result != null && !status.isError()) {
+            messages = result.getMessages().size();
+            timetoken = result.getMetadata().getTimetoken();
+            for (SubscribeMessage message : result.getMessages()) {
+                final PublishMetaData publishMetaData = message.getPublishMetaData();
+                if (publishMetaData != null && publishMetaData.getPublishTimetoken() != null) {
+                    oldestPublishTimetoken = Math.min(oldestPublishTimetoken, publishMetaData.getPublishTimetoken());
+                }
+            }
+        }
+        final long lagMillis = oldestPublishTimetoken != Long.MAX_VALUE
+                ? Math.max(0, System.currentTimeMillis() - oldestPublishTimetoken / TIMETOKENS_IN_MILLISECOND)
+                : 0;
+        FlightRecorderEvents.INSTANCE.subscribeFinished(flightRecorderEvent,
+                subscriptionStateData.getChannels().size(),
+                subscriptionStateData.getChannelGroups().size(),
+                messages,
+                timetoken,
+                lagMillis,
+                status.getCategory());
+    }
+
     private void handleError(@NotNull PNStatus status,
                              PubSubOperation... pubSubOperations) {
         final PNStatusCategory category = status.getCategory();
@@ -368,6 +699,7 @@ public class SubscriptionManager {
             case PNUnexpectedDisconnectCategory:
                 // stop all announcements and ask the reconnection manager to start polling for connection
                 // restoration..
+                markMessagesMissedAfter(lastDeliveredTimetoken);
                 disconnect();
                 listenerManager.announce(status);
                 reconnectionManager.startPolling();
@@ -400,12 +732,44 @@ public class SubscriptionManager {
 
                 break;
             default:
+                markMessagesMissedAfter(lastDeliveredTimetoken);
                 listenerManager.announce(status);
                 delayedReconnectionManager.scheduleDelayedReconnection();
                 break;
         }
     }
 
+    private void deliver(List<SubscribeMessage> messages, Long requestTimetoken, SubscribeMetadata metadata) {
+        if (subscriptionCursorManager != null) {
+            // like below, a handshake only positions the cursor when there is nothing to resume from
+            final boolean moveCursor = requestTimetoken != 0L || !subscriptionCursorManager.hasCursor();
+            subscriptionCursorManager.responseQueued(messages.size(),
+                    moveCursor ? metadata.getTimetoken() : null,
+                    metadata.getRegion());
+        }
+        if (messages.size() != 0) {
+            messageQueue.addAll(messages);
+            if (metricsManager != null) {
+                metricsManager.getSubscribeMessages().increment(messages.size());
+            }
+        }
+        // a handshake after a reconnection must not move the cursor past the messages still to be caught up
+        if (requestTimetoken != 0L || lastDeliveredTimetoken == null) {
+            lastDeliveredTimetoken = metadata.getTimetoken();
+        }
+    }
+
+    private void markMessagesMissedAfter(Long timetoken) {
+        final PNConfiguration configuration = pubnub.getConfiguration();
+        if (!configuration.isCatchUpMissedMessages() || configuration.getFilterExpression() != null
+                || timetoken == null || timetoken == 0L) {
+            return;
+        }
+        if (catchUpFromTimetoken == null || timetoken < catchUpFromTimetoken) {
+            catchUpFromTimetoken = timetoken;
+        }
+    }
+
     private void stopSubscribeLoop() {
         cancelDelayedLoopIterationForTemporaryUnavailableChannels();
         if (subscribeCall != null) {
@@ -469,12 +833,21 @@ public class SubscriptionManager {
         });
     }
 
-    public void unsubscribeAll() {
+    public synchronized void unsubscribeAll() {
         StateManager.SubscriptionStateData subscriptionStateData = subscriptionState.subscriptionStateData(false);
+        final Set<String> channels = new LinkedHashSet<>(subscriptionStateData.getChannels());
+        final Set<String> channelGroups = new LinkedHashSet<>(subscriptionStateData.getChannelGroups());
+        // held subscribes are cancelled by the unsubscribe instead of being applied after it
+        for (PubSubOperation pubSubOperation : coalescedOperations) {
+            if (pubSubOperation instanceof SubscribeOperation) {
+                channels.addAll(((SubscribeOperation) pubSubOperation).getChannels());
+                channelGroups.addAll(((SubscribeOperation) pubSubOperation).getChannelGroups());
+            }
+        }
 
         adaptUnsubscribeBuilder(UnsubscribeOperation.builder()
-                .channelGroups(subscriptionStateData.getChannelGroups())
-                .channels(subscriptionStateData.getChannels())
+                .channelGroups(new ArrayList<>(channelGroups))
+                .channels(new ArrayList<>(channels))
                 .build());
     }
 
@@ -1,126 +1,186 @@
 package com.pubnub.api.managers;
 
 import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.models.consumer.PNNetworkTimings;
+import com.pubnub.api.models.consumer.PNOperationLatency;
+import org.jetbrains.annotations.NotNull;
 
 import java.math.RoundingMode;
 import java.text.NumberFormat;
-import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
 
+/**
+ * Measures the latency of every operation type over a rolling window of a minute.
+ * <p>
+ * Every operation type records into its own ring of histograms, one per {@value #SLOT_MILLIS} ms of the window, with
+ * buckets growing logarithmically so percentiles are reported within 12.5%. Recording only updates atomic counters;
+ * slots are recycled as the ring turns, so no clean up timer or lock is involved. The averages sent with requests as
+ * {@code l_*} parameters are computed at most once a second, or as soon as an endpoint gets its first latency.
+ */
 public class TelemetryManager {
 
+    private static final long WINDOW_MILLIS = 60_000;
+    private static final int SLOT_COUNT = 6;
+    private static final long SLOT_MILLIS = WINDOW_MILLIS / SLOT_COUNT;
+    private static final long REFRESH_MILLIS = 1000;
+
+    private static final int MAX_FRACTION_DIGITS = 3;
+    private static final double MILLIS_IN_SECOND = 1000.0;
+    private static final double NANOS_IN_MILLISECOND = 1_000_000.0;
+
     /**
-     * Timer for telemetry information clean up.
+     * Latencies below {@value #LINEAR_BUCKETS} ms have a bucket each, larger ones are split in
+     * {@value #SUB_BUCKETS} buckets per power of two.
      */
-    private Timer timer;
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int LINEAR_EXPONENT = 4;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 31;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - LINEAR_EXPONENT + 1) * SUB_BUCKETS;
+    private static final int LONG_BITS = 64;
 
-    private Map<String, List<Map<String, Double>>> latencies;
+    private static final PNOperationType[] OPERATION_TYPES = PNOperationType.values();
+    private static final String[] LATENCY_KEYS = new String[OPERATION_TYPES.length];
 
-    private NumberFormat numberFormat = NumberFormat.getNumberInstance(Locale.US);
+    static {
+        for (PNOperationType type : OPERATION_TYPES) {
+            if (type != PNOperationType.PNSubscribeOperation) {
+                LATENCY_KEYS[type.ordinal()] = "l_".concat(endpointNameForOperation(type));
+            }
+        }
+    }
 
-    private static final int MAX_FRACTION_DIGITS = 3;
+    private static final double P50 = 0.5;
+    private static final double P95 = 0.95;
+    private static final double P99 = 0.99;
 
-    private static final int TIMESTAMP_DIVIDER = 1000;
+    private final LongSupplier clock;
+    private final AtomicReferenceArray<LatencyHistogram> histograms =
+            new AtomicReferenceArray<>(OPERATION_TYPES.length);
 
-    private static final double MAXIMUM_LATENCY_DATA_AGE = 60.0f;
-    private static final int CLEAN_UP_INTERVAL = 1;
-    private static final int CLEAN_UP_INTERVAL_MULTIPLIER = 1000;
+    private final NumberFormat numberFormat = NumberFormat.getNumberInstance(Locale.US);
+    private volatile Map<String, String> operationsLatency = Collections.emptyMap();
+    private volatile long operationsLatencyRefreshedAt = -REFRESH_MILLIS;
+    private volatile boolean operationsLatencyIncomplete;
 
     public TelemetryManager() {
-        this.latencies = new HashMap<>();
+        this(System::currentTimeMillis);
+    }
 
+    TelemetryManager(LongSupplier clock) {
+        this.clock = clock;
         this.numberFormat.setMaximumFractionDigits(MAX_FRACTION_DIGITS);
         this.numberFormat.setRoundingMode(RoundingMode.HALF_UP);
         this.numberFormat.setGroupingUsed(false);
-
-        startCleanUpTimer();
     }
 
-    public synchronized Map<String, String> operationsLatency() {
-        Map<String, String> operationLatencies = new HashMap<>();
-        for (Map.Entry<String, List<Map<String, Double>>> entry : this.latencies.entrySet()) {
-            String latencyKey = "l_".concat(entry.getKey());
-            double endpointAverageLatency = TelemetryManager.averageLatencyFromData(entry.getValue());
-            if (endpointAverageLatency > 0.0f) {
-                operationLatencies.put(latencyKey, numberFormat.format(endpointAverageLatency));
-            }
+    /**
+     * Returns the average latency in seconds of every endpoint over the window, as an immutable map which stays the
+     * same instance as long as the averages do not change.
+     */
+    public Map<String, String> operationsLatency() {
+        final long now = clock.getAsLong();
+        if (!operationsLatencyIncomplete && now - operationsLatencyRefreshedAt < REFRESH_MILLIS) {
+            return operationsLatency;
         }
-        return operationLatencies;
-    }
-
-    public synchronized void storeLatency(long latency, PNOperationType type) {
-        if (type != PNOperationType.PNSubscribeOperation && latency > 0) {
-            String endpointName = TelemetryManager.endpointNameForOperation(type);
-            if (endpointName != null) {
-                double storeDate = (new Date()).getTime() / (double) TIMESTAMP_DIVIDER;
-
-                List<Map<String, Double>> operationLatencies = this.latencies.get(endpointName);
-                if (operationLatencies == null) {
-                    operationLatencies = new ArrayList<>();
-                    this.latencies.put(endpointName, operationLatencies);
+        synchronized (numberFormat) {
+            if (operationsLatencyIncomplete || now - operationsLatencyRefreshedAt >= REFRESH_MILLIS) {
+                operationsLatencyIncomplete = false;
+                final Map<String, String> refreshed = computeOperationsLatency(now);
+                if (!refreshed.equals(operationsLatency)) {
+                    operationsLatency = Collections.unmodifiableMap(refreshed);
                 }
-
-                Map<String, Double> latencyEntry = new HashMap<>();
-                latencyEntry.put("d", storeDate);
-                latencyEntry.put("l", ((double) latency / TIMESTAMP_DIVIDER));
-                operationLatencies.add(latencyEntry);
+                operationsLatencyRefreshedAt = now;
             }
+            return operationsLatency;
         }
     }
 
-    private synchronized void cleanUpTelemetryData() {
-        double currentDate = (new Date()).getTime() / (double) TIMESTAMP_DIVIDER;
-        List<String> endpoints = new ArrayList<>(this.latencies.keySet());
-        for (String endpoint : endpoints) {
-            List<Map<String, Double>> outdatedLatencies = new ArrayList<>();
-            List<Map<String, Double>> operationLatencies = this.latencies.get(endpoint);
-            for (Map<String, Double> latencyInformation : operationLatencies) {
-                if (currentDate - latencyInformation.get("d") > MAXIMUM_LATENCY_DATA_AGE) {
-                    outdatedLatencies.add(latencyInformation);
-                }
-            }
-            if (outdatedLatencies.size() > 0) {
-                operationLatencies.removeAll(outdatedLatencies);
-            }
-            if (operationLatencies.size() == 0) {
-                this.latencies.remove(endpoint);
+    public void storeLatency(long latency, PNOperationType type) {
+        if (latency > 0) {
+            histogram(type).record(clock.getAsLong(), latency);
+            final String key = LATENCY_KEYS[type.ordinal()];
+            if (key != null && !operationsLatency.containsKey(key)) {
+                // the first latency of an endpoint is reported without waiting for the next refresh
+                operationsLatencyIncomplete = true;
             }
         }
     }
 
-    private void startCleanUpTimer() {
-        long interval = CLEAN_UP_INTERVAL * CLEAN_UP_INTERVAL_MULTIPLIER;
+    /**
+     * Records how long a request waited for a connection and spent connecting, reported by
+     * {@link #getOperationLatency(PNOperationType)}.
+     */
+    public void storeNetworkTimings(PNNetworkTimings timings, PNOperationType type) {
+        histogram(type).recordNetworkTimings(clock.getAsLong(), timings);
+    }
+
+    /**
+     * Counts a failed request of an operation, reported by {@link #getOperationLatency(PNOperationType)}.
+     */
+    public void storeError(PNOperationType type) {
+        histogram(type).recordError(clock.getAsLong());
+    }
 
-        stopCleanUpTimer();
-        this.timer = new Timer("Telemetry Manager timer", true);
-        this.timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                cleanUpTelemetryData();
-            }
-        }, interval, interval);
+    /**
+     * Returns the latency percentiles and the error rate of an operation type over the last minute.
+     */
+    @NotNull
+    public PNOperationLatency getOperationLatency(@NotNull PNOperationType type) {
+        final LatencyHistogram histogram = histograms.get(type.ordinal());
+        if (histogram == null) {
+            return PNOperationLatency.builder().operationType(type).build();
+        }
+        return histogram.snapshot(clock.getAsLong()).toOperationLatency(type);
     }
 
+    /**
+     * Kept for compatibility, latencies expire without a timer.
+     */
     public void stopCleanUpTimer() {
-        if (this.timer != null) {
-            this.timer.cancel();
-            this.timer = null;
+    }
+
+    private LatencyHistogram histogram(PNOperationType type) {
+        final LatencyHistogram histogram = histograms.get(type.ordinal());
+        if (histogram != null) {
+            return histogram;
         }
+        histograms.compareAndSet(type.ordinal(), null, new LatencyHistogram());
+        return histograms.get(type.ordinal());
     }
 
-    private static double averageLatencyFromData(List<Map<String, Double>> endpointLatencies) {
-        double totalLatency = 0.0f;
-        for (Map<String, Double> item : endpointLatencies) {
-            totalLatency += item.get("l");
+    private Map<String, String> computeOperationsLatency(long now) {
+        final Map<String, double[]> totals = new HashMap<>();
+        for (int i = 0; i < OPERATION_TYPES.length; i++) {
+            final LatencyHistogram histogram = histograms.get(i);
+            if (histogram == null || OPERATION_TYPES[i] == PNOperationType.PNSubscribeOperation) {
+                continue;
+            }
+            double[] total = totals.get(LATENCY_KEYS[i]);
+            if (total == null) {
+                total = new double[2];
+                totals.put(LATENCY_KEYS[i], total);
+            }
+            histogram.addTotals(now, total);
         }
 
-        return totalLatency / endpointLatencies.size();
+        final Map<String, String> operationLatencies = new HashMap<>();
+        for (Map.Entry<String, double[]> entry : totals.entrySet()) {
+            final double[] total = entry.getValue();
+            if (total[1] > 0) {
+                final double endpointAverageLatency = total[0] / total[1] / MILLIS_IN_SECOND;
+                operationLatencies.put(entry.getKey(), numberFormat.format(endpointAverageLatency));
+            }
+        }
+        return operationLatencies;
     }
 
     private static String endpointNameForOperation(PNOperationType type) {
@@ -202,4 +262,187 @@ public class TelemetryManager {
 
         return endpoint;
     }
+
+    /**
+     * Rolling window of histograms of one operation type.
+     */
+    private static final class LatencyHistogram {
+        private final Slot[] slots = new Slot[SLOT_COUNT];
+
+        private LatencyHistogram() {
+            for (int i = 0; i < SLOT_COUNT; i++) {
+                slots[i] = new Slot();
+            }
+        }
+
+        private void record(long now, long latency) {
+            final Slot slot = currentSlot(now);
+            slot.buckets.incrementAndGet(bucketIndex(latency));
+            slot.count.incrementAndGet();
+            slot.sum.addAndGet(latency);
+            long max = slot.max.get();
+            while (latency > max && !slot.max.compareAndSet(max, latency)) {
+                max = slot.max.get();
+            }
+        }
+
+        private void recordError(long now) {
+            currentSlot(now).errors.incrementAndGet();
+        }
+
+        private void recordNetworkTimings(long now, PNNetworkTimings timings) {
+            final Slot slot = currentSlot(now);
+            slot.timedCalls.incrementAndGet();
+            slot.queueNanos.addAndGet(timings.getQueueNanos());
+            slot.connectNanos.addAndGet(timings.getDnsNanos() + timings.getConnectNanos());
+            if (!timings.isConnectionReused()) {
+                slot.newConnections.incrementAndGet();
+            }
+        }
+
+        private Slot currentSlot(long now) {
+            final long period = now / SLOT_MILLIS;
+            final Slot slot = slots[(int) (period % SLOT_COUNT)];
+            final long slotPeriod = slot.period.get();
+            if (slotPeriod < period && slot.period.compareAndSet(slotPeriod, period)) {
+                // values recorded concurrently with the reset of a recycled slot may be lost
+                slot.clear();
+            }
+            return slot;
+        }
+
+        /**
+         * Adds the sum and the count of the latencies in the window to {@code total}.
+         */
+        private void addTotals(long now, double[] total) {
+            final long oldestPeriod = now / SLOT_MILLIS - SLOT_COUNT + 1;
+            for (Slot slot : slots) {
+                if (slot.period.get() >= oldestPeriod) {
+                    total[0] += slot.sum.get();
+                    total[1] += slot.count.get();
+                }
+            }
+        }
+
+        private Snapshot snapshot(long now) {
+            final long oldestPeriod = now / SLOT_MILLIS - SLOT_COUNT + 1;
+            final Snapshot snapshot = new Snapshot();
+            for (Slot slot : slots) {
+                if (slot.period.get() < oldestPeriod) {
+                    continue;
+                }
+                for (int i = 0; i < BUCKET_COUNT; i++) {
+                    snapshot.buckets[i] += slot.buckets.get(i);
+                }
+                snapshot.count += slot.count.get();
+                snapshot.sum += slot.sum.get();
+                snapshot.errors += slot.errors.get();
+                snapshot.timedCalls += slot.timedCalls.get();
+                snapshot.queueNanos += slot.queueNanos.get();
+                snapshot.connectNanos += slot.connectNanos.get();
+                snapshot.newConnections += slot.newConnections.get();
+                snapshot.max = Math.max(snapshot.max, slot.max.get());
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Latencies recorded during one part of the window.
+     */
+    private static final class Slot {
+        private final AtomicLong period = new AtomicLong(-1);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong timedCalls = new AtomicLong();
+        private final AtomicLong queueNanos = new AtomicLong();
+        private final AtomicLong connectNanos = new AtomicLong();
+        private final AtomicLong newConnections = new AtomicLong();
+
+        private void clear() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            sum.set(0);
+            max.set(0);
+            errors.set(0);
+            timedCalls.set(0);
+            queueNanos.set(0);
+            connectNanos.set(0);
+            newConnections.set(0);
+        }
+    }
+
+    /**
+     * Histogram of a whole window.
+     */
+    private static final class Snapshot {
+        private final long[] buckets = new long[BUCKET_COUNT];
+        private long count;
+        private long sum;
+        private long max;
+        private long errors;
+        private long timedCalls;
+        private long queueNanos;
+        private long connectNanos;
+        private long newConnections;
+
+        private PNOperationLatency toOperationLatency(PNOperationType type) {
+            final long requests = count + errors;
+            return PNOperationLatency.builder()
+                    .operationType(type)
+                    .count(count)
+                    .errorCount(errors)
+                    .errorRate(requests > 0 ? (double) errors / requests : 0)
+                    .average(count > 0 ? (double) sum / count : 0)
+                    .p50(percentile(P50))
+                    .p95(percentile(P95))
+                    .p99(percentile(P99))
+                    .max(max)
+                    .averageQueueing(timedCalls > 0 ? (double) queueNanos / timedCalls / NANOS_IN_MILLISECOND : 0)
+                    .averageConnecting(timedCalls > 0
+                            ? (double) connectNanos / timedCalls / NANOS_IN_MILLISECOND
+                            : 0)
+                    .newConnectionRate(timedCalls > 0 ? (double) newConnections / timedCalls : 0)
+                    .build();
+        }
+
+        private long percentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+
+    static int bucketIndex(long latency) {
+        if (latency < LINEAR_BUCKETS) {
+            return (int) latency;
+        }
+        final int exponent = LONG_BITS - 1 - Long.numberOfLeadingZeros(latency);
+        final int subBucket = (int) (latency >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min(LINEAR_BUCKETS + (exponent - LINEAR_EXPONENT) * SUB_BUCKETS + subBucket, BUCKET_COUNT - 1);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        final int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_EXPONENT;
+        final int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        final int shift = exponent - SUB_BUCKET_BITS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
 }
@@ -0,0 +1,83 @@
+package com.pubnub.api.managers.subscription_cursor;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.models.consumer.pubsub.PNSubscriptionCursor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores the subscription cursor as JSON in a single file.
+ * <p>
+ * Every save writes a temporary file next to the target, forces it to disk and moves it over the target, so the
+ * file always holds either the previous or the new cursor.
+ */
+public class FileSubscriptionCursorStore implements SubscriptionCursorStore {
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path path;
+    private final Path temporaryPath;
+    private final Gson gson = new Gson();
+
+    public FileSubscriptionCursorStore(@NotNull Path path) {
+        this.path = path;
+        this.temporaryPath = path.resolveSibling(path.getFileName() + TEMPORARY_SUFFIX);
+    }
+
+    @Override
+    public synchronized void save(@NotNull PNSubscriptionCursor cursor) throws PubNubException {
+        final ByteBuffer buffer = ByteBuffer.wrap(gson.toJson(cursor).getBytes(StandardCharsets.UTF_8));
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryPath,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw storeError(e);
+        }
+    }
+
+    @Nullable
+    @Override
+    public synchronized PNSubscriptionCursor load() throws PubNubException {
+        try {
+            final String json = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+            return gson.fromJson(json, PNSubscriptionCursor.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | JsonParseException e) {
+            throw storeError(e);
+        }
+    }
+
+    private static PubNubException storeError(Exception e) {
+        return PubNubException.builder()
+                .pubnubError(PubNubErrorBuilder.PNERROBJ_SUBSCRIPTION_CURSOR_STORE_ERROR)
+                .errormsg(e.getMessage())
+                .cause(e)
+                .build();
+    }
+}
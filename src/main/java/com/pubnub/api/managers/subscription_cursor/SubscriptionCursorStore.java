@@ -0,0 +1,24 @@
+package com.pubnub.api.managers.subscription_cursor;
+
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.models.consumer.pubsub.PNSubscriptionCursor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Persists the subscription cursor, so a new {@link com.pubnub.api.PubNub} instance can resume the subscribe loop
+ * where a previous one stopped.
+ */
+public interface SubscriptionCursorStore {
+
+    /**
+     * Replaces the stored cursor. A later {@link #load()} must never observe a partially written cursor.
+     */
+    void save(@NotNull PNSubscriptionCursor cursor) throws PubNubException;
+
+    /**
+     * Returns the last saved cursor, or {@code null} when nothing has been saved yet.
+     */
+    @Nullable
+    PNSubscriptionCursor load() throws PubNubException;
+}
@@ -0,0 +1,36 @@
+package com.pubnub.api.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.LongSupplier;
+
+final class NoOpMetrics implements PNMetrics, PNMetrics.Counter, PNMetrics.Timer {
+    static final NoOpMetrics INSTANCE = new NoOpMetrics();
+
+    private NoOpMetrics() {
+    }
+
+    @NotNull
+    @Override
+    public Counter counter(@NotNull String name, @NotNull String... tags) {
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public Timer timer(@NotNull String name, @NotNull String... tags) {
+        return this;
+    }
+
+    @Override
+    public void gauge(@NotNull String name, @NotNull LongSupplier value, @NotNull String... tags) {
+    }
+
+    @Override
+    public void increment(long amount) {
+    }
+
+    @Override
+    public void record(long nanos) {
+    }
+}
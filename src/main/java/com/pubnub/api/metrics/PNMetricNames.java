@@ -0,0 +1,88 @@
+package com.pubnub.api.metrics;
+
+/**
+ * Names and tags of the metrics reported to {@link PNMetrics}.
+ */
+public final class PNMetricNames {
+
+    /**
+     * Gauge of the messages received by the subscribe loop and not yet dispatched to the listeners.
+     */
+    public static final String SUBSCRIBE_QUEUE_SIZE = "pubnub.subscribe.queue.size";
+
+    /**
+     * Counter of the messages received by the subscribe loop.
+     */
+    public static final String SUBSCRIBE_MESSAGES = "pubnub.subscribe.messages";
+
+    /**
+     * Timer from the publish timetoken of a message to its dispatch to the listeners, including clock skew.
+     */
+    public static final String SUBSCRIBE_LAG = "pubnub.subscribe.lag";
+
+    /**
+     * Timer of the time spent decoding a message and running the listeners.
+     */
+    public static final String LISTENER_DISPATCH = "pubnub.listener.dispatch";
+
+    /**
+     * Timer of the requests, tagged with {@link #TAG_OPERATION} and {@link #TAG_OUTCOME}.
+     */
+    public static final String REQUESTS = "pubnub.requests";
+
+    /**
+     * Counter of the failed requests, tagged with {@link #TAG_OPERATION} and {@link #TAG_CATEGORY}.
+     */
+    public static final String REQUEST_ERRORS = "pubnub.request.errors";
+
+    /**
+     * Counter of the request body bytes sent, tagged with {@link #TAG_CLIENT}.
+     */
+    public static final String BYTES_SENT = "pubnub.network.bytes.sent";
+
+    /**
+     * Counter of the response body bytes received, tagged with {@link #TAG_CLIENT}.
+     */
+    public static final String BYTES_RECEIVED = "pubnub.network.bytes.received";
+
+    /**
+     * Counter of the automatic retries of a failed action, tagged with {@link #TAG_OPERATION}.
+     */
+    public static final String RETRIES = "pubnub.retries";
+
+    /**
+     * Counter of the connectivity checks made while the subscribe loop is disconnected.
+     */
+    public static final String RECONNECTION_ATTEMPTS = "pubnub.reconnection.attempts";
+
+    /**
+     * Counter of the reconnections of the subscribe loop.
+     */
+    public static final String RECONNECTIONS = "pubnub.reconnections";
+
+    /**
+     * The {@link com.pubnub.api.enums.PNOperationType} of a request.
+     */
+    public static final String TAG_OPERATION = "operation";
+
+    /**
+     * {@link #OUTCOME_SUCCESS} or {@link #OUTCOME_ERROR}.
+     */
+    public static final String TAG_OUTCOME = "outcome";
+
+    /**
+     * The {@link com.pubnub.api.enums.PNStatusCategory} of a failed request.
+     */
+    public static final String TAG_CATEGORY = "category";
+
+    /**
+     * The HTTP client of a request: {@code transaction}, {@code presence}, {@code subscription} or {@code files}.
+     */
+    public static final String TAG_CLIENT = "client";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_ERROR = "error";
+
+    private PNMetricNames() {
+    }
+}
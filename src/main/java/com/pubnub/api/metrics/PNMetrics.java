@@ -0,0 +1,40 @@
+package com.pubnub.api.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Receives the metrics of a {@link com.pubnub.api.PubNub} instance, see
+ * {@link com.pubnub.api.PNConfiguration#setMetrics(PNMetrics)}.
+ * <p>
+ * Instruments are looked up once per name and tags where the SDK can, then updated from the subscribe, dispatch and
+ * HTTP client threads, so implementations must be thread safe. Tags are given as alternating keys and values. The
+ * names and tags used by the SDK are listed in {@link PNMetricNames}.
+ */
+public interface PNMetrics {
+
+    /**
+     * Metrics discarding everything, the default.
+     */
+    PNMetrics NONE = NoOpMetrics.INSTANCE;
+
+    @NotNull
+    Counter counter(@NotNull String name, @NotNull String... tags);
+
+    @NotNull
+    Timer timer(@NotNull String name, @NotNull String... tags);
+
+    /**
+     * Registers a value sampled by the metrics backend whenever it needs it.
+     */
+    void gauge(@NotNull String name, @NotNull LongSupplier value, @NotNull String... tags);
+
+    interface Counter {
+        void increment(long amount);
+    }
+
+    interface Timer {
+        void record(long nanos);
+    }
+}
@@ -0,0 +1,42 @@
+package com.pubnub.api.metrics.micrometer;
+
+import com.pubnub.api.metrics.PNMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Reports the metrics of the SDK to a Micrometer {@link MeterRegistry}.
+ * <p>
+ * Micrometer is not a dependency of the SDK, applications using this bridge add {@code io.micrometer:micrometer-core}
+ * themselves.
+ */
+public class MicrometerMetrics implements PNMetrics {
+    private final MeterRegistry registry;
+
+    public MicrometerMetrics(@NotNull MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @NotNull
+    @Override
+    public Counter counter(@NotNull String name, @NotNull String... tags) {
+        final io.micrometer.core.instrument.Counter counter = registry.counter(name, tags);
+        return counter::increment;
+    }
+
+    @NotNull
+    @Override
+    public Timer timer(@NotNull String name, @NotNull String... tags) {
+        final io.micrometer.core.instrument.Timer timer = registry.timer(name, tags);
+        return nanos -> timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void gauge(@NotNull String name, @NotNull LongSupplier value, @NotNull String... tags) {
+        Gauge.builder(name, value::getAsLong).tags(tags).register(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.pubnub.api.models.consumer;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Time in nanoseconds a request spent in each phase of its HTTP call. Phases the call did not go through, like DNS
+ * and connecting when a pooled connection is reused, are 0.
+ */
+@Getter
+@Builder
+@ToString
+public class PNNetworkTimings {
+    /**
+     * Waiting for the dispatcher and for a connection of the pool.
+     */
+    private long queueNanos;
+    private long dnsNanos;
+    /**
+     * Opening the connection, including {@link #tlsNanos}.
+     */
+    private long connectNanos;
+    private long tlsNanos;
+    /**
+     * Writing the request headers and body.
+     */
+    private long requestNanos;
+    /**
+     * From the request sent to the first byte of the response.
+     */
+    private long waitNanos;
+    /**
+     * Reading the response headers and body.
+     */
+    private long responseNanos;
+    private long totalNanos;
+    private boolean connectionReused;
+}
@@ -0,0 +1,38 @@
+package com.pubnub.api.models.consumer;
+
+import com.pubnub.api.enums.PNOperationType;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Latencies in milliseconds and failures of the requests of an operation type over the last minute. Percentiles are
+ * upper bounds of the histogram buckets holding them, at most 12.5% above the exact value.
+ */
+@Getter
+@Builder
+@ToString
+public class PNOperationLatency {
+    private PNOperationType operationType;
+    private long count;
+    private long errorCount;
+    private double errorRate;
+    private double average;
+    private long p50;
+    private long p95;
+    private long p99;
+    private long max;
+    /**
+     * Average time the requests waited for the dispatcher and a pooled connection, a growing value hints at an
+     * exhausted pool.
+     */
+    private double averageQueueing;
+    /**
+     * Average time spent resolving and opening connections, including TLS handshakes.
+     */
+    private double averageConnecting;
+    /**
+     * Share of the requests which opened a new connection instead of reusing a pooled one.
+     */
+    private double newConnectionRate;
+}
@@ -38,6 +38,12 @@ public class PNStatus {
     @Nullable
     private List<String> affectedChannelGroups;
 
+    /**
+     * Time spent in each phase of the HTTP call, {@code null} when the call was not timed.
+     */
+    @Nullable
+    private PNNetworkTimings networkTimings;
+
     @Getter(AccessLevel.NONE)
     @ToString.Exclude
     private RemoteAction<?> executedEndpoint;
@@ -4,10 +4,31 @@ import lombok.Data;
 import lombok.NonNull;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 
 @Data
 public class PNDownloadFileResult {
     @NonNull
     private final String fileName;
     private final InputStream byteStream;
+    /**
+     * File the content was written to, {@code null} unless the download was made with
+     * {@link com.pubnub.api.endpoints.files.DownloadFile#toPath(Path)}, in which case {@link #byteStream} is
+     * {@code null}.
+     */
+    private final Path path;
+
+    public PNDownloadFileResult(@NonNull String fileName, InputStream byteStream) {
+        this(fileName, byteStream, null);
+    }
+
+    public PNDownloadFileResult(@NonNull String fileName, Path path) {
+        this(fileName, null, path);
+    }
+
+    private PNDownloadFileResult(@NonNull String fileName, InputStream byteStream, Path path) {
+        this.fileName = fileName;
+        this.byteStream = byteStream;
+        this.path = path;
+    }
 }
@@ -0,0 +1,43 @@
+package com.pubnub.api.models.consumer.files;
+
+import com.pubnub.api.PubNubException;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Outcome of one file of a batch upload, with the number of attempts spent in every stage.
+ */
+@Getter
+@Builder
+@ToString
+public class PNFileBatchItemResult {
+    private int index;
+    private String channel;
+    private String fileName;
+    @Nullable
+    private PNBaseFile file;
+    @Nullable
+    private Long timetoken;
+    @Nullable
+    private PubNubException error;
+    /**
+     * Stage the file failed in, {@code null} when it was published.
+     */
+    @Nullable
+    private Stage failedStage;
+    private int uploadUrlAttempts;
+    private int uploadAttempts;
+    private int publishAttempts;
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public enum Stage {
+        GENERATE_UPLOAD_URL,
+        UPLOAD,
+        PUBLISH_FILE_MESSAGE
+    }
+}
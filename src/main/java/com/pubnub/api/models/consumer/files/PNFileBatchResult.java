@@ -0,0 +1,29 @@
+package com.pubnub.api.models.consumer.files;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch upload, one item per file in the order the files were added.
+ */
+@Getter
+@ToString
+public class PNFileBatchResult {
+    private final List<PNFileBatchItemResult> items;
+    private final int successCount;
+    private final int failureCount;
+
+    public PNFileBatchResult(List<PNFileBatchItemResult> items) {
+        this.items = items;
+        int successes = 0;
+        for (PNFileBatchItemResult item : items) {
+            if (item.isSuccess()) {
+                successes++;
+            }
+        }
+        this.successCount = successes;
+        this.failureCount = items.size() - successes;
+    }
+}
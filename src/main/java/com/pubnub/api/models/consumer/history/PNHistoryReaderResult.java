@@ -0,0 +1,19 @@
+package com.pubnub.api.models.consumer.history;
+
+import lombok.Data;
+
+@Data
+public class PNHistoryReaderResult {
+    /**
+     * Number of distinct channels that were read.
+     */
+    private final int channels;
+    /**
+     * Number of messages passed to the channel history callback.
+     */
+    private final long messages;
+    /**
+     * Number of fetch messages requests issued, not counting retries.
+     */
+    private final int requests;
+}
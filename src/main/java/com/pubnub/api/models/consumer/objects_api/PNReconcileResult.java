@@ -0,0 +1,23 @@
+package com.pubnub.api.models.consumer.objects_api;
+
+import lombok.Data;
+
+@Data
+public class PNReconcileResult {
+    /**
+     * Number of entries that were added or had their custom data/status updated.
+     */
+    private final int set;
+    /**
+     * Number of entries present on the server which were not part of the desired set.
+     */
+    private final int removed;
+    /**
+     * Number of entries that already matched the desired state.
+     */
+    private final int unchanged;
+    /**
+     * Number of manage requests issued to apply the diff.
+     */
+    private final int chunks;
+}
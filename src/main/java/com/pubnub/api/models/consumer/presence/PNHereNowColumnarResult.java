@@ -0,0 +1,104 @@
+package com.pubnub.api.models.consumer.presence;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import lombok.Getter;
+import lombok.ToString;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Here now result kept in flat arrays instead of one object per channel and occupant.
+ * <p>
+ * Channels are addressed by their index, occupants by their index within the channel. States are kept as raw JSON
+ * and only parsed by {@link #getState(int, int)}.
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public class PNHereNowColumnarResult {
+    @Getter
+    @ToString.Include
+    private final int totalChannels;
+    @Getter
+    @ToString.Include
+    private final int totalOccupancy;
+
+    private final String[] channels;
+    private final int[] occupancies;
+    private final int[] occupantOffsets;
+    private final String[] uuids;
+    private final String[] states;
+
+    /**
+     * @param occupantOffsets index in {@code uuids} of the first occupant of every channel, followed by the number
+     *                        of occupants
+     * @param states          raw JSON state of every occupant, {@code null} when no occupant has a state
+     */
+    public PNHereNowColumnarResult(int totalChannels,
+                                   int totalOccupancy,
+                                   String[] channels,
+                                   int[] occupancies,
+                                   int[] occupantOffsets,
+                                   String[] uuids,
+                                   @Nullable String[] states) {
+        this.totalChannels = totalChannels;
+        this.totalOccupancy = totalOccupancy;
+        this.channels = channels;
+        this.occupancies = occupancies;
+        this.occupantOffsets = occupantOffsets;
+        this.uuids = uuids;
+        this.states = states;
+    }
+
+    public int getChannelCount() {
+        return channels.length;
+    }
+
+    public String getChannel(int channelIndex) {
+        return channels[channelIndex];
+    }
+
+    /**
+     * Returns the index of the channel, or -1 when it is not part of the result.
+     */
+    public int indexOf(String channel) {
+        for (int i = 0; i < channels.length; i++) {
+            if (channels[i].equals(channel)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getOccupancy(int channelIndex) {
+        return occupancies[channelIndex];
+    }
+
+    /**
+     * Returns the number of occupants listed for the channel, 0 when UUIDs were not requested.
+     */
+    public int getOccupantCount(int channelIndex) {
+        return occupantOffsets[channelIndex + 1] - occupantOffsets[channelIndex];
+    }
+
+    public String getUuid(int channelIndex, int occupantIndex) {
+        return uuids[occupant(channelIndex, occupantIndex)];
+    }
+
+    /**
+     * Parses the state of the occupant, or returns {@code null} when it has none.
+     */
+    @Nullable
+    public JsonElement getState(int channelIndex, int occupantIndex) {
+        if (states == null) {
+            return null;
+        }
+        final String state = states[occupant(channelIndex, occupantIndex)];
+        return state != null ? JsonParser.parseString(state) : null;
+    }
+
+    private int occupant(int channelIndex, int occupantIndex) {
+        if (occupantIndex < 0 || occupantIndex >= getOccupantCount(channelIndex)) {
+            throw new IndexOutOfBoundsException("occupant " + occupantIndex + " of channel " + channelIndex);
+        }
+        return occupantOffsets[channelIndex] + occupantIndex;
+    }
+}
@@ -0,0 +1,30 @@
+package com.pubnub.api.models.consumer.pubsub;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Position of the subscribe loop up to which all received messages have been dispatched to the listeners,
+ * together with the subscriptions it was taken for.
+ */
+@Builder
+@Data
+public class PNSubscriptionCursor {
+    private final Long timetoken;
+    private final String region;
+    @Builder.Default private final List<String> channels = Collections.emptyList();
+    @Builder.Default private final List<String> channelGroups = Collections.emptyList();
+
+    /**
+     * Channels of {@link #channels} also subscribed with presence.
+     */
+    @Builder.Default private final List<String> presenceChannels = Collections.emptyList();
+
+    /**
+     * Channel groups of {@link #channelGroups} also subscribed with presence.
+     */
+    @Builder.Default private final List<String> presenceChannelGroups = Collections.emptyList();
+}
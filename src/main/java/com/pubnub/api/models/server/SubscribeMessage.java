@@ -56,6 +56,11 @@ public class SubscribeMessage {
     @SerializedName("e")
     private Integer type;
 
+    /**
+     * Set on messages recovered from history, whose payload has already been decrypted.
+     */
+    private transient boolean decrypted;
+
     public boolean supportsEncryption() {
         return type == null || type == SubscribeMessageProcessor.TYPE_MESSAGE || type == SubscribeMessageProcessor.TYPE_FILES;
     }
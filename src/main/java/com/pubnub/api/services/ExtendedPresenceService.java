@@ -3,10 +3,12 @@ package com.pubnub.api.services;
 import com.google.gson.JsonElement;
 import com.pubnub.api.models.server.Envelope;
 import com.pubnub.api.models.server.presence.WhereNowPayload;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.GET;
 import retrofit2.http.Path;
 import retrofit2.http.QueryMap;
+import retrofit2.http.Streaming;
 
 import java.util.Map;
 
@@ -26,6 +28,17 @@ public interface ExtendedPresenceService {
                                         @Path("channel") String channel,
                                         @QueryMap Map<String, String> options);
 
+    @Streaming
+    @GET("v2/presence/sub_key/{subKey}")
+    Call<ResponseBody> globalHereNowStream(@Path("subKey") String subKey,
+                                           @QueryMap Map<String, String> options);
+
+    @Streaming
+    @GET("v2/presence/sub_key/{subKey}/channel/{channel}")
+    Call<ResponseBody> hereNowStream(@Path("subKey") String subKey,
+                                     @Path("channel") String channel,
+                                     @QueryMap Map<String, String> options);
+
     @GET("v2/presence/sub-key/{subKey}/channel/{channel}/uuid/{uuid}")
     Call<Envelope<JsonElement>> getState(@Path("subKey") String subKey,
                                          @Path("channel") String channel,
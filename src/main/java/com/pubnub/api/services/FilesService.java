@@ -8,9 +8,11 @@ import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
 import retrofit2.http.QueryMap;
+import retrofit2.http.Streaming;
 
 import java.util.List;
 import java.util.Map;
@@ -43,6 +45,15 @@ public interface FilesService {
                                     @Path("fileName") String fileName,
                                     @QueryMap(encoded = true) Map<String, String> options);
 
+    @Streaming
+    @GET(GET_FILE_URL)
+    Call<ResponseBody> downloadFileStreaming(@Path("subKey") String subKey,
+                                             @Path("channel") String channel,
+                                             @Path("fileId") String fileId,
+                                             @Path("fileName") String fileName,
+                                             @Header("Range") String range,
+                                             @QueryMap(encoded = true) Map<String, String> options);
+
     @DELETE("/v1/files/{subKey}/channels/{channel}/files/{fileId}/{fileName}")
     Call<Void> deleteFile(@Path("subKey") String subKey,
                           @Path("channel") String channel,
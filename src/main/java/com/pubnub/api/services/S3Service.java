@@ -1,6 +1,6 @@
 package com.pubnub.api.services;
 
-import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
 import retrofit2.Call;
 import retrofit2.http.*;
 
@@ -8,5 +8,5 @@ public interface S3Service {
 
     @POST
     Call<Void> upload(@Url String url,
-                      @Body MultipartBody form);
+                      @Body RequestBody form);
 }
@@ -0,0 +1,126 @@
+package com.pubnub.api.services.direct;
+
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.Timeout;
+import org.jetbrains.annotations.NotNull;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Converter;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * A {@link Call} executing a prepared request on the OkHttp client of a Retrofit instance and converting the
+ * response with its converter, the way Retrofit does for its own calls.
+ * <p>
+ * Unlike Retrofit calls, callbacks are invoked on the OkHttp dispatcher thread.
+ */
+final class DirectCall<T> implements Call<T> {
+    private static final int HTTP_RESET_CONTENT = 205;
+
+    private final okhttp3.Call.Factory callFactory;
+    private final Request request;
+    private final Converter<ResponseBody, T> converter;
+    private final okhttp3.Call rawCall;
+
+    DirectCall(okhttp3.Call.Factory callFactory, Request request, Converter<ResponseBody, T> converter) {
+        this.callFactory = callFactory;
+        this.request = request;
+        this.converter = converter;
+        this.rawCall = callFactory.newCall(request);
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+        return parse(rawCall.execute());
+    }
+
+    @Override
+    public void enqueue(final Callback<T> callback) {
+        rawCall.enqueue(new okhttp3.Callback() {
+            @Override
+            public void onFailure(@NotNull okhttp3.Call call, @NotNull IOException e) {
+                callback.onFailure(DirectCall.this, e);
+            }
+
+            @Override
+            public void onResponse(@NotNull okhttp3.Call call, @NotNull okhttp3.Response rawResponse) {
+                final Response<T> response;
+                try {
+                    response = parse(rawResponse);
+                } catch (Throwable t) {
+                    callback.onFailure(DirectCall.this, t);
+                    return;
+                }
+                callback.onResponse(DirectCall.this, response);
+            }
+        });
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return rawCall.isExecuted();
+    }
+
+    @Override
+    public void cancel() {
+        rawCall.cancel();
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return rawCall.isCanceled();
+    }
+
+    @SuppressWarnings("MethodDoesntCallSuperMethod")
+    @Override
+    public Call<T> clone() {
+        return new DirectCall<>(callFactory, request, converter);
+    }
+
+    @Override
+    public Request request() {
+        return request;
+    }
+
+    public Timeout timeout() {
+        return rawCall.timeout();
+    }
+
+    private Response<T> parse(okhttp3.Response rawResponse) throws IOException {
+        final ResponseBody rawBody = rawResponse.body();
+        final okhttp3.Response strippedResponse = rawResponse.newBuilder().body(null).build();
+
+        final int code = rawResponse.code();
+        if (!rawResponse.isSuccessful()) {
+            try {
+                final Buffer buffer = new Buffer();
+                if (rawBody != null) {
+                    rawBody.source().readAll(buffer);
+                }
+                return Response.error(ResponseBody.create(buffer,
+                        rawBody != null ? rawBody.contentType() : null,
+                        buffer.size()), strippedResponse);
+            } finally {
+                if (rawBody != null) {
+                    rawBody.close();
+                }
+            }
+        }
+
+        if (code == HttpURLConnection.HTTP_NO_CONTENT || code == HTTP_RESET_CONTENT || rawBody == null) {
+            if (rawBody != null) {
+                rawBody.close();
+            }
+            return Response.success(null, strippedResponse);
+        }
+
+        try (ResponseBody body = rawBody) {
+            return Response.success(converter.convert(body), strippedResponse);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.pubnub.api.services.direct;
+
+import com.pubnub.api.PubNub;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import org.jetbrains.annotations.Nullable;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Creates {@link DirectCall}s with the HTTP client, the base URL and the converters of a Retrofit instance.
+ * <p>
+ * With a PubNub instance the requests are signed as they are built and skip the signing interceptor of the client,
+ * which would otherwise take the finished URL apart and build it again. Without one they are left to the interceptor.
+ */
+final class DirectCallFactory {
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    private final Retrofit retrofit;
+    @Nullable
+    private final PubNub pubnub;
+
+    DirectCallFactory(Retrofit retrofit, @Nullable PubNub pubnub) {
+        this.retrofit = retrofit;
+        this.pubnub = pubnub;
+    }
+
+    DirectRequestBuilder newRequest() {
+        return new DirectRequestBuilder(retrofit.baseUrl(), pubnub);
+    }
+
+    /**
+     * Looks up the converter once, so it can be reused for every call of a service method.
+     */
+    <T> Converter<ResponseBody, T> converter(Type type) {
+        return retrofit.responseBodyConverter(type, NO_ANNOTATIONS);
+    }
+
+    <T> Call<T> newCall(Request request, Converter<ResponseBody, T> converter) {
+        return new DirectCall<>(retrofit.callFactory(), request, converter);
+    }
+}
@@ -0,0 +1,44 @@
+package com.pubnub.api.services.direct;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.models.server.Envelope;
+import com.pubnub.api.services.PresenceService;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.Nullable;
+import retrofit2.Call;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+import java.util.Map;
+
+/**
+ * {@link PresenceService} building heartbeat requests directly instead of through a Retrofit proxy. Leave requests
+ * are left to the Retrofit service.
+ */
+public class DirectPresenceService implements PresenceService {
+    private final DirectCallFactory calls;
+    private final PresenceService retrofitService;
+    private final Converter<ResponseBody, Envelope> converter;
+
+    public DirectPresenceService(Retrofit retrofit, @Nullable PubNub pubnub, PresenceService retrofitService) {
+        this.calls = new DirectCallFactory(retrofit, pubnub);
+        this.retrofitService = retrofitService;
+        this.converter = calls.converter(Envelope.class);
+    }
+
+    @Override
+    public Call<Envelope> leave(String subKey, String channel, Map<String, String> options) {
+        return retrofitService.leave(subKey, channel, options);
+    }
+
+    @Override
+    public Call<Envelope> heartbeat(String subKey, String channel, Map<String, String> options) {
+        return calls.newCall(calls.newRequest()
+                .literal("/v2/presence/sub-key/")
+                .segment(subKey)
+                .literal("/channel/")
+                .segment(channel)
+                .literal("/heartbeat")
+                .get(options), converter);
+    }
+}
@@ -0,0 +1,56 @@
+package com.pubnub.api.services.direct;
+
+import com.google.gson.reflect.TypeToken;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.services.PublishService;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.Nullable;
+import retrofit2.Call;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PublishService} building GET requests directly instead of through a Retrofit proxy. Publishing with POST
+ * is left to the Retrofit service.
+ */
+public class DirectPublishService implements PublishService {
+    private final DirectCallFactory calls;
+    private final PublishService retrofitService;
+    private final Converter<ResponseBody, List<Object>> converter;
+
+    public DirectPublishService(Retrofit retrofit, @Nullable PubNub pubnub, PublishService retrofitService) {
+        this.calls = new DirectCallFactory(retrofit, pubnub);
+        this.retrofitService = retrofitService;
+        this.converter = calls.converter(new TypeToken<List<Object>>() { }.getType());
+    }
+
+    @Override
+    public Call<List<Object>> publish(String pubKey,
+                                      String subKey,
+                                      String channel,
+                                      String message,
+                                      Map<String, String> options) {
+        return calls.newCall(calls.newRequest()
+                .literal("/publish/")
+                .segment(pubKey)
+                .literal("/")
+                .segment(subKey)
+                .literal("/0/")
+                .segment(channel)
+                .literal("/0/")
+                .encodedSegment(message)
+                .get(options), converter);
+    }
+
+    @Override
+    public Call<List<Object>> publishWithPost(String pubKey,
+                                              String subKey,
+                                              String channel,
+                                              Object body,
+                                              Map<String, String> options) {
+        return retrofitService.publishWithPost(pubKey, subKey, channel, body, options);
+    }
+}
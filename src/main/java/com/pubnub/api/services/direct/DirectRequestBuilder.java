@@ -0,0 +1,103 @@
+package com.pubnub.api.services.direct;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubUtil;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes the path and the query of a GET request straight into an {@link HttpUrl.Builder}. Path segments are encoded
+ * like the values of Retrofit's {@code @Path}, query values are expected to be encoded already, like the values of
+ * {@code @QueryMap(encoded = true)}.
+ * <p>
+ * When a PubNub instance is given, the query is signed in the same builder and the request is tagged as signed.
+ */
+final class DirectRequestBuilder {
+    private static final int INITIAL_CAPACITY = 128;
+    private static final int FIRST_PRINTABLE = 0x20;
+    private static final int DELETE = 0x7f;
+    private static final int NIBBLE_BITS = 4;
+    private static final int NIBBLE_MASK = 0xf;
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final String PATH_SEGMENT_ALWAYS_ENCODE_SET = " \"<>^`{}|\\?#";
+
+    private final HttpUrl baseUrl;
+    @Nullable
+    private final PubNub pubnub;
+    private final StringBuilder path = new StringBuilder(INITIAL_CAPACITY);
+
+    DirectRequestBuilder(HttpUrl baseUrl, @Nullable PubNub pubnub) {
+        this.baseUrl = baseUrl;
+        this.pubnub = pubnub;
+    }
+
+    /**
+     * Appends a part of the path which needs no encoding, slashes included.
+     */
+    DirectRequestBuilder literal(String encodedPath) {
+        path.append(encodedPath);
+        return this;
+    }
+
+    /**
+     * Appends a path segment, encoding slashes and percent signs.
+     */
+    DirectRequestBuilder segment(String value) {
+        if (".".equals(value) || "..".equals(value)) {
+            throw new IllegalArgumentException("Path segments shouldn't perform path traversal ('.' or '..'): "
+                    + value);
+        }
+        appendSegment(value, false);
+        return this;
+    }
+
+    /**
+     * Appends a path segment which is already encoded.
+     */
+    DirectRequestBuilder encodedSegment(String value) {
+        appendSegment(value, true);
+        return this;
+    }
+
+    Request get(Map<String, String> encodedQuery) {
+        final HttpUrl.Builder url = baseUrl.newBuilder().encodedPath(path.toString());
+        for (Map.Entry<String, String> parameter : encodedQuery.entrySet()) {
+            if (parameter.getValue() == null) {
+                throw new IllegalArgumentException("Query map contained null value for key '"
+                        + parameter.getKey() + "'.");
+            }
+            url.addEncodedQueryParameter(parameter.getKey(), parameter.getValue());
+        }
+
+        final Request.Builder request = new Request.Builder();
+        if (pubnub != null) {
+            PubNubUtil.signUrl(url, "GET", pubnub.getConfiguration(), pubnub.getTimestamp());
+            request.tag(PubNubUtil.SignedRequest.class, PubNubUtil.SignedRequest.INSTANCE);
+        }
+        return request.url(url.build()).build();
+    }
+
+    private void appendSegment(String value, boolean alreadyEncoded) {
+        int i = 0;
+        while (i < value.length()) {
+            final int codePoint = value.codePointAt(i);
+            if (codePoint < FIRST_PRINTABLE
+                    || codePoint >= DELETE
+                    || PATH_SEGMENT_ALWAYS_ENCODE_SET.indexOf(codePoint) != -1
+                    || (!alreadyEncoded && (codePoint == '/' || codePoint == '%'))) {
+                for (byte b : new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8)) {
+                    path.append('%')
+                            .append(HEX_DIGITS[(b >> NIBBLE_BITS) & NIBBLE_MASK])
+                            .append(HEX_DIGITS[b & NIBBLE_MASK]);
+                }
+            } else {
+                path.appendCodePoint(codePoint);
+            }
+            i += Character.charCount(codePoint);
+        }
+    }
+}
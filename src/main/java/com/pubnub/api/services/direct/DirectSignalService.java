@@ -0,0 +1,44 @@
+package com.pubnub.api.services.direct;
+
+import com.google.gson.reflect.TypeToken;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.services.SignalService;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.Nullable;
+import retrofit2.Call;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SignalService} building its requests directly instead of through a Retrofit proxy.
+ */
+public class DirectSignalService implements SignalService {
+    private final DirectCallFactory calls;
+    private final Converter<ResponseBody, List<Object>> converter;
+
+    public DirectSignalService(Retrofit retrofit, @Nullable PubNub pubnub) {
+        this.calls = new DirectCallFactory(retrofit, pubnub);
+        this.converter = calls.converter(new TypeToken<List<Object>>() { }.getType());
+    }
+
+    @Override
+    public Call<List<Object>> signal(String pubKey,
+                                     String subKey,
+                                     String channel,
+                                     String message,
+                                     Map<String, String> options) {
+        return calls.newCall(calls.newRequest()
+                .literal("/signal/")
+                .segment(pubKey)
+                .literal("/")
+                .segment(subKey)
+                .literal("/0/")
+                .segment(channel)
+                .literal("/0/")
+                .encodedSegment(message)
+                .get(options), converter);
+    }
+}
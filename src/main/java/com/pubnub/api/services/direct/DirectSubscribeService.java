@@ -0,0 +1,36 @@
+package com.pubnub.api.services.direct;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.models.server.SubscribeEnvelope;
+import com.pubnub.api.services.SubscribeService;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.Nullable;
+import retrofit2.Call;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+import java.util.Map;
+
+/**
+ * {@link SubscribeService} building its requests directly instead of through a Retrofit proxy.
+ */
+public class DirectSubscribeService implements SubscribeService {
+    private final DirectCallFactory calls;
+    private final Converter<ResponseBody, SubscribeEnvelope> converter;
+
+    public DirectSubscribeService(Retrofit retrofit, @Nullable PubNub pubnub) {
+        this.calls = new DirectCallFactory(retrofit, pubnub);
+        this.converter = calls.converter(SubscribeEnvelope.class);
+    }
+
+    @Override
+    public Call<SubscribeEnvelope> subscribe(String subKey, String channel, Map<String, String> options) {
+        return calls.newCall(calls.newRequest()
+                .literal("/v2/subscribe/")
+                .segment(subKey)
+                .literal("/")
+                .segment(channel)
+                .literal("/0")
+                .get(options), converter);
+    }
+}
@@ -4,7 +4,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
-import com.pubnub.api.PNConfiguration;
 import com.pubnub.api.PubNub;
 import com.pubnub.api.PubNubException;
 import com.pubnub.api.PubNubUtil;
@@ -26,13 +25,11 @@ import com.pubnub.api.models.server.PresenceEnvelope;
 import com.pubnub.api.models.server.PublishMetaData;
 import com.pubnub.api.models.server.SubscribeMessage;
 import com.pubnub.api.models.server.files.FileUploadNotification;
-import com.pubnub.api.services.FilesService;
 import com.pubnub.api.vendor.Crypto;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 @Slf4j
@@ -196,9 +193,9 @@ public class SubscribeMessageProcessor {
             return input;
         }
 
-        // if the message couldn't possibly be encrypted in the first place, there is no way to process the node; let's
-        // return.
-        if (!subscribeMessage.supportsEncryption()) {
+        // if the message couldn't possibly be encrypted in the first place, or was recovered from history already
+        // decrypted, there is no way to process the node; let's return.
+        if (!subscribeMessage.supportsEncryption() || subscribeMessage.isDecrypted()) {
             return input;
         }
 
@@ -229,50 +226,8 @@ public class SubscribeMessageProcessor {
         return outputObject;
     }
 
-    @SuppressWarnings("RegExpRedundantEscape")
-    private final String formatFriendlyGetFileUrl = "%s" + FilesService.GET_FILE_URL.replaceAll("\\{.*?\\}", "%s");
-
     private String buildFileUrl(String channel, String fileId, String fileName) {
-        String basePath = String.format(formatFriendlyGetFileUrl,
-                pubnub.getBaseUrl(),
-                pubnub.getConfiguration().getSubscribeKey(),
-                channel,
-                fileId,
-                fileName);
-
-        ArrayList<String> queryParams = new ArrayList<>();
-        String authKey = pubnub.getConfiguration().getAuthKey();
-
-        if (PubNubUtil.shouldSignRequest(pubnub.getConfiguration())) {
-            int timestamp = pubnub.getTimestamp();
-            String signature = generateSignature(pubnub.getConfiguration(), basePath, authKey, timestamp);
-            queryParams.add(PubNubUtil.TIMESTAMP_QUERY_PARAM_NAME + "=" + timestamp);
-            queryParams.add(PubNubUtil.SIGNATURE_QUERY_PARAM_NAME + "=" + signature);
-        }
-
-        if (authKey != null) {
-            queryParams.add(PubNubUtil.AUTH_QUERY_PARAM_NAME + "=" + authKey);
-        }
-
-        if (queryParams.isEmpty()) {
-            return basePath;
-        } else {
-            return basePath + "?" + PubNubUtil.joinString(queryParams, "&");
-        }
-    }
-
-    private String generateSignature(PNConfiguration configuration, String url, String authKey, int timestamp) {
-        HashMap<String, String> queryParams = new HashMap<>();
-        if (authKey != null) {
-            queryParams.put("auth", authKey);
-        }
-        return PubNubUtil.generateSignature(configuration,
-                url,
-                queryParams,
-                "get",
-                null,
-                timestamp
-        );
+        return pubnub.getFileUrlManager().getEventUrl(channel, fileId, fileName);
     }
 
     private boolean canHandleObjectCallback(final ObjectPayload objectPayload) {
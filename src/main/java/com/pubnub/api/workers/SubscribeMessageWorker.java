@@ -4,6 +4,8 @@ import com.pubnub.api.PubNubException;
 import com.pubnub.api.enums.PNOperationType;
 import com.pubnub.api.enums.PNStatusCategory;
 import com.pubnub.api.managers.ListenerManager;
+import com.pubnub.api.managers.MetricsManager;
+import com.pubnub.api.managers.SubscriptionCursorManager;
 import com.pubnub.api.models.consumer.PNErrorData;
 import com.pubnub.api.models.consumer.PNStatus;
 import com.pubnub.api.models.consumer.objects_api.channel.PNChannelMetadataResult;
@@ -18,6 +20,7 @@ import com.pubnub.api.models.consumer.pubsub.message_actions.PNMessageActionResu
 import com.pubnub.api.models.server.SubscribeMessage;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.LinkedBlockingQueue;
 
@@ -25,10 +28,22 @@ import java.util.concurrent.LinkedBlockingQueue;
 @Slf4j
 @AllArgsConstructor
 public class SubscribeMessageWorker implements Runnable {
+    private static final long TIMETOKENS_IN_MILLISECOND = 10_000;
+    private static final long NANOSECONDS_IN_TIMETOKEN = 100;
 
     private final ListenerManager listenerManager;
     private final LinkedBlockingQueue<SubscribeMessage> queue;
     private final SubscribeMessageProcessor subscribeMessageProcessor;
+    @Nullable
+    private final SubscriptionCursorManager subscriptionCursorManager;
+    @Nullable
+    private final MetricsManager metricsManager;
+
+    public SubscribeMessageWorker(ListenerManager listenerManager,
+                                  LinkedBlockingQueue<SubscribeMessage> queue,
+                                  SubscribeMessageProcessor subscribeMessageProcessor) {
+        this(listenerManager, queue, subscribeMessageProcessor, null, null);
+    }
 
     @Override
     public void run() {
@@ -39,32 +54,15 @@ public class SubscribeMessageWorker implements Runnable {
     private void takeMessage() {
         while (!Thread.interrupted()) {
             try {
-                PNEvent event = subscribeMessageProcessor.processIncomingPayload(this.queue.take());
-                if (event instanceof PNMessageResult) {
-                    listenerManager.announce((PNMessageResult) event);
-                } else if (event instanceof PNPresenceEventResult) {
-                    listenerManager.announce((PNPresenceEventResult) event);
-                } else if (event instanceof PNSignalResult) {
-                    listenerManager.announce((PNSignalResult) event);
-                } else if (event instanceof PNMessageActionResult) {
-                    listenerManager.announce((PNMessageActionResult) event);
-                } else if (event instanceof PNUUIDMetadataResult) {
-                    listenerManager.announce((PNUUIDMetadataResult) event);
-                } else if (event instanceof PNChannelMetadataResult) {
-                    listenerManager.announce((PNChannelMetadataResult) event);
-                } else if (event instanceof PNMembershipResult) {
-                    listenerManager.announce((PNMembershipResult) event);
-                } else if (event instanceof PNFileEventResult) {
-                    listenerManager.announce((PNFileEventResult) event);
+                final SubscribeMessage message = this.queue.take();
+                if (metricsManager != null && metricsManager.isEnabled()) {
+                    dispatchMeasuredMessage(message);
+                } else {
+                    dispatchMessage(message);
+                }
+                if (subscriptionCursorManager != null) {
+                    subscriptionCursorManager.messageDispatched();
                 }
-            } catch (PubNubException e) {
-                PNStatus pnStatus = PNStatus.builder().error(true)
-                        .errorData(new PNErrorData(e.getMessage(), e))
-                        .operation(PNOperationType.PNSubscribeOperation)
-                        .category(PNStatusCategory.PNDecryptionErrorCategory)
-                        .build();
-
-                listenerManager.announce(pnStatus);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 log.trace("take message interrupted", e);
@@ -72,4 +70,50 @@ public class SubscribeMessageWorker implements Runnable {
         }
     }
 
+    private void dispatchMeasuredMessage(SubscribeMessage message) {
+        final Long publishTimetoken = message.getPublishMetaData() != null
+                ? message.getPublishMetaData().getPublishTimetoken()
+                : null;
+        if (publishTimetoken != null) {
+            final long lag = System.currentTimeMillis() * TIMETOKENS_IN_MILLISECOND - publishTimetoken;
+            if (lag > 0) {
+                metricsManager.getSubscribeLag().record(lag * NANOSECONDS_IN_TIMETOKEN);
+            }
+        }
+        final long startNanos = System.nanoTime();
+        dispatchMessage(message);
+        metricsManager.getListenerDispatch().record(System.nanoTime() - startNanos);
+    }
+
+    private void dispatchMessage(SubscribeMessage message) {
+        try {
+            PNEvent event = subscribeMessageProcessor.processIncomingPayload(message);
+            if (event instanceof PNMessageResult) {
+                listenerManager.announce((PNMessageResult) event);
+            } else if (event instanceof PNPresenceEventResult) {
+                listenerManager.announce((PNPresenceEventResult) event);
+            } else if (event instanceof PNSignalResult) {
+                listenerManager.announce((PNSignalResult) event);
+            } else if (event instanceof PNMessageActionResult) {
+                listenerManager.announce((PNMessageActionResult) event);
+            } else if (event instanceof PNUUIDMetadataResult) {
+                listenerManager.announce((PNUUIDMetadataResult) event);
+            } else if (event instanceof PNChannelMetadataResult) {
+                listenerManager.announce((PNChannelMetadataResult) event);
+            } else if (event instanceof PNMembershipResult) {
+                listenerManager.announce((PNMembershipResult) event);
+            } else if (event instanceof PNFileEventResult) {
+                listenerManager.announce((PNFileEventResult) event);
+            }
+        } catch (PubNubException e) {
+            PNStatus pnStatus = PNStatus.builder().error(true)
+                    .errorData(new PNErrorData(e.getMessage(), e))
+                    .operation(PNOperationType.PNSubscribeOperation)
+                    .category(PNStatusCategory.PNDecryptionErrorCategory)
+                    .build();
+
+            listenerManager.announce(pnStatus);
+        }
+    }
+
 }
@@ -0,0 +1,166 @@
+package com.pubnub.api;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RequestSignerTest {
+    private static final int TIMESTAMP = 1600000000;
+
+    private PNConfiguration configuration;
+
+    @Before
+    public void beforeEach() throws PubNubException {
+        configuration = new PNConfiguration(new UserId("myUUID"));
+        configuration.setSubscribeKey("mySubscribeKey");
+        configuration.setPublishKey("myPublishKey");
+        configuration.setSecretKey("mySecretKey");
+    }
+
+    @Test
+    public void testGetRequestSignature() throws Exception {
+        final Request request = new Request.Builder()
+                .url("https://ps.pndsn.com/v2/subscribe/mySubscribeKey/ch%201,zażółć/0"
+                        + "?uuid=my%20uuid&pnsdk=PubNub-Java-Unified%2F6.3.4&filter-expr=a%20%3D%3D%20%27b%27"
+                        + "&zeta=(~*!)&auth=a%2Fb&tt=0")
+                .build();
+
+        final String expected = "v2." + hmac("GET\nmyPublishKey\n/v2/subscribe/mySubscribeKey/ch%201,"
+                + "za%C5%BC%C3%B3%C5%82%C4%87/0\n"
+                + "auth=" + pamEncode("a/b")
+                + "&filter-expr=" + pamEncode("a == 'b'")
+                + "&pnsdk=" + pamEncode("PubNub-Java-Unified/6.3.4")
+                + "&timestamp=" + TIMESTAMP
+                + "&tt=0"
+                + "&uuid=" + pamEncode("my uuid")
+                + "&zeta=" + pamEncode("(~*!)")
+                + "\n", true);
+
+        assertEquals(expected, sign(request));
+        // a second signature on the same thread reuses the MAC and the buffers
+        assertEquals(expected, sign(request));
+    }
+
+    @Test
+    public void testPostRequestSignatureIncludesBody() throws Exception {
+        final String body = "{\"text\":\"zażółć 😀\"}";
+        final Request request = new Request.Builder()
+                .url("https://ps.pndsn.com/v1/files/mySubscribeKey/channels/ch1/generate-upload-url?uuid=myUUID")
+                .post(RequestBody.create(body, MediaType.get("application/json")))
+                .build();
+
+        final String expected = "v2." + hmac("POST\nmyPublishKey\n/v1/files/mySubscribeKey/channels/ch1/"
+                + "generate-upload-url\ntimestamp=" + TIMESTAMP + "&uuid=myUUID\n" + body, true);
+
+        assertEquals(expected, sign(request));
+    }
+
+    @Test
+    public void testPublishWithPostUsesFirstSignatureVersion() throws Exception {
+        final Request request = new Request.Builder()
+                .url("https://ps.pndsn.com/publish/myPublishKey/mySubscribeKey/0/ch1/0?uuid=myUUID")
+                .post(RequestBody.create("\"hi\"", MediaType.get("application/json")))
+                .build();
+
+        final String expected = hmac("mySubscribeKey\nmyPublishKey\n/publish/myPublishKey/mySubscribeKey/0/ch1/0\n"
+                + "timestamp=" + TIMESTAMP + "&uuid=myUUID", false);
+
+        assertEquals(expected, sign(request));
+    }
+
+    @Test
+    public void testSignatureAfterAThrowingBody() throws Exception {
+        final Request throwing = new Request.Builder()
+                .url("https://ps.pndsn.com/v1/files/mySubscribeKey/channels/ch1/generate-upload-url?uuid=myUUID")
+                .post(new RequestBody() {
+                    @Override
+                    public MediaType contentType() {
+                        return MediaType.get("application/json");
+                    }
+
+                    @Override
+                    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+                        sink.writeUtf8("{\"text\":");
+                        sink.flush();
+                        throw new IllegalStateException("body failed");
+                    }
+                })
+                .build();
+        final Request request = new Request.Builder()
+                .url("https://ps.pndsn.com/v2/presence/sub-key/mySubscribeKey/channel/ch1/heartbeat?uuid=myUUID")
+                .build();
+
+        try {
+            sign(throwing);
+            fail("the body exception should be thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("body failed", e.getMessage());
+        }
+
+        assertEquals("v2." + hmac("GET\nmyPublishKey\n/v2/presence/sub-key/mySubscribeKey/channel/ch1/heartbeat\n"
+                + "timestamp=" + TIMESTAMP + "&uuid=myUUID\n", true), sign(request));
+    }
+
+    @Test
+    public void testSignatureFromParts() throws Exception {
+        final Map<String, String> queryParams = new HashMap<>();
+        queryParams.put("auth", "myAuth");
+
+        final String signature = PubNubUtil.generateSignature(configuration,
+                "/v1/files/mySubscribeKey/channels/ch1/files/id/name",
+                queryParams,
+                "get",
+                null,
+                TIMESTAMP);
+
+        assertEquals(String.valueOf(TIMESTAMP), queryParams.get(PubNubUtil.TIMESTAMP_QUERY_PARAM_NAME));
+        assertEquals("v2." + hmac("GET\nmyPublishKey\n/v1/files/mySubscribeKey/channels/ch1/files/id/name\n"
+                + "auth=myAuth&timestamp=" + TIMESTAMP + "\nnull", true), signature);
+    }
+
+    @Test
+    public void testPamEncode() {
+        assertEquals("a%20b%2A%21%27%28%29%5B%5D%7E.-_%2B%C5%BC%F0%9F%98%80",
+                PubNubUtil.pamEncode("a b*!'()[]~.-_+ż😀"));
+    }
+
+    private String sign(Request request) {
+        return PubNubUtil.signRequest(request, configuration, TIMESTAMP).url().queryParameter("signature");
+    }
+
+    private static String pamEncode(String value) throws Exception {
+        return URLEncoder.encode(value, "UTF-8")
+                .replace("+", "%20")
+                .replace("*", "%2A")
+                .replace("!", "%21")
+                .replace("'", "%27")
+                .replace("(", "%28")
+                .replace(")", "%29")
+                .replace("[", "%5B")
+                .replace("]", "%5D")
+                .replace("~", "%7E");
+    }
+
+    private static String hmac(String content, boolean withoutPadding) throws Exception {
+        final Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec("mySecretKey".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        final Base64.Encoder encoder = withoutPadding ? Base64.getUrlEncoder().withoutPadding() : Base64.getUrlEncoder();
+        return encoder.encodeToString(mac.doFinal(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,169 @@
+package com.pubnub.api.capture;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.UserId;
+import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.enums.PNReplaySpeed;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import okhttp3.Call;
+import org.awaitility.Awaitility;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SubscribeReplayTest {
+    private static final int PORT = 8080;
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().port(PORT), false);
+
+    @Test
+    public void testRecordsAreReadBackInOrder() throws IOException {
+        final ByteArrayOutputStream file = new ByteArrayOutputStream();
+        try (SubscribeCapture capture = SubscribeCapture.create(file)) {
+            capture.record(200, "{\"t\":{\"t\":\"1\",\"r\":1},\"m\":[]}".getBytes(StandardCharsets.UTF_8));
+            capture.record(403, "{\"error\":true}".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final SubscribeReplay replay = SubscribeReplay.open(new ByteArrayInputStream(file.toByteArray()),
+                PNReplaySpeed.FULL_SPEED);
+        assertEquals(2, replay.size());
+        final Call call = mock(Call.class);
+        assertEquals(200, replay.next(call).getCode());
+        final SubscribeReplay.Record second = replay.next(call);
+        assertEquals(403, second.getCode());
+        assertArrayEquals("{\"error\":true}".getBytes(StandardCharsets.UTF_8), second.getBody());
+        assertEquals(2, replay.getReplayed());
+    }
+
+    @Test
+    public void testEveryResponseIsHandedOverOnce() throws Exception {
+        final ByteArrayOutputStream file = new ByteArrayOutputStream();
+        try (SubscribeCapture capture = SubscribeCapture.create(file)) {
+            capture.record(200, "{}".getBytes(StandardCharsets.UTF_8));
+            Thread.sleep(200);
+            capture.record(201, "{}".getBytes(StandardCharsets.UTF_8));
+            capture.record(202, "{}".getBytes(StandardCharsets.UTF_8));
+        }
+        final SubscribeReplay replay = SubscribeReplay.open(new ByteArrayInputStream(file.toByteArray()),
+                PNReplaySpeed.REAL_TIME);
+        final Call call = mock(Call.class);
+        assertEquals(200, replay.next(call).getCode());
+
+        // a call cancelled while waiting for its turn leaves its response to the next call
+        final Call canceled = mock(Call.class);
+        when(canceled.isCanceled()).thenReturn(true);
+        try {
+            replay.next(canceled);
+            fail("the canceled call should fail");
+        } catch (IOException e) {
+            assertEquals("Canceled", e.getMessage());
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<SubscribeReplay.Record> first = executor.submit(() -> replay.next(call));
+            final Future<SubscribeReplay.Record> second = executor.submit(() -> replay.next(call));
+            assertEquals(new HashSet<>(Arrays.asList(201, 202)), new HashSet<>(Arrays.asList(
+                    first.get(5, TimeUnit.SECONDS).getCode(), second.get(5, TimeUnit.SECONDS).getCode())));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(3, replay.getReplayed());
+        assertTrue(replay.awaitFinished(0, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IOException.class)
+    public void testOtherFilesAreRejected() throws IOException {
+        SubscribeReplay.open(new ByteArrayInputStream(new byte[]{1, 2, 3}), PNReplaySpeed.FULL_SPEED);
+    }
+
+    @Test
+    public void testCapturedTrafficIsReplayedWithoutTheNetwork() throws Exception {
+        wireMockRule.start();
+        stubFor(get(urlPathEqualTo("/v2/subscribe/mySubscribeKey/ch1/0"))
+                .withQueryParam("tt", equalTo("0"))
+                .willReturn(aResponse().withBody("{\"t\":{\"t\":\"100\",\"r\":1},\"m\":[]}")));
+        stubFor(get(urlPathEqualTo("/v2/subscribe/mySubscribeKey/ch1/0"))
+                .withQueryParam("tt", equalTo("100"))
+                .willReturn(aResponse().withBody("{\"t\":{\"t\":\"200\",\"r\":1},\"m\":[{\"a\":\"4\",\"f\":0,"
+                        + "\"i\":\"Client-g5d4g\",\"p\":{\"t\":\"150\",\"r\":1},\"k\":\"mySubscribeKey\","
+                        + "\"c\":\"ch1\",\"d\":{\"text\":\"captured\"}}]}")));
+        stubFor(get(urlPathEqualTo("/v2/subscribe/mySubscribeKey/ch1/0"))
+                .withQueryParam("tt", equalTo("200"))
+                .willReturn(aResponse().withFixedDelay(10_000).withBody("{\"t\":{\"t\":\"200\",\"r\":1},\"m\":[]}")));
+
+        final ByteArrayOutputStream file = new ByteArrayOutputStream();
+        final SubscribeCapture capture = SubscribeCapture.create(file);
+        final PNConfiguration captureConfiguration = configuration();
+        captureConfiguration.setSubscribeCapture(capture);
+        final List<String> captured = subscribe(new PubNub(captureConfiguration));
+        capture.close();
+        assertEquals(Collections.singletonList("{\"text\":\"captured\"}"), captured);
+        wireMockRule.stop();
+
+        final SubscribeReplay replay = SubscribeReplay.open(new ByteArrayInputStream(file.toByteArray()),
+                PNReplaySpeed.FULL_SPEED);
+        assertEquals(2, replay.size());
+        final PNConfiguration replayConfiguration = configuration();
+        replayConfiguration.setSubscribeReplay(replay);
+        assertEquals(captured, subscribe(new PubNub(replayConfiguration)));
+        assertTrue(replay.awaitFinished(5, TimeUnit.SECONDS));
+    }
+
+    private static List<String> subscribe(PubNub pubnub) {
+        final List<String> messages = new CopyOnWriteArrayList<>();
+        pubnub.addListener(new SubscribeCallback.BaseSubscribeCallback() {
+            @Override
+            public void message(@NotNull PubNub pubnub, @NotNull PNMessageResult pnMessageResult) {
+                messages.add(pnMessageResult.getMessage().toString());
+            }
+        });
+        try {
+            pubnub.subscribe().channels(Collections.singletonList("ch1")).execute();
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> !messages.isEmpty());
+        } finally {
+            pubnub.forceDestroy();
+        }
+        return messages;
+    }
+
+    private static PNConfiguration configuration() throws PubNubException {
+        final PNConfiguration configuration = new PNConfiguration(new UserId("myUUID"));
+        configuration.setOrigin("localhost:" + PORT);
+        configuration.setSecure(false);
+        configuration.setSubscribeKey("mySubscribeKey");
+        configuration.setPublishKey("myPublishKey");
+        return configuration;
+    }
+}
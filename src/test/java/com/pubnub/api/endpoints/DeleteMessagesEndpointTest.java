@@ -1,9 +1,11 @@
 package com.pubnub.api.endpoints;
 
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PNConfiguration;
 import com.pubnub.api.PubNub;
 import com.pubnub.api.PubNubException;
 import com.pubnub.api.models.consumer.history.PNDeleteMessagesResult;
+import com.pubnub.api.models.consumer.history.PNFetchMessagesResult;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -14,6 +16,8 @@ import java.util.Arrays;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 
@@ -61,6 +65,46 @@ public class DeleteMessagesEndpointTest extends TestHarness {
         assertNotNull(response);
     }
 
+    @Test
+    public void testSuccessInvalidatesHistoryCache() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/mychannel"))
+                .inScenario("delete").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\", " +
+                        "\"channels\": {\"mychannel\":[{\"message\":\"hihi\",\"timetoken\":\"1000\"}," +
+                        "{\"message\":\"Hey\",\"timetoken\":\"1001\"}]}}")));
+        stubFor(delete(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/mychannel"))
+                .inScenario("delete").willSetStateTo("deleted")
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\"}")));
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/mychannel"))
+                .inScenario("delete").whenScenarioStateIs("deleted")
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\", " +
+                        "\"channels\": {\"mychannel\":[{\"message\":\"Hey\",\"timetoken\":\"1001\"}]}}")));
+
+        PNConfiguration configuration = pubnub.getConfiguration().setHistoryCacheSize(100);
+        PubNub cachingPubNub = new PubNub(configuration);
+        try {
+            PNFetchMessagesResult before = cachingPubNub.fetchMessages()
+                    .channels(Arrays.asList("mychannel"))
+                    .sync();
+            cachingPubNub.deleteMessages()
+                    .channels(Arrays.asList("mychannel"))
+                    .sync();
+            PNFetchMessagesResult after = cachingPubNub.fetchMessages()
+                    .channels(Arrays.asList("mychannel"))
+                    .sync();
+
+            assert before != null && after != null;
+            assertEquals(2, before.getChannels().get("mychannel").size());
+            assertEquals(1, after.getChannels().get("mychannel").size());
+            assertEquals(Long.valueOf(1001L), after.getChannels().get("mychannel").get(0).getTimetoken());
+        } finally {
+            cachingPubNub.destroy();
+        }
+
+        verify(2, getRequestedFor(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/mychannel"))
+                .withQueryParam("end", absent()));
+    }
+
     @Test
     public void testFailure() throws PubNubException {
         stubFor(delete(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/mychannel,my_channel"))
@@ -2,14 +2,20 @@ package com.pubnub.api.endpoints;
 
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.pubnub.api.PNConfiguration;
 import com.pubnub.api.PubNub;
 import com.pubnub.api.PubNubException;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.models.consumer.PNStatus;
 import com.pubnub.api.models.consumer.history.PNFetchMessagesResult;
+import org.awaitility.Awaitility;
 import org.junit.*;
 
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
@@ -107,4 +113,67 @@ public class FetchMessagesEndpointTest extends TestHarness {
         Assert.assertEquals(response.getChannels().get("my_channel").size(), 1);
     }
 
+    @Test
+    public void testHistoryCacheFetchesOnlyNewerMessages() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/mychannel"))
+                .withQueryParam("end", absent())
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\", " +
+                        "\"channels\": {\"mychannel\":[{\"message\":\"hihi\",\"timetoken\":\"1000\"}," +
+                        "{\"message\":\"Hey\",\"timetoken\":\"1001\"}]}}")));
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/mychannel"))
+                .withQueryParam("end", equalTo("1002"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\", " +
+                        "\"channels\": {\"mychannel\":[{\"message\":\"new\",\"timetoken\":\"1005\"}]}}")));
+
+        PNConfiguration configuration = pubnub.getConfiguration().setHistoryCacheSize(100);
+        PubNub cachingPubNub = new PubNub(configuration);
+        try {
+            PNFetchMessagesResult first = cachingPubNub.fetchMessages()
+                    .channels(Arrays.asList("mychannel"))
+                    .sync();
+            PNFetchMessagesResult second = cachingPubNub.fetchMessages()
+                    .channels(Arrays.asList("mychannel"))
+                    .includeUUID(false)
+                    .sync();
+
+            assert first != null && second != null;
+            Assert.assertEquals(2, first.getChannels().get("mychannel").size());
+            Assert.assertEquals(3, second.getChannels().get("mychannel").size());
+            Assert.assertEquals(Long.valueOf(1005L), second.getChannels().get("mychannel").get(2).getTimetoken());
+            Assert.assertNull(second.getChannels().get("mychannel").get(0).getUuid());
+        } finally {
+            cachingPubNub.destroy();
+        }
+
+        verify(1, getRequestedFor(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/mychannel"))
+                .withQueryParam("end", absent()));
+        verify(1, getRequestedFor(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/mychannel"))
+                .withQueryParam("end", equalTo("1002"))
+                .withQueryParam("include_meta", equalTo("true")));
+    }
+
+    @Test
+    public void testHistoryCacheAsyncFailureCategory() {
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/mychannel"))
+                .willReturn(aResponse().withStatus(403).withBody("{\"status\": 403, \"error\": true, " +
+                        "\"message\": \"Forbidden\"}")));
+
+        PNConfiguration configuration = pubnub.getConfiguration().setHistoryCacheSize(100);
+        PubNub cachingPubNub = new PubNub(configuration);
+        AtomicReference<PNStatus> status = new AtomicReference<>();
+        try {
+            cachingPubNub.fetchMessages()
+                    .channels(Arrays.asList("mychannel"))
+                    .async((result, pnStatus) -> status.set(pnStatus));
+
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> status.get() != null);
+        } finally {
+            cachingPubNub.destroy();
+        }
+
+        Assert.assertTrue(status.get().isError());
+        Assert.assertEquals(PNStatusCategory.PNAccessDeniedCategory, status.get().getCategory());
+        Assert.assertEquals(403, status.get().getStatusCode());
+    }
+
 }
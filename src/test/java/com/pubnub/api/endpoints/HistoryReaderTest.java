@@ -0,0 +1,212 @@
+package com.pubnub.api.endpoints;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.callbacks.ChannelHistoryCallback;
+import com.pubnub.api.models.consumer.history.PNFetchMessageItem;
+import com.pubnub.api.models.consumer.history.PNHistoryReaderResult;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.assertEquals;
+
+public class HistoryReaderTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().port(PORT), false);
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws PubNubException {
+        pubnub = this.createPubNubInstance();
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+        pubnub = null;
+        wireMockRule.stop();
+    }
+
+    @Test
+    public void testFullPagesAreContinuedAndEmittedNewestFirst() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1,ch2"))
+                .withQueryParam("max", equalTo("25"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\", "
+                        + "\"channels\": {\"ch1\":" + messages(1000, 25) + ",\"ch2\":" + messages(2000, 2) + "}}")));
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1"))
+                .withQueryParam("start", equalTo("1000"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\", "
+                        + "\"channels\": {\"ch1\":" + messages(997, 3) + "}}")));
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch3"))
+                .withQueryParam("max", equalTo("100"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\", "
+                        + "\"channels\": {\"ch3\":" + messages(3000, 1) + "}}")));
+
+        final Map<String, List<Long>> emitted = new LinkedHashMap<>();
+        final List<String> read = new ArrayList<>();
+        final PNHistoryReaderResult result = pubnub.historyReader()
+                .channels(Arrays.asList("ch1", "ch2", "ch3"))
+                .channelsPerRequest(2)
+                .maxConcurrency(2)
+                .channelHistoryCallback(recorder(emitted, read))
+                .sync();
+
+        assertEquals(new PNHistoryReaderResult(3, 31, 3), result);
+        assertEquals(28, emitted.get("ch1").size());
+        assertEquals(Long.valueOf(1024), emitted.get("ch1").get(0));
+        assertEquals(Long.valueOf(997), emitted.get("ch1").get(27));
+        assertEquals(Arrays.asList(2001L, 2000L), emitted.get("ch2"));
+        assertEquals(Arrays.asList(3000L), emitted.get("ch3"));
+        assertEquals(3, read.size());
+        verify(1, getRequestedFor(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1")));
+    }
+
+    @Test
+    public void testReadStopsAtEnd() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1"))
+                .withQueryParam("end", equalTo("1000"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\", "
+                        + "\"channels\": {\"ch1\":" + messages(1000, 100) + "}}")));
+
+        final List<PNFetchMessageItem> emitted = new ArrayList<>();
+        final PNHistoryReaderResult result = pubnub.historyReader()
+                .channels(Arrays.asList("ch1"))
+                .end(1000L)
+                .channelHistoryCallback((channel, items) -> emitted.addAll(items))
+                .sync();
+
+        assertEquals(new PNHistoryReaderResult(1, 100, 1), result);
+        assertEquals(100, emitted.size());
+    }
+
+    @Test
+    public void testAscendingReadPagesForwardFromEnd() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1"))
+                .withQueryParam("end", equalTo("1000"))
+                .withQueryParam("start", absent())
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\", "
+                        + "\"channels\": {\"ch1\":" + messages(1000, 100) + "}}")));
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1"))
+                .withQueryParam("end", equalTo("1100"))
+                .withQueryParam("start", absent())
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\", "
+                        + "\"channels\": {\"ch1\":" + messages(1100, 100) + "}}")));
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1"))
+                .withQueryParam("end", equalTo("1200"))
+                .withQueryParam("start", absent())
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\", "
+                        + "\"channels\": {\"ch1\":" + messages(1200, 30) + "}}")));
+
+        final Map<String, List<Long>> emitted = new LinkedHashMap<>();
+        final List<String> read = new ArrayList<>();
+        final List<Integer> pageSizes = new ArrayList<>();
+        final PNHistoryReaderResult result = pubnub.historyReader()
+                .channels(Arrays.asList("ch1"))
+                .end(1000L)
+                .start(1220L)
+                .ascending(true)
+                .channelHistoryCallback(new ChannelHistoryCallback() {
+                    private final ChannelHistoryCallback recorder = recorder(emitted, read);
+
+                    @Override
+                    public void onChannelHistory(@NotNull String channel, @NotNull List<PNFetchMessageItem> items) {
+                        pageSizes.add(items.size());
+                        recorder.onChannelHistory(channel, items);
+                    }
+
+                    @Override
+                    public void onChannelRead(@NotNull String channel) {
+                        recorder.onChannelRead(channel);
+                    }
+                })
+                .sync();
+
+        assertEquals(new PNHistoryReaderResult(1, 220, 3), result);
+        assertEquals(Arrays.asList(100, 100, 20), pageSizes);
+        final List<Long> timetokens = emitted.get("ch1");
+        for (int i = 0; i < timetokens.size(); i++) {
+            assertEquals(Long.valueOf(1000 + i), timetokens.get(i));
+        }
+        assertEquals(Collections.singletonList("ch1"), read);
+    }
+
+    @Test(expected = PubNubException.class)
+    public void testAscendingReadNeedsEnd() throws PubNubException {
+        pubnub.historyReader()
+                .channels(Arrays.asList("ch1"))
+                .ascending(true)
+                .channelHistoryCallback((channel, items) -> {
+                })
+                .sync();
+    }
+
+    @Test(expected = PubNubException.class, timeout = 10000)
+    public void testFetchThrowingFailsTheRead() throws PubNubException {
+        // no channels in the response, which makes FetchMessages throw while creating its result
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\"}")));
+
+        pubnub.historyReader()
+                .channels(Arrays.asList("ch1"))
+                .channelHistoryCallback((channel, items) -> {
+                })
+                .sync();
+    }
+
+    @Test(expected = PubNubException.class)
+    public void testMissingCallback() throws PubNubException {
+        pubnub.historyReader().channels(Arrays.asList("ch1")).sync();
+    }
+
+    private static ChannelHistoryCallback recorder(final Map<String, List<Long>> emitted, final List<String> read) {
+        return new ChannelHistoryCallback() {
+            @Override
+            public void onChannelHistory(@NotNull String channel, @NotNull List<PNFetchMessageItem> items) {
+                final List<Long> timetokens = emitted.computeIfAbsent(channel, key -> new ArrayList<>());
+                for (final PNFetchMessageItem item : items) {
+                    timetokens.add(item.getTimetoken());
+                }
+            }
+
+            @Override
+            public void onChannelRead(@NotNull String channel) {
+                read.add(channel);
+            }
+        };
+    }
+
+    private static String messages(final long firstTimetoken, final int count) {
+        final StringBuilder json = new StringBuilder("[");
+        // newest first, the way the server returns them
+        for (int i = count - 1; i >= 0; i--) {
+            json.append("{\"message\":\"m\",\"timetoken\":\"").append(firstTimetoken + i).append("\"}");
+            if (i > 0) {
+                json.append(',');
+            }
+        }
+        return json.append(']').toString();
+    }
+}
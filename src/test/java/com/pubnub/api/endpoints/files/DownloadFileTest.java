@@ -0,0 +1,217 @@
+package com.pubnub.api.endpoints.files;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.files.PNDownloadFileResult;
+import com.pubnub.api.vendor.FileEncryptionUtil;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.delete;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static com.pubnub.api.PubNubUtil.readBytes;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DownloadFileTest extends TestHarness {
+    private static final String FILE_PATH = "/v1/files/mySubscribeKey/channels/ch/files/id/name.txt";
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().port(PORT), false);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PubNub pubnub;
+    private Path target;
+
+    @Before
+    public void beforeEach() throws PubNubException {
+        pubnub = this.createPubNubInstance();
+        target = folder.getRoot().toPath().resolve("name.txt");
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+        pubnub = null;
+        wireMockRule.stop();
+    }
+
+    @Test
+    public void testDownloadToPath() throws PubNubException, IOException {
+        stubFor(get(urlPathEqualTo(FILE_PATH)).withHeader("Range", absent())
+                .willReturn(aResponse().withBody(CONTENT)));
+
+        final PNDownloadFileResult result = download().expectedSize((long) CONTENT.length).sync();
+
+        assertEquals(target, result.getPath());
+        assertNull(result.getByteStream());
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testResumeFromPartialFile() throws PubNubException, IOException {
+        Files.write(target, Arrays.copyOf(CONTENT, 5));
+        stubFor(get(urlPathEqualTo(FILE_PATH)).withHeader("Range", equalTo("bytes=5-"))
+                .willReturn(aResponse().withStatus(206)
+                        .withHeader("Content-Range", "bytes 5-19/20")
+                        .withBody(Arrays.copyOfRange(CONTENT, 5, CONTENT.length))));
+
+        download().resume(true).sync();
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testResumeOfCompleteFile() throws PubNubException, IOException {
+        Files.write(target, CONTENT);
+        stubFor(get(urlPathEqualTo(FILE_PATH)).withHeader("Range", equalTo("bytes=20-"))
+                .willReturn(aResponse().withStatus(416).withHeader("Content-Range", "bytes */20")));
+
+        download().resume(true).sync();
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testServerIgnoringRangeOverwritesFile() throws PubNubException, IOException {
+        Files.write(target, "stale".getBytes(StandardCharsets.UTF_8));
+        stubFor(get(urlPathEqualTo(FILE_PATH)).willReturn(aResponse().withBody(CONTENT)));
+
+        download().resume(true).sync();
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testEncryptedDownloadIsDecryptedToPath() throws PubNubException, IOException {
+        stubFor(get(urlPathEqualTo(FILE_PATH)).withHeader("Range", absent())
+                .willReturn(aResponse().withBody(FileEncryptionUtil.encryptToBytes("enigma", CONTENT))));
+        Files.write(target, Arrays.copyOf(CONTENT, 5));
+
+        download().cipherKey("enigma").resume(true).sync();
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+    }
+
+    @Test(expected = PubNubException.class)
+    public void testSizeMismatchFails() throws PubNubException {
+        stubFor(get(urlPathEqualTo(FILE_PATH)).willReturn(aResponse().withBody(CONTENT)));
+
+        download().expectedSize(CONTENT.length + 1L).sync();
+    }
+
+    @Test
+    public void testCachedFileIsServedUntilDeleted() throws PubNubException, IOException {
+        pubnub.getConfiguration().setFileCacheDirectory(folder.newFolder("cache").toPath());
+        final PubNub cachingPubNub = new PubNub(pubnub.getConfiguration());
+        stubFor(get(urlPathEqualTo(FILE_PATH)).willReturn(aResponse().withBody(CONTENT)));
+        stubFor(delete(urlPathEqualTo(FILE_PATH)).willReturn(aResponse().withStatus(200)));
+
+        try {
+            for (int i = 0; i < 2; i++) {
+                try (InputStream inputStream = cachingPubNub.downloadFile().channel("ch").fileName("name.txt")
+                        .fileId("id").sync().getByteStream()) {
+                    assertArrayEquals(CONTENT, readBytes(inputStream));
+                }
+            }
+            cachingPubNub.downloadFile().channel("ch").fileName("name.txt").fileId("id").toPath(target).sync();
+            assertArrayEquals(CONTENT, Files.readAllBytes(target));
+            verify(1, getRequestedFor(urlPathEqualTo(FILE_PATH)));
+
+            cachingPubNub.deleteFile().channel("ch").fileName("name.txt").fileId("id").sync();
+            cachingPubNub.downloadFile().channel("ch").fileName("name.txt").fileId("id").toPath(target).sync();
+            verify(2, getRequestedFor(urlPathEqualTo(FILE_PATH)));
+        } finally {
+            cachingPubNub.destroy();
+        }
+    }
+
+    @Test
+    public void testCachedFileIsServedAsyncOffTheCallingThread() throws PubNubException, IOException {
+        pubnub.getConfiguration().setFileCacheDirectory(folder.newFolder("cache").toPath());
+        final PubNub cachingPubNub = new PubNub(pubnub.getConfiguration());
+        stubFor(get(urlPathEqualTo(FILE_PATH)).willReturn(aResponse().withBody(CONTENT)));
+        final AtomicReference<Thread> callbackThread = new AtomicReference<>();
+        final AtomicReference<byte[]> received = new AtomicReference<>();
+
+        try {
+            cachingPubNub.downloadFile().channel("ch").fileName("name.txt").fileId("id").sync().getByteStream()
+                    .close();
+            cachingPubNub.downloadFile().channel("ch").fileName("name.txt").fileId("id").async((result, status) -> {
+                try (InputStream inputStream = result.getByteStream()) {
+                    received.set(readBytes(inputStream));
+                } catch (IOException e) {
+                    received.set(new byte[0]);
+                }
+                callbackThread.set(Thread.currentThread());
+            });
+
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> callbackThread.get() != null);
+            assertNotSame(Thread.currentThread(), callbackThread.get());
+            assertArrayEquals(CONTENT, received.get());
+            verify(1, getRequestedFor(urlPathEqualTo(FILE_PATH)));
+        } finally {
+            cachingPubNub.destroy();
+        }
+    }
+
+    @Test
+    public void testCachedAsyncDownloadReportsInvalidParamsAsBadRequest() throws PubNubException, IOException {
+        pubnub.getConfiguration().setFileCacheDirectory(folder.newFolder("cache").toPath());
+        final PubNub cachingPubNub = new PubNub(pubnub.getConfiguration());
+        final AtomicReference<PNStatus> received = new AtomicReference<>();
+
+        try {
+            cachingPubNub.downloadFile().channel("ch").fileName("name.txt").async((result, status) -> {
+                received.set(status);
+            });
+
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> received.get() != null);
+            assertTrue(received.get().isError());
+            assertEquals(PNStatusCategory.PNBadRequestCategory, received.get().getCategory());
+            verify(0, getRequestedFor(urlPathEqualTo(FILE_PATH)));
+        } finally {
+            cachingPubNub.destroy();
+        }
+    }
+
+    private DownloadFile download() {
+        return pubnub.downloadFile()
+                .channel("ch")
+                .fileName("name.txt")
+                .fileId("id")
+                .toPath(target);
+    }
+}
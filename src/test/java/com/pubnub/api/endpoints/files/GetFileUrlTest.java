@@ -99,6 +99,23 @@ public class GetFileUrlTest {
         assertThat(queryParamNames, Matchers.containsInAnyOrder("auth", "signature", "timestamp"));
     }
 
+    @Test
+    public void urlIsReusedUntilTheTokenChanges() throws PubNubException {
+        //given
+        PubNub pubnub = new PubNub(withSecret(withAuth(config())));
+        String url = pubnub.getFileUrl().channel(channel).fileName(fileName).fileId(fileId).sync().getUrl();
+
+        //when
+        String reused = pubnub.getFileUrl().channel(channel).fileName(fileName).fileId(fileId).sync().getUrl();
+        pubnub.setToken("token");
+        String withToken = pubnub.getFileUrl().channel(channel).fileName(fileName).fileId(fileId).sync().getUrl();
+
+        //then
+        assertEquals(url, reused);
+        assertEquals("ak", HttpUrl.get(url).queryParameter("auth"));
+        assertEquals("token", HttpUrl.get(withToken).queryParameter("auth"));
+    }
+
     private PNConfiguration config() throws PubNubException {
         PNConfiguration config = new PNConfiguration(new UserId("pn-" + UUID.randomUUID()));
         config.setPublishKey("pk");
@@ -0,0 +1,269 @@
+package com.pubnub.api.endpoints.files;
+
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.callbacks.FileBatchProgressCallback;
+import com.pubnub.api.callbacks.PNCallback;
+import com.pubnub.api.endpoints.remoteaction.RemoteAction;
+import com.pubnub.api.endpoints.remoteaction.TestRemoteAction;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.files.PNBaseFile;
+import com.pubnub.api.models.consumer.files.PNFileBatchItemResult;
+import com.pubnub.api.models.consumer.files.PNFileBatchResult;
+import com.pubnub.api.models.consumer.files.PNPublishFileMessageResult;
+import com.pubnub.api.models.server.files.FileUploadRequestDetails;
+import com.pubnub.api.models.server.files.FormField;
+import org.awaitility.Awaitility;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SendFileBatchTest {
+    private static final int FILES = 12;
+    private static final int MAX_CONCURRENT_UPLOADS = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final GenerateUploadUrl.Factory generateUploadUrlFactory = mock(GenerateUploadUrl.Factory.class);
+    private final PublishFileMessage.Builder publishFileMessageBuilder = mock(PublishFileMessage.Builder.class,
+            RETURNS_DEEP_STUBS);
+    private final UploadFile.Factory uploadFileFactory = mock(UploadFile.Factory.class);
+
+    @Test
+    public void uploadsAreBoundedAndEveryFileIsPublished() throws PubNubException {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        when(generateUploadUrlFactory.create(any(), any())).thenReturn(TestRemoteAction.successful(details()));
+        when(uploadFileFactory.create(any(), any(), any(), any())).thenAnswer(invocation -> new UploadAction() {
+            @Override
+            public Void sync() {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return null;
+            }
+        });
+        publishes(SendFileTest.AlwaysSuccessfulPublishFileMessage.create(new PNPublishFileMessageResult(1337L)));
+
+        final SendFileBatch batch = batch().maxConcurrentUploads(MAX_CONCURRENT_UPLOADS);
+        for (int i = 0; i < FILES; i++) {
+            batch.file("channel", "file" + i, new ByteArrayInputStream(new byte[]{1, 2, 3}), 3);
+        }
+        final PNFileBatchResult result = batch.sync();
+
+        assertEquals(FILES, result.getSuccessCount());
+        assertEquals(0, result.getFailureCount());
+        assertTrue(maxRunning.get() <= MAX_CONCURRENT_UPLOADS);
+        for (int i = 0; i < FILES; i++) {
+            final PNFileBatchItemResult item = result.getItems().get(i);
+            assertEquals(i, item.getIndex());
+            assertEquals("file" + i, item.getFileName());
+            assertEquals(Long.valueOf(1337L), item.getTimetoken());
+            assertEquals("id", item.getFile().getId());
+            assertNull(item.getFailedStage());
+        }
+    }
+
+    @Test
+    public void failedStagesAreRetriedAndReportedPerFile() throws PubNubException, IOException {
+        final Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+        when(generateUploadUrlFactory.create(any(), any())).thenReturn(TestRemoteAction.successful(details()));
+        when(uploadFileFactory.create(any(), any(), any(), any())).thenAnswer(invocation ->
+                failedOnce.add(invocation.getArgument(0)) ? failingAction(503)
+                        : TestRemoteAction.successful(null));
+        publishes(SendFileTest.FailingPublishFileMessage.create(new PNPublishFileMessageResult(1L), 10));
+
+        final PNFileBatchResult result = batch()
+                .file(SendFileBatch.Entry.of("channel", "fromPath", folder.newFile().toPath()).message("msg"))
+                .file("channel", "fromStream", new ByteArrayInputStream(new byte[0]), 0)
+                .sync();
+
+        assertEquals(2, result.getFailureCount());
+        final PNFileBatchItemResult fromPath = result.getItems().get(0);
+        assertEquals(PNFileBatchItemResult.Stage.PUBLISH_FILE_MESSAGE, fromPath.getFailedStage());
+        assertEquals(1, fromPath.getUploadUrlAttempts());
+        assertEquals(2, fromPath.getUploadAttempts());
+        assertEquals(3, fromPath.getPublishAttempts());
+
+        final PNFileBatchItemResult fromStream = result.getItems().get(1);
+        assertFalse(fromStream.isSuccess());
+        assertEquals(PNFileBatchItemResult.Stage.UPLOAD, fromStream.getFailedStage());
+        // content read from a stream cannot be uploaded twice
+        assertEquals(1, fromStream.getUploadAttempts());
+        assertEquals(0, fromStream.getPublishAttempts());
+    }
+
+    @Test
+    public void clientErrorsAreNotRetriedAndStreamsAreClosed() throws PubNubException {
+        when(generateUploadUrlFactory.create(any(), any())).thenAnswer(invocation -> failingAction(403));
+        final AtomicInteger closed = new AtomicInteger();
+        final InputStream stream = new ByteArrayInputStream(new byte[]{1, 2, 3}) {
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        };
+
+        final PNFileBatchResult result = batch()
+                .file("channel", "fromStream", stream, 3)
+                .sync();
+
+        final PNFileBatchItemResult item = result.getItems().get(0);
+        assertEquals(PNFileBatchItemResult.Stage.GENERATE_UPLOAD_URL, item.getFailedStage());
+        assertEquals(1, item.getUploadUrlAttempts());
+        assertEquals(403, item.getError().getStatusCode());
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    public void progressIsReportedAndBandwidthIsShared() throws PubNubException, IOException {
+        final byte[] content = new byte[4096];
+        when(generateUploadUrlFactory.create(any(), any())).thenReturn(TestRemoteAction.successful(details()));
+        when(uploadFileFactory.create(any(), any(), any(), any())).thenAnswer(invocation -> new UploadAction() {
+            @Override
+            public Void sync() throws PubNubException {
+                final FileUploadContent uploaded = invocation.getArgument(1);
+                final byte[] buffer = new byte[1024];
+                try (InputStream inputStream = uploaded.open()) {
+                    while (inputStream.read(buffer) != -1) {
+                        continue;
+                    }
+                } catch (IOException e) {
+                    throw PubNubException.builder().errormsg(e.getMessage()).build();
+                }
+                return null;
+            }
+        });
+        publishes(SendFileTest.AlwaysSuccessfulPublishFileMessage.create(new PNPublishFileMessageResult(1L)));
+        final AtomicLong progress = new AtomicLong();
+        final AtomicInteger completed = new AtomicInteger();
+
+        final long start = System.nanoTime();
+        final PNFileBatchResult result = batch()
+                .maxBytesPerSecond(content.length * 4)
+                .progressCallback(new FileBatchProgressCallback() {
+                    @Override
+                    public void uploadProgress(int index, @NotNull String fileName, long bytesSent, long totalBytes) {
+                        assertEquals(content.length, totalBytes);
+                        progress.addAndGet(1024);
+                    }
+
+                    @Override
+                    public void fileCompleted(@NotNull PNFileBatchItemResult result) {
+                        completed.incrementAndGet();
+                    }
+                })
+                .file("channel", "a", new ByteArrayInputStream(content), content.length)
+                .file("channel", "b", new ByteArrayInputStream(content), content.length)
+                .sync();
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(2, result.getSuccessCount());
+        assertEquals(2, completed.get());
+        assertEquals(2L * content.length, progress.get());
+        // 8 KiB at 16 KiB/s, the first chunk is sent right away
+        assertTrue("took " + elapsedMillis + " ms", elapsedMillis >= 400);
+    }
+
+    @Test(expected = PubNubException.class)
+    public void emptyBatchIsRejected() throws PubNubException {
+        batch().sync();
+    }
+
+    @Test
+    public void emptyBatchIsReportedAsBadRequest() {
+        final AtomicReference<PNStatus> status = new AtomicReference<>();
+        batch().async((result, pnStatus) -> status.set(pnStatus));
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> status.get() != null);
+        assertTrue(status.get().isError());
+        assertEquals(PNStatusCategory.PNBadRequestCategory, status.get().getCategory());
+        assertEquals(PNOperationType.PNFileAction, status.get().getOperation());
+    }
+
+    private SendFileBatch batch() {
+        return new SendFileBatch(generateUploadUrlFactory,
+                uploadFileFactory,
+                publishFileMessageBuilder,
+                Executors.newSingleThreadExecutor(),
+                3);
+    }
+
+    private void publishes(PublishFileMessage publishFileMessage) {
+        when(publishFileMessageBuilder.channel(any()).fileName(any()).fileId(any())).thenReturn(publishFileMessage);
+    }
+
+    private static <T> RemoteAction<T> failingAction(final int statusCode) {
+        return new RemoteAction<T>() {
+            @Override
+            public T sync() throws PubNubException {
+                throw PubNubException.builder().statusCode(statusCode).build();
+            }
+
+            @Override
+            public void async(@NotNull PNCallback<T> callback) {
+            }
+
+            @Override
+            public void retry() {
+            }
+
+            @Override
+            public void silentCancel() {
+            }
+        };
+    }
+
+    private static FileUploadRequestDetails details() {
+        return new FileUploadRequestDetails(200,
+                new PNBaseFile("id", "name"),
+                "url",
+                "POST",
+                Instant.now().plusSeconds(50).toString(),
+                new FormField("key", "value"),
+                Collections.emptyList());
+    }
+
+    private abstract static class UploadAction implements RemoteAction<Void> {
+        @Override
+        public void async(@NotNull PNCallback<Void> callback) {
+        }
+
+        @Override
+        public void retry() {
+        }
+
+        @Override
+        public void silentCancel() {
+        }
+    }
+}
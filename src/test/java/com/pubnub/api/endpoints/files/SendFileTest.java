@@ -229,7 +229,7 @@ public class SendFileTest implements TestsWithFiles {
         @Override
         public @Nullable PNPublishFileMessageResult sync() throws PubNubException {
             if (numberOfFails.getAndAdd(1) < numberOfFailsBeforeSuccess) {
-                throw PubNubException.builder().build();
+                throw PubNubException.builder().statusCode(500).build();
             }
             return result;
         }
@@ -3,9 +3,12 @@ package com.pubnub.api.endpoints.files;
 import com.pubnub.api.PubNubException;
 import com.pubnub.api.models.server.files.FormField;
 import com.pubnub.api.services.S3Service;
+import com.pubnub.api.vendor.FileEncryptionUtil;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
+import okio.Buffer;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Assert;
 import org.junit.Rule;
@@ -16,17 +19,23 @@ import org.mockito.stubbing.Answer;
 import retrofit2.Call;
 import retrofit2.Response;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.List;
 import java.util.Scanner;
 import java.util.function.Supplier;
 
 import static com.pubnub.api.PubNubUtil.readBytes;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -36,7 +45,7 @@ import static org.mockito.Mockito.when;
 
 public class UploadFileTest implements TestsWithFiles {
     private final S3Service s3Service = mock(S3Service.class);
-    private final ArgumentCaptor<MultipartBody> requestBodyArgumentCaptor = ArgumentCaptor.forClass(MultipartBody.class);
+    private final ArgumentCaptor<FileUploadForm> requestBodyArgumentCaptor = ArgumentCaptor.forClass(FileUploadForm.class);
 
     @SuppressWarnings("unchecked")
     @NotNull
@@ -82,7 +91,7 @@ public class UploadFileTest implements TestsWithFiles {
             verify(s3Service, times(1)).upload(any(), requestBodyArgumentCaptor.capture());
         }
 
-        MultipartBody capturedBody = requestBodyArgumentCaptor.getValue();
+        MultipartBody capturedBody = requestBodyArgumentCaptor.getValue().getForm();
 
         assertEquals("form-data; name=\"key\"", capturedBody.part(0).headers().get("Content-Disposition"));
         assertPartExist("other", capturedBody.parts());
@@ -114,7 +123,7 @@ public class UploadFileTest implements TestsWithFiles {
             verify(s3Service, times(1)).upload(any(), requestBodyArgumentCaptor.capture());
         }
 
-        MultipartBody capturedBody = requestBodyArgumentCaptor.getValue();
+        MultipartBody capturedBody = requestBodyArgumentCaptor.getValue().getForm();
 
         assertPartExist("file", capturedBody.parts());
         MultipartBody.Part filePart = getPart("file", capturedBody.parts());
@@ -144,7 +153,7 @@ public class UploadFileTest implements TestsWithFiles {
             verify(s3Service, times(1)).upload(any(), requestBodyArgumentCaptor.capture());
         }
 
-        MultipartBody capturedBody = requestBodyArgumentCaptor.getValue();
+        MultipartBody capturedBody = requestBodyArgumentCaptor.getValue().getForm();
 
         assertPartExist("file", capturedBody.parts());
         MultipartBody.Part filePart = getPart("file", capturedBody.parts());
@@ -178,6 +187,96 @@ public class UploadFileTest implements TestsWithFiles {
         }
     }
 
+    @Test
+    public void fileIsStreamedEncryptedWithKnownLength() throws PubNubException, IOException {
+        //given
+        File file = getTemporaryFile("streamed.txt", "first line", "second line of the file");
+        UploadFile uploadFile = new UploadFile(s3Service,
+                file.getName(),
+                FileUploadContent.of(file.toPath()),
+                "enigma",
+                new FormField("key", "keyValue"),
+                Collections.emptyList(),
+                "https://s3.aws.com/bucket"
+        );
+        when(s3Service.upload(any(), any())).then(mockRetrofitSuccessfulCall(() -> null));
+
+        //when
+        uploadFile.sync();
+
+        //then
+        verify(s3Service, times(1)).upload(any(), requestBodyArgumentCaptor.capture());
+        RequestBody fileBody = getPart("file", requestBodyArgumentCaptor.getValue().getForm().parts()).body();
+        assertEquals(FileEncryptionUtil.encryptedLength(file.length()), fileBody.contentLength());
+
+        Buffer sent = new Buffer();
+        fileBody.writeTo(sent);
+        assertEquals(fileBody.contentLength(), sent.size());
+        assertArrayEquals(Files.readAllBytes(file.toPath()),
+                readBytes(FileEncryptionUtil.decrypt("enigma", sent.inputStream())));
+    }
+
+    @Test
+    public void streamOfUnknownLengthIsSentOnce() throws PubNubException, IOException {
+        //given
+        byte[] content = "streamed content".getBytes(StandardCharsets.UTF_8);
+        UploadFile uploadFile = new UploadFile(s3Service,
+                "stream.txt",
+                FileUploadContent.of(new ByteArrayInputStream(content), -1),
+                null,
+                new FormField("key", "keyValue"),
+                Collections.emptyList(),
+                "https://s3.aws.com/bucket"
+        );
+        when(s3Service.upload(any(), any())).then(mockRetrofitSuccessfulCall(() -> null));
+
+        //when
+        uploadFile.sync();
+
+        //then
+        verify(s3Service, times(1)).upload(any(), requestBodyArgumentCaptor.capture());
+        MultipartBody capturedBody = requestBodyArgumentCaptor.getValue().getForm();
+        RequestBody fileBody = getPart("file", capturedBody.parts()).body();
+        assertEquals(-1, fileBody.contentLength());
+        assertEquals(-1, capturedBody.contentLength());
+        assertTrue(fileBody.isOneShot());
+        assertTrue(requestBodyArgumentCaptor.getValue().isOneShot());
+
+        Buffer sent = new Buffer();
+        fileBody.writeTo(sent);
+        assertArrayEquals(content, sent.readByteArray());
+    }
+
+    @Test
+    public void formOfAFileCanBeWrittenTwice() throws PubNubException, IOException {
+        //given
+        File file = getTemporaryFile("retried.txt", "content sent again on retry");
+        UploadFile uploadFile = new UploadFile(s3Service,
+                file.getName(),
+                FileUploadContent.of(file.toPath()),
+                "enigma",
+                new FormField("key", "keyValue"),
+                Collections.emptyList(),
+                "https://s3.aws.com/bucket"
+        );
+        when(s3Service.upload(any(), any())).then(mockRetrofitSuccessfulCall(() -> null));
+
+        //when
+        uploadFile.sync();
+
+        //then
+        verify(s3Service, times(1)).upload(any(), requestBodyArgumentCaptor.capture());
+        FileUploadForm form = requestBodyArgumentCaptor.getValue();
+        assertFalse(form.isOneShot());
+
+        Buffer first = new Buffer();
+        form.writeTo(first);
+        Buffer second = new Buffer();
+        form.writeTo(second);
+        assertEquals(form.contentLength(), first.size());
+        assertEquals(first.readByteString(), second.readByteString());
+    }
+
     private String readToString(InputStream inputStream) {
         Scanner s = new Scanner(inputStream).useDelimiter("\\A");
         return s.hasNext() ? s.next() : "";
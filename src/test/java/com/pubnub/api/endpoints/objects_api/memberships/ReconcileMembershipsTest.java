@@ -0,0 +1,248 @@
+package com.pubnub.api.endpoints.objects_api.memberships;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.endpoints.objects_api.BaseObjectApiTest;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.managers.token_manager.TokenManager;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.objects_api.PNReconcileResult;
+import com.pubnub.api.models.consumer.objects_api.membership.PNChannelMembership;
+import com.pubnub.api.models.consumer.objects_api.membership.PNMembership;
+import com.pubnub.api.models.server.objects_api.EntityArrayEnvelope;
+import com.pubnub.api.models.server.objects_api.PatchMembershipPayload;
+import com.pubnub.api.services.UUIDMetadataService;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.stubbing.Answer;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReconcileMembershipsTest extends BaseObjectApiTest {
+    private static final String CURRENT_MEMBERSHIPS = "{\"status\":200,\"data\":["
+            + "{\"channel\":{\"id\":\"unchanged\"},\"custom\":{\"level\":1}},"
+            + "{\"channel\":{\"id\":\"updated\"}},"
+            + "{\"channel\":{\"id\":\"removed\"}}]}";
+
+    @Mock protected UUIDMetadataService uuidMetadataServiceMock;
+    @Captor private ArgumentCaptor<PatchMembershipPayload> patchMembershipPayloadArgumentCaptor;
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+    @Before
+    public void retrofitMocks() {
+        when(pubNubMock.getMapper()).thenReturn(new MapperManager());
+        when(retrofitManagerMock.getTransactionClientExecutorService()).thenReturn(executorService);
+        when(retrofitManagerMock.getUuidMetadataService()).thenReturn(uuidMetadataServiceMock);
+        when(uuidMetadataServiceMock.getMemberships(eq(testSubscriptionKey), eq(testUUID), any()))
+                .thenAnswer(mockRetrofitSuccessfulCall(() -> new Gson().<EntityArrayEnvelope<PNMembership>>fromJson(
+                        CURRENT_MEMBERSHIPS, new TypeToken<EntityArrayEnvelope<PNMembership>>() {
+                        }.getType())));
+    }
+
+    @After
+    public void shutdownExecutor() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void reconcileSetsOnlyTheDiff() throws PubNubException {
+        when(uuidMetadataServiceMock.patchMembership(eq(testSubscriptionKey), eq(testUUID), any(), any()))
+                .thenAnswer(mockRetrofitSuccessfulCall(EntityArrayEnvelope::new));
+        final Collection<PNChannelMembership> desired = Arrays.asList(
+                PNChannelMembership.channelWithCustom("unchanged", level(1)),
+                PNChannelMembership.channelWithCustom("updated", level(2)),
+                PNChannelMembership.channel("added"));
+
+        final PNReconcileResult result = ReconcileMemberships.builder(pubNubMock, telemetryManagerMock,
+                        retrofitManagerMock, new TokenManager())
+                .channelMemberships(desired)
+                .sync();
+
+        assertThat(result, is(new PNReconcileResult(2, 1, 1, 1)));
+        verify(uuidMetadataServiceMock, times(1))
+                .patchMembership(eq(testSubscriptionKey), eq(testUUID),
+                        patchMembershipPayloadArgumentCaptor.capture(), any());
+        final PatchMembershipPayload payload = patchMembershipPayloadArgumentCaptor.getValue();
+        assertThat(channelIds(payload.getSet()), containsInAnyOrder("updated", "added"));
+        assertThat(channelIds(payload.getDelete()), containsInAnyOrder("removed"));
+    }
+
+    @Test
+    public void reconcileSplitsDiffIntoChunks() throws PubNubException {
+        when(uuidMetadataServiceMock.patchMembership(eq(testSubscriptionKey), eq(testUUID), any(), any()))
+                .thenAnswer(mockRetrofitSuccessfulCall(EntityArrayEnvelope::new));
+        final Collection<PNChannelMembership> desired = Arrays.asList(
+                PNChannelMembership.channel("a"),
+                PNChannelMembership.channel("b"),
+                PNChannelMembership.channel("c"));
+
+        final PNReconcileResult result = ReconcileMemberships.builder(pubNubMock, telemetryManagerMock,
+                        retrofitManagerMock, new TokenManager())
+                .channelMemberships(desired)
+                .chunkSize(2)
+                .maxConcurrency(2)
+                .sync();
+
+        assertThat(result, is(new PNReconcileResult(3, 3, 0, 3)));
+        verify(uuidMetadataServiceMock, times(3))
+                .patchMembership(eq(testSubscriptionKey), eq(testUUID), any(), any());
+    }
+
+    @Test
+    public void nothingIsPatchedWhenInSync() throws PubNubException {
+        final Collection<PNChannelMembership> desired = Arrays.asList(
+                PNChannelMembership.channelWithCustom("unchanged", level(1)),
+                PNChannelMembership.channel("updated"),
+                PNChannelMembership.channel("removed"));
+
+        final PNReconcileResult result = ReconcileMemberships.builder(pubNubMock, telemetryManagerMock,
+                        retrofitManagerMock, new TokenManager())
+                .channelMemberships(desired)
+                .sync();
+
+        assertThat(result, is(new PNReconcileResult(0, 0, 3, 0)));
+        verify(uuidMetadataServiceMock, never()).patchMembership(any(), any(), any(), any());
+    }
+
+    @Test
+    public void serverErrorsAreRetried() {
+        when(uuidMetadataServiceMock.patchMembership(eq(testSubscriptionKey), eq(testUUID), any(), any()))
+                .thenAnswer(mockRetrofitErrorCall(503));
+
+        try {
+            ReconcileMemberships.builder(pubNubMock, telemetryManagerMock, retrofitManagerMock, new TokenManager())
+                    .channelMemberships(Arrays.asList(PNChannelMembership.channel("added")))
+                    .maxRetries(3)
+                    .sync();
+            fail();
+        } catch (PubNubException e) {
+            assertThat(e.getStatusCode(), is(503));
+        }
+        verify(uuidMetadataServiceMock, times(3)).patchMembership(any(), any(), any(), any());
+    }
+
+    @Test
+    public void clientErrorsAreNotRetried() {
+        when(uuidMetadataServiceMock.patchMembership(eq(testSubscriptionKey), eq(testUUID), any(), any()))
+                .thenAnswer(mockRetrofitErrorCall(403));
+
+        try {
+            ReconcileMemberships.builder(pubNubMock, telemetryManagerMock, retrofitManagerMock, new TokenManager())
+                    .channelMemberships(Arrays.asList(PNChannelMembership.channel("added")))
+                    .maxRetries(3)
+                    .sync();
+            fail();
+        } catch (PubNubException e) {
+            assertThat(e.getStatusCode(), is(403));
+        }
+        verify(uuidMetadataServiceMock, times(1)).patchMembership(any(), any(), any(), any());
+    }
+
+    @Test
+    public void asyncFailureReportsCategory() {
+        when(uuidMetadataServiceMock.patchMembership(eq(testSubscriptionKey), eq(testUUID), any(), any()))
+                .thenAnswer(mockRetrofitErrorCall(403));
+        final AtomicReference<PNStatus> status = new AtomicReference<>();
+
+        ReconcileMemberships.builder(pubNubMock, telemetryManagerMock, retrofitManagerMock, new TokenManager())
+                .channelMemberships(Arrays.asList(PNChannelMembership.channel("added")))
+                .async((result, pnStatus) -> status.set(pnStatus));
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> status.get() != null);
+        assertThat(status.get().isError(), is(true));
+        assertThat(status.get().getCategory(), is(PNStatusCategory.PNAccessDeniedCategory));
+        assertThat(status.get().getStatusCode(), is(403));
+    }
+
+    @Test
+    public void rateLimitedChunksWaitForRetryAfter() throws PubNubException {
+        when(uuidMetadataServiceMock.patchMembership(eq(testSubscriptionKey), eq(testUUID), any(), any()))
+                .thenAnswer(mockRetrofitRateLimitedCall(1))
+                .thenAnswer(mockRetrofitSuccessfulCall(EntityArrayEnvelope::new));
+
+        final long startMillis = System.currentTimeMillis();
+        final PNReconcileResult result = ReconcileMemberships.builder(pubNubMock, telemetryManagerMock,
+                        retrofitManagerMock, new TokenManager())
+                .channelMemberships(Arrays.asList(PNChannelMembership.channel("added")))
+                .maxRetries(3)
+                .sync();
+
+        assertThat(result, is(new PNReconcileResult(1, 3, 0, 1)));
+        assertThat(System.currentTimeMillis() - startMillis >= 1000, is(true));
+        verify(uuidMetadataServiceMock, times(2)).patchMembership(any(), any(), any(), any());
+    }
+
+    private static <T> Answer<Call<T>> mockRetrofitRateLimitedCall(final int retryAfterSeconds) {
+        return invocation -> {
+            final Call<T> mockCall = mock(Call.class);
+            when(mockCall.execute()).thenAnswer(blockInvocation -> Response.error(
+                    ResponseBody.create("{}", MediaType.get("application/json")),
+                    new okhttp3.Response.Builder()
+                            .code(429)
+                            .message("Too Many Requests")
+                            .protocol(Protocol.HTTP_1_1)
+                            .request(new Request.Builder().url("http://localhost/").build())
+                            .header("Retry-After", String.valueOf(retryAfterSeconds))
+                            .build()));
+            return mockCall;
+        };
+    }
+
+    private static <T> Answer<Call<T>> mockRetrofitErrorCall(final int code) {
+        return invocation -> {
+            final Call<T> mockCall = mock(Call.class);
+            when(mockCall.execute()).thenAnswer(blockInvocation -> Response.error(code,
+                    ResponseBody.create("{}", MediaType.get("application/json"))));
+            return mockCall;
+        };
+    }
+
+    private static Map<String, Object> level(final int level) {
+        final Map<String, Object> custom = new HashMap<>();
+        custom.put("level", level);
+        return custom;
+    }
+
+    private static List<String> channelIds(final Collection<PNChannelMembership> channelMemberships) {
+        final List<String> ids = new ArrayList<>();
+        for (final PNChannelMembership channelMembership : channelMemberships) {
+            ids.add(channelMembership.getChannel().getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,129 @@
+package com.pubnub.api.endpoints.presence;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.callbacks.HereNowVisitor;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.presence.PNHereNowColumnarResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class StreamingHereNowEndpointTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().port(PORT), false);
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws PubNubException {
+        pubnub = this.createPubNubInstance();
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+        pubnub = null;
+        wireMockRule.stop();
+    }
+
+    @Test
+    public void testMultipleChannelsWithState() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/ch1,ch2"))
+                .willReturn(aResponse().withBody("{\"status\":200,\"message\":\"OK\",\"payload\":{\"channels\":{"
+                        + "\"ch1\":{\"uuids\":[{\"uuid\":\"user1\",\"state\":{\"age\":10,\"tags\":[\"a\",null]}},"
+                        + "{\"uuid\":\"user2\"}],\"occupancy\":2},"
+                        + "\"ch2\":{\"occupancy\":1,\"uuids\":[{\"uuid\":\"user1\",\"state\":{\"age\":10}}]}},"
+                        + "\"total_channels\":2,\"total_occupancy\":3},\"service\":\"Presence\"}")));
+
+        final PNHereNowColumnarResult result = pubnub.streamingHereNow()
+                .channels(Arrays.asList("ch1", "ch2"))
+                .includeState(true)
+                .sync();
+
+        assertEquals(2, result.getTotalChannels());
+        assertEquals(3, result.getTotalOccupancy());
+        assertEquals(2, result.getChannelCount());
+
+        final int ch1 = result.indexOf("ch1");
+        final int ch2 = result.indexOf("ch2");
+        assertEquals(2, result.getOccupancy(ch1));
+        assertEquals(2, result.getOccupantCount(ch1));
+        assertEquals("user1", result.getUuid(ch1, 0));
+        assertEquals(10, result.getState(ch1, 0).getAsJsonObject().get("age").getAsInt());
+        assertEquals(2, result.getState(ch1, 0).getAsJsonObject().get("tags").getAsJsonArray().size());
+        assertNull(result.getState(ch1, 1));
+        assertEquals(1, result.getOccupantCount(ch2));
+        assertSame(result.getUuid(ch1, 0), result.getUuid(ch2, 0));
+        assertEquals(-1, result.indexOf("ch3"));
+    }
+
+    @Test
+    public void testSingleChannel() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/game1"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\", "
+                        + "\"uuids\": [\"a3ffd012\", \"b4ffd012\"], \"occupancy\": 2}")));
+
+        final PNHereNowColumnarResult result = pubnub.streamingHereNow()
+                .channels(Arrays.asList("game1"))
+                .sync();
+
+        assertEquals(1, result.getTotalChannels());
+        assertEquals(2, result.getOccupancy(0));
+        assertEquals("b4ffd012", result.getUuid(0, 1));
+        assertNull(result.getState(0, 0));
+    }
+
+    @Test
+    public void testVisitorReceivesOccupantsWithoutMaterializingThem() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey"))
+                .willReturn(aResponse().withBody("{\"status\":200,\"message\":\"OK\",\"payload\":{\"channels\":{"
+                        + "\"ch1\":{\"uuids\":[\"user1\",\"user2\"],\"occupancy\":2},"
+                        + "\"ch2\":{\"uuids\":[\"user3\"],\"occupancy\":1}},"
+                        + "\"total_channels\":2,\"total_occupancy\":3},\"service\":\"Presence\"}")));
+
+        final List<String> visited = new ArrayList<>();
+        final PNHereNowColumnarResult result = pubnub.streamingHereNow()
+                .visitor(new HereNowVisitor() {
+                    @Override
+                    public void occupant(String channel, String uuid, String state) {
+                        visited.add(channel + ":" + uuid);
+                    }
+
+                    @Override
+                    public void channel(String channel, int occupancy) {
+                        visited.add(channel + "=" + occupancy);
+                    }
+                })
+                .sync();
+
+        assertEquals(Arrays.asList("ch1:user1", "ch1:user2", "ch1=2", "ch2:user3", "ch2=1"), visited);
+        assertEquals(3, result.getTotalOccupancy());
+        assertEquals(0, result.getChannelCount());
+    }
+
+    @Test(expected = PubNubException.class)
+    public void testMalformedResponse() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/game1"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"occupancy\": \"many\"")));
+
+        pubnub.streamingHereNow().channels(Arrays.asList("game1")).sync();
+    }
+}
@@ -0,0 +1,73 @@
+package com.pubnub.api.jfr;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.endpoints.TestHarness;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecorderEventsTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().port(PORT), false);
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws PubNubException {
+        pubnub = this.createPubNubInstance();
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+        wireMockRule.stop();
+    }
+
+    @Test
+    public void testRequestsAreRecorded() throws PubNubException, IOException {
+        assertTrue(FlightRecorderEvents.INSTANCE instanceof JfrEvents);
+        stubFor(get(urlPathEqualTo("/time/0")).willReturn(aResponse().withBody("[14827611897607991]")));
+
+        final Path dump = Files.createTempFile("pubnub", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.pubnub.Request");
+            recording.start();
+            pubnub.time().sync();
+            recording.stop();
+            recording.dump(dump);
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                    .filter(event -> event.getEventType().getName().equals("com.pubnub.Request"))
+                    .collect(Collectors.toList());
+            assertEquals(1, events.size());
+            assertEquals("PNTimeOperation", events.get(0).getString("operation"));
+            assertEquals(200, events.get(0).getInt("statusCode"));
+            assertFalse(events.get(0).getBoolean("async"));
+        } finally {
+            Files.delete(dump);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.UserId;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.managers.token_manager.TokenManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class BaseParamsManagerTest {
+    private PubNub pubnub;
+    private TokenManager tokenManager;
+    private TelemetryManager telemetryManager;
+    private final AtomicLong clock = new AtomicLong();
+    private BaseParamsManager baseParamsManager;
+
+    @Before
+    public void beforeEach() throws PubNubException {
+        final PNConfiguration configuration = new PNConfiguration(new UserId("myUUID"));
+        configuration.setAuthKey("my auth");
+        pubnub = new PubNub(configuration);
+        tokenManager = new TokenManager();
+        telemetryManager = new TelemetryManager(clock::get);
+        baseParamsManager = new BaseParamsManager(pubnub);
+    }
+
+    @After
+    public void afterEach() {
+        telemetryManager.stopCleanUpTimer();
+        pubnub.forceDestroy();
+    }
+
+    @Test
+    public void testTemplateIsReusedUntilItsValuesChange() throws PubNubException {
+        final BaseParamsManager.Template template = baseParamsManager.template(tokenManager, telemetryManager, true);
+        assertEquals("myUUID", template.getParams().get("uuid"));
+        assertEquals("my auth", template.getParams().get("auth"));
+        assertEquals("my%20auth", template.getEncodedAuth());
+        assertEquals("PubNub-Java-Unified/" + pubnub.getVersion(), template.getParams().get("pnsdk"));
+        assertSame(template, baseParamsManager.template(tokenManager, telemetryManager, true));
+
+        tokenManager.setToken("token");
+        final BaseParamsManager.Template withToken = baseParamsManager.template(tokenManager, telemetryManager, true);
+        assertNotSame(template, withToken);
+        assertEquals("token", withToken.getParams().get("auth"));
+
+        pubnub.getConfiguration().setUserId(new UserId("otherUUID"));
+        final BaseParamsManager.Template withUserId = baseParamsManager.template(tokenManager, telemetryManager, true);
+        assertEquals("otherUUID", withUserId.getParams().get("uuid"));
+
+        telemetryManager.storeLatency(120, PNOperationType.PNPublishOperation);
+        clock.addAndGet(1000);
+        final BaseParamsManager.Template withLatency = baseParamsManager.template(tokenManager, telemetryManager, true);
+        assertEquals("0.12", withLatency.getParams().get("l_pub"));
+        assertSame(withLatency, baseParamsManager.template(tokenManager, telemetryManager, true));
+
+        assertFalse(baseParamsManager.template(tokenManager, telemetryManager, false).getParams().containsKey("auth"));
+    }
+
+    @Test
+    public void testLatenciesAreAveraged() {
+        telemetryManager.storeLatency(100, PNOperationType.PNPublishOperation);
+        telemetryManager.storeLatency(200, PNOperationType.PNPublishOperation);
+        telemetryManager.storeLatency(50, PNOperationType.PNSignalOperation);
+        telemetryManager.storeLatency(500, PNOperationType.PNSubscribeOperation);
+        clock.addAndGet(1000);
+
+        assertEquals("0.15", telemetryManager.operationsLatency().get("l_pub"));
+        assertEquals("0.05", telemetryManager.operationsLatency().get("l_sig"));
+        assertEquals(2, telemetryManager.operationsLatency().size());
+        assertSame(telemetryManager.operationsLatency(), telemetryManager.operationsLatency());
+    }
+
+    @Test
+    public void testRequestParamsReadThroughTemplate() {
+        final BaseParamsManager.Template template = baseParamsManager.template(tokenManager, telemetryManager, true);
+        final Map<String, String> params = template.newRequestParams();
+        params.put("tt", "0");
+        params.put("auth", "my%20auth");
+
+        final Map<String, String> expected = new HashMap<>(template.getParams());
+        expected.put("tt", "0");
+        expected.put("auth", "my%20auth");
+        assertEquals(expected, params);
+        assertEquals(expected, new HashMap<>(params));
+        assertEquals(expected.size(), params.size());
+        assertEquals("my auth", template.getParams().get("auth"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.pubnub.api.managers;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import static com.pubnub.api.PubNubUtil.readBytes;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FileCacheManagerTest {
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCachedContentIsServed() throws IOException {
+        final FileCacheManager cache = new FileCacheManager(folder.getRoot().toPath(), 100);
+        final String key = FileCacheManager.key("sub", "ch", "id", "name");
+        assertNull(cache.open(key));
+
+        cache.put(key, CONTENT);
+
+        try (InputStream inputStream = cache.open(key)) {
+            assertArrayEquals(CONTENT, readBytes(inputStream));
+        }
+        assertEquals(CONTENT.length, cache.getSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws IOException {
+        final FileCacheManager cache = new FileCacheManager(folder.getRoot().toPath(), 25);
+        cache.put("a", CONTENT);
+        cache.put("b", CONTENT);
+        cache.open("a").close();
+
+        cache.put("c", CONTENT);
+
+        assertNotNull(cache.open("a"));
+        assertNull(cache.open("b"));
+        assertEquals(20, cache.getSize());
+        assertEquals(2, cachedFiles().length);
+    }
+
+    @Test
+    public void testRemovedEntryStaysReadableUntilClosed() throws IOException {
+        final FileCacheManager cache = new FileCacheManager(folder.getRoot().toPath(), 100);
+        cache.put("a", CONTENT);
+
+        try (InputStream inputStream = cache.open("a")) {
+            cache.remove("a");
+            assertNull(cache.open("a"));
+            assertArrayEquals(CONTENT, readBytes(inputStream));
+        }
+        assertEquals(0, cachedFiles().length);
+    }
+
+    @Test
+    public void testEntriesAreSharedThroughTheDirectory() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        final FileCacheManager reader = new FileCacheManager(directory, 100);
+        assertNull(reader.open("a"));
+
+        new FileCacheManager(directory, 100).put("a", CONTENT);
+
+        try (InputStream inputStream = reader.open("a")) {
+            assertArrayEquals(CONTENT, readBytes(inputStream));
+        }
+    }
+
+    @Test
+    public void testCorruptEntryIsDropped() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        new FileCacheManager(directory, 100).put("a", CONTENT);
+        Files.write(cachedFiles()[0].toPath(), "9876543210".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(new FileCacheManager(directory, 100).open("a"));
+        assertEquals(0, cachedFiles().length);
+    }
+
+    @Test
+    public void testContentLargerThanTheCacheIsNotKept() {
+        final FileCacheManager cache = new FileCacheManager(folder.getRoot().toPath(), 5);
+
+        cache.put("a", CONTENT);
+
+        assertNull(cache.open("a"));
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void testStaleTemporaryFilesAreDeletedOnLoad() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        final Path stale = Files.write(directory.resolve("a-stale.tmp"), CONTENT);
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)));
+        final Path recent = Files.write(directory.resolve("a-recent.tmp"), CONTENT);
+
+        assertEquals(0, new FileCacheManager(directory, 100).getSize());
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(recent));
+    }
+
+    private File[] cachedFiles() {
+        return folder.getRoot().listFiles((dir, name) -> name.endsWith(".file"));
+    }
+}
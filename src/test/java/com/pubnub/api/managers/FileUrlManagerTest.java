@@ -0,0 +1,97 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.UserId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FileUrlManagerTest {
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger built = new AtomicInteger();
+
+    private PubNub pubnub;
+    private FileUrlManager fileUrlManager;
+
+    @Before
+    public void beforeEach() throws PubNubException {
+        final PNConfiguration config = new PNConfiguration(new UserId("uuid"));
+        config.setSubscribeKey("sk");
+        config.setFileUrlCacheValidity(30);
+        pubnub = new PubNub(config);
+        fileUrlManager = new FileUrlManager(pubnub, now::get);
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    @Test
+    public void testEventUrlIsBuiltFromTheFileTemplate() {
+        pubnub.getConfiguration().setAuthKey("ak");
+
+        assertEquals(pubnub.getBaseUrl() + "/v1/files/sk/channels/ch/files/id/name.txt?auth=ak",
+                fileUrlManager.getEventUrl("ch", "id", "name.txt"));
+    }
+
+    @Test
+    public void testSignedEventUrlIsReusedWithinTheValidity() {
+        pubnub.getConfiguration().setSecretKey("secK");
+
+        final String url = fileUrlManager.getEventUrl("ch", "id", "name.txt");
+
+        assertTrue(url.contains("signature="));
+        now.addAndGet(29_999);
+        assertSame(url, fileUrlManager.getEventUrl("ch", "id", "name.txt"));
+    }
+
+    @Test
+    public void testUrlIsBuiltAgainOnceExpired() {
+        requestUrl("ch", null);
+        now.addAndGet(29_999);
+        requestUrl("ch", null);
+        assertEquals(1, built.get());
+
+        now.addAndGet(1);
+        requestUrl("ch", null);
+        assertEquals(2, built.get());
+    }
+
+    @Test
+    public void testUrlsAreKeptPerFileAndAuth() {
+        requestUrl("ch", null);
+        requestUrl("other", null);
+        requestUrl("ch", "ak");
+        assertEquals(3, built.get());
+
+        pubnub.getConfiguration().setAuthKey("ak");
+        assertNotEquals(fileUrlManager.getEventUrl("ch", "id", "name.txt"),
+                fileUrlManager.getEventUrl("other", "id", "name.txt"));
+    }
+
+    @Test
+    public void testUrlsAreNotKeptWithoutValidity() {
+        pubnub.getConfiguration().setFileUrlCacheValidity(0);
+
+        requestUrl("ch", null);
+        requestUrl("ch", null);
+
+        assertEquals(2, built.get());
+    }
+
+    private String requestUrl(String channel, String authKey) {
+        return fileUrlManager.getRequestUrl(channel, "id", "name.txt", authKey,
+                () -> "url" + built.incrementAndGet());
+    }
+}
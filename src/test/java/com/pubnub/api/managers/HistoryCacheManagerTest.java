@@ -0,0 +1,130 @@
+package com.pubnub.api.managers;
+
+import com.google.gson.JsonPrimitive;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.history.PNFetchMessageItem;
+import com.pubnub.api.models.consumer.pubsub.BasePubSubResult;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HistoryCacheManagerTest {
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() {
+        pubnub = mock(PubNub.class);
+        when(pubnub.getSubscribedChannels()).thenReturn(Arrays.asList("ch1", "ch2"));
+    }
+
+    @Test
+    public void testLiveMessagesExtendSubscribedChannel() {
+        final HistoryCacheManager historyCache = new HistoryCacheManager(pubnub, 100);
+        historyCache.status(pubnub, status(PNStatusCategory.PNConnectedCategory));
+
+        historyCache.storeLatest("ch1", items(1000L, 1001L), null, 25, historyCache.begin("ch1"));
+        historyCache.message(pubnub, message("ch1", 1002L));
+
+        assertEquals(Arrays.asList(1001L, 1002L), timetokens(historyCache.read("ch1", null, 2, false)));
+        assertEquals(Arrays.asList(1000L, 1001L, 1002L), timetokens(historyCache.read("ch1", null, 25, false)));
+    }
+
+    @Test
+    public void testDisconnectRequiresFetch() {
+        final HistoryCacheManager historyCache = new HistoryCacheManager(pubnub, 100);
+        historyCache.status(pubnub, status(PNStatusCategory.PNConnectedCategory));
+        historyCache.storeLatest("ch1", items(1000L, 1001L), null, 25, historyCache.begin("ch1"));
+
+        historyCache.status(pubnub, status(PNStatusCategory.PNUnexpectedDisconnectCategory));
+        historyCache.message(pubnub, message("ch1", 1002L));
+
+        assertNull(historyCache.read("ch1", null, 25, false));
+        assertEquals(Long.valueOf(1001L), historyCache.getHead("ch1"));
+    }
+
+    @Test
+    public void testPartialCoverageRequiresFetch() {
+        final HistoryCacheManager historyCache = new HistoryCacheManager(pubnub, 100);
+        historyCache.storeLatest("ch1", items(1000L, 1001L), null, 2, historyCache.begin("ch1"));
+
+        assertEquals(Arrays.asList(1000L, 1001L), timetokens(historyCache.read("ch1", null, 2, true)));
+        assertNull(historyCache.read("ch1", null, 3, true));
+        assertEquals(Arrays.asList(1001L), timetokens(historyCache.read("ch1", 1001L, 3, true)));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedChannelIsEvicted() {
+        final HistoryCacheManager historyCache = new HistoryCacheManager(pubnub, 3);
+        historyCache.storeLatest("ch1", items(1000L, 1001L), null, 25, historyCache.begin("ch1"));
+        historyCache.storeLatest("ch2", items(2000L, 2001L), null, 25, historyCache.begin("ch2"));
+
+        assertNull(historyCache.getHead("ch1"));
+        assertEquals(Long.valueOf(2001L), historyCache.getHead("ch2"));
+    }
+
+    @Test
+    public void testLiveMessagesCarryMessageType() {
+        final HistoryCacheManager historyCache = new HistoryCacheManager(pubnub, 100);
+        historyCache.status(pubnub, status(PNStatusCategory.PNConnectedCategory));
+        historyCache.storeLatest("ch1", items(1000L), null, 25, historyCache.begin("ch1"));
+
+        historyCache.message(pubnub, message("ch1", 1001L));
+
+        assertEquals(PNFetchMessageItem.builder().message(new JsonPrimitive("live")).timetoken(1001L).messageType("0")
+                .build(), historyCache.read("ch1", null, 1, false).get(0));
+    }
+
+    @Test
+    public void testMessagesPublishedWithoutStorageAreNotKept() {
+        final HistoryCacheManager historyCache = new HistoryCacheManager(pubnub, 100);
+        historyCache.status(pubnub, status(PNStatusCategory.PNConnectedCategory));
+        historyCache.storeLatest("ch1", items(1000L), null, 25, historyCache.begin("ch1"));
+
+        // live message before the publish response
+        historyCache.message(pubnub, message("ch1", 1001L));
+        historyCache.notStored("ch1", 1001L);
+        // publish response before the live message
+        historyCache.notStored("ch1", 1002L);
+        historyCache.message(pubnub, message("ch1", 1002L));
+        historyCache.message(pubnub, message("ch1", 1003L));
+
+        assertEquals(Arrays.asList(1000L, 1003L), timetokens(historyCache.read("ch1", null, 25, false)));
+    }
+
+    private static PNStatus status(PNStatusCategory category) {
+        return PNStatus.builder().category(category).build();
+    }
+
+    private static PNMessageResult message(String channel, long timetoken) {
+        return new PNMessageResult(BasePubSubResult.builder().channel(channel).timetoken(timetoken).build(),
+                new JsonPrimitive("live"));
+    }
+
+    private static List<PNFetchMessageItem> items(Long... timetokens) {
+        final List<PNFetchMessageItem> items = new ArrayList<>();
+        for (Long timetoken : timetokens) {
+            items.add(PNFetchMessageItem.builder().message(new JsonPrimitive("fetched")).timetoken(timetoken).build());
+        }
+        return items;
+    }
+
+    private static List<Long> timetokens(List<PNFetchMessageItem> items) {
+        final List<Long> timetokens = new ArrayList<>();
+        for (PNFetchMessageItem item : items) {
+            timetokens.add(item.getTimetoken());
+        }
+        return timetokens;
+    }
+}
@@ -0,0 +1,107 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.UserId;
+import com.pubnub.api.endpoints.TestHarness;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.assertEquals;
+
+public class MultiUserHeartbeatManagerTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().port(PORT), false);
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws PubNubException {
+        pubnub = this.createPubNubInstance();
+        pubnub.getConfiguration().setPresenceTimeoutWithCustomInterval(20, 1);
+        wireMockRule.start();
+        stubFor(get(urlPathEqualTo("/v2/presence/sub-key/mySubscribeKey/channel/ch1/heartbeat"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\"}")));
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+        pubnub = null;
+        wireMockRule.stop();
+    }
+
+    @Test
+    public void testEveryUserHeartbeatsOnItsOwnBehalf() {
+        final MultiUserHeartbeatManager heartbeatManager = pubnub.getMultiUserHeartbeatManager();
+
+        heartbeatManager.setPresence(new UserId("user1"), Collections.singletonList("ch1"),
+                Collections.<String>emptyList(), null);
+        heartbeatManager.setPresence(new UserId("user2"), Collections.singletonList("ch1"),
+                Collections.<String>emptyList(), null);
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> heartbeats("user1") >= 2 && heartbeats("user2") >= 2);
+        assertEquals(0, heartbeats("myUUID"));
+    }
+
+    @Test
+    public void testRemovedUserStopsHeartbeating() throws InterruptedException {
+        final MultiUserHeartbeatManager heartbeatManager = pubnub.getMultiUserHeartbeatManager();
+        heartbeatManager.setPresence(new UserId("user1"), Collections.singletonList("ch1"),
+                Collections.<String>emptyList(), null);
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> heartbeats("user1") >= 1);
+
+        heartbeatManager.removePresence(new UserId("user1"));
+        assertEquals(Collections.emptySet(), heartbeatManager.getUserIds());
+
+        // let a heartbeat already in flight complete
+        Thread.sleep(200);
+        final int sent = heartbeats("user1");
+        Thread.sleep(1500);
+        assertEquals(sent, heartbeats("user1"));
+    }
+
+    @Test
+    public void testIntervalDefaultsToHalfThePresenceTimeout() {
+        pubnub.getConfiguration().setPresenceTimeoutWithCustomInterval(300, 0);
+        final MultiUserHeartbeatManager heartbeatManager = pubnub.getMultiUserHeartbeatManager();
+        assertEquals(149, heartbeatManager.getHeartbeatInterval());
+
+        heartbeatManager.setPresence(new UserId("user1"), Collections.singletonList("ch1"),
+                Collections.<String>emptyList(), null);
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> heartbeats("user1") >= 1);
+
+        for (int sent = 2; sent <= 4; sent++) {
+            final int expected = sent;
+            // every poll skips a whole interval, which is retried when the previous heartbeat was still in flight
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> {
+                for (int i = 0; i < heartbeatManager.getSlotCount(); i++) {
+                    heartbeatManager.heartbeatNextSlot();
+                }
+                return heartbeats("user1") >= expected;
+            });
+        }
+    }
+
+    private static int heartbeats(String uuid) {
+        return findAll(getRequestedFor(urlPathEqualTo("/v2/presence/sub-key/mySubscribeKey/channel/ch1/heartbeat"))
+                .withQueryParam("uuid", equalTo(uuid))).size();
+    }
+}
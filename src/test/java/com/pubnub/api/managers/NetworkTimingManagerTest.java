@@ -0,0 +1,73 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.models.consumer.PNNetworkTimings;
+import com.pubnub.api.models.consumer.PNStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class NetworkTimingManagerTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().port(PORT), false);
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws PubNubException {
+        pubnub = this.createPubNubInstance();
+        wireMockRule.start();
+        stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withBody("[14827611897607991]").withFixedDelay(20)));
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+        wireMockRule.stop();
+    }
+
+    @Test
+    public void testStatusCarriesPhaseTimings() throws Exception {
+        final PNNetworkTimings first = time().getNetworkTimings();
+        assertNotNull(first);
+        assertFalse(first.isConnectionReused());
+        assertTrue(first.getConnectNanos() > 0);
+        assertTrue(first.getWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(first.getTotalNanos() >= first.getConnectNanos() + first.getWaitNanos());
+
+        final PNNetworkTimings second = time().getNetworkTimings();
+        assertNotNull(second);
+        assertTrue(second.isConnectionReused());
+        assertEquals(0, second.getConnectNanos());
+
+        assertEquals(0.5, pubnub.getOperationLatency(PNOperationType.PNTimeOperation).getNewConnectionRate(), 0);
+    }
+
+    private PNStatus time() throws InterruptedException, ExecutionException, TimeoutException {
+        final CompletableFuture<PNStatus> status = new CompletableFuture<>();
+        pubnub.time().async((result, pnStatus) -> status.complete(pnStatus));
+        return status.get(5, TimeUnit.SECONDS);
+    }
+}
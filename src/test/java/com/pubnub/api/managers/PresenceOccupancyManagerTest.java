@@ -0,0 +1,111 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.pubsub.PNPresenceEventResult;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PresenceOccupancyManagerTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().port(PORT), false);
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws PubNubException {
+        pubnub = this.createPubNubInstance();
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+        pubnub = null;
+        wireMockRule.stop();
+    }
+
+    @Test
+    public void testFirstEventReadsHereNowAndLaterEventsAreAppliedLocally() {
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/ch1"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\", "
+                        + "\"uuids\": [\"alice\", \"bob\"], \"occupancy\": 2}")));
+        final PresenceOccupancyManager occupancyManager = new PresenceOccupancyManager(pubnub);
+
+        occupancyManager.presence(pubnub, event("join", "bob", 2));
+        Awaitility.await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> occupancyManager.getOccupancy("ch1"), equalTo(2));
+
+        occupancyManager.presence(pubnub, event("join", "carol", 3));
+        occupancyManager.presence(pubnub, event("leave", "alice", 2));
+        occupancyManager.presence(pubnub, PNPresenceEventResult.builder()
+                .event("interval")
+                .channel("ch1")
+                .occupancy(2)
+                .join(Collections.singletonList("dave"))
+                .timeout(Collections.singletonList("bob"))
+                .hereNowRefresh(false)
+                .build());
+
+        assertEquals(Integer.valueOf(2), occupancyManager.getOccupancy("ch1"));
+        assertEquals(new HashSet<>(Arrays.asList("carol", "dave")), occupancyManager.getOccupants("ch1"));
+        verify(1, getRequestedFor(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/ch1")));
+    }
+
+    @Test
+    public void testMismatchingOccupancyReadsHereNowAgain() {
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/ch1"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\", "
+                        + "\"uuids\": [\"alice\"], \"occupancy\": 1}")));
+        final PresenceOccupancyManager occupancyManager = new PresenceOccupancyManager(pubnub);
+
+        occupancyManager.presence(pubnub, event("join", "alice", 1));
+        Awaitility.await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> occupancyManager.getOccupancy("ch1"), equalTo(1));
+
+        occupancyManager.presence(pubnub, event("join", "bob", 3));
+        Awaitility.await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> occupancyManager.getOccupancy("ch1"), equalTo(1));
+        verify(2, getRequestedFor(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/ch1")));
+    }
+
+    @Test
+    public void testUntrackedChannel() {
+        final PresenceOccupancyManager occupancyManager = new PresenceOccupancyManager(pubnub);
+
+        assertNull(occupancyManager.getOccupancy("ch1"));
+        assertEquals(Collections.emptySet(), occupancyManager.getOccupants("ch1"));
+    }
+
+    private static PNPresenceEventResult event(String action, String uuid, int occupancy) {
+        return PNPresenceEventResult.builder()
+                .event(action)
+                .channel("ch1")
+                .uuid(uuid)
+                .occupancy(occupancy)
+                .hereNowRefresh(false)
+                .build();
+    }
+}
@@ -8,6 +8,7 @@ import com.pubnub.api.builder.dto.PresenceOperation;
 import com.pubnub.api.builder.dto.PubSubOperation;
 import com.pubnub.api.builder.dto.StateOperation;
 import com.pubnub.api.builder.dto.SubscribeOperation;
+import com.pubnub.api.builder.dto.TimetokenAndRegionOperation;
 import com.pubnub.api.managers.StateManager.SubscriptionStateData;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -25,6 +26,8 @@ import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class StateManagerTest {
     final private List<String> channelsToSubscribe = asList("sub1", "sub2");
@@ -171,6 +174,46 @@ public class StateManagerTest {
                 Matchers.equalTo(mapChannelsToState(channelsToSubscribe, state)));
     }
 
+    @Test
+    public void subscribeRequestIsReusedUntilSubscriptionsChange() throws PubNubException {
+        //given
+        StateManager stateManagerUnderTest = new StateManager(config());
+        stateManagerUnderTest.handleOperation(subscribeOperation(channelsToSubscribe));
+        final StateManager.SubscribeRequestSnapshot initial = stateManagerUnderTest
+                .subscriptionStateData(true, StateManager.ChannelFilter.WITHOUT_TEMPORARY_UNAVAILABLE)
+                .getSubscribeRequest();
+
+        //when
+        stateManagerUnderTest.handleOperation(new TimetokenAndRegionOperation(1000L, "1"));
+        final SubscriptionStateData nextLoop = stateManagerUnderTest
+                .subscriptionStateData(true, StateManager.ChannelFilter.WITHOUT_TEMPORARY_UNAVAILABLE);
+
+        //then
+        assertSame(initial, nextLoop.getSubscribeRequest());
+        assertEquals(Long.valueOf(1000L), nextLoop.getTimetoken());
+        assertEquals("1", nextLoop.getRegion());
+
+        //when
+        stateManagerUnderTest.handleOperation(stateOperation(channelsToSubscribe, state));
+        final StateManager.SubscribeRequestSnapshot withState = stateManagerUnderTest
+                .subscriptionStateData(true, StateManager.ChannelFilter.WITHOUT_TEMPORARY_UNAVAILABLE)
+                .getSubscribeRequest();
+
+        //then
+        assertNotSame(initial, withState);
+        assertThat(withState.getStatePayload(), Matchers.equalTo(mapChannelsToState(channelsToSubscribe, state)));
+
+        //when
+        stateManagerUnderTest.handleOperation(subscribeOperation(channelsToTracePresence));
+        final StateManager.SubscribeRequestSnapshot withMoreChannels = stateManagerUnderTest
+                .subscriptionStateData(true, StateManager.ChannelFilter.WITHOUT_TEMPORARY_UNAVAILABLE)
+                .getSubscribeRequest();
+
+        //then
+        assertNotSame(withState, withMoreChannels);
+        assertEquals(4, withMoreChannels.getChannelsPath().split(",").length);
+    }
+
     private Map<String, Object> mapChannelsToState(List<String> channels, Object state) {
         HashMap<String, Object> result = new HashMap<>();
 
@@ -0,0 +1,120 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.UserId;
+import com.pubnub.api.builder.dto.SubscribeOperation;
+import com.pubnub.api.managers.subscription_cursor.SubscriptionCursorStore;
+import com.pubnub.api.models.consumer.pubsub.PNSubscriptionCursor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SubscriptionCursorManagerTest {
+
+    private final List<PNSubscriptionCursor> saved = new ArrayList<>();
+    private StateManager stateManager;
+
+    @Before
+    public void beforeEach() throws PubNubException {
+        stateManager = new StateManager(new PNConfiguration(new UserId("myUserId")));
+        stateManager.handleOperation(SubscribeOperation.builder()
+                .channels(Arrays.asList("ch1", "ch2"))
+                .presenceEnabled(true)
+                .build());
+    }
+
+    @Test
+    public void testCursorIsAcknowledgedOnlyAfterItsMessagesAreDispatched() {
+        final SubscriptionCursorManager cursorManager = new SubscriptionCursorManager(store(), stateManager, 2, 0,
+                Runnable::run);
+
+        cursorManager.responseQueued(3, 1000L, "1");
+        cursorManager.messageDispatched();
+        cursorManager.messageDispatched();
+        assertTrue(saved.isEmpty());
+
+        cursorManager.messageDispatched();
+        assertEquals(1, saved.size());
+        assertEquals(Long.valueOf(1000L), saved.get(0).getTimetoken());
+        assertEquals("1", saved.get(0).getRegion());
+        assertEquals(Arrays.asList("ch1", "ch2"), sorted(saved.get(0).getChannels()));
+        assertEquals(Arrays.asList("ch1", "ch2"), sorted(saved.get(0).getPresenceChannels()));
+    }
+
+    @Test
+    public void testResponsesWithoutCursorOnlyCountMessages() {
+        final SubscriptionCursorManager cursorManager = new SubscriptionCursorManager(store(), stateManager, 1, 0,
+                Runnable::run);
+
+        cursorManager.responseQueued(1, null, "1");
+        cursorManager.responseQueued(1, 2000L, "1");
+        cursorManager.messageDispatched();
+        assertTrue(saved.isEmpty());
+
+        cursorManager.messageDispatched();
+        assertEquals(Long.valueOf(2000L), saved.get(0).getTimetoken());
+    }
+
+    @Test
+    public void testRestoredCursorIsCheckpointedOnDestroy() throws PubNubException {
+        saved.add(PNSubscriptionCursor.builder().timetoken(3000L).region("4").build());
+        final SubscriptionCursorManager cursorManager = new SubscriptionCursorManager(store(), stateManager, 100, 0);
+
+        assertEquals(Long.valueOf(3000L), cursorManager.restore().getTimetoken());
+        assertTrue(cursorManager.hasCursor());
+
+        cursorManager.destroy();
+        assertEquals(2, saved.size());
+        assertEquals(Long.valueOf(3000L), saved.get(1).getTimetoken());
+        assertEquals(Arrays.asList("ch1", "ch2"), sorted(saved.get(1).getChannels()));
+    }
+
+    @Test
+    public void testOnlyTheLatestCursorIsWritten() {
+        final List<Runnable> writes = new ArrayList<>();
+        final SubscriptionCursorManager cursorManager = new SubscriptionCursorManager(store(), stateManager, 1, 0,
+                writes::add);
+
+        cursorManager.responseQueued(1, 1000L, "1");
+        cursorManager.messageDispatched();
+        cursorManager.responseQueued(1, 2000L, "1");
+        cursorManager.messageDispatched();
+        assertTrue(saved.isEmpty());
+        assertEquals(1, writes.size());
+
+        writes.get(0).run();
+        assertEquals(1, saved.size());
+        assertEquals(Long.valueOf(2000L), saved.get(0).getTimetoken());
+    }
+
+    private SubscriptionCursorStore store() {
+        return new SubscriptionCursorStore() {
+            @Override
+            public void save(@NotNull PNSubscriptionCursor cursor) {
+                saved.add(cursor);
+            }
+
+            @Nullable
+            @Override
+            public PNSubscriptionCursor load() {
+                return saved.isEmpty() ? null : saved.get(saved.size() - 1);
+            }
+        };
+    }
+
+    private static List<String> sorted(List<String> list) {
+        final List<String> copy = new ArrayList<>(list);
+        Collections.sort(copy);
+        return copy;
+    }
+}
@@ -37,6 +37,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -3130,4 +3131,136 @@ public class SubscriptionManagerTest extends TestHarness {
         }
         return builder.toString();
     }
+
+    @Test
+    public void testCatchUpMissedMessagesWhenThresholdIsReached() {
+        pubnub.getConfiguration().setCatchUpMissedMessages(true);
+        pubnub.getConfiguration().setRequestMessageCountThreshold(1);
+        final List<Long> timetokens = new CopyOnWriteArrayList<>();
+
+        stubFor(get(urlPathEqualTo("/v2/subscribe/mySubscribeKey/ch1/0"))
+                .withQueryParam("tt", matching("0"))
+                .willReturn(aResponse().withBody("{\"t\":{\"t\":\"1000\",\"r\":1},\"m\":[]}")));
+        stubFor(get(urlPathEqualTo("/v2/subscribe/mySubscribeKey/ch1/0"))
+                .withQueryParam("tt", matching("1000"))
+                .willReturn(aResponse().withBody("{\"t\":{\"t\":\"2000\",\"r\":1},\"m\":[{\"a\":\"4\"," +
+                        "\"f\":0,\"i\":\"Publisher-A\",\"p\":{\"t\":\"1005\",\"r\":1}," +
+                        "\"k\":\"mySubscribeKey\",\"c\":\"ch1\",\"d\":{\"text\":\"live\"},\"b\":\"ch1\"}]}")));
+        stubFor(get(urlPathEqualTo("/v2/subscribe/mySubscribeKey/ch1/0"))
+                .withQueryParam("tt", matching("2000"))
+                .willReturn(aResponse().withFixedDelay(1000)
+                        .withBody("{\"t\":{\"t\":\"2000\",\"r\":1},\"m\":[]}")));
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1"))
+                .withQueryParam("start", matching("2001"))
+                .withQueryParam("end", matching("1001"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"error\": false, \"error_message\": \"\", " +
+                        "\"channels\": {\"ch1\":[{\"message\":{\"text\":\"missed\"},\"timetoken\":\"1002\"}," +
+                        "{\"message\":{\"text\":\"live\"},\"timetoken\":\"1005\"}]}}")));
+
+        pubnub.addListener(new SubscribeCallback.BaseSubscribeCallback() {
+            @Override
+            public void message(@NotNull PubNub pubnub, @NotNull PNMessageResult message) {
+                timetokens.add(message.getTimetoken());
+            }
+        });
+
+        pubnub.subscribe().channels(Collections.singletonList("ch1")).execute();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> timetokens.size() == 2);
+        assertEquals(Arrays.asList(1002L, 1005L), timetokens);
+    }
+
+    @Test
+    public void testCoalescedSubscribeChangesRestartTheLoopOnce() {
+        pubnub.getConfiguration().setSubscriptionChangeCoalescingWindow(300);
+        stubFor(get(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .withQueryParam("tt", matching("0"))
+                .willReturn(aResponse().withBody("{\"t\":{\"t\":\"1000\",\"r\":1},\"m\":[]}")));
+        stubFor(get(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .withQueryParam("tt", matching("1000"))
+                .willReturn(aResponse().withFixedDelay(2000).withBody("{\"t\":{\"t\":\"1000\",\"r\":1},\"m\":[]}")));
+        stubFor(get(urlMatching("/v2/presence/sub-key/mySubscribeKey/channel/.*/leave.*"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\"}")));
+
+        pubnub.subscribe().channels(Collections.singletonList("ch1")).execute();
+        pubnub.subscribe().channels(Collections.singletonList("ch2")).execute();
+        pubnub.subscribe().channels(Collections.singletonList("ch3")).execute();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> findAll(getRequestedFor(
+                urlMatching("/v2/subscribe/mySubscribeKey/.*")).withQueryParam("tt", matching("1000"))).size() == 1);
+        final List<LoggedRequest> handshakes = findAll(getRequestedFor(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .withQueryParam("tt", matching("0")));
+        assertEquals(1, handshakes.size());
+        assertTrue(handshakes.get(0).getUrl().matches("/v2/subscribe/mySubscribeKey/(ch\\d,){2}ch\\d/0.*"));
+
+        pubnub.unsubscribe().channels(Collections.singletonList("ch1")).execute();
+        pubnub.unsubscribe().channels(Collections.singletonList("ch2")).execute();
+        pubnub.subscribe().channels(Collections.singletonList("ch2")).execute();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> findAll(getRequestedFor(
+                urlMatching("/v2/presence/sub-key/mySubscribeKey/channel/.*/leave.*"))).size() == 1);
+        assertEquals(1, findAll(getRequestedFor(
+                urlMatching("/v2/presence/sub-key/mySubscribeKey/channel/ch1/leave.*"))).size());
+        assertEquals(Arrays.asList("ch2", "ch3"), sorted(pubnub.getSubscribedChannels()));
+    }
+
+    @Test
+    public void testCoalescedSubscribeAndUnsubscribeCancelOut() throws InterruptedException {
+        pubnub.getConfiguration().setSubscriptionChangeCoalescingWindow(300);
+        stubFor(get(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .withQueryParam("tt", matching("0"))
+                .willReturn(aResponse().withBody("{\"t\":{\"t\":\"1000\",\"r\":1},\"m\":[]}")));
+        stubFor(get(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .withQueryParam("tt", matching("1000"))
+                .willReturn(aResponse().withFixedDelay(2000).withBody("{\"t\":{\"t\":\"1000\",\"r\":1},\"m\":[]}")));
+        stubFor(get(urlMatching("/v2/presence/sub-key/mySubscribeKey/channel/.*/leave.*"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\"}")));
+
+        pubnub.subscribe().channels(Arrays.asList("ch1", "ch2")).execute();
+        pubnub.unsubscribe().channels(Collections.singletonList("ch1")).execute();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> findAll(getRequestedFor(
+                urlMatching("/v2/subscribe/mySubscribeKey/.*")).withQueryParam("tt", matching("1000"))).size() == 1);
+        final List<LoggedRequest> handshakes = findAll(getRequestedFor(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .withQueryParam("tt", matching("0")));
+        assertEquals(1, handshakes.size());
+        assertTrue(handshakes.get(0).getUrl().startsWith("/v2/subscribe/mySubscribeKey/ch2/0"));
+        assertEquals(Collections.singletonList("ch2"), pubnub.getSubscribedChannels());
+
+        Thread.sleep(500);
+        assertEquals(0, findAll(getRequestedFor(
+                urlMatching("/v2/presence/sub-key/mySubscribeKey/channel/.*/leave.*"))).size());
+    }
+
+    @Test
+    public void testUnsubscribeAllCancelsCoalescedSubscribes() {
+        pubnub.getConfiguration().setSubscriptionChangeCoalescingWindow(300);
+        stubFor(get(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .withQueryParam("tt", matching("0"))
+                .willReturn(aResponse().withBody("{\"t\":{\"t\":\"1000\",\"r\":1},\"m\":[]}")));
+        stubFor(get(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .withQueryParam("tt", matching("1000"))
+                .willReturn(aResponse().withFixedDelay(2000).withBody("{\"t\":{\"t\":\"1000\",\"r\":1},\"m\":[]}")));
+        stubFor(get(urlMatching("/v2/presence/sub-key/mySubscribeKey/channel/.*/leave.*"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\"}")));
+
+        pubnub.subscribe().channels(Collections.singletonList("ch1")).execute();
+        Awaitility.await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> pubnub.getSubscribedChannels().equals(Collections.singletonList("ch1")));
+
+        pubnub.subscribe().channels(Collections.singletonList("ch2")).execute();
+        pubnub.unsubscribeAll();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> findAll(getRequestedFor(
+                urlMatching("/v2/presence/sub-key/mySubscribeKey/channel/.*/leave.*"))).size() == 1);
+        assertEquals(1, findAll(getRequestedFor(
+                urlMatching("/v2/presence/sub-key/mySubscribeKey/channel/ch1/leave.*"))).size());
+        assertEquals(Collections.emptyList(), pubnub.getSubscribedChannels());
+    }
+
+    private static List<String> sorted(List<String> list) {
+        final List<String> copy = new ArrayList<>(list);
+        Collections.sort(copy);
+        return copy;
+    }
 }
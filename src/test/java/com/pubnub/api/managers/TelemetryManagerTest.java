@@ -0,0 +1,67 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.models.consumer.PNOperationLatency;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TelemetryManagerTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final TelemetryManager telemetryManager = new TelemetryManager(clock::get);
+
+    @Test
+    public void testPercentilesAndErrorRate() {
+        for (int latency = 1; latency <= 1000; latency++) {
+            telemetryManager.storeLatency(latency, PNOperationType.PNPublishOperation);
+        }
+        telemetryManager.storeError(PNOperationType.PNPublishOperation);
+
+        final PNOperationLatency latency = telemetryManager.getOperationLatency(PNOperationType.PNPublishOperation);
+        assertEquals(1000, latency.getCount());
+        assertEquals(1, latency.getErrorCount());
+        assertEquals(1.0 / 1001, latency.getErrorRate(), 1e-9);
+        assertEquals(500.5, latency.getAverage(), 1e-9);
+        assertWithin(500, latency.getP50());
+        assertWithin(950, latency.getP95());
+        assertWithin(990, latency.getP99());
+        assertEquals(1000, latency.getMax());
+    }
+
+    @Test
+    public void testLatenciesLeaveTheWindow() {
+        telemetryManager.storeLatency(100, PNOperationType.PNSignalOperation);
+        clock.addAndGet(30_000);
+        telemetryManager.storeLatency(300, PNOperationType.PNSignalOperation);
+        assertEquals(2, telemetryManager.getOperationLatency(PNOperationType.PNSignalOperation).getCount());
+
+        clock.addAndGet(40_000);
+        final PNOperationLatency latency = telemetryManager.getOperationLatency(PNOperationType.PNSignalOperation);
+        assertEquals(1, latency.getCount());
+        assertEquals(300, latency.getMax());
+        assertEquals("0.3", telemetryManager.operationsLatency().get("l_sig"));
+
+        clock.addAndGet(60_000);
+        assertEquals(0, telemetryManager.getOperationLatency(PNOperationType.PNSignalOperation).getCount());
+        assertTrue(telemetryManager.operationsLatency().isEmpty());
+    }
+
+    @Test
+    public void testBucketsCoverTheirLatencies() {
+        for (long latency = 0; latency < 100_000; latency++) {
+            final int index = TelemetryManager.bucketIndex(latency);
+            assertTrue(latency <= TelemetryManager.bucketUpperBound(index));
+            if (index > 0) {
+                assertTrue(latency > TelemetryManager.bucketUpperBound(index - 1));
+            }
+        }
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual + " not within 12.5% of " + expected,
+                actual >= expected && actual <= expected + expected / 8);
+    }
+}
@@ -0,0 +1,59 @@
+package com.pubnub.api.managers.subscription_cursor;
+
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.models.consumer.pubsub.PNSubscriptionCursor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class FileSubscriptionCursorStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSavedCursorIsLoaded() throws Exception {
+        final Path path = folder.getRoot().toPath().resolve("cursor.json");
+        final FileSubscriptionCursorStore store = new FileSubscriptionCursorStore(path);
+        final PNSubscriptionCursor first = cursor(15000000000000000L);
+        final PNSubscriptionCursor second = cursor(15000000000000001L);
+
+        store.save(first);
+        store.save(second);
+
+        assertEquals(second, new FileSubscriptionCursorStore(path).load());
+        assertFalse(Files.exists(path.resolveSibling("cursor.json.tmp")));
+    }
+
+    @Test
+    public void testMissingFileLoadsNothing() throws PubNubException {
+        assertNull(new FileSubscriptionCursorStore(folder.getRoot().toPath().resolve("cursor.json")).load());
+    }
+
+    @Test(expected = PubNubException.class)
+    public void testCorruptFileFails() throws Exception {
+        final Path path = folder.getRoot().toPath().resolve("cursor.json");
+        Files.write(path, "{\"timetoken\":".getBytes("UTF-8"));
+
+        new FileSubscriptionCursorStore(path).load();
+    }
+
+    private static PNSubscriptionCursor cursor(long timetoken) {
+        return PNSubscriptionCursor.builder()
+                .timetoken(timetoken)
+                .region("12")
+                .channels(Arrays.asList("ch1", "ch2"))
+                .channelGroups(Collections.singletonList("cg1"))
+                .presenceChannels(Collections.singletonList("ch1"))
+                .build();
+    }
+}
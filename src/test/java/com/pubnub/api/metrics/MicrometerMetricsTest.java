@@ -0,0 +1,95 @@
+package com.pubnub.api.metrics;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.UserId;
+import com.pubnub.api.metrics.micrometer.MicrometerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MicrometerMetricsTest {
+    private static final int PORT = 8080;
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().port(PORT), false);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws PubNubException {
+        final PNConfiguration configuration = new PNConfiguration(new UserId("myUUID"));
+        configuration.setOrigin("localhost:" + PORT);
+        configuration.setSecure(false);
+        configuration.setSubscribeKey("mySubscribeKey");
+        configuration.setPublishKey("myPublishKey");
+        configuration.setMetrics(new MicrometerMetrics(registry));
+        pubnub = new PubNub(configuration);
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.forceDestroy();
+        wireMockRule.stop();
+    }
+
+    @Test
+    public void testRequestsAreMeasured() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/time/0")).willReturn(aResponse().withBody("[14827611897607991]")));
+        stubFor(get(urlPathEqualTo("/publish/myPublishKey/mySubscribeKey/0/coolChannel/0/%22hi%22"))
+                .willReturn(aResponse().withStatus(400).withBody("[0,\"Invalid\",\"0\"]")));
+
+        pubnub.time().sync();
+        try {
+            pubnub.publish().channel("coolChannel").message("hi").sync();
+            fail();
+        } catch (PubNubException expected) {
+            // measured below
+        }
+
+        final Timer time = registry.find(PNMetricNames.REQUESTS)
+                .tags(PNMetricNames.TAG_OPERATION, "PNTimeOperation",
+                        PNMetricNames.TAG_OUTCOME, PNMetricNames.OUTCOME_SUCCESS)
+                .timer();
+        assertNotNull(time);
+        assertEquals(1, time.count());
+
+        final Counter errors = registry.find(PNMetricNames.REQUEST_ERRORS)
+                .tags(PNMetricNames.TAG_OPERATION, "PNPublishOperation",
+                        PNMetricNames.TAG_CATEGORY, "PNBadRequestCategory")
+                .counter();
+        assertNotNull(errors);
+        assertEquals(1, errors.count(), 0);
+
+        final Counter received = registry.find(PNMetricNames.BYTES_RECEIVED)
+                .tags(PNMetricNames.TAG_CLIENT, "subscription")
+                .counter();
+        assertNotNull(received);
+        assertEquals("[14827611897607991]".length(), received.count(), 0);
+    }
+
+    @Test
+    public void testSubscribeQueueIsObserved() {
+        assertNotNull(registry.find(PNMetricNames.SUBSCRIBE_QUEUE_SIZE).gauge());
+        assertEquals(0, registry.find(PNMetricNames.SUBSCRIBE_QUEUE_SIZE).gauge().value(), 0);
+        assertTrue(registry.find(PNMetricNames.REQUESTS).timers().isEmpty());
+    }
+}
@@ -0,0 +1,111 @@
+package com.pubnub.api.services.direct;
+
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.PubNubUtil;
+import com.pubnub.api.UserId;
+import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.services.PresenceService;
+import com.pubnub.api.services.PublishService;
+import com.pubnub.api.services.SignalService;
+import com.pubnub.api.services.SubscribeService;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.Before;
+import org.junit.Test;
+import retrofit2.Retrofit;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DirectServicesTest {
+    private static final List<String> CHANNELS = Arrays.asList("ch1", "ch1,ch2", ",", "ch 1", "a/b", "100%",
+            "what?#", "zażółć", "emoji😀", "~-_.:@!$&'()*+;=");
+
+    private Retrofit retrofit;
+    private Map<String, String> params;
+
+    @Before
+    public void beforeEach() {
+        retrofit = new Retrofit.Builder()
+                .baseUrl("https://ps.pndsn.com")
+                .client(new OkHttpClient())
+                .addConverterFactory(new MapperManager().getConverterFactory())
+                .build();
+        params = new LinkedHashMap<>();
+        params.put("pnsdk", "PubNub-Java-Unified/6.3.4");
+        params.put("uuid", "my uuid");
+        params.put("auth", "a%2Fb");
+        params.put("filter-expr", "a%20%3D%3D%20b");
+        params.put("tt", "0");
+    }
+
+    @Test
+    public void testSubscribeRequestsMatchRetrofit() {
+        final SubscribeService expected = retrofit.create(SubscribeService.class);
+        final SubscribeService actual = new DirectSubscribeService(retrofit, null);
+
+        for (String channel : CHANNELS) {
+            assertEquals(expected.subscribe("sub-key", channel, params).request().url(),
+                    actual.subscribe("sub-key", channel, params).request().url());
+        }
+    }
+
+    @Test
+    public void testPublishAndSignalRequestsMatchRetrofit() {
+        final PublishService expectedPublish = retrofit.create(PublishService.class);
+        final PublishService actualPublish = new DirectPublishService(retrofit, null, expectedPublish);
+        final SignalService expectedSignal = retrofit.create(SignalService.class);
+        final SignalService actualSignal = new DirectSignalService(retrofit, null);
+        final String message = "%7B%22text%22%3A%22hi%20there%22%7D";
+
+        for (String channel : CHANNELS) {
+            assertEquals(expectedPublish.publish("pub-key", "sub-key", channel, message, params).request().url(),
+                    actualPublish.publish("pub-key", "sub-key", channel, message, params).request().url());
+            assertEquals(expectedSignal.signal("pub-key", "sub-key", channel, message, params).request().url(),
+                    actualSignal.signal("pub-key", "sub-key", channel, message, params).request().url());
+        }
+    }
+
+    @Test
+    public void testHeartbeatRequestsMatchRetrofit() {
+        final PresenceService expected = retrofit.create(PresenceService.class);
+        final PresenceService actual = new DirectPresenceService(retrofit, null, expected);
+
+        for (String channel : CHANNELS) {
+            assertEquals(expected.heartbeat("sub-key", channel, params).request().url(),
+                    actual.heartbeat("sub-key", channel, params).request().url());
+        }
+    }
+
+    @Test
+    public void testSignedRequestsMatchInterceptor() throws PubNubException {
+        final PNConfiguration configuration = new PNConfiguration(new UserId("my uuid"));
+        configuration.setSecretKey("secret");
+        final PubNub pubnub = mock(PubNub.class);
+        when(pubnub.getConfiguration()).thenReturn(configuration);
+        when(pubnub.getTimestamp()).thenReturn(1234567890);
+        final SubscribeService expected = retrofit.create(SubscribeService.class);
+        final SubscribeService actual = new DirectSubscribeService(retrofit, pubnub);
+
+        for (String channel : CHANNELS) {
+            final Request signed = actual.subscribe("sub-key", channel, params).request();
+            assertEquals(PubNubUtil.signRequest(expected.subscribe("sub-key", channel, params).request(),
+                    configuration, 1234567890).url(), signed.url());
+            assertSame(signed, PubNubUtil.signRequest(signed, configuration, 1234567890));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPathTraversalIsRejected() {
+        new DirectSubscribeService(retrofit, null).subscribe("sub-key", "..", params);
+    }
+}